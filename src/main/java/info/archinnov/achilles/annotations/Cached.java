@@ -0,0 +1,27 @@
+package info.archinnov.achilles.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cached
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface Cached
+{
+	/**
+	 * <p>
+	 * Cached entity. The eager columns read by find() are kept in the entity cache shared by all
+	 * the entity managers of the factory, until they expire or the entity is persisted, merged or
+	 * removed
+	 * </p>
+	 */
+}
@@ -0,0 +1,28 @@
+package info.archinnov.achilles.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Chunked
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Documented
+public @interface Chunked
+{
+	/**
+	 * <p>
+	 * Chunked simple property. The values whose stored text is longer than this number of
+	 * characters are split across several columns, which can be read and written as a stream
+	 * with the entity manager. Cannot be combined with @Compressed
+	 * </p>
+	 */
+	int size() default 65536;
+}
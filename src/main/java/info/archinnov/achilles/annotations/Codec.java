@@ -0,0 +1,34 @@
+package info.archinnov.achilles.annotations;
+
+import info.archinnov.achilles.codec.ValueCodec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Codec
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(
+{
+		ElementType.TYPE,
+		ElementType.FIELD
+})
+@Documented
+public @interface Codec
+{
+	/**
+	 * <p>
+	 * Codec encoding the values stored in the columns, for all the properties of an entity or for
+	 * a single property. A property codec overrides the entity codec. The default codec stores
+	 * values as JSON
+	 * </p>
+	 */
+	Class<? extends ValueCodec> value();
+}
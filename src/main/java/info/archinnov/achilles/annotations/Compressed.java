@@ -0,0 +1,28 @@
+package info.archinnov.achilles.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Compressed
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Documented
+public @interface Compressed
+{
+	/**
+	 * <p>
+	 * Compressed property. The values whose stored text is at least this number of characters
+	 * long are compressed. Overrides the "achilles.compression.threshold" parameter of the entity
+	 * manager factory
+	 * </p>
+	 */
+	int threshold() default 1024;
+}
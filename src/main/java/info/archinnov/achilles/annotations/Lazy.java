@@ -21,5 +21,11 @@ public @interface Lazy
 	 * <p>
 	 * Lazy property. The property will be loaded at the first access, cached and returned on subsequent invocation
 	 * </p>
+	 * 
+	 * <p>
+	 * Fetch group of the property. All the lazy properties of the same group are loaded together
+	 * with a single query at the first access to any of them
+	 * </p>
 	 */
+	String group() default "";
 }
@@ -0,0 +1,34 @@
+package info.archinnov.achilles.codec;
+
+import java.io.IOException;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * JsonValueCodec
+ * 
+ * Default codec, storing values as JSON with the ObjectMapper of the entity
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class JsonValueCodec implements ValueCodec
+{
+	private final ObjectMapper objectMapper;
+
+	public JsonValueCodec(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public String encode(Object value) throws IOException
+	{
+		return objectMapper.writeValueAsString(value);
+	}
+
+	@Override
+	public <T> T decode(String text, Class<T> valueClass) throws IOException
+	{
+		return objectMapper.readValue(text, valueClass);
+	}
+}
@@ -0,0 +1,143 @@
+package info.archinnov.achilles.codec;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.UUID;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * NativeValueCodec
+ * 
+ * Codec storing numbers, booleans, characters, dates, UUIDs and enums in their plain text form,
+ * 
+ * without going through Jackson. Dates are stored as milliseconds and enums by name. Other types
+ * 
+ * are stored as JSON
+ * 
+ * Columns written by the JSON codec are still read: quoted values and the null literal are decoded
+ * 
+ * as JSON
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class NativeValueCodec implements ValueCodec
+{
+	private static final String NULL_LITERAL = "null";
+
+	private final JsonValueCodec jsonCodec;
+
+	public NativeValueCodec(ObjectMapper objectMapper) {
+		this.jsonCodec = new JsonValueCodec(objectMapper);
+	}
+
+	@Override
+	public String encode(Object value) throws IOException
+	{
+		if (value == null || !isNativeType(value.getClass()))
+		{
+			return jsonCodec.encode(value);
+		}
+		else if (value instanceof Date)
+		{
+			return Long.toString(((Date) value).getTime());
+		}
+		else if (value instanceof Enum)
+		{
+			return ((Enum<?>) value).name();
+		}
+		else
+		{
+			return value.toString();
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T decode(String text, Class<T> valueClass) throws IOException
+	{
+		if (text == null || valueClass == String.class)
+		{
+			return (T) text;
+		}
+		else if (!isNativeType(valueClass) || isJson(text))
+		{
+			return jsonCodec.decode(text, valueClass);
+		}
+		else
+		{
+			return (T) decodeNative(text, valueClass);
+		}
+	}
+
+	private boolean isJson(String text)
+	{
+		return NULL_LITERAL.equals(text)
+				|| (text.length() > 1 && text.startsWith("\"") && text.endsWith("\""));
+	}
+
+	@SuppressWarnings(
+	{
+			"unchecked",
+			"rawtypes"
+	})
+	private Object decodeNative(String text, Class<?> valueClass)
+	{
+		if (valueClass == Long.class || valueClass == long.class)
+		{
+			return Long.valueOf(text);
+		}
+		else if (valueClass == Integer.class || valueClass == int.class)
+		{
+			return Integer.valueOf(text);
+		}
+		else if (valueClass == Short.class || valueClass == short.class)
+		{
+			return Short.valueOf(text);
+		}
+		else if (valueClass == Double.class || valueClass == double.class)
+		{
+			return Double.valueOf(text);
+		}
+		else if (valueClass == Float.class || valueClass == float.class)
+		{
+			return Float.valueOf(text);
+		}
+		else if (valueClass == Boolean.class || valueClass == boolean.class)
+		{
+			return Boolean.valueOf(text);
+		}
+		else if (valueClass == BigInteger.class)
+		{
+			return new BigInteger(text);
+		}
+		else if (valueClass == Character.class)
+		{
+			return text.charAt(0);
+		}
+		else if (valueClass == UUID.class)
+		{
+			return UUID.fromString(text);
+		}
+		else if (valueClass == Date.class)
+		{
+			return new Date(Long.parseLong(text));
+		}
+		else
+		{
+			return Enum.valueOf((Class<Enum>) valueClass, text);
+		}
+	}
+
+	private boolean isNativeType(Class<?> type)
+	{
+		return type == Long.class || type == long.class || type == Integer.class
+				|| type == int.class || type == Short.class || type == short.class
+				|| type == Double.class || type == double.class || type == Float.class
+				|| type == float.class || type == Boolean.class || type == boolean.class
+				|| type == BigInteger.class || type == Character.class || type == UUID.class
+				|| type == Date.class || type == String.class || type.isEnum();
+	}
+}
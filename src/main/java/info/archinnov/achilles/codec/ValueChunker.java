@@ -0,0 +1,92 @@
+package info.archinnov.achilles.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ValueChunker
+ * 
+ * Split of the text stored for a property into chunks of a maximum size, in characters.
+ * 
+ * The chunks are stored in sequential columns under the property name and a generation unique to
+ * 
+ * each write, while the column of the property holds a header character followed by the
+ * 
+ * generation and the number of chunks. The column of the property is written last, so that the
+ * 
+ * chunks of a new generation never mix with the chunks of the value being replaced. Texts short
+ * 
+ * enough are stored whole in the column of the property after the generation and a chunk count
+ * 
+ * of 0, so that every write carries the generation older chunks are compared to
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ValueChunker
+{
+	public static final char HEADER = '\u0001';
+	private static final char SEPARATOR = ':';
+
+	private final int chunkSize;
+
+	public ValueChunker(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public boolean isSplit(String text)
+	{
+		return text != null && text.length() > chunkSize;
+	}
+
+	public List<String> split(String text)
+	{
+		List<String> chunks = new ArrayList<String>();
+		for (int start = 0; start < text.length(); start += chunkSize)
+		{
+			chunks.add(text.substring(start, Math.min(start + chunkSize, text.length())));
+		}
+		return chunks;
+	}
+
+	public int getChunkSize()
+	{
+		return chunkSize;
+	}
+
+	public static String chunkHead(long generation, int count)
+	{
+		return HEADER + Long.toString(generation) + SEPARATOR + Integer.toString(count);
+	}
+
+	public static String wholeHead(long generation, String text)
+	{
+		return chunkHead(generation, 0) + SEPARATOR + text;
+	}
+
+	public static boolean isChunkHead(String text)
+	{
+		return text != null && text.length() > 0 && text.charAt(0) == HEADER;
+	}
+
+	public static long parseGeneration(String text)
+	{
+		return Long.parseLong(text.substring(1, text.indexOf(SEPARATOR)));
+	}
+
+	public static int parseChunkCount(String text)
+	{
+		int start = text.indexOf(SEPARATOR) + 1;
+		int end = text.indexOf(SEPARATOR, start);
+		return Integer.parseInt(end == -1 ? text.substring(start) : text.substring(start, end));
+	}
+
+	/**
+	 * Text stored whole in a head with a chunk count of 0, empty when the head holds none
+	 */
+	public static String parseWholeText(String text)
+	{
+		int end = text.indexOf(SEPARATOR, text.indexOf(SEPARATOR) + 1);
+		return end == -1 ? "" : text.substring(end + 1);
+	}
+}
@@ -0,0 +1,24 @@
+package info.archinnov.achilles.codec;
+
+import java.io.IOException;
+
+/**
+ * ValueCodec
+ * 
+ * Encoding of property values into the text stored in the columns of the entity column families
+ * 
+ * Implementations are selected with the @Codec annotation on the entity class or on a property.
+ * 
+ * They need a public constructor taking the Jackson ObjectMapper of the entity, or a public no-arg
+ * 
+ * constructor
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public interface ValueCodec
+{
+	public String encode(Object value) throws IOException;
+
+	public <T> T decode(String text, Class<T> valueClass) throws IOException;
+}
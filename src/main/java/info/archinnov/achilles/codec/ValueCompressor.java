@@ -0,0 +1,80 @@
+package info.archinnov.achilles.codec;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.ning.compress.lzf.LZFDecoder;
+import com.ning.compress.lzf.LZFEncoder;
+
+/**
+ * ValueCompressor
+ * 
+ * Compression of the text stored in a column once it reaches a threshold, in characters.
+ * 
+ * The text is compressed with LZF and stored in Base64 behind a multi-character header, so that
+ * 
+ * compressed and uncompressed values can coexist in the same column family.
+ * 
+ * A value is left uncompressed when compressing it does not make it shorter. Only the properties
+ * 
+ * with a compressor look for the header when reading, the others return the text unchanged
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ValueCompressor
+{
+	public static final String HEADER = "\u0000LZF\u0000";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+	private final int threshold;
+
+	public ValueCompressor(int threshold) {
+		this.threshold = threshold;
+	}
+
+	public String compress(String text) throws IOException
+	{
+		if (text == null || text.length() < threshold)
+		{
+			return text;
+		}
+
+		byte[] compressed = Base64.encodeBase64(LZFEncoder.encode(text.getBytes(UTF_8)));
+		if (compressed.length + HEADER.length() >= text.length())
+		{
+			return text;
+		}
+		return HEADER + new String(compressed, US_ASCII);
+	}
+
+	/**
+	 * Decompress a value written by any compressor, or return it unchanged if it does not start with
+	 * 
+	 * the header
+	 */
+	public static String decompress(String text) throws IOException
+	{
+		if (!isCompressed(text))
+		{
+			return text;
+		}
+
+		byte[] compressed = Base64.decodeBase64(text.substring(HEADER.length()).getBytes(US_ASCII));
+		return new String(LZFDecoder.decode(compressed), UTF_8);
+	}
+
+	public static boolean isCompressed(String text)
+	{
+		return text != null && text.startsWith(HEADER);
+	}
+
+	public int getThreshold()
+	{
+		return threshold;
+	}
+}
@@ -2,8 +2,12 @@ package info.archinnov.achilles.composite.factory;
 
 import static info.archinnov.achilles.serializer.SerializerUtils.BYTE_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.INT_SRZ;
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
 import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.EQUAL;
+import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.GREATER_THAN_EQUAL;
+import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.LESS_THAN_EQUAL;
+import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.MultiKeyProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
@@ -64,6 +68,47 @@ public class DynamicCompositeKeyFactory
 		return composite;
 	}
 
+	/**
+	 * Name of a chunk of a chunked property, sorted by generation then by index
+	 */
+	public <K, V> DynamicComposite createForChunk(PropertyMeta<K, V> propertyMeta,
+			long generation, int index)
+	{
+		log.trace("Creating dynamic composite for chunk {} of propertyMeta {}", index,
+				propertyMeta.getPropertyName());
+
+		DynamicComposite composite = new DynamicComposite();
+		composite.setComponent(0, propertyMeta.type().flag(), BYTE_SRZ, BYTE_SRZ
+				.getComparatorType().getTypeName());
+		composite.setComponent(1, propertyMeta.getPropertyName(), STRING_SRZ, STRING_SRZ
+				.getComparatorType().getTypeName());
+		composite.setComponent(2, generation, LONG_SRZ, LONG_SRZ.getComparatorType()
+				.getTypeName());
+		composite.setComponent(3, index, INT_SRZ, INT_SRZ.getComparatorType().getTypeName());
+		return composite;
+	}
+
+	/**
+	 * Start and end composites of the chunks of a chunked property whose generation is older than
+	 * 
+	 * the given one. The column of the property itself is excluded
+	 */
+	public <K, V> Pair<DynamicComposite, DynamicComposite> createBoundsForOlderChunks(
+			PropertyMeta<K, V> propertyMeta, long generation)
+	{
+		log.trace("Creating bounds for the chunks of propertyMeta {} older than generation {}",
+				propertyMeta.getPropertyName(), generation);
+
+		DynamicComposite start = createBaseForQuery(propertyMeta, EQUAL);
+		start.addComponent(2, Long.MIN_VALUE, LONG_SRZ, LONG_SRZ.getComparatorType()
+				.getTypeName(), EQUAL);
+		DynamicComposite end = createBaseForQuery(propertyMeta, EQUAL);
+		end.addComponent(2, generation, LONG_SRZ, LONG_SRZ.getComparatorType().getTypeName(),
+				LESS_THAN_EQUAL);
+
+		return new Pair<DynamicComposite, DynamicComposite>(start, end);
+	}
+
 	@SuppressWarnings("unchecked")
 	public <K, V, T> DynamicComposite createForInsert(PropertyMeta<K, V> propertyMeta, T key)
 	{
@@ -133,6 +178,32 @@ public class DynamicCompositeKeyFactory
 		return composite;
 	}
 
+	/**
+	 * Start and end composites of a query for all the columns of the property. They are built and
+	 * 
+	 * serialized once, then shared by all the reads of the property. They must not be modified
+	 */
+	public <K, V> Pair<DynamicComposite, DynamicComposite> createBoundsForQuery(
+			PropertyMeta<K, V> propertyMeta)
+	{
+		Pair<DynamicComposite, DynamicComposite> bounds = propertyMeta.getQueryBounds();
+		if (bounds == null)
+		{
+			log.trace("Creating query bounds for propertyMeta {}", propertyMeta.getPropertyName());
+
+			DynamicComposite start = createBaseForQuery(propertyMeta, EQUAL);
+			DynamicComposite end = createBaseForQuery(propertyMeta, GREATER_THAN_EQUAL);
+
+			// Serialized here so that the cached buffers are published along with the composites
+			start.serialize();
+			end.serialize();
+
+			bounds = new Pair<DynamicComposite, DynamicComposite>(start, end);
+			propertyMeta.setQueryBounds(bounds);
+		}
+		return bounds;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <K, V, T> DynamicComposite createForQuery(PropertyMeta<K, V> propertyMeta, T value,
 			ComponentEquality equality)
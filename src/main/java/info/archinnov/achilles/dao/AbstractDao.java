@@ -1,23 +1,37 @@
 package info.archinnov.achilles.dao;
 
+import static info.archinnov.achilles.serializer.SerializerUtils.BYTE_BUFFER_SRZ;
 import static me.prettyprint.hector.api.factory.HFactory.createCounterSliceQuery;
 import static me.prettyprint.hector.api.factory.HFactory.createSliceQuery;
+import info.archinnov.achilles.dao.TokenRangeScanner.KeyBatchHandler;
+import info.archinnov.achilles.dao.TokenRangeScanner.ScanProgressListener;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.exception.MutationBatchException;
 import info.archinnov.achilles.iterator.AchillesCounterSliceIterator;
 import info.archinnov.achilles.iterator.AchillesJoinSliceIterator;
 import info.archinnov.achilles.iterator.AchillesSliceIterator;
+import info.archinnov.achilles.iterator.AdaptivePagingPolicy;
 import info.archinnov.achilles.validation.Validator;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import me.prettyprint.cassandra.model.thrift.ThriftCounterColumnQuery;
-import me.prettyprint.cassandra.service.KeyIterator;
+import me.prettyprint.hector.api.HConsistencyLevel;
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.Serializer;
 import me.prettyprint.hector.api.beans.AbstractComposite;
 import me.prettyprint.hector.api.beans.HColumn;
 import me.prettyprint.hector.api.beans.HCounterColumn;
+import me.prettyprint.hector.api.beans.Row;
 import me.prettyprint.hector.api.beans.Rows;
 import me.prettyprint.hector.api.factory.HFactory;
 import me.prettyprint.hector.api.mutation.Mutator;
@@ -26,7 +40,6 @@ import me.prettyprint.hector.api.query.SliceCounterQuery;
 import me.prettyprint.hector.api.query.SliceQuery;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Lists;
 
 /**
  * AbstractDao
@@ -43,26 +56,17 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 	protected Serializer<V> valueSerializer;
 	protected String columnFamily;
 	protected AchillesConfigurableConsistencyLevelPolicy policy;
+	protected ConsistencyLevelKeyspaces keyspaces;
+	protected HConsistencyLevel readLevel;
+	protected HConsistencyLevel writeLevel;
+	protected ExecutorService executor;
+	protected AdaptivePagingPolicy pagingPolicy;
+	protected MutationBatchingPolicy batchingPolicy;
+	protected MultigetPolicy multigetPolicy;
 
 	public static int DEFAULT_LENGTH = 50;
-
-	protected Function<HColumn<N, V>, V> hColumnToValue = new Function<HColumn<N, V>, V>()
-	{
-		@Override
-		public V apply(HColumn<N, V> hColumn)
-		{
-			return hColumn.getValue();
-		}
-	};
-
-	protected Function<HColumn<N, V>, Pair<N, V>> hColumnToPair = new Function<HColumn<N, V>, Pair<N, V>>()
-	{
-		@Override
-		public Pair<N, V> apply(HColumn<N, V> hColumn)
-		{
-			return new Pair<N, V>(hColumn.getName(), hColumn.getValue());
-		}
-	};
+	public static int REMOVE_BATCH_SIZE = 500;
+	public static int TRUNCATE_CONCURRENCY = 4;
 
 	protected Function<HColumn<N, V>, N> hColumnToName = new Function<HColumn<N, V>, N>()
 	{
@@ -78,6 +82,38 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 	protected AbstractDao(Keyspace keyspace) {
 		Validator.validateNotNull(keyspace, "keyspace should not be null");
 		this.keyspace = keyspace;
+		this.keyspaces = new ConsistencyLevelKeyspaces(keyspace);
+	}
+
+	/**
+	 * Keyspace bound to the read level of the context, or else of the column family
+	 */
+	protected Keyspace readKeyspace(ConsistencyContext context)
+	{
+		return keyspaceFor(context.resolveReadLevel(readLevel));
+	}
+
+	/**
+	 * Keyspace bound to the write level of the context, or else of the column family
+	 */
+	protected Keyspace writeKeyspace(ConsistencyContext context)
+	{
+		return keyspaceFor(context.resolveWriteLevel(writeLevel));
+	}
+
+	protected Keyspace readKeyspace()
+	{
+		return keyspaceFor(readLevel);
+	}
+
+	protected Keyspace writeKeyspace()
+	{
+		return keyspaceFor(writeLevel);
+	}
+
+	private Keyspace keyspaceFor(HConsistencyLevel level)
+	{
+		return keyspaces != null ? keyspaces.get(level) : keyspace;
 	}
 
 	public void insertColumnBatch(K key, N name, V value, Mutator<K> mutator)
@@ -86,9 +122,25 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 				HFactory.createColumn(name, value, columnNameSerializer, valueSerializer));
 	}
 
+	/**
+	 * Insert a column with the given timestamp, in microseconds
+	 */
+	public void insertColumnBatch(K key, N name, V value, long clock, Mutator<K> mutator)
+	{
+		mutator.addInsertion(key, columnFamily,
+				HFactory.createColumn(name, value, clock, columnNameSerializer, valueSerializer));
+	}
+
+	/**
+	 * Current timestamp of the write keyspace, in microseconds
+	 */
+	public long createClock()
+	{
+		return writeKeyspace().createClock();
+	}
+
 	public V getValue(K key, N name)
 	{
-		this.policy.loadConsistencyLevelForRead(columnFamily);
 		V result = null;
 		HColumn<N, V> column;
 
@@ -96,7 +148,7 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 
 			column = HFactory
-					.createColumnQuery(keyspace, keySerializer, columnNameSerializer,
+					.createColumnQuery(readKeyspace(), keySerializer, columnNameSerializer,
 							valueSerializer).setColumnFamily(columnFamily).setKey(key)
 					.setName(name).execute().get();
 		}
@@ -104,10 +156,6 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
-		{
-			this.policy.reinitDefaultConsistencyLevel();
-		}
 		if (column != null)
 		{
 			result = column.getValue();
@@ -115,9 +163,21 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		return result;
 	}
 
+	public Future<V> getValueAsync(final K key, final N name)
+	{
+		return submit(new Callable<V>()
+		{
+			@Override
+			public V call()
+			{
+				return getValue(key, name);
+			}
+		});
+	}
+
 	public void setValue(K key, N name, V value)
 	{
-		Mutator<K> mutator = HFactory.createMutator(keyspace, keySerializer);
+		Mutator<K> mutator = HFactory.createMutator(writeKeyspace(), keySerializer);
 		this.setValueBatch(key, name, value, mutator);
 		this.executeMutator(mutator);
 	}
@@ -130,7 +190,7 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 
 	public void setValue(K key, N name, V value, int ttl)
 	{
-		Mutator<K> mutator = HFactory.createMutator(keyspace, keySerializer);
+		Mutator<K> mutator = HFactory.createMutator(writeKeyspace(), keySerializer);
 		this.setValueBatch(key, name, value, ttl, mutator);
 		this.executeMutator(mutator);
 	}
@@ -146,7 +206,7 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 
 	public void removeColumn(K key, N name)
 	{
-		Mutator<K> mutator = HFactory.createMutator(keyspace, keySerializer);
+		Mutator<K> mutator = HFactory.createMutator(writeKeyspace(), keySerializer);
 		this.removeColumnBatch(key, name, mutator);
 		this.executeMutator(mutator);
 	}
@@ -163,16 +223,39 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 
 	public void removeColumnRange(K key, N start, N end, boolean reverse, int count)
 	{
-		Mutator<K> mutator = HFactory.createMutator(keyspace, keySerializer);
-		List<HColumn<N, V>> columns = createSliceQuery(keyspace, keySerializer,
-				columnNameSerializer, valueSerializer).setColumnFamily(columnFamily).setKey(key)
-				.setRange(start, end, reverse, count).execute().get().getColumns();
+		Iterator<HColumn<N, ByteBuffer>> iterator = getColumnNamesIterator(key, start, end,
+				reverse, count);
 
-		for (HColumn<N, V> column : columns)
+		Mutator<K> mutator = HFactory.createMutator(writeKeyspace(), keySerializer);
+		Future<Void> pendingDeletion = null;
+		int batchSize = 0;
+		int removed = 0;
+		while (removed < count && iterator.hasNext())
 		{
-			mutator.addDeletion(key, columnFamily, column.getName(), columnNameSerializer);
+			mutator.addDeletion(key, columnFamily, iterator.next().getName(), columnNameSerializer);
+			removed++;
+			batchSize++;
+			if (batchSize == REMOVE_BATCH_SIZE)
+			{
+				// Flush the deletions while the next page of column names is fetched
+				waitFor(pendingDeletion);
+				if (executor != null)
+				{
+					pendingDeletion = executeMutatorAsync(mutator);
+				}
+				else
+				{
+					this.executeMutator(mutator);
+				}
+				mutator = HFactory.createMutator(writeKeyspace(), keySerializer);
+				batchSize = 0;
+			}
+		}
+		waitFor(pendingDeletion);
+		if (batchSize > 0)
+		{
+			this.executeMutator(mutator);
 		}
-		this.executeMutator(mutator);
 	}
 
 	public void removeColumnRangeBatch(K key, N start, N end, Mutator<K> mutator)
@@ -183,24 +266,55 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 	public void removeColumnRangeBatch(K key, N start, N end, boolean reverse, int count,
 			Mutator<K> mutator)
 	{
-		List<HColumn<N, V>> columns = createSliceQuery(keyspace, keySerializer,
-				columnNameSerializer, valueSerializer).setColumnFamily(columnFamily).setKey(key)
-				.setRange(start, end, reverse, count).execute().get().getColumns();
+		Iterator<HColumn<N, ByteBuffer>> iterator = getColumnNamesIterator(key, start, end,
+				reverse, count);
 
-		for (HColumn<N, V> column : columns)
+		int removed = 0;
+		while (removed < count && iterator.hasNext())
 		{
-			mutator.addDeletion(key, columnFamily, column.getName(), columnNameSerializer);
+			mutator.addDeletion(key, columnFamily, iterator.next().getName(), columnNameSerializer);
+			removed++;
+		}
+	}
+
+	private AchillesSliceIterator<K, N, ByteBuffer> getColumnNamesIterator(K key, N start, N end,
+			boolean reverse, int count)
+	{
+		// Values are only needed as raw bytes, they are not deserialized
+		SliceQuery<K, N, ByteBuffer> query = createSliceQuery(readKeyspace(), keySerializer,
+				columnNameSerializer, BYTE_BUFFER_SRZ).setColumnFamily(columnFamily).setKey(key);
+
+		return new AchillesSliceIterator<K, N, ByteBuffer>(query, start, end, reverse, Math.min(
+				count, REMOVE_BATCH_SIZE));
+	}
+
+	private void waitFor(Future<Void> future)
+	{
+		if (future != null)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			catch (ExecutionException e)
+			{
+				throw new RuntimeException(e.getCause());
+			}
 		}
 	}
 
 	public List<V> findValuesRange(K key, N start, N end, boolean reverse, int count)
 	{
-		this.policy.loadConsistencyLevelForRead(columnFamily);
 		List<HColumn<N, V>> columns;
 		try
 		{
 
-			columns = createSliceQuery(keyspace, keySerializer, columnNameSerializer,
+			columns = createSliceQuery(readKeyspace(), keySerializer, columnNameSerializer,
 					valueSerializer).setColumnFamily(columnFamily).setKey(key)
 					.setRange(start, end, reverse, count).execute().get().getColumns();
 		}
@@ -208,21 +322,22 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
+		// Materialized once, a lazy view would rebuild its elements on every access
+		List<V> values = new ArrayList<V>(columns.size());
+		for (HColumn<N, V> column : columns)
 		{
-			this.policy.reinitDefaultConsistencyLevel();
+			values.add(column.getValue());
 		}
-		return Lists.transform(columns, hColumnToValue);
+		return values;
 	}
 
 	public List<Pair<N, V>> findColumnsRange(K key, N startName, N endName, boolean reverse,
 			int count)
 	{
-		this.policy.loadConsistencyLevelForRead(columnFamily);
 		List<HColumn<N, V>> columns;
 		try
 		{
-			columns = createSliceQuery(keyspace, keySerializer, columnNameSerializer,
+			columns = createSliceQuery(readKeyspace(), keySerializer, columnNameSerializer,
 					valueSerializer).setColumnFamily(columnFamily).setKey(key)
 					.setRange(startName, endName, reverse, count).execute().get().getColumns();
 		}
@@ -230,21 +345,34 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
+		List<Pair<N, V>> pairs = new ArrayList<Pair<N, V>>(columns.size());
+		for (HColumn<N, V> column : columns)
 		{
-			this.policy.reinitDefaultConsistencyLevel();
+			pairs.add(new Pair<N, V>(column.getName(), column.getValue()));
 		}
-		return Lists.transform(columns, hColumnToPair);
+		return pairs;
+	}
+
+	public Future<List<Pair<N, V>>> findColumnsRangeAsync(final K key, final N startName,
+			final N endName, final boolean reverse, final int count)
+	{
+		return submit(new Callable<List<Pair<N, V>>>()
+		{
+			@Override
+			public List<Pair<N, V>> call()
+			{
+				return findColumnsRange(key, startName, endName, reverse, count);
+			}
+		});
 	}
 
 	public List<HColumn<N, V>> findRawColumnsRange(K key, N startName, N endName, int count,
 			boolean reverse)
 	{
-		this.policy.loadConsistencyLevelForRead(columnFamily);
 		List<HColumn<N, V>> result;
 		try
 		{
-			result = createSliceQuery(keyspace, keySerializer, columnNameSerializer,
+			result = createSliceQuery(readKeyspace(), keySerializer, columnNameSerializer,
 					valueSerializer).setColumnFamily(columnFamily).setKey(key)
 					.setRange(startName, endName, reverse, count).execute().get().getColumns();
 		}
@@ -252,23 +380,18 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
-		{
-			this.policy.reinitDefaultConsistencyLevel();
-		}
 		return result;
 	}
 
 	public List<HCounterColumn<N>> findCounterColumnsRange(K key, N startName, N endName,
 			int count, boolean reverse)
 	{
-		this.policy.loadConsistencyLevelForRead(columnFamily);
 
 		List<HCounterColumn<N>> result;
 		try
 		{
 			result = HFactory
-					.createCounterSliceQuery(keyspace, keySerializer, columnNameSerializer)
+					.createCounterSliceQuery(readKeyspace(), keySerializer, columnNameSerializer)
 					.setColumnFamily(columnFamily).setKey(key)
 					.setRange(startName, endName, reverse, count).execute().get().getColumns();
 		}
@@ -276,53 +399,67 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
-		{
-			this.policy.reinitDefaultConsistencyLevel();
-		}
 		return result;
 	}
 
 	public AchillesSliceIterator<K, N, V> getColumnsIterator(K key, N startName, N endName,
 			boolean reverse, int length)
 	{
-		SliceQuery<K, N, V> query = createSliceQuery(keyspace, keySerializer, columnNameSerializer,
-				valueSerializer).setColumnFamily(columnFamily).setKey(key);
+		return getColumnsIterator(key, startName, endName, reverse, length, 0);
+	}
+
+	public AchillesSliceIterator<K, N, V> getColumnsIterator(K key, N startName, N endName,
+			boolean reverse, int length, int prefetchDepth)
+	{
+		SliceQuery<K, N, V> query = createSliceQuery(readKeyspace(), keySerializer,
+				columnNameSerializer, valueSerializer).setColumnFamily(columnFamily).setKey(key);
 
-		return new AchillesSliceIterator<K, N, V>(policy, columnFamily, query, startName, endName,
-				reverse, length);
+		return new AchillesSliceIterator<K, N, V>(query, startName, endName, reverse, length,
+				executor, prefetchDepth, pagingPolicy);
 	}
 
 	public AchillesCounterSliceIterator<K, N> getCounterColumnsIterator(K key, N startName,
 			N endName, boolean reverse, int length)
 	{
-		SliceCounterQuery<K, N> query = createCounterSliceQuery(keyspace, keySerializer,
+		return getCounterColumnsIterator(key, startName, endName, reverse, length, 0);
+	}
+
+	public AchillesCounterSliceIterator<K, N> getCounterColumnsIterator(K key, N startName,
+			N endName, boolean reverse, int length, int prefetchDepth)
+	{
+		SliceCounterQuery<K, N> query = createCounterSliceQuery(readKeyspace(), keySerializer,
 				columnNameSerializer).setColumnFamily(columnFamily).setKey(key);
 
-		return new AchillesCounterSliceIterator<K, N>(policy, columnFamily, query, startName,
-				endName, reverse, length);
+		return new AchillesCounterSliceIterator<K, N>(query, startName, endName, reverse, length,
+				executor, prefetchDepth, pagingPolicy);
 	}
 
 	public <KEY, VALUE> AchillesJoinSliceIterator<K, N, V, KEY, VALUE> getJoinColumnsIterator(
 			PropertyMeta<KEY, VALUE> propertyMeta, K key, N startName, N endName, boolean reversed,
 			int count)
 	{
-		SliceQuery<K, N, V> query = createSliceQuery(keyspace, keySerializer, columnNameSerializer,
-				valueSerializer).setColumnFamily(columnFamily).setKey(key);
+		return getJoinColumnsIterator(propertyMeta, key, startName, endName, reversed, count, 0);
+	}
 
-		return new AchillesJoinSliceIterator<K, N, V, KEY, VALUE>(policy, columnFamily,
-				propertyMeta, query, startName, endName, reversed, count);
+	public <KEY, VALUE> AchillesJoinSliceIterator<K, N, V, KEY, VALUE> getJoinColumnsIterator(
+			PropertyMeta<KEY, VALUE> propertyMeta, K key, N startName, N endName, boolean reversed,
+			int count, int prefetchDepth)
+	{
+		SliceQuery<K, N, V> query = createSliceQuery(readKeyspace(), keySerializer,
+				columnNameSerializer, valueSerializer).setColumnFamily(columnFamily).setKey(key);
+
+		return new AchillesJoinSliceIterator<K, N, V, KEY, VALUE>(propertyMeta, query, startName,
+				endName, reversed, count, executor, prefetchDepth, pagingPolicy);
 	}
 
 	public Rows<K, N, V> multiGetSliceRange(List<K> keys, N startName, N endName, boolean reverse,
 			int size)
 	{
-		this.policy.loadConsistencyLevelForRead(columnFamily);
 		Rows<K, N, V> result;
 		try
 		{
 			result = HFactory
-					.createMultigetSliceQuery(keyspace, keySerializer, columnNameSerializer,
+					.createMultigetSliceQuery(readKeyspace(), keySerializer, columnNameSerializer,
 							valueSerializer).setColumnFamily(columnFamily).setKeys(keys)
 					.setRange(startName, endName, reverse, size).execute().get();
 		}
@@ -330,16 +467,110 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
+		return result;
+	}
+
+	/**
+	 * Same as multiGetSliceRange but the keys are cut into chunks of at most the chunk size of the
+	 * 
+	 * multiget policy, at most parallelism chunks being queried at the same time on the executor
+	 * 
+	 * @return rows of all the chunks, in the order of the chunks
+	 */
+	public List<Row<K, N, V>> multiGetSliceRangeInChunks(List<K> keys, N startName, N endName,
+			boolean reverse, int size)
+	{
+		int chunkSize = multigetPolicy != null ? multigetPolicy.getChunkSize() : keys.size();
+		List<List<K>> chunks = new ArrayList<List<K>>();
+		for (int from = 0; from < keys.size(); from += chunkSize)
+		{
+			chunks.add(keys.subList(from, Math.min(from + chunkSize, keys.size())));
+		}
+
+		List<Row<K, N, V>> result = new ArrayList<Row<K, N, V>>(keys.size());
+		if (chunks.size() <= 1 || executor == null || multigetPolicy.getParallelism() == 1
+				|| AsyncTaskCallable.isRunningAsyncTask())
 		{
-			this.policy.reinitDefaultConsistencyLevel();
+			for (List<K> chunk : chunks)
+			{
+				addRows(result, multiGetSliceRange(chunk, startName, endName, reverse, size));
+			}
+		}
+		else
+		{
+			int parallelism = multigetPolicy.getParallelism();
+			LinkedList<Future<Rows<K, N, V>>> inFlight = new LinkedList<Future<Rows<K, N, V>>>();
+			try
+			{
+				for (List<K> chunk : chunks)
+				{
+					if (inFlight.size() == parallelism)
+					{
+						addRows(result, getRows(inFlight.removeFirst()));
+					}
+					inFlight.add(multiGetSliceRangeAsync(chunk, startName, endName, reverse, size));
+				}
+				while (!inFlight.isEmpty())
+				{
+					addRows(result, getRows(inFlight.removeFirst()));
+				}
+			}
+			finally
+			{
+				for (Future<Rows<K, N, V>> pending : inFlight)
+				{
+					pending.cancel(true);
+				}
+			}
+		}
+		if (multigetPolicy != null)
+		{
+			multigetPolicy.recordMultiget(chunks.size());
 		}
 		return result;
 	}
 
+	private void addRows(List<Row<K, N, V>> result, Rows<K, N, V> rows)
+	{
+		for (Row<K, N, V> row : rows)
+		{
+			result.add(row);
+		}
+	}
+
+	private Rows<K, N, V> getRows(Future<Rows<K, N, V>> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	public Future<Rows<K, N, V>> multiGetSliceRangeAsync(final List<K> keys, final N startName,
+			final N endName, final boolean reverse, final int size)
+	{
+		return submit(new Callable<Rows<K, N, V>>()
+		{
+			@Override
+			public Rows<K, N, V> call()
+			{
+				return multiGetSliceRange(keys, startName, endName, reverse, size);
+			}
+		});
+	}
+
 	public void removeRow(K key)
 	{
-		Mutator<K> mutator = HFactory.createMutator(keyspace, keySerializer);
+		Mutator<K> mutator = HFactory.createMutator(writeKeyspace(), keySerializer);
 		this.removeRowBatch(key, mutator);
 		this.executeMutator(mutator);
 	}
@@ -353,13 +584,18 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 	{
 		Long currentValue = this.getCounterValue(key, name);
 		long delta = value - currentValue;
-		mutator.incrementCounter(key, columnFamily, name, delta);
+		this.incrementCounterBatch(key, name, delta, mutator);
 	}
 
 	public void insertCounter(K key, N name, Long value)
 	{
-		Mutator<K> mutator = buildMutator();
-		Long currentValue = this.getCounterValue(key, name);
+		this.insertCounter(key, name, value, ConsistencyContext.DEFAULT);
+	}
+
+	public void insertCounter(K key, N name, Long value, ConsistencyContext context)
+	{
+		Mutator<K> mutator = buildMutator(context);
+		Long currentValue = this.getCounterValue(key, name, context);
 		long delta = value - currentValue;
 		mutator.incrementCounter(key, columnFamily, name, delta);
 		this.executeMutator(mutator);
@@ -367,48 +603,128 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 
 	public void removeCounter(K key, N name)
 	{
-		Mutator<K> mutator = buildMutator();
-		Long currentValue = this.getCounterValue(key, name);
+		this.removeCounter(key, name, ConsistencyContext.DEFAULT);
+	}
+
+	public void removeCounter(K key, N name, ConsistencyContext context)
+	{
+		Mutator<K> mutator = buildMutator(context);
+		Long currentValue = this.getCounterValue(key, name, context);
 		mutator.decrementCounter(key, columnFamily, name, currentValue);
 		this.executeMutator(mutator);
 	}
 
+	/**
+	 * Add to the mutator the decrement resetting a counter to zero. The current value is read first
+	 */
+	public void removeCounterBatch(K key, N name, Mutator<K> mutator)
+	{
+		long currentValue = this.getCounterValue(key, name);
+		if (currentValue != 0)
+		{
+			this.incrementCounterBatch(key, name, -currentValue, mutator);
+		}
+	}
+
+	public void incrementCounter(K key, N name, long delta)
+	{
+		this.incrementCounter(key, name, delta, ConsistencyContext.DEFAULT);
+	}
+
+	public void incrementCounter(K key, N name, long delta, ConsistencyContext context)
+	{
+		Mutator<K> mutator = buildMutator(context);
+		this.incrementCounterBatch(key, name, delta, mutator);
+		this.executeMutator(mutator);
+	}
+
+	public void incrementCounterBatch(K key, N name, long delta, Mutator<K> mutator)
+	{
+		// Mutator.incrementCounter() is executed right away, addCounter() is only queued
+		mutator.addCounter(key, columnFamily,
+				HFactory.createCounterColumn(name, delta, columnNameSerializer));
+	}
+
 	public void removeCounterRow(K key)
+	{
+		Mutator<K> mutator = HFactory.createMutator(writeKeyspace(), keySerializer);
+		this.removeCounterRowBatch(key, mutator);
+		this.executeMutator(mutator);
+	}
+
+	/**
+	 * Add to the mutator the decrements resetting all the counters of a row to zero. The counters
+	 * 
+	 * are read first
+	 */
+	public void removeCounterRowBatch(K key, Mutator<K> mutator)
 	{
 		SliceCounterQuery<K, N> query = HFactory
-				.createCounterSliceQuery(keyspace, keySerializer, columnNameSerializer)
+				.createCounterSliceQuery(readKeyspace(), keySerializer, columnNameSerializer)
 				.setColumnFamily(columnFamily).setKey(key);
 
 		AchillesCounterSliceIterator<K, N> iterator = new AchillesCounterSliceIterator<K, N>(
-				policy, columnFamily, query, (N) null, (N) null, false, DEFAULT_LENGTH);
+				query, (N) null, (N) null, false, DEFAULT_LENGTH);
 
-		Mutator<K> mutator = HFactory.createMutator(keyspace, keySerializer);
 		while (iterator.hasNext())
 		{
 			HCounterColumn<N> counterCol = iterator.next();
-			mutator.decrementCounter(key, columnFamily, counterCol.getName(), counterCol.getValue());
+			this.incrementCounterBatch(key, counterCol.getName(), -counterCol.getValue(), mutator);
 		}
-		this.executeMutator(mutator);
 	}
 
 	public void truncate()
 	{
-		Mutator<K> mutator = HFactory.createMutator(keyspace, keySerializer);
-		Iterator<K> iterator = new KeyIterator<K>(keyspace, columnFamily, keySerializer).iterator();
-		while (iterator.hasNext())
+		this.truncate(TRUNCATE_CONCURRENCY, null);
+	}
+
+	/**
+	 * Remove all the rows of the column family, scanning the token ranges in parallel and
+	 * 
+	 * removing the rows by batches of REMOVE_BATCH_SIZE
+	 * 
+	 * @param concurrency
+	 *            maximum number of token ranges processed at the same time
+	 * @param listener
+	 *            notified of the progress of the truncation, can be null
+	 * @return number of removed rows
+	 */
+	public long truncate(int concurrency, ScanProgressListener listener)
+	{
+		return this.scanKeys(new KeyBatchHandler<K>()
 		{
-			this.removeRowBatch(iterator.next(), mutator);
-		}
-		this.executeMutator(mutator);
+			@Override
+			public void handle(List<K> keys)
+			{
+				Mutator<K> mutator = buildMutator();
+				for (K key : keys)
+				{
+					removeRowBatch(key, mutator);
+				}
+				executeMutator(mutator);
+			}
+		}, concurrency, REMOVE_BATCH_SIZE, listener);
+	}
+
+	public long scanKeys(KeyBatchHandler<K> handler, int concurrency, int batchSize,
+			ScanProgressListener listener)
+	{
+		return new TokenRangeScanner<K>(readKeyspace(), columnFamily, keySerializer, readLevel,
+				executor).scan(handler, concurrency, batchSize, listener);
 	}
 
 	public long getCounterValue(K key, N name)
 	{
-		CounterQuery<K, N> counter = new ThriftCounterColumnQuery<K, N>(keyspace, keySerializer,
-				columnNameSerializer).setColumnFamily(columnFamily).setKey(key).setName(name);
+		return this.getCounterValue(key, name, ConsistencyContext.DEFAULT);
+	}
+
+	public long getCounterValue(K key, N name, ConsistencyContext context)
+	{
+		CounterQuery<K, N> counter = new ThriftCounterColumnQuery<K, N>(readKeyspace(context),
+				keySerializer, columnNameSerializer).setColumnFamily(columnFamily).setKey(key)
+				.setName(name);
 
 		long counterValue = 0;
-		this.policy.loadConsistencyLevelForRead(columnFamily);
 		try
 		{
 			HCounterColumn<N> column = counter.execute().get();
@@ -421,10 +737,6 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
-		{
-			this.policy.reinitDefaultConsistencyLevel();
-		}
 
 		return counterValue;
 
@@ -432,24 +744,68 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 
 	public Mutator<K> buildMutator()
 	{
-		return HFactory.createMutator(this.keyspace, this.keySerializer);
+		return this.buildMutator(ConsistencyContext.DEFAULT);
+	}
+
+	/**
+	 * Build a mutator writing with the write level of the context. The level is bound to the
+	 * 
+	 * mutator, whatever the thread executing it
+	 */
+	public Mutator<K> buildMutator(ConsistencyContext context)
+	{
+		Keyspace writeKeyspace = writeKeyspace(context);
+		if (batchingPolicy != null)
+		{
+			return new BatchingMutator<K>(writeKeyspace, this.keySerializer, batchingPolicy,
+					executor);
+		}
+		return HFactory.createMutator(writeKeyspace, this.keySerializer);
 	}
 
 	public void executeMutator(Mutator<K> mutator)
 	{
-		this.policy.loadConsistencyLevelForWrite(this.columnFamily);
 		try
 		{
 			mutator.execute();
 		}
+		catch (MutationBatchException e)
+		{
+			throw e;
+		}
 		catch (Throwable throwable)
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
+	}
+
+	public Future<Void> executeMutatorAsync(final Mutator<K> mutator)
+	{
+		return submit(new Callable<Void>()
+		{
+			@Override
+			public Void call()
+			{
+				executeMutator(mutator);
+				return null;
+			}
+		});
+	}
+
+	protected <T> Future<T> submit(Callable<T> task)
+	{
+		Validator.validateNotNull(executor,
+				"No executor has been configured for asynchronous operations on column family '"
+						+ columnFamily + "'");
+		AsyncTaskCallable<T> callable = new AsyncTaskCallable<T>(task);
+		if (AsyncTaskCallable.isRunningAsyncTask())
 		{
-			this.policy.reinitDefaultConsistencyLevel();
+			// Avoid waiting for the executor from one of its own threads
+			FutureTask<T> future = new FutureTask<T>(callable);
+			future.run();
+			return future;
 		}
+		return executor.submit(callable);
 	}
 
 	public String getColumnFamily()
@@ -460,5 +816,56 @@ public abstract class AbstractDao<K, N extends AbstractComposite, V>
 	public void setPolicy(AchillesConfigurableConsistencyLevelPolicy policy)
 	{
 		this.policy = policy;
+		if (policy != null)
+		{
+			this.readLevel = policy.getConsistencyLevelForRead(columnFamily);
+			this.writeLevel = policy.getConsistencyLevelForWrite(columnFamily);
+		}
+	}
+
+	public HConsistencyLevel getReadLevel()
+	{
+		return readLevel;
+	}
+
+	public HConsistencyLevel getWriteLevel()
+	{
+		return writeLevel;
+	}
+
+	/**
+	 * Set the read and write levels of the column family, used when the consistency context of an
+	 * 
+	 * operation does not override them
+	 */
+	public void setConsistencyLevels(HConsistencyLevel readLevel, HConsistencyLevel writeLevel)
+	{
+		this.readLevel = readLevel;
+		this.writeLevel = writeLevel;
+	}
+
+	public void setKeyspaces(ConsistencyLevelKeyspaces keyspaces)
+	{
+		this.keyspaces = keyspaces;
+	}
+
+	public void setExecutor(ExecutorService executor)
+	{
+		this.executor = executor;
+	}
+
+	public void setPagingPolicy(AdaptivePagingPolicy pagingPolicy)
+	{
+		this.pagingPolicy = pagingPolicy;
+	}
+
+	public void setBatchingPolicy(MutationBatchingPolicy batchingPolicy)
+	{
+		this.batchingPolicy = batchingPolicy;
+	}
+
+	public void setMultigetPolicy(MultigetPolicy multigetPolicy)
+	{
+		this.multigetPolicy = multigetPolicy;
 	}
 }
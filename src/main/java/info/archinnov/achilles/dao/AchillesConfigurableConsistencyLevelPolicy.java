@@ -1,9 +1,5 @@
 package info.archinnov.achilles.dao;
 
-import static info.archinnov.achilles.entity.manager.ThriftEntityManager.currentReadConsistencyLevel;
-import static info.archinnov.achilles.entity.manager.ThriftEntityManager.currentWriteConsistencyLevel;
-import info.archinnov.achilles.entity.type.ConsistencyLevel;
-
 import java.util.HashMap;
 
 import me.prettyprint.cassandra.model.ConfigurableConsistencyLevel;
@@ -13,15 +9,18 @@ import me.prettyprint.hector.api.HConsistencyLevel;
 /**
  * AchillesConfigurableConsistencyLevelPolicy
  * 
+ * Read and write consistency levels of the column families, registered when parsing the entities.
+ * 
+ * The levels are copied into the DAOs at bootstrap, the policy is not read when executing the
+ * 
+ * queries
+ * 
  * @author DuyHai DOAN
  * 
  */
 public class AchillesConfigurableConsistencyLevelPolicy extends ConfigurableConsistencyLevel
 {
 
-	static final ThreadLocal<HConsistencyLevel> defaultReadConsistencyLevelTL = new ThreadLocal<HConsistencyLevel>();
-	static final ThreadLocal<HConsistencyLevel> defaultWriteConsistencyLevelTL = new ThreadLocal<HConsistencyLevel>();
-
 	public AchillesConfigurableConsistencyLevelPolicy() {
 		super();
 		this.setDefaultReadConsistencyLevel(HConsistencyLevel.QUORUM);
@@ -30,79 +29,6 @@ public class AchillesConfigurableConsistencyLevelPolicy extends ConfigurableCons
 		this.setWriteCfConsistencyLevels(new HashMap<String, HConsistencyLevel>());
 	}
 
-	@Override
-	public HConsistencyLevel get(OperationType op)
-	{
-		HConsistencyLevel result = super.get(op);
-		switch (op)
-		{
-			case READ:
-				result = defaultReadConsistencyLevelTL.get() != null ? defaultReadConsistencyLevelTL
-						.get() : super.get(op);
-				break;
-			case WRITE:
-				result = defaultWriteConsistencyLevelTL.get() != null ? defaultWriteConsistencyLevelTL
-						.get() : super.get(op);
-				break;
-			default:
-				result = super.get(op);
-		}
-
-		return result;
-	}
-
-	@Override
-	public HConsistencyLevel get(OperationType op, String columnFamily)
-	{
-		HConsistencyLevel result;
-		switch (op)
-		{
-			case READ:
-				result = defaultReadConsistencyLevelTL.get() != null ? defaultReadConsistencyLevelTL
-						.get() : super.get(OperationType.READ, columnFamily);
-				break;
-			case WRITE:
-				result = defaultWriteConsistencyLevelTL.get() != null ? defaultWriteConsistencyLevelTL
-						.get() : super.get(OperationType.WRITE, columnFamily);
-				break;
-			default:
-				result = super.get(op);
-		}
-		return result;
-	}
-
-	public <T> void loadConsistencyLevelForRead(String columnFamily)
-	{
-		ConsistencyLevel currentLevel = currentReadConsistencyLevel.get();
-		if (currentLevel != null)
-		{
-			defaultReadConsistencyLevelTL.set(currentLevel.getHectorLevel());
-		}
-		else
-		{
-			defaultReadConsistencyLevelTL.set(this.get(OperationType.READ, columnFamily));
-		}
-	}
-
-	public <T> void loadConsistencyLevelForWrite(String columnFamily)
-	{
-		ConsistencyLevel currentLevel = currentWriteConsistencyLevel.get();
-		if (currentLevel != null)
-		{
-			defaultWriteConsistencyLevelTL.set(currentLevel.getHectorLevel());
-		}
-		else
-		{
-			defaultWriteConsistencyLevelTL.set(this.get(OperationType.WRITE, columnFamily));
-		}
-	}
-
-	public void reinitDefaultConsistencyLevel()
-	{
-		defaultReadConsistencyLevelTL.remove();
-		defaultWriteConsistencyLevelTL.remove();
-	}
-
 	public HConsistencyLevel getConsistencyLevelForRead(String columnFamily)
 	{
 		return this.get(OperationType.READ, columnFamily);
@@ -0,0 +1,52 @@
+package info.archinnov.achilles.dao;
+
+import java.util.concurrent.Callable;
+
+/**
+ * AsyncTaskCallable
+ * 
+ * Wrap a task to be run asynchronously and flag the worker thread as running an asynchronous task.
+ * 
+ * Consistency levels are not carried by the thread: the queries are bound to the keyspace of their
+ * 
+ * level when they are built
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class AsyncTaskCallable<V> implements Callable<V>
+{
+	private static final ThreadLocal<Boolean> runningAsyncTask = new ThreadLocal<Boolean>();
+
+	private final Callable<V> delegate;
+
+	public AsyncTaskCallable(Callable<V> delegate)
+	{
+		this.delegate = delegate;
+	}
+
+	@Override
+	public V call() throws Exception
+	{
+		Boolean previousRunning = runningAsyncTask.get();
+		runningAsyncTask.set(true);
+		try
+		{
+			return delegate.call();
+		}
+		finally
+		{
+			runningAsyncTask.set(previousRunning);
+		}
+	}
+
+	/**
+	 * Whether the current thread is running an asynchronous task. Tasks submitted from such a
+	 * 
+	 * thread should not wait for the executor, whose threads may all be busy
+	 */
+	public static boolean isRunningAsyncTask()
+	{
+		return Boolean.TRUE.equals(runningAsyncTask.get());
+	}
+}
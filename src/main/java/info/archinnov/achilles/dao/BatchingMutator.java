@@ -0,0 +1,557 @@
+package info.archinnov.achilles.dao;
+
+import info.archinnov.achilles.exception.MutationBatchException;
+import info.archinnov.achilles.exception.MutationBatchException.FailedChunk;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import me.prettyprint.cassandra.service.CassandraHost;
+import me.prettyprint.hector.api.Keyspace;
+import me.prettyprint.hector.api.Serializer;
+import me.prettyprint.hector.api.beans.HColumn;
+import me.prettyprint.hector.api.beans.HCounterColumn;
+import me.prettyprint.hector.api.beans.HCounterSuperColumn;
+import me.prettyprint.hector.api.beans.HSuperColumn;
+import me.prettyprint.hector.api.factory.HFactory;
+import me.prettyprint.hector.api.mutation.MutationResult;
+import me.prettyprint.hector.api.mutation.Mutator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BatchingMutator
+ * 
+ * Mutator cutting the pending mutations into chunks of at most maxColumns mutations and maxBytes
+ * 
+ * serialized bytes, as defined by the MutationBatchingPolicy, instead of sending them in a single
+ * 
+ * Thrift batch. The chunks are sent in parallel on the executor, at most parallelism chunks at a
+ * 
+ * time. The chunk mutators are built on the keyspace given to the BatchingMutator, so they are
+ * 
+ * written with its consistency level whatever the thread sending them
+ * 
+ * Timestamps are set when the mutations are added, so sending the chunks in parallel does not
+ * 
+ * change the outcome of the batch. When some chunks fail, the others are still sent and a
+ * 
+ * MutationBatchException reports the failed chunks
+ * 
+ * Mutations executed right away (insert(), delete(), incrementCounter() ...) are not batched
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class BatchingMutator<K> implements Mutator<K>
+{
+	private static final Logger log = LoggerFactory.getLogger(BatchingMutator.class);
+
+	private static final int COUNTER_VALUE_SIZE = 8;
+
+	private final Keyspace keyspace;
+	private final Serializer<K> keySerializer;
+	private final MutationBatchingPolicy policy;
+	private final ExecutorService executor;
+
+	private List<Chunk<K>> chunks = new ArrayList<Chunk<K>>();
+	private Chunk<K> current;
+	private int mutationIndex = 0;
+
+	public BatchingMutator(Keyspace keyspace, Serializer<K> keySerializer,
+			MutationBatchingPolicy policy, ExecutorService executor)
+	{
+		this.keyspace = keyspace;
+		this.keySerializer = keySerializer;
+		this.policy = policy;
+		this.executor = executor;
+		this.current = new Chunk<K>(newMutator(), 0);
+	}
+
+	private Mutator<K> newMutator()
+	{
+		return HFactory.createMutator(keyspace, keySerializer);
+	}
+
+	private Mutator<K> reserve(K key, int mutations, long bytes)
+	{
+		long size = bytes + keySerializer.toByteBuffer(key).remaining();
+		if (current.mutationCount > 0
+				&& (current.mutationCount + mutations > policy.getMaxColumns() || current.byteSize
+						+ size > policy.getMaxBytes()))
+		{
+			seal();
+		}
+		current.mutationCount += mutations;
+		current.byteSize += size;
+		mutationIndex += mutations;
+		return current.mutator;
+	}
+
+	private void seal()
+	{
+		chunks.add(current);
+		current = new Chunk<K>(newMutator(), mutationIndex);
+	}
+
+	private static long size(HColumn<?, ?> column)
+	{
+		long size = column.getNameBytes().remaining();
+		return column.getValueBytes() == null ? size : size + column.getValueBytes().remaining();
+	}
+
+	private static <N> long size(N name, Serializer<N> nameSerializer)
+	{
+		return name == null ? 0 : nameSerializer.toByteBuffer(name).remaining();
+	}
+
+	@Override
+	public <N, V> Mutator<K> addInsertion(K key, String cf, HColumn<N, V> c)
+	{
+		reserve(key, 1, size(c)).addInsertion(key, cf, c);
+		return this;
+	}
+
+	@Override
+	public <SN, N, V> Mutator<K> addInsertion(K key, String cf, HSuperColumn<SN, N, V> sc)
+	{
+		long bytes = sc.getNameBytes().length;
+		for (HColumn<N, V> column : sc.getColumns())
+		{
+			bytes += size(column);
+		}
+		reserve(key, Math.max(1, sc.getSize()), bytes).addInsertion(key, cf, sc);
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addDeletion(K key, String cf, N columnName, Serializer<N> nameSerializer)
+	{
+		reserve(key, 1, size(columnName, nameSerializer)).addDeletion(key, cf, columnName,
+				nameSerializer);
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addDeletion(K key, String cf)
+	{
+		reserve(key, 1, 0).addDeletion(key, cf);
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addDeletion(Iterable<K> keys, String cf)
+	{
+		for (K key : keys)
+		{
+			addDeletion(key, cf);
+		}
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addDeletion(Iterable<K> keys, String cf, long clock)
+	{
+		for (K key : keys)
+		{
+			addDeletion(key, cf, clock);
+		}
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addDeletion(K key, String cf, long clock)
+	{
+		reserve(key, 1, 0).addDeletion(key, cf, clock);
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addDeletion(K key, String cf, N columnName,
+			Serializer<N> nameSerializer, long clock)
+	{
+		reserve(key, 1, size(columnName, nameSerializer)).addDeletion(key, cf, columnName,
+				nameSerializer, clock);
+		return this;
+	}
+
+	@Override
+	public <SN> Mutator<K> addSuperDelete(K key, String cf, SN sColumnName,
+			Serializer<SN> sNameSerializer)
+	{
+		reserve(key, 1, size(sColumnName, sNameSerializer)).addSuperDelete(key, cf, sColumnName,
+				sNameSerializer);
+		return this;
+	}
+
+	@Override
+	public <SN, N, V> Mutator<K> addSubDelete(K key, String cf, HSuperColumn<SN, N, V> sc)
+	{
+		reserve(key, Math.max(1, sc.getSize()), sc.getNameBytes().length).addSubDelete(key, cf,
+				sc);
+		return this;
+	}
+
+	@Override
+	public <SN, N, V> Mutator<K> addSubDelete(K key, String cf, HSuperColumn<SN, N, V> sc,
+			long clock)
+	{
+		reserve(key, Math.max(1, sc.getSize()), sc.getNameBytes().length).addSubDelete(key, cf,
+				sc, clock);
+		return this;
+	}
+
+	@Override
+	public <SN, N> Mutator<K> addSubDelete(K key, String cf, SN sColumnName, N columnName,
+			Serializer<SN> sNameSerializer, Serializer<N> nameSerializer)
+	{
+		reserve(key, 1, size(sColumnName, sNameSerializer) + size(columnName, nameSerializer))
+				.addSubDelete(key, cf, sColumnName, columnName, sNameSerializer, nameSerializer);
+		return this;
+	}
+
+	@Override
+	public <SN, N> Mutator<K> addSubDelete(K key, String cf, SN sColumnName, N columnName,
+			Serializer<SN> sNameSerializer, Serializer<N> nameSerializer, long clock)
+	{
+		reserve(key, 1, size(sColumnName, sNameSerializer) + size(columnName, nameSerializer))
+				.addSubDelete(key, cf, sColumnName, columnName, sNameSerializer, nameSerializer,
+						clock);
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addCounter(K key, String cf, HCounterColumn<N> c)
+	{
+		reserve(key, 1, c.getNameBytes().remaining() + COUNTER_VALUE_SIZE).addCounter(key, cf, c);
+		return this;
+	}
+
+	@Override
+	public <SN, N> Mutator<K> addCounter(K key, String cf, HCounterSuperColumn<SN, N> sc)
+	{
+		long bytes = sc.getNameBytes().length;
+		for (HCounterColumn<N> column : sc.getColumns())
+		{
+			bytes += column.getNameBytes().remaining() + COUNTER_VALUE_SIZE;
+		}
+		reserve(key, Math.max(1, sc.getSize()), bytes).addCounter(key, cf, sc);
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addCounterDeletion(K key, String cf, N counterColumnName,
+			Serializer<N> nameSerializer)
+	{
+		reserve(key, 1, size(counterColumnName, nameSerializer)).addCounterDeletion(key, cf,
+				counterColumnName, nameSerializer);
+		return this;
+	}
+
+	@Override
+	public <N> Mutator<K> addCounterDeletion(K key, String cf)
+	{
+		reserve(key, 1, 0).addCounterDeletion(key, cf);
+		return this;
+	}
+
+	@Override
+	public <SN, N> Mutator<K> addCounterSubDeletion(K key, String cf,
+			HCounterSuperColumn<SN, N> sc)
+	{
+		reserve(key, Math.max(1, sc.getSize()), sc.getNameBytes().length).addCounterSubDeletion(
+				key, cf, sc);
+		return this;
+	}
+
+	@Override
+	public int getPendingMutationCount()
+	{
+		return mutationIndex;
+	}
+
+	/**
+	 * Number of chunks the pending mutations are cut into
+	 */
+	public int getPendingChunkCount()
+	{
+		return chunks.size() + (current.mutationCount > 0 ? 1 : 0);
+	}
+
+	@Override
+	public Mutator<K> discardPendingMutations()
+	{
+		chunks = new ArrayList<Chunk<K>>();
+		current = new Chunk<K>(newMutator(), 0);
+		mutationIndex = 0;
+		return this;
+	}
+
+	@Override
+	public MutationResult execute()
+	{
+		if (current.mutationCount > 0)
+		{
+			seal();
+		}
+		List<Chunk<K>> toSend = chunks;
+		discardPendingMutations();
+
+		if (toSend.isEmpty())
+		{
+			return current.mutator.execute();
+		}
+		else if (toSend.size() == 1)
+		{
+			try
+			{
+				MutationResult result = toSend.get(0).mutator.execute();
+				policy.recordBatch(1, 0);
+				return result;
+			}
+			catch (RuntimeException e)
+			{
+				policy.recordBatch(1, 1);
+				throw e;
+			}
+		}
+		else
+		{
+			return executeChunks(toSend);
+		}
+	}
+
+	private MutationResult executeChunks(List<Chunk<K>> toSend)
+	{
+		log.debug("Sending {} mutations in {} chunks", mutationCount(toSend), toSend.size());
+
+		BatchMutationResult result = new BatchMutationResult();
+		List<FailedChunk> failedChunks = new ArrayList<FailedChunk>();
+		int parallelism = policy.getParallelism();
+
+		if (executor == null || parallelism == 1
+				|| AsyncTaskCallable.isRunningAsyncTask())
+		{
+			for (int i = 0; i < toSend.size(); i++)
+			{
+				Chunk<K> chunk = toSend.get(i);
+				try
+				{
+					result.add(chunk.mutator.execute());
+				}
+				catch (RuntimeException e)
+				{
+					failedChunks.add(chunk.failure(i, e));
+				}
+			}
+		}
+		else
+		{
+			LinkedList<Pair<Integer, Future<MutationResult>>> inFlight = new LinkedList<Pair<Integer, Future<MutationResult>>>();
+			for (int i = 0; i < toSend.size(); i++)
+			{
+				if (inFlight.size() == parallelism)
+				{
+					collect(inFlight.removeFirst(), toSend, result, failedChunks);
+				}
+				Future<MutationResult> future = executor
+						.submit(new AsyncTaskCallable<MutationResult>(new ChunkTask<K>(toSend
+								.get(i))));
+				inFlight.add(Pair.create(i, future));
+			}
+			while (!inFlight.isEmpty())
+			{
+				collect(inFlight.removeFirst(), toSend, result, failedChunks);
+			}
+		}
+
+		policy.recordBatch(toSend.size(), failedChunks.size());
+		if (!failedChunks.isEmpty())
+		{
+			throw new MutationBatchException(toSend.size(), failedChunks);
+		}
+		return result;
+	}
+
+	private void collect(Pair<Integer, Future<MutationResult>> pending, List<Chunk<K>> toSend,
+			BatchMutationResult result, List<FailedChunk> failedChunks)
+	{
+		int index = pending.left;
+		try
+		{
+			result.add(pending.right.get());
+		}
+		catch (ExecutionException e)
+		{
+			failedChunks.add(toSend.get(index).failure(index, e.getCause()));
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			failedChunks.add(toSend.get(index).failure(index, e));
+		}
+	}
+
+	private static <K> int mutationCount(List<Chunk<K>> chunks)
+	{
+		int count = 0;
+		for (Chunk<K> chunk : chunks)
+		{
+			count += chunk.mutationCount;
+		}
+		return count;
+	}
+
+	// Mutations executed right away are not batched
+
+	@Override
+	public <N, V> MutationResult insert(K key, String cf, HColumn<N, V> c)
+	{
+		return newMutator().insert(key, cf, c);
+	}
+
+	@Override
+	public <SN, N, V> MutationResult insert(K key, String cf, HSuperColumn<SN, N, V> superColumn)
+	{
+		return newMutator().insert(key, cf, superColumn);
+	}
+
+	@Override
+	public <N> MutationResult delete(K key, String cf, N columnName, Serializer<N> nameSerializer)
+	{
+		return newMutator().delete(key, cf, columnName, nameSerializer);
+	}
+
+	@Override
+	public <N> MutationResult delete(K key, String cf, N columnName,
+			Serializer<N> nameSerializer, long clock)
+	{
+		return newMutator().delete(key, cf, columnName, nameSerializer, clock);
+	}
+
+	@Override
+	public <SN, N> MutationResult subDelete(K key, String cf, SN supercolumnName,
+			N columnName, Serializer<SN> sNameSerializer, Serializer<N> nameSerializer)
+	{
+		return newMutator().subDelete(key, cf, supercolumnName, columnName, sNameSerializer,
+				nameSerializer);
+	}
+
+	@Override
+	public <SN> MutationResult superDelete(K key, String cf, SN supercolumnName,
+			Serializer<SN> sNameSerializer)
+	{
+		return newMutator().superDelete(key, cf, supercolumnName, sNameSerializer);
+	}
+
+	@Override
+	public <N> MutationResult insertCounter(K key, String cf, HCounterColumn<N> c)
+	{
+		return newMutator().insertCounter(key, cf, c);
+	}
+
+	@Override
+	public <SN, N> MutationResult insertCounter(K key, String cf,
+			HCounterSuperColumn<SN, N> superColumn)
+	{
+		return newMutator().insertCounter(key, cf, superColumn);
+	}
+
+	@Override
+	public <N> MutationResult incrementCounter(K key, String cf, N columnName, long increment)
+	{
+		return newMutator().incrementCounter(key, cf, columnName, increment);
+	}
+
+	@Override
+	public <N> MutationResult decrementCounter(K key, String cf, N columnName, long increment)
+	{
+		return newMutator().decrementCounter(key, cf, columnName, increment);
+	}
+
+	@Override
+	public <N> MutationResult deleteCounter(K key, String cf, N counterColumnName,
+			Serializer<N> nameSerializer)
+	{
+		return newMutator().deleteCounter(key, cf, counterColumnName, nameSerializer);
+	}
+
+	@Override
+	public <SN, N> MutationResult subDeleteCounter(K key, String cf, SN supercolumnName,
+			N columnName, Serializer<SN> sNameSerializer, Serializer<N> nameSerializer)
+	{
+		return newMutator().subDeleteCounter(key, cf, supercolumnName, columnName,
+				sNameSerializer, nameSerializer);
+	}
+
+	private static class Chunk<K>
+	{
+		private final Mutator<K> mutator;
+		private final int firstMutationIndex;
+		private int mutationCount = 0;
+		private long byteSize = 0;
+
+		private Chunk(Mutator<K> mutator, int firstMutationIndex)
+		{
+			this.mutator = mutator;
+			this.firstMutationIndex = firstMutationIndex;
+		}
+
+		private FailedChunk failure(int chunkIndex, Throwable cause)
+		{
+			return new FailedChunk(chunkIndex, firstMutationIndex, mutationCount, byteSize, cause);
+		}
+	}
+
+	private static class ChunkTask<K> implements Callable<MutationResult>
+	{
+		private final Chunk<K> chunk;
+
+		private ChunkTask(Chunk<K> chunk)
+		{
+			this.chunk = chunk;
+		}
+
+		@Override
+		public MutationResult call()
+		{
+			return chunk.mutator.execute();
+		}
+	}
+
+	private static class BatchMutationResult implements MutationResult
+	{
+		private long executionTimeNano = 0;
+		private CassandraHost hostUsed;
+
+		private void add(MutationResult result)
+		{
+			executionTimeNano += result.getExecutionTimeNano();
+			hostUsed = result.getHostUsed();
+		}
+
+		@Override
+		public long getExecutionTimeMicro()
+		{
+			return executionTimeNano / 1000;
+		}
+
+		@Override
+		public long getExecutionTimeNano()
+		{
+			return executionTimeNano;
+		}
+
+		@Override
+		public CassandraHost getHostUsed()
+		{
+			return hostUsed;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package info.archinnov.achilles.dao;
+
+import info.archinnov.achilles.entity.type.ConsistencyLevel;
+import me.prettyprint.hector.api.HConsistencyLevel;
+
+/**
+ * ConsistencyContext
+ * 
+ * Read and write consistency levels of an operation, overriding the levels of the column family
+ * 
+ * when not null. The context is resolved once when the operation starts and handed down to the
+ * 
+ * DAOs, which run the queries on the keyspace bound to the resolved level.
+ * 
+ * Being immutable, a context can be shared with the threads of asynchronous tasks and prefetching
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public final class ConsistencyContext
+{
+	public static final ConsistencyContext DEFAULT = new ConsistencyContext(null, null);
+
+	private final ConsistencyLevel readLevel;
+	private final ConsistencyLevel writeLevel;
+
+	public ConsistencyContext(ConsistencyLevel readLevel, ConsistencyLevel writeLevel)
+	{
+		this.readLevel = readLevel;
+		this.writeLevel = writeLevel;
+	}
+
+	public static ConsistencyContext forRead(ConsistencyLevel readLevel)
+	{
+		return readLevel == null ? DEFAULT : new ConsistencyContext(readLevel, null);
+	}
+
+	public static ConsistencyContext forWrite(ConsistencyLevel writeLevel)
+	{
+		return writeLevel == null ? DEFAULT : new ConsistencyContext(null, writeLevel);
+	}
+
+	/**
+	 * Level of the reads, falling back to the level of the column family
+	 */
+	public HConsistencyLevel resolveReadLevel(HConsistencyLevel columnFamilyLevel)
+	{
+		return readLevel != null ? readLevel.getHectorLevel() : columnFamilyLevel;
+	}
+
+	/**
+	 * Level of the writes, falling back to the level of the column family
+	 */
+	public HConsistencyLevel resolveWriteLevel(HConsistencyLevel columnFamilyLevel)
+	{
+		return writeLevel != null ? writeLevel.getHectorLevel() : columnFamilyLevel;
+	}
+
+	public ConsistencyLevel getReadLevel()
+	{
+		return readLevel;
+	}
+
+	public ConsistencyLevel getWriteLevel()
+	{
+		return writeLevel;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ConsistencyContext [readLevel=" + readLevel + ", writeLevel=" + writeLevel + "]";
+	}
+}
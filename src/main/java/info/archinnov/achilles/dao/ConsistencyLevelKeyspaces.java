@@ -0,0 +1,91 @@
+package info.archinnov.achilles.dao;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import me.prettyprint.cassandra.service.FailoverPolicy;
+import me.prettyprint.cassandra.service.OperationType;
+import me.prettyprint.hector.api.Cluster;
+import me.prettyprint.hector.api.ConsistencyLevelPolicy;
+import me.prettyprint.hector.api.HConsistencyLevel;
+import me.prettyprint.hector.api.Keyspace;
+import me.prettyprint.hector.api.factory.HFactory;
+
+/**
+ * ConsistencyLevelKeyspaces
+ * 
+ * One Hector keyspace per consistency level, all sharing the connection pool of the cluster.
+ * 
+ * A query built on one of them is executed with its level whatever the thread running it, so no
+ * 
+ * thread-local state has to be set around the queries.
+ * 
+ * The keyspaces are created once at bootstrap, with the failover policy of the configuration.
+ * 
+ * Without cluster, all the levels are mapped to the given keyspace and its own consistency level
+ * 
+ * policy applies
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ConsistencyLevelKeyspaces
+{
+	private final Keyspace keyspace;
+	private final Map<HConsistencyLevel, Keyspace> keyspaces = new EnumMap<HConsistencyLevel, Keyspace>(
+			HConsistencyLevel.class);
+
+	public ConsistencyLevelKeyspaces(Keyspace keyspace)
+	{
+		this.keyspace = keyspace;
+		for (HConsistencyLevel level : HConsistencyLevel.values())
+		{
+			keyspaces.put(level, keyspace);
+		}
+	}
+
+	public ConsistencyLevelKeyspaces(Keyspace keyspace, Cluster cluster,
+			FailoverPolicy failoverPolicy)
+	{
+		this.keyspace = keyspace;
+		for (HConsistencyLevel level : HConsistencyLevel.values())
+		{
+			keyspaces.put(level, HFactory.createKeyspace(keyspace.getKeyspaceName(), cluster,
+					new FixedConsistencyLevelPolicy(level),
+					failoverPolicy, cluster.getCredentials()));
+		}
+	}
+
+	/**
+	 * Keyspace executing the queries with the given level
+	 * 
+	 * @param level
+	 *            consistency level, or null for the keyspace of the configuration
+	 */
+	public Keyspace get(HConsistencyLevel level)
+	{
+		return level == null ? keyspace : keyspaces.get(level);
+	}
+
+	private static class FixedConsistencyLevelPolicy implements ConsistencyLevelPolicy
+	{
+		private final HConsistencyLevel level;
+
+		private FixedConsistencyLevelPolicy(HConsistencyLevel level)
+		{
+			this.level = level;
+		}
+
+		@Override
+		public HConsistencyLevel get(OperationType op)
+		{
+			return level;
+		}
+
+		@Override
+		public HConsistencyLevel get(OperationType op, String cfName)
+		{
+			return level;
+		}
+	}
+}
@@ -3,9 +3,13 @@ package info.archinnov.achilles.dao;
 import static info.archinnov.achilles.serializer.SerializerUtils.COMPOSITE_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.DYNA_COMP_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.beans.Composite;
 import me.prettyprint.hector.api.beans.DynamicComposite;
+import me.prettyprint.hector.api.mutation.Mutator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +25,9 @@ public class CounterDao extends AbstractDao<Composite, DynamicComposite, Long>
 	private static final Logger log = LoggerFactory.getLogger(CounterDao.class);
 	public static final String COUNTER_CF = "achillesCounterCF";
 
+	private CounterDeltaAggregator deltaAggregator;
+	private final AtomicBoolean ignoredLevelLogged = new AtomicBoolean(false);
+
 	public CounterDao(Keyspace keyspace,
 			AchillesConfigurableConsistencyLevelPolicy consistencyPolicy)
 	{
@@ -31,7 +38,98 @@ public class CounterDao extends AbstractDao<Composite, DynamicComposite, Long>
 		columnFamily = COUNTER_CF;
 		columnNameSerializer = DYNA_COMP_SRZ;
 		valueSerializer = LONG_SRZ;
-		policy = consistencyPolicy;
+		setPolicy(consistencyPolicy);
 		log.debug("Initializing CounterDao with Composite key serializer, DynamicComposite comparator and Long value serializer ");
 	}
+
+	/**
+	 * Add a delta to a counter without reading it. When a delta aggregator is set, the delta is
+	 * 
+	 * buffered and written at the next flush of the aggregator, with the write level of the counter
+	 * 
+	 * column family. The write level of the context is then ignored
+	 */
+	@Override
+	public void incrementCounter(Composite key, DynamicComposite name, long delta,
+			ConsistencyContext context)
+	{
+		if (deltaAggregator != null)
+		{
+			if (context.getWriteLevel() != null && ignoredLevelLogged.compareAndSet(false, true))
+			{
+				log.warn(
+						"The write level {} is ignored for the counter increments buffered by the delta aggregator",
+						context.getWriteLevel());
+			}
+			deltaAggregator.add(key, name, delta);
+		}
+		else
+		{
+			super.incrementCounter(key, name, delta, context);
+		}
+	}
+
+	@Override
+	public void insertCounter(Composite key, DynamicComposite name, Long value,
+			Mutator<Composite> mutator)
+	{
+		flushPendingDelta(key, name);
+		super.insertCounter(key, name, value, mutator);
+	}
+
+	@Override
+	public void insertCounter(Composite key, DynamicComposite name, Long value,
+			ConsistencyContext context)
+	{
+		flushPendingDelta(key, name);
+		super.insertCounter(key, name, value, context);
+	}
+
+	@Override
+	public void removeCounter(Composite key, DynamicComposite name, ConsistencyContext context)
+	{
+		flushPendingDelta(key, name);
+		super.removeCounter(key, name, context);
+	}
+
+	@Override
+	public void removeCounterBatch(Composite key, DynamicComposite name,
+			Mutator<Composite> mutator)
+	{
+		flushPendingDelta(key, name);
+		super.removeCounterBatch(key, name, mutator);
+	}
+
+	@Override
+	public void removeCounterRowBatch(Composite key, Mutator<Composite> mutator)
+	{
+		if (deltaAggregator != null)
+		{
+			deltaAggregator.flushRow(key);
+		}
+		super.removeCounterRowBatch(key, mutator);
+	}
+
+	/**
+	 * The value of a counter is overwritten by writing its difference with the stored value, which
+	 * 
+	 * should include the deltas still buffered
+	 */
+	private void flushPendingDelta(Composite key, DynamicComposite name)
+	{
+		if (deltaAggregator != null)
+		{
+			deltaAggregator.flushCounter(key, name);
+		}
+	}
+
+	public CounterDeltaAggregator getDeltaAggregator()
+	{
+		return deltaAggregator;
+	}
+
+	public void setDeltaAggregator(CounterDeltaAggregator deltaAggregator)
+	{
+		this.deltaAggregator = deltaAggregator;
+	}
 }
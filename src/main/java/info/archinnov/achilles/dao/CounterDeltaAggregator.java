@@ -0,0 +1,418 @@
+package info.archinnov.achilles.dao;
+
+import info.archinnov.achilles.exception.MutationBatchException;
+import info.archinnov.achilles.exception.MutationBatchException.FailedChunk;
+import info.archinnov.achilles.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import me.prettyprint.hector.api.beans.Composite;
+import me.prettyprint.hector.api.beans.DynamicComposite;
+import me.prettyprint.hector.api.mutation.Mutator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * CounterDeltaAggregator
+ * 
+ * Write-behind buffer in front of the CounterDao. Deltas added for the same counter (row key,
+ * 
+ * column name) are summed in memory and written as a single increment when the buffer is flushed.
+ * 
+ * The deltas are kept in a ConcurrentHashMap of AtomicLong so adding a delta never takes a lock.
+ * 
+ * A flushed counter is retired before being removed from the map, a concurrent add on a retired
+ * 
+ * counter starts a new one so no delta is lost
+ * 
+ * The buffer is flushed when the number of pending counters reaches the flush threshold, every
+ * 
+ * flush interval and on close(). Until then, the pending deltas are not visible to readers.
+ * 
+ * The deltas are written with the write level of the counter column family, the consistency level
+ * 
+ * requested for an increment is not kept in the buffer.
+ * 
+ * Counters set or reset to an absolute value have their pending deltas written first, with
+ * 
+ * flushCounter() or flushRow(), so that the value read to compute the difference includes them
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class CounterDeltaAggregator
+{
+	private static final Logger log = LoggerFactory.getLogger(CounterDeltaAggregator.class);
+
+	public static final int FLUSH_BATCH_SIZE = 500;
+
+	private static final long RETIRED = Long.MIN_VALUE;
+
+	private final CounterDao counterDao;
+	private final int flushThreshold;
+	private final ConcurrentHashMap<Pair<Composite, DynamicComposite>, AtomicLong> pendingDeltas = new ConcurrentHashMap<Pair<Composite, DynamicComposite>, AtomicLong>();
+	private final ScheduledExecutorService flushExecutor;
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+	private volatile boolean closed = false;
+
+	private final AtomicInteger pendingCount = new AtomicInteger();
+	private final AtomicLong receivedDeltaCount = new AtomicLong();
+	private final AtomicLong flushedDeltaCount = new AtomicLong();
+	private final AtomicLong flushCount = new AtomicLong();
+	private final AtomicLong failedFlushCount = new AtomicLong();
+	private final AtomicLong totalFlushLatencyNanos = new AtomicLong();
+	private volatile long lastFlushLatencyNanos;
+
+	private final Runnable flushTask = new Runnable()
+	{
+		@Override
+		public void run()
+		{
+			flushRequested.set(false);
+			try
+			{
+				flush();
+			}
+			catch (RuntimeException e)
+			{
+				log.error("Fail to flush the pending counter deltas, they will be retried", e);
+			}
+		}
+	};
+
+	public CounterDeltaAggregator(CounterDao counterDao, int flushThreshold,
+			long flushIntervalMillis)
+	{
+		Validator.validateNotNull(counterDao, "Counter dao for delta aggregation should not be null");
+		Validator.validateTrue(flushThreshold > 0,
+				"Counter delta flush threshold should be strictly positive");
+		Validator.validateTrue(flushIntervalMillis > 0,
+				"Counter delta flush interval should be strictly positive");
+
+		this.counterDao = counterDao;
+		this.flushThreshold = flushThreshold;
+		this.flushExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+				.setNameFormat("achilles-counter-flush-%d").setDaemon(true).build());
+		this.flushExecutor.scheduleWithFixedDelay(flushTask, flushIntervalMillis,
+				flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Add a delta to a counter. The delta is written at the next flush
+	 * 
+	 * @param key
+	 *            row key of the counter
+	 * @param name
+	 *            column name of the counter
+	 * @param delta
+	 *            value to add to the counter
+	 */
+	public void add(Composite key, DynamicComposite name, long delta)
+	{
+		accumulate(Pair.create(key, name), delta);
+		receivedDeltaCount.incrementAndGet();
+
+		if (closed)
+		{
+			flush();
+		}
+	}
+
+	private void accumulate(Pair<Composite, DynamicComposite> counterKey, long delta)
+	{
+		while (true)
+		{
+			AtomicLong pending = pendingDeltas.get(counterKey);
+			if (pending == null)
+			{
+				if (pendingDeltas.putIfAbsent(counterKey, new AtomicLong(delta)) == null)
+				{
+					onNewPendingDelta();
+					break;
+				}
+			}
+			else
+			{
+				long current = pending.get();
+				if (current == RETIRED)
+				{
+					pendingDeltas.remove(counterKey, pending);
+				}
+				else if (pending.compareAndSet(current, current + delta))
+				{
+					break;
+				}
+			}
+		}
+	}
+
+	private void onNewPendingDelta()
+	{
+		if (pendingCount.incrementAndGet() >= flushThreshold && !closed
+				&& flushRequested.compareAndSet(false, true))
+		{
+			try
+			{
+				flushExecutor.execute(flushTask);
+			}
+			catch (RejectedExecutionException e)
+			{
+				// Closing, the pending deltas are flushed by close()
+				flushRequested.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Write all the pending deltas, by batches of FLUSH_BATCH_SIZE increments.
+	 * 
+	 * When a batch fails, its deltas which have not been written are put back in the buffer and the
+	 * 
+	 * exception is re-thrown
+	 */
+	public void flush()
+	{
+		flushLock.lock();
+		try
+		{
+			long start = System.nanoTime();
+			List<Pair<Pair<Composite, DynamicComposite>, Long>> batch = new ArrayList<Pair<Pair<Composite, DynamicComposite>, Long>>();
+			for (Entry<Pair<Composite, DynamicComposite>, AtomicLong> entry : pendingDeltas
+					.entrySet())
+			{
+				retire(entry.getKey(), entry.getValue(), batch);
+			}
+			executeBatch(batch);
+
+			long latency = System.nanoTime() - start;
+			lastFlushLatencyNanos = latency;
+			totalFlushLatencyNanos.addAndGet(latency);
+			flushCount.incrementAndGet();
+		}
+		finally
+		{
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Write the pending delta of one counter, before its value is read to be overwritten.
+	 * 
+	 * Once this method returns, the counter column holds all the deltas added before the call
+	 */
+	public void flushCounter(Composite key, DynamicComposite name)
+	{
+		flushLock.lock();
+		try
+		{
+			Pair<Composite, DynamicComposite> counterKey = Pair.create(key, name);
+			List<Pair<Pair<Composite, DynamicComposite>, Long>> batch = new ArrayList<Pair<Pair<Composite, DynamicComposite>, Long>>();
+			AtomicLong pending = pendingDeltas.get(counterKey);
+			if (pending != null)
+			{
+				retire(counterKey, pending, batch);
+			}
+			executeBatch(batch);
+		}
+		finally
+		{
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Write the pending deltas of all the counters of a row, before the row is reset
+	 */
+	public void flushRow(Composite key)
+	{
+		flushLock.lock();
+		try
+		{
+			List<Pair<Pair<Composite, DynamicComposite>, Long>> batch = new ArrayList<Pair<Pair<Composite, DynamicComposite>, Long>>();
+			for (Entry<Pair<Composite, DynamicComposite>, AtomicLong> entry : pendingDeltas
+					.entrySet())
+			{
+				if (entry.getKey().left.equals(key))
+				{
+					retire(entry.getKey(), entry.getValue(), batch);
+				}
+			}
+			executeBatch(batch);
+		}
+		finally
+		{
+			flushLock.unlock();
+		}
+	}
+
+	private void retire(Pair<Composite, DynamicComposite> counterKey, AtomicLong pending,
+			List<Pair<Pair<Composite, DynamicComposite>, Long>> batch)
+	{
+		long delta = pending.getAndSet(RETIRED);
+		if (delta == RETIRED)
+		{
+			return;
+		}
+		pendingDeltas.remove(counterKey, pending);
+		pendingCount.decrementAndGet();
+
+		if (delta != 0)
+		{
+			batch.add(Pair.create(counterKey, delta));
+			if (batch.size() == FLUSH_BATCH_SIZE)
+			{
+				executeBatch(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	private void executeBatch(List<Pair<Pair<Composite, DynamicComposite>, Long>> batch)
+	{
+		if (batch.isEmpty())
+		{
+			return;
+		}
+
+		Mutator<Composite> mutator = counterDao.buildMutator();
+		for (Pair<Pair<Composite, DynamicComposite>, Long> delta : batch)
+		{
+			counterDao.incrementCounterBatch(delta.left.left, delta.left.right, delta.right,
+					mutator);
+		}
+
+		try
+		{
+			counterDao.executeMutator(mutator);
+			flushedDeltaCount.addAndGet(batch.size());
+		}
+		catch (MutationBatchException e)
+		{
+			// Only the deltas of the failed chunks have not been written
+			failedFlushCount.incrementAndGet();
+			int failedDeltas = 0;
+			for (FailedChunk failedChunk : e.getFailedChunks())
+			{
+				int first = failedChunk.getFirstMutationIndex();
+				for (int i = first; i < first + failedChunk.getMutationCount(); i++)
+				{
+					accumulate(batch.get(i).left, batch.get(i).right);
+				}
+				failedDeltas += failedChunk.getMutationCount();
+			}
+			flushedDeltaCount.addAndGet(batch.size() - failedDeltas);
+			throw e;
+		}
+		catch (RuntimeException e)
+		{
+			failedFlushCount.incrementAndGet();
+			for (Pair<Pair<Composite, DynamicComposite>, Long> delta : batch)
+			{
+				accumulate(delta.left, delta.right);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Stop the periodic flush and write all the pending deltas.
+	 * 
+	 * Deltas added after close() are written right away
+	 */
+	public void close()
+	{
+		closed = true;
+		flushExecutor.shutdown();
+		try
+		{
+			flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+
+	public boolean isClosed()
+	{
+		return closed;
+	}
+
+	public int getFlushThreshold()
+	{
+		return flushThreshold;
+	}
+
+	/**
+	 * Number of counters having a delta waiting for the next flush
+	 */
+	public int getPendingDeltaCount()
+	{
+		return pendingCount.get();
+	}
+
+	/**
+	 * Number of deltas added to the buffer
+	 */
+	public long getReceivedDeltaCount()
+	{
+		return receivedDeltaCount.get();
+	}
+
+	/**
+	 * Number of counter increments written to Cassandra
+	 */
+	public long getFlushedDeltaCount()
+	{
+		return flushedDeltaCount.get();
+	}
+
+	/**
+	 * Number of completed flushes
+	 */
+	public long getFlushCount()
+	{
+		return flushCount.get();
+	}
+
+	/**
+	 * Number of batches which failed to be written
+	 */
+	public long getFailedFlushCount()
+	{
+		return failedFlushCount.get();
+	}
+
+	/**
+	 * Duration of the last completed flush, in milliseconds
+	 */
+	public long getLastFlushLatencyMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(lastFlushLatencyNanos);
+	}
+
+	/**
+	 * Average duration of the completed flushes, in milliseconds
+	 */
+	public double getAverageFlushLatencyMillis()
+	{
+		long flushes = flushCount.get();
+		return flushes == 0 ? 0 : (double) totalFlushLatencyNanos.get() / flushes / 1000000;
+	}
+}
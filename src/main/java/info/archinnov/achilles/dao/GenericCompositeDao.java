@@ -29,7 +29,7 @@ public class GenericCompositeDao<K, V> extends AbstractDao<K, Composite, V>
 		columnFamily = cf;
 		columnNameSerializer = COMPOSITE_SRZ;
 		valueSerializer = valSrz;
-		policy = consistencyPolicy;
+		setPolicy(consistencyPolicy);
 		log.debug(
 				"Initializing GenericCompositeDao for key serializer '{}', composite comparator and value serializer '{}'",
 				keySrz.getComparatorType().getTypeName(), valSrz.getComparatorType().getTypeName());
@@ -1,14 +1,19 @@
 package info.archinnov.achilles.dao;
 
 import static info.archinnov.achilles.entity.metadata.PropertyType.END_EAGER;
+import static info.archinnov.achilles.entity.metadata.PropertyType.SERIAL_VERSION_UID;
 import static info.archinnov.achilles.entity.metadata.PropertyType.START_EAGER;
 import static info.archinnov.achilles.serializer.SerializerUtils.DYNA_COMP_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import info.archinnov.achilles.entity.EntityCache;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.Serializer;
@@ -16,7 +21,7 @@ import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
 import me.prettyprint.hector.api.beans.DynamicComposite;
 import me.prettyprint.hector.api.beans.HColumn;
 import me.prettyprint.hector.api.beans.Row;
-import me.prettyprint.hector.api.beans.Rows;
+import me.prettyprint.hector.api.mutation.Mutator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +38,8 @@ public class GenericDynamicCompositeDao<K> extends AbstractDao<K, DynamicComposi
 
 	private DynamicComposite startCompositeForEagerFetch;
 	private DynamicComposite endCompositeForEagerFetch;
+	private DynamicComposite serialVersionUIDComposite;
+	private EntityCache entityCache;
 
 	protected GenericDynamicCompositeDao() {
 		this.initComposites();
@@ -48,7 +55,7 @@ public class GenericDynamicCompositeDao<K> extends AbstractDao<K, DynamicComposi
 		columnFamily = cf;
 		columnNameSerializer = DYNA_COMP_SRZ;
 		valueSerializer = STRING_SRZ;
-		policy = consistencyPolicy;
+		setPolicy(consistencyPolicy);
 		log.debug(
 				"Initializing GenericDynamicCompositeDao for key serializer '{}', dynamic composite comparator and value serializer 'BytesType'",
 				keySrz.getComparatorType().getTypeName());
@@ -63,15 +70,45 @@ public class GenericDynamicCompositeDao<K> extends AbstractDao<K, DynamicComposi
 				false, Integer.MAX_VALUE);
 	}
 
+	/**
+	 * Eager fetch by pages of columns, for rows holding chunks of large values
+	 */
+	public List<Pair<DynamicComposite, String>> eagerFetchEntity(K key, int pageSize)
+	{
+		log.trace("Eager fetching properties for column family {} by pages", columnFamily);
+
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		Iterator<HColumn<DynamicComposite, String>> iterator = this.getColumnsIterator(key,
+				startCompositeForEagerFetch, endCompositeForEagerFetch, false, pageSize);
+		while (iterator.hasNext())
+		{
+			HColumn<DynamicComposite, String> column = iterator.next();
+			columns.add(new Pair<DynamicComposite, String>(column.getName(), column.getValue()));
+		}
+		return columns;
+	}
+
 	public Map<K, List<Pair<DynamicComposite, String>>> eagerFetchEntities(List<K> keys)
 	{
 		log.trace("Eager fetching properties for multiple entities in column family {} ",
 				columnFamily);
 
+		return this.multiGetColumnsRange(keys, startCompositeForEagerFetch,
+				endCompositeForEagerFetch);
+	}
+
+	/**
+	 * Find all the columns between start and end of several rows with chunked multiget queries
+	 * 
+	 * @return the columns by key
+	 */
+	public Map<K, List<Pair<DynamicComposite, String>>> multiGetColumnsRange(List<K> keys,
+			DynamicComposite start, DynamicComposite end)
+	{
 		Map<K, List<Pair<DynamicComposite, String>>> map = new HashMap<K, List<Pair<DynamicComposite, String>>>();
 
-		Rows<K, DynamicComposite, String> rows = this.multiGetSliceRange(keys,
-				startCompositeForEagerFetch, endCompositeForEagerFetch, false, Integer.MAX_VALUE);
+		List<Row<K, DynamicComposite, String>> rows = this.multiGetSliceRangeInChunks(keys, start,
+				end, false, Integer.MAX_VALUE);
 
 		for (Row<K, DynamicComposite, String> row : rows)
 		{
@@ -87,6 +124,28 @@ public class GenericDynamicCompositeDao<K> extends AbstractDao<K, DynamicComposi
 		return map;
 	}
 
+	/**
+	 * Find which entities exist with a multiget of their serialVersionUID column only
+	 * 
+	 * @return the keys of the existing entities
+	 */
+	public Set<K> findExistingKeys(List<K> keys)
+	{
+		log.trace("Checking existence of {} entities in column family {} ", keys.size(),
+				columnFamily);
+
+		Set<K> existingKeys = new HashSet<K>();
+		for (Row<K, DynamicComposite, String> row : this.multiGetSliceRangeInChunks(keys,
+				serialVersionUIDComposite, serialVersionUIDComposite, false, 1))
+		{
+			if (!row.getColumnSlice().getColumns().isEmpty())
+			{
+				existingKeys.add(row.getKey());
+			}
+		}
+		return existingKeys;
+	}
+
 	private void initComposites()
 	{
 		startCompositeForEagerFetch = new DynamicComposite();
@@ -95,5 +154,35 @@ public class GenericDynamicCompositeDao<K> extends AbstractDao<K, DynamicComposi
 		endCompositeForEagerFetch = new DynamicComposite();
 		endCompositeForEagerFetch.addComponent(0, END_EAGER.flag(),
 				ComponentEquality.GREATER_THAN_EQUAL);
+
+		serialVersionUIDComposite = new DynamicComposite();
+		serialVersionUIDComposite.addComponent(0, SERIAL_VERSION_UID.flag(),
+				ComponentEquality.EQUAL);
+		serialVersionUIDComposite.addComponent(1, SERIAL_VERSION_UID.name(),
+				ComponentEquality.EQUAL);
+	}
+
+	/**
+	 * Execute a mutator, then end the writes of cached entities it holds
+	 */
+	@Override
+	public void executeMutator(Mutator<K> mutator)
+	{
+		try
+		{
+			super.executeMutator(mutator);
+		}
+		finally
+		{
+			if (entityCache != null)
+			{
+				entityCache.endWrites(mutator);
+			}
+		}
+	}
+
+	public void setEntityCache(EntityCache entityCache)
+	{
+		this.entityCache = entityCache;
 	}
 }
@@ -0,0 +1,72 @@
+package info.archinnov.achilles.dao;
+
+import info.archinnov.achilles.validation.Validator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MultigetPolicy
+ * 
+ * Limits of the multiget queries loading several rows at once: maximum number of keys per query
+ * 
+ * and maximum number of queries sent in parallel. Larger sets of keys are cut into chunks so that
+ * 
+ * no single request makes the coordinator gather thousands of rows
+ * 
+ * The number of multigets and chunks sent are recorded and exposed as metrics. The policy is
+ * 
+ * thread-safe and shared by all the DAOs of an entity manager factory
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class MultigetPolicy
+{
+	private final int chunkSize;
+	private final int parallelism;
+
+	private final AtomicLong multigetCount = new AtomicLong();
+	private final AtomicLong chunkCount = new AtomicLong();
+
+	public MultigetPolicy(int chunkSize, int parallelism)
+	{
+		Validator.validateTrue(chunkSize > 0, "Multiget chunk size should be strictly positive");
+		Validator.validateTrue(parallelism > 0,
+				"Multiget parallelism should be strictly positive");
+
+		this.chunkSize = chunkSize;
+		this.parallelism = parallelism;
+	}
+
+	void recordMultiget(int chunks)
+	{
+		multigetCount.incrementAndGet();
+		chunkCount.addAndGet(chunks);
+	}
+
+	public int getChunkSize()
+	{
+		return chunkSize;
+	}
+
+	public int getParallelism()
+	{
+		return parallelism;
+	}
+
+	/**
+	 * Number of executed multigets
+	 */
+	public long getMultigetCount()
+	{
+		return multigetCount.get();
+	}
+
+	/**
+	 * Number of multiget queries sent to Cassandra
+	 */
+	public long getChunkCount()
+	{
+		return chunkCount.get();
+	}
+}
@@ -0,0 +1,103 @@
+package info.archinnov.achilles.dao;
+
+import info.archinnov.achilles.validation.Validator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MutationBatchingPolicy
+ * 
+ * Limits of the chunks a batch of mutations is cut into by the BatchingMutator: maximum number of
+ * 
+ * mutations and maximum serialized size of a chunk, maximum number of chunks sent in parallel
+ * 
+ * The number of chunks sent and failed are recorded and exposed as metrics. The policy is
+ * 
+ * thread-safe and shared by all the DAOs of an entity manager factory
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class MutationBatchingPolicy
+{
+	private final int maxColumns;
+	private final long maxBytes;
+	private final int parallelism;
+
+	private final AtomicLong batchCount = new AtomicLong();
+	private final AtomicLong splitBatchCount = new AtomicLong();
+	private final AtomicLong chunkCount = new AtomicLong();
+	private final AtomicLong failedChunkCount = new AtomicLong();
+
+	public MutationBatchingPolicy(int maxColumns, long maxBytes, int parallelism)
+	{
+		Validator.validateTrue(maxColumns > 0,
+				"Mutation batch maximum column count should be strictly positive");
+		Validator.validateTrue(maxBytes > 0,
+				"Mutation batch maximum size should be strictly positive");
+		Validator.validateTrue(parallelism > 0,
+				"Mutation batch parallelism should be strictly positive");
+
+		this.maxColumns = maxColumns;
+		this.maxBytes = maxBytes;
+		this.parallelism = parallelism;
+	}
+
+	void recordBatch(int chunks, int failedChunks)
+	{
+		batchCount.incrementAndGet();
+		if (chunks > 1)
+		{
+			splitBatchCount.incrementAndGet();
+		}
+		chunkCount.addAndGet(chunks);
+		failedChunkCount.addAndGet(failedChunks);
+	}
+
+	public int getMaxColumns()
+	{
+		return maxColumns;
+	}
+
+	public long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	public int getParallelism()
+	{
+		return parallelism;
+	}
+
+	/**
+	 * Number of executed batches
+	 */
+	public long getBatchCount()
+	{
+		return batchCount.get();
+	}
+
+	/**
+	 * Number of executed batches which have been cut into several chunks
+	 */
+	public long getSplitBatchCount()
+	{
+		return splitBatchCount.get();
+	}
+
+	/**
+	 * Number of chunks sent to Cassandra
+	 */
+	public long getChunkCount()
+	{
+		return chunkCount.get();
+	}
+
+	/**
+	 * Number of chunks which failed to be written
+	 */
+	public long getFailedChunkCount()
+	{
+		return failedChunkCount.get();
+	}
+}
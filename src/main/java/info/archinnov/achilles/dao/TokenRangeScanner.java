@@ -0,0 +1,462 @@
+package info.archinnov.achilles.dao;
+
+import info.archinnov.achilles.validation.Validator;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.prettyprint.cassandra.model.ExecutingKeyspace;
+import me.prettyprint.cassandra.model.thrift.ThriftConverter;
+import me.prettyprint.cassandra.service.Operation;
+import me.prettyprint.cassandra.service.OperationType;
+import me.prettyprint.hector.api.HConsistencyLevel;
+import me.prettyprint.hector.api.Keyspace;
+import me.prettyprint.hector.api.Serializer;
+
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.dht.RandomPartitioner;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.ColumnParent;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.KeyRange;
+import org.apache.cassandra.thrift.KeySlice;
+import org.apache.cassandra.thrift.SlicePredicate;
+import org.apache.cassandra.thrift.SliceRange;
+import org.apache.cassandra.thrift.TokenRange;
+import org.apache.cassandra.utils.FBUtilities;
+
+/**
+ * TokenRangeScanner
+ * 
+ * Scan all the row keys of a column family in parallel. With the Random and Murmur3 partitioners,
+ * 
+ * the ranges owned by the nodes are split further into token ranges and at most
+ * 
+ * <em>concurrency</em> ranges are scanned at the same time on the executor for asynchronous
+ * 
+ * operations. Without executor, or from a thread of the executor, the ranges are scanned one after
+ * 
+ * the other. With ordered partitioners, the keys are scanned sequentially.
+ * 
+ * Each range is read by pages of <em>batchSize</em> keys, handed to the handler as soon as they
+ * 
+ * are read, so the keys of the column family are never all held in memory
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class TokenRangeScanner<K>
+{
+	static final int SPLITS_PER_THREAD = 4;
+
+	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+	private final Keyspace keyspace;
+	private final String columnFamily;
+	private final Serializer<K> keySerializer;
+	private final HConsistencyLevel readLevel;
+	private final ExecutorService executor;
+
+	private IPartitioner<?> partitioner;
+
+	public TokenRangeScanner(Keyspace keyspace, String columnFamily, Serializer<K> keySerializer,
+			HConsistencyLevel readLevel, ExecutorService executor)
+	{
+		this.keyspace = keyspace;
+		this.columnFamily = columnFamily;
+		this.keySerializer = keySerializer;
+		this.readLevel = readLevel;
+		this.executor = executor;
+	}
+
+	/**
+	 * Scan all the row keys of the column family
+	 * 
+	 * @param handler
+	 *            called from the scanning threads with each page of keys
+	 * @param concurrency
+	 *            maximum number of token ranges scanned at the same time
+	 * @param batchSize
+	 *            number of keys read per query and handed to the handler
+	 * @param listener
+	 *            notified of the progress of the scan, can be null
+	 * @return number of keys scanned
+	 */
+	public long scan(final KeyBatchHandler<K> handler, int concurrency, final int batchSize,
+			ScanProgressListener listener)
+	{
+		Validator.validateNotNull(handler, "Key batch handler should not be null");
+		Validator.validateTrue(concurrency > 0, "Scan concurrency should be strictly positive");
+		Validator.validateTrue(batchSize > 0, "Scan batch size should be strictly positive");
+
+		partitioner = loadPartitioner();
+		if (maxToken() == null)
+		{
+			// Ordered partitioners have no upper token to split the ring against
+			ScanProgress progress = new ScanProgress(1, listener);
+			scanByKeys(handler, batchSize, progress);
+			return progress.getScannedKeys();
+		}
+
+		List<TokenRange> ranges = splitRanges(describeRing(), concurrency * SPLITS_PER_THREAD);
+		final ScanProgress progress = new ScanProgress(ranges.size(), listener);
+
+		if (executor == null || concurrency == 1 || AsyncTaskCallable.isRunningAsyncTask())
+		{
+			for (TokenRange range : ranges)
+			{
+				scanRange(range, handler, batchSize, progress);
+			}
+		}
+		else
+		{
+			LinkedList<Future<Void>> inFlight = new LinkedList<Future<Void>>();
+			try
+			{
+				for (final TokenRange range : ranges)
+				{
+					if (inFlight.size() == concurrency)
+					{
+						waitForRange(inFlight.removeFirst());
+					}
+					inFlight.add(executor.submit(new AsyncTaskCallable<Void>(
+							new Callable<Void>()
+							{
+								@Override
+								public Void call()
+								{
+									scanRange(range, handler, batchSize, progress);
+									return null;
+								}
+							})));
+				}
+				while (!inFlight.isEmpty())
+				{
+					waitForRange(inFlight.removeFirst());
+				}
+			}
+			finally
+			{
+				for (Future<Void> pending : inFlight)
+				{
+					pending.cancel(true);
+				}
+			}
+		}
+		return progress.getScannedKeys();
+	}
+
+	private void waitForRange(Future<Void> future)
+	{
+		try
+		{
+			future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	void scanRange(TokenRange range, KeyBatchHandler<K> handler, int batchSize,
+			ScanProgress progress)
+	{
+		Token<?> endToken = tokenFromString(range.getEnd_token());
+		String startToken = range.getStart_token();
+		boolean exhausted = false;
+		while (!exhausted)
+		{
+			KeyRange keyRange = new KeyRange(batchSize);
+			keyRange.setStart_token(startToken);
+			keyRange.setEnd_token(range.getEnd_token());
+			List<KeySlice> slices = fetchKeySlices(keyRange);
+			handleKeys(slices, 0, handler, progress);
+
+			exhausted = slices.size() < batchSize;
+			if (!exhausted)
+			{
+				Token<?> lastToken = partitioner.getToken(slices.get(slices.size() - 1)
+						.bufferForKey());
+				// (end, end] would be the whole ring
+				exhausted = lastToken.equals(endToken);
+				startToken = tokenToString(lastToken);
+			}
+		}
+		progress.rangeCompleted();
+	}
+
+	void scanByKeys(KeyBatchHandler<K> handler, int batchSize, ScanProgress progress)
+	{
+		ByteBuffer startKey = EMPTY_BUFFER;
+		int skipped = 0;
+		boolean exhausted = false;
+		while (!exhausted)
+		{
+			// The start key is inclusive and has been handled with the previous page
+			KeyRange keyRange = new KeyRange(batchSize + skipped);
+			keyRange.setStart_key(startKey);
+			keyRange.setEnd_key(EMPTY_BUFFER);
+			List<KeySlice> slices = fetchKeySlices(keyRange);
+			handleKeys(slices, skipped, handler, progress);
+
+			exhausted = slices.size() < batchSize + skipped;
+			if (!exhausted)
+			{
+				startKey = slices.get(slices.size() - 1).bufferForKey();
+				skipped = 1;
+			}
+		}
+		progress.rangeCompleted();
+	}
+
+	private void handleKeys(List<KeySlice> slices, int skipped, KeyBatchHandler<K> handler,
+			ScanProgress progress)
+	{
+		List<K> keys = new ArrayList<K>(slices.size());
+		for (KeySlice slice : slices.subList(Math.min(skipped, slices.size()), slices.size()))
+		{
+			// Skip the tombstones of removed rows
+			if (!slice.getColumns().isEmpty())
+			{
+				keys.add(keySerializer.fromByteBuffer(slice.bufferForKey().duplicate()));
+			}
+		}
+		if (!keys.isEmpty())
+		{
+			handler.handle(keys);
+		}
+		progress.keysScanned(keys.size());
+	}
+
+	/**
+	 * Turn the ring ranges, which may wrap around the ring, into ranges (start, end] with start
+	 * 
+	 * before end, then split them evenly to get about <em>targetSplits</em> ranges
+	 */
+	List<TokenRange> splitRanges(List<TokenRange> ringRanges, int targetSplits)
+	{
+		BigInteger minToken = new BigInteger(tokenToString(partitioner.getMinimumToken()));
+		BigInteger maxToken = maxToken();
+
+		List<BigInteger[]> unwrapped = new ArrayList<BigInteger[]>();
+		for (TokenRange range : ringRanges)
+		{
+			BigInteger start = new BigInteger(range.getStart_token());
+			BigInteger end = new BigInteger(range.getEnd_token());
+			if (start.equals(end))
+			{
+				addRange(unwrapped, minToken, maxToken);
+			}
+			else if (start.compareTo(end) > 0)
+			{
+				addRange(unwrapped, start, maxToken);
+				addRange(unwrapped, minToken, end);
+			}
+			else
+			{
+				addRange(unwrapped, start, end);
+			}
+		}
+
+		List<TokenRange> splits = new ArrayList<TokenRange>();
+		if (unwrapped.isEmpty())
+		{
+			return splits;
+		}
+		int splitsPerRange = Math.max(1, (targetSplits + unwrapped.size() - 1) / unwrapped.size());
+		for (BigInteger[] range : unwrapped)
+		{
+			BigInteger length = range[1].subtract(range[0]);
+			BigInteger splitStart = range[0];
+			for (int i = 1; i <= splitsPerRange; i++)
+			{
+				BigInteger splitEnd = i == splitsPerRange ? range[1] : range[0].add(length.multiply(
+						BigInteger.valueOf(i)).divide(BigInteger.valueOf(splitsPerRange)));
+				// An empty range (x, x] would be the whole ring
+				if (splitEnd.compareTo(splitStart) > 0)
+				{
+					splits.add(new TokenRange(splitStart.toString(), splitEnd.toString(),
+							Collections.<String> emptyList()));
+					splitStart = splitEnd;
+				}
+			}
+		}
+		return splits;
+	}
+
+	private void addRange(List<BigInteger[]> ranges, BigInteger start, BigInteger end)
+	{
+		if (end.compareTo(start) > 0)
+		{
+			ranges.add(new BigInteger[]
+			{
+					start,
+					end
+			});
+		}
+	}
+
+	private BigInteger maxToken()
+	{
+		BigInteger maxToken = null;
+		if (partitioner instanceof RandomPartitioner)
+		{
+			maxToken = RandomPartitioner.MAXIMUM;
+		}
+		else if (partitioner instanceof Murmur3Partitioner)
+		{
+			maxToken = BigInteger.valueOf(Long.MAX_VALUE);
+		}
+		return maxToken;
+	}
+
+	private Token<?> tokenFromString(String token)
+	{
+		return partitioner.getTokenFactory().fromString(token);
+	}
+
+	@SuppressWarnings(
+	{
+			"unchecked",
+			"rawtypes"
+	})
+	private String tokenToString(Token token)
+	{
+		return partitioner.getTokenFactory().toString(token);
+	}
+
+	protected IPartitioner<?> loadPartitioner()
+	{
+		String partitionerClass = executeOperation(new Operation<String>(OperationType.META_READ)
+		{
+			@Override
+			public String execute(Cassandra.Client client) throws Exception
+			{
+				return client.describe_partitioner();
+			}
+		});
+		try
+		{
+			return FBUtilities.newPartitioner(partitionerClass);
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	protected List<TokenRange> describeRing()
+	{
+		return executeOperation(new Operation<List<TokenRange>>(OperationType.META_READ)
+		{
+			@Override
+			public List<TokenRange> execute(Cassandra.Client client) throws Exception
+			{
+				return client.describe_ring(keyspace.getKeyspaceName());
+			}
+		});
+	}
+
+	protected List<KeySlice> fetchKeySlices(final KeyRange keyRange)
+	{
+		HConsistencyLevel hectorLevel = readLevel != null ? readLevel : HConsistencyLevel.QUORUM;
+		final ConsistencyLevel level = ThriftConverter.consistencyLevel(hectorLevel);
+		return executeOperation(new Operation<List<KeySlice>>(OperationType.READ)
+		{
+			@Override
+			public List<KeySlice> execute(Cassandra.Client client) throws Exception
+			{
+				// Only one column is needed to tell live rows from removed ones
+				SlicePredicate predicate = new SlicePredicate();
+				predicate.setSlice_range(new SliceRange(EMPTY_BUFFER, EMPTY_BUFFER, false, 1));
+
+				return client.get_range_slices(new ColumnParent(columnFamily), predicate,
+						keyRange, level);
+			}
+		});
+	}
+
+	private <T> T executeOperation(Operation<T> operation)
+	{
+		Validator.validateTrue(keyspace instanceof ExecutingKeyspace,
+				"Token range scan is only supported on thrift keyspaces");
+		return ((ExecutingKeyspace) keyspace).doExecuteOperation(operation).get();
+	}
+
+	static class ScanProgress
+	{
+		private final int totalRanges;
+		private final ScanProgressListener listener;
+		private final AtomicInteger completedRanges = new AtomicInteger();
+		private final AtomicLong scannedKeys = new AtomicLong();
+
+		ScanProgress(int totalRanges, ScanProgressListener listener)
+		{
+			this.totalRanges = totalRanges;
+			this.listener = listener;
+		}
+
+		void keysScanned(int count)
+		{
+			long keys = scannedKeys.addAndGet(count);
+			if (listener != null && count > 0)
+			{
+				listener.onProgress(completedRanges.get(), totalRanges, keys);
+			}
+		}
+
+		void rangeCompleted()
+		{
+			int ranges = completedRanges.incrementAndGet();
+			if (listener != null)
+			{
+				listener.onProgress(ranges, totalRanges, scannedKeys.get());
+			}
+		}
+
+		long getScannedKeys()
+		{
+			return scannedKeys.get();
+		}
+	}
+
+	public interface KeyBatchHandler<K>
+	{
+		/**
+		 * Process a page of keys. Called concurrently from the scanning threads
+		 */
+		void handle(List<K> keys);
+	}
+
+	public interface ScanProgressListener
+	{
+		/**
+		 * Called from the scanning threads after each page of keys and each completed range
+		 * 
+		 * @param completedRanges
+		 *            number of token ranges entirely scanned
+		 * @param totalRanges
+		 *            number of token ranges to scan
+		 * @param scannedKeys
+		 *            number of keys scanned so far
+		 */
+		void onProgress(int completedRanges, int totalRanges, long scannedKeys);
+	}
+}
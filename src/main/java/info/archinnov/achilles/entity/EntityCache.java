@@ -0,0 +1,301 @@
+package info.archinnov.achilles.entity;
+
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+/**
+ * EntityCache
+ * 
+ * Second-level cache of the eager columns of @Cached entities, by column family and primary key.
+ * 
+ * The cache is shared by all the entity managers of a factory. Entries are evicted in least
+ * 
+ * recently used order above the maximum size, and expire after the time to live
+ * 
+ * A write queued in a mutator is registered with beginWrite() and completed with endWrites() once
+ * 
+ * the mutator is executed. Columns read before the end of a write to the same entity are not
+ * 
+ * cached, since they may be older than the write
+ * 
+ * The number of hits, misses and evictions are recorded and exposed as metrics
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class EntityCache
+{
+	private final int maxSize;
+	private final long timeToLive;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final Map<Pair<String, Object>, CachedColumns> entries;
+	private final Map<Pair<String, Object>, WriteState> writes = //
+	new HashMap<Pair<String, Object>, WriteState>();
+	private final Map<Object, List<Pair<String, Object>>> pendingBatches = //
+	new WeakHashMap<Object, List<Pair<String, Object>>>();
+	private long writeSequence = 0;
+	private long forgottenWriteSequence = 0;
+
+	public EntityCache(final int maxSize, long timeToLive)
+	{
+		Validator.validateTrue(maxSize > 0, "Entity cache max size should be strictly positive");
+		Validator.validateTrue(timeToLive > 0,
+				"Entity cache time to live should be strictly positive");
+
+		this.maxSize = maxSize;
+		this.timeToLive = timeToLive;
+		this.entries = new LinkedHashMap<Pair<String, Object>, CachedColumns>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Pair<String, Object>, CachedColumns> eldest)
+			{
+				if (size() > maxSize)
+				{
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Eager columns of an entity
+	 * 
+	 * @return the cached columns, or null when absent or expired
+	 */
+	public synchronized List<Pair<DynamicComposite, String>> get(String columnFamily, Object key)
+	{
+		Pair<String, Object> cacheKey = buildKey(columnFamily, key);
+		CachedColumns cachedColumns = entries.get(cacheKey);
+		if (cachedColumns == null)
+		{
+			missCount.incrementAndGet();
+			return null;
+		}
+		else if (cachedColumns.expiration <= System.currentTimeMillis())
+		{
+			entries.remove(cacheKey);
+			evictionCount.incrementAndGet();
+			missCount.incrementAndGet();
+			return null;
+		}
+		else
+		{
+			hitCount.incrementAndGet();
+			return cachedColumns.columns;
+		}
+	}
+
+	public synchronized void put(String columnFamily, Object key,
+			List<Pair<DynamicComposite, String>> columns)
+	{
+		entries.put(buildKey(columnFamily, key),
+				new CachedColumns(Collections.unmodifiableList(columns),
+						System.currentTimeMillis() + timeToLive));
+	}
+
+	/**
+	 * Cache the columns read for an entity, unless a write to the entity is pending or has ended
+	 * 
+	 * since the read started
+	 * 
+	 * @param readSequence
+	 *            write sequence returned by getWriteSequence() before the columns were read
+	 * @return whether the columns have been cached
+	 */
+	public synchronized boolean put(String columnFamily, Object key,
+			List<Pair<DynamicComposite, String>> columns, long readSequence)
+	{
+		WriteState writeState = writes.get(buildKey(columnFamily, key));
+		boolean written = writeState != null
+				&& (writeState.pending > 0 || writeState.lastWrite > readSequence);
+		if (written || readSequence < forgottenWriteSequence)
+		{
+			return false;
+		}
+		this.put(columnFamily, key, columns);
+		return true;
+	}
+
+	/**
+	 * Remove the columns of an entity after a write which has already been executed
+	 */
+	public synchronized void invalidate(String columnFamily, Object key)
+	{
+		Pair<String, Object> cacheKey = buildKey(columnFamily, key);
+		entries.remove(cacheKey);
+		this.getWriteState(cacheKey).lastWrite = ++writeSequence;
+		this.forgetEndedWrites();
+	}
+
+	/**
+	 * Remove the columns of an entity whose write is queued in a batch, and keep them out of the
+	 * 
+	 * cache until endWrites() is called for the batch
+	 * 
+	 * @param batch
+	 *            the mutator holding the write, only weakly referenced. The entities of a batch
+	 *            dropped without being executed are not cached anymore
+	 */
+	public synchronized void beginWrite(String columnFamily, Object key, Object batch)
+	{
+		Pair<String, Object> cacheKey = buildKey(columnFamily, key);
+		entries.remove(cacheKey);
+		this.getWriteState(cacheKey).pending++;
+
+		List<Pair<String, Object>> batchKeys = pendingBatches.get(batch);
+		if (batchKeys == null)
+		{
+			batchKeys = new ArrayList<Pair<String, Object>>();
+			pendingBatches.put(batch, batchKeys);
+		}
+		batchKeys.add(cacheKey);
+	}
+
+	/**
+	 * End the writes of a batch once it has been executed, successfully or not
+	 */
+	public synchronized void endWrites(Object batch)
+	{
+		List<Pair<String, Object>> batchKeys = pendingBatches.remove(batch);
+		if (batchKeys == null)
+		{
+			return;
+		}
+		for (Pair<String, Object> cacheKey : batchKeys)
+		{
+			entries.remove(cacheKey);
+			WriteState writeState = this.getWriteState(cacheKey);
+			writeState.pending--;
+			writeState.lastWrite = ++writeSequence;
+		}
+		this.forgetEndedWrites();
+	}
+
+	/**
+	 * Sequence of the last ended write, to be read before the columns given to put()
+	 */
+	public synchronized long getWriteSequence()
+	{
+		return writeSequence;
+	}
+
+	private WriteState getWriteState(Pair<String, Object> cacheKey)
+	{
+		WriteState writeState = writes.get(cacheKey);
+		if (writeState == null)
+		{
+			writeState = new WriteState();
+			writes.put(cacheKey, writeState);
+		}
+		return writeState;
+	}
+
+	/**
+	 * Keep the write states bounded. Once the ended writes are forgotten, no read started before
+	 * 
+	 * them can be cached
+	 */
+	private void forgetEndedWrites()
+	{
+		if (writes.size() > maxSize)
+		{
+			Iterator<WriteState> iterator = writes.values().iterator();
+			while (iterator.hasNext())
+			{
+				if (iterator.next().pending == 0)
+				{
+					iterator.remove();
+				}
+			}
+			forgottenWriteSequence = writeSequence;
+		}
+	}
+
+	public synchronized void clear()
+	{
+		entries.clear();
+	}
+
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	public long getTimeToLive()
+	{
+		return timeToLive;
+	}
+
+	/**
+	 * Number of find() served by the cache
+	 */
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+
+	/**
+	 * Number of find() reading Cassandra because the entity was absent or expired
+	 */
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+
+	/**
+	 * Number of entries removed because the cache was full or they expired
+	 */
+	public long getEvictionCount()
+	{
+		return evictionCount.get();
+	}
+
+	private Pair<String, Object> buildKey(String columnFamily, Object key)
+	{
+		return new Pair<String, Object>(columnFamily, key);
+	}
+
+	private static class WriteState
+	{
+		private int pending;
+		private long lastWrite;
+	}
+
+	private static class CachedColumns
+	{
+		private final List<Pair<DynamicComposite, String>> columns;
+		private final long expiration;
+
+		private CachedColumns(List<Pair<DynamicComposite, String>> columns, long expiration)
+		{
+			this.columns = columns;
+			this.expiration = expiration;
+		}
+	}
+}
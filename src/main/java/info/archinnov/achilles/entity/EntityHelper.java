@@ -23,6 +23,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.persistence.Table;
 
@@ -45,6 +47,8 @@ public class EntityHelper
 
 	private static final Logger log = LoggerFactory.getLogger(EntityHelper.class);
 
+	private static final ConcurrentMap<Class<?>, Boolean> valueHashCodeClasses = new ConcurrentHashMap<Class<?>, Boolean>();
+
 	private PropertyFilter filter = new PropertyFilter();
 
 	protected String[] deriveGetterName(Field field)
@@ -146,7 +150,7 @@ public class EntityHelper
 		Method[] accessors = new Method[2];
 
 		accessors[0] = findGetter(beanClass, field);
-		if (field.getType() != WideMap.class)
+		if (!WideMap.class.isAssignableFrom(field.getType()))
 		{
 			accessors[1] = findSetter(beanClass, field);
 		}
@@ -458,8 +462,55 @@ public class EntityHelper
 		return multiKeyValues;
 	}
 
-	@SuppressWarnings("unchecked")
 	public <T> T buildProxy(T entity, EntityMeta<?> entityMeta)
+	{
+		return this.buildProxy(entity, entityMeta, true);
+	}
+
+	/**
+	 * Build the proxy of an entity
+	 * 
+	 * @param loadedJoins
+	 *            whether the join properties already set in the entity are considered as loaded.
+	 * 
+	 *            Otherwise they are read again at first access
+	 */
+	public <T> T buildProxy(T entity, EntityMeta<?> entityMeta, boolean loadedJoins)
+	{
+		return this.buildProxy(entity, entityMeta, loadedJoins, false);
+	}
+
+	/**
+	 * Build the proxy of an entity just loaded from Cassandra. The columns of its list, set and map
+	 * 
+	 * properties are known so that a merge deletes them without reading them first
+	 */
+	public <T> T buildLoadedProxy(T entity, EntityMeta<?> entityMeta)
+	{
+		return this.buildProxy(entity, entityMeta, true, true);
+	}
+
+	/**
+	 * Build the proxy of an entity whose write is pending. Its lazy and join properties are not
+	 * read from Cassandra, where the values of the entity are not written yet
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T buildTransientProxy(T entity, EntityMeta<?> entityMeta)
+	{
+		Validator.validateNotNull(entityMeta, "entityMeta for proxy builder should not be null");
+
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(entity.getClass());
+		enhancer.setCallback(JpaEntityInterceptorBuilder.builder(entityMeta, entity)
+				.loadedProperties(true) //
+				.build());
+
+		return (T) enhancer.create();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T buildProxy(T entity, EntityMeta<?> entityMeta, boolean loadedJoins,
+			boolean loadedColumns)
 	{
 		if (entity == null)
 		{
@@ -471,7 +522,10 @@ public class EntityHelper
 		Enhancer enhancer = new Enhancer();
 		enhancer.setSuperclass(entity.getClass());
 
-		enhancer.setCallback(JpaEntityInterceptorBuilder.builder(entityMeta, entity).build());
+		enhancer.setCallback(JpaEntityInterceptorBuilder.builder(entityMeta, entity)
+				.loadedJoins(loadedJoins) //
+				.loadedColumns(loadedColumns) //
+				.build());
 
 		return (T) enhancer.create();
 	}
@@ -502,6 +556,39 @@ public class EntityHelper
 		}
 	}
 
+	/**
+	 * Whether the hash code of an object depends on its value only. Set elements and map keys are
+	 * 
+	 * stored in the column of their hash code, which is only found again after a reload for such
+	 * 
+	 * objects. Enums and objects not overriding hashCode() use their identity hash code.
+	 * 
+	 * The answer is cached per class since it is asked on every collection mutation
+	 */
+	public boolean hasValueHashCode(Object object)
+	{
+		if (object == null || object instanceof Enum)
+		{
+			return false;
+		}
+		Class<?> objectClass = object.getClass();
+		Boolean valueHashCode = valueHashCodeClasses.get(objectClass);
+		if (valueHashCode == null)
+		{
+			try
+			{
+				Method hashCode = objectClass.getMethod("hashCode");
+				valueHashCode = hashCode.getDeclaringClass() != Object.class;
+			}
+			catch (NoSuchMethodException e)
+			{
+				valueHashCode = false;
+			}
+			valueHashCodeClasses.put(objectClass, valueHashCode);
+		}
+		return valueHashCode;
+	}
+
 	public <T> T unproxy(T proxy)
 	{
 		if (this.isProxy(proxy))
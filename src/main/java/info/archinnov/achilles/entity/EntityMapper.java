@@ -1,6 +1,9 @@
 package info.archinnov.achilles.entity;
 
+import static info.archinnov.achilles.serializer.SerializerUtils.INT_SRZ;
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import info.archinnov.achilles.codec.ValueChunker;
 import info.archinnov.achilles.columnFamily.ColumnFamilyHelper;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
@@ -9,7 +12,9 @@ import info.archinnov.achilles.entity.metadata.PropertyType;
 import info.archinnov.achilles.entity.type.KeyValue;
 import info.archinnov.achilles.exception.AchillesException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -44,6 +49,7 @@ public class EntityMapper
 		Map<String, List<?>> listProperties = new HashMap<String, List<?>>();
 		Map<String, Set<?>> setProperties = new HashMap<String, Set<?>>();
 		Map<String, Map<?, ?>> mapProperties = new HashMap<String, Map<?, ?>>();
+		Map<String, List<Pair<DynamicComposite, String>>> chunkedProperties = new HashMap<String, List<Pair<DynamicComposite, String>>>();
 
 		setIdToEntity(key, entityMeta.getIdMeta(), entity);
 
@@ -66,7 +72,12 @@ public class EntityMapper
 
 			PropertyMeta<?, ?> propertyMeta = propertyMetas.get(propertyName);
 
-			if (propertyMeta.type() == PropertyType.SIMPLE)
+			if (propertyMeta.type() == PropertyType.SIMPLE && propertyMeta.isChunked())
+			{
+				addToChunkedColumns(chunkedProperties, propertyMeta, pair);
+			}
+
+			else if (propertyMeta.type() == PropertyType.SIMPLE)
 			{
 				setSimplePropertyToEntity(pair.right, propertyMeta, entity);
 			}
@@ -106,6 +117,188 @@ public class EntityMapper
 			setMapPropertyToEntity(entry.getValue(), propertyMetas.get(entry.getKey()), entity);
 		}
 
+		for (Entry<String, List<Pair<DynamicComposite, String>>> entry : chunkedProperties
+				.entrySet())
+		{
+			PropertyMeta<?, ?> propertyMeta = propertyMetas.get(entry.getKey());
+			setSimplePropertyToEntity(joinChunks(entry.getValue(), propertyMeta), propertyMeta,
+					entity);
+		}
+	}
+
+	/**
+	 * Set the values of lazy properties read from their columns. Properties without column are set
+	 * 
+	 * to null, columns of other properties are ignored
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> void setLazyPropertiesToEntity(List<Pair<DynamicComposite, String>> columns,
+			List<PropertyMeta<?, ?>> lazyMetas, T entity)
+	{
+		log.trace("Set lazy properties to entity {} ", entity);
+
+		Map<String, PropertyMeta<?, ?>> lazyMetasByName = new HashMap<String, PropertyMeta<?, ?>>();
+		for (PropertyMeta<?, ?> propertyMeta : lazyMetas)
+		{
+			lazyMetasByName.put(propertyMeta.getPropertyName(), propertyMeta);
+		}
+
+		Map<String, Object> values = new HashMap<String, Object>();
+		Map<String, List<?>> listProperties = new HashMap<String, List<?>>();
+		Map<String, Set<?>> setProperties = new HashMap<String, Set<?>>();
+		Map<String, Map<?, ?>> mapProperties = new HashMap<String, Map<?, ?>>();
+		Map<String, List<Pair<DynamicComposite, String>>> chunkedProperties = new HashMap<String, List<Pair<DynamicComposite, String>>>();
+
+		for (Pair<DynamicComposite, String> pair : columns)
+		{
+			PropertyMeta<?, ?> propertyMeta = lazyMetasByName.get(pair.left.get(1, STRING_SRZ));
+			if (propertyMeta == null)
+			{
+				continue;
+			}
+
+			switch (propertyMeta.type())
+			{
+				case LAZY_SIMPLE:
+					if (propertyMeta.isChunked())
+					{
+						addToChunkedColumns(chunkedProperties, propertyMeta, pair);
+					}
+					else
+					{
+						values.put(propertyMeta.getPropertyName(),
+								propertyMeta.getValueFromString(pair.right));
+					}
+					break;
+				case LAZY_LIST:
+					PropertyMeta<Void, ?> listMeta = (PropertyMeta<Void, ?>) propertyMeta;
+					addToList(listProperties, listMeta, listMeta.getValueFromString(pair.right));
+					break;
+				case LAZY_SET:
+					PropertyMeta<Void, ?> setMeta = (PropertyMeta<Void, ?>) propertyMeta;
+					addToSet(setProperties, setMeta, setMeta.getValueFromString(pair.right));
+					break;
+				case LAZY_MAP:
+					addToMap(mapProperties, propertyMeta,
+							propertyMeta.getKeyValueFromString(pair.right));
+					break;
+				default:
+					throw new AchillesException("The property '" + propertyMeta.getPropertyName()
+							+ "' of type '" + propertyMeta.type()
+							+ "' cannot be loaded with other lazy properties");
+			}
+		}
+		values.putAll(listProperties);
+		values.putAll(setProperties);
+		values.putAll(mapProperties);
+
+		for (Entry<String, List<Pair<DynamicComposite, String>>> entry : chunkedProperties
+				.entrySet())
+		{
+			PropertyMeta<?, ?> propertyMeta = lazyMetasByName.get(entry.getKey());
+			values.put(entry.getKey(),
+					propertyMeta.getValueFromString(joinChunks(entry.getValue(), propertyMeta)));
+		}
+
+		for (PropertyMeta<?, ?> propertyMeta : lazyMetas)
+		{
+			try
+			{
+				helper.setValueToField(entity, propertyMeta.getSetter(),
+						values.get(propertyMeta.getPropertyName()));
+			}
+			catch (Exception e)
+			{
+				throw new AchillesException("Cannot set value of property '"
+						+ propertyMeta.getPropertyName() + "' to entity " + entity, e);
+			}
+		}
+	}
+
+	/**
+	 * Text of a chunked property joined from its head column and its chunk columns.
+	 * 
+	 * The head column holds the generation and either the whole text or the count of the chunks.
+	 * 
+	 * Null without head column
+	 */
+	public String joinChunks(List<Pair<DynamicComposite, String>> columns,
+			PropertyMeta<?, ?> propertyMeta)
+	{
+		return this.joinChunks(columns.iterator(), propertyMeta);
+	}
+
+	/**
+	 * Text of a chunked property joined from its columns, sorted by name. Only the chunks of the
+	 * 
+	 * generation of the head column are joined, and the columns are read until the last of them.
+	 * 
+	 * The chunks of older generations, not deleted yet by the write of the head, and the chunks of
+	 * 
+	 * newer generations, being written, are skipped
+	 */
+	public String joinChunks(Iterator<Pair<DynamicComposite, String>> columns,
+			PropertyMeta<?, ?> propertyMeta)
+	{
+		if (!columns.hasNext())
+		{
+			return null;
+		}
+		Pair<DynamicComposite, String> head = columns.next();
+		if (head.left.size() > 2)
+		{
+			// Chunks of a first value whose head column is not written yet
+			return null;
+		}
+		if (!ValueChunker.isChunkHead(head.right))
+		{
+			// Whole value written before heads carried a generation
+			return head.right;
+		}
+
+		long generation = ValueChunker.parseGeneration(head.right);
+		int chunkCount = ValueChunker.parseChunkCount(head.right);
+		if (chunkCount == 0)
+		{
+			return ValueChunker.parseWholeText(head.right);
+		}
+		StringBuilder text = new StringBuilder();
+		int index = 0;
+		while (index < chunkCount && columns.hasNext())
+		{
+			Pair<DynamicComposite, String> chunk = columns.next();
+			long chunkGeneration = chunk.left.get(2, LONG_SRZ);
+			if (chunkGeneration == generation && chunk.left.get(3, INT_SRZ) == index)
+			{
+				text.append(chunk.right);
+				index++;
+			}
+			else if (chunkGeneration >= generation)
+			{
+				break;
+			}
+		}
+
+		if (index < chunkCount)
+		{
+			throw new AchillesException("The chunk " + index + " of the property '"
+					+ propertyMeta.getPropertyName() + "' is missing");
+		}
+		return text.toString();
+	}
+
+	protected void addToChunkedColumns(
+			Map<String, List<Pair<DynamicComposite, String>>> chunkedProperties,
+			PropertyMeta<?, ?> propertyMeta, Pair<DynamicComposite, String> pair)
+	{
+		String propertyName = propertyMeta.getPropertyName();
+		List<Pair<DynamicComposite, String>> columns = chunkedProperties.get(propertyName);
+		if (columns == null)
+		{
+			columns = new ArrayList<Pair<DynamicComposite, String>>();
+			chunkedProperties.put(propertyName, columns);
+		}
+		columns.add(pair);
 	}
 
 	@SuppressWarnings("unchecked")
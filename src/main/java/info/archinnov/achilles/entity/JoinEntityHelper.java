@@ -20,6 +20,8 @@ import me.prettyprint.hector.api.beans.DynamicComposite;
 public class JoinEntityHelper
 {
 
+	private static final int CHUNK_PAGE_SIZE = 10;
+
 	private EntityMapper mapper = new EntityMapper();
 	private EntityHelper helper = new EntityHelper();
 
@@ -33,8 +35,20 @@ public class JoinEntityHelper
 				+ "' should not be null");
 
 		Map<ID, T> entitiesByKey = new HashMap<ID, T>();
-		Map<ID, List<Pair<DynamicComposite, String>>> rows = entityMeta.getEntityDao()
-				.eagerFetchEntities(keys);
+		Map<ID, List<Pair<DynamicComposite, String>>> rows;
+		if (entityMeta.isEagerChunked())
+		{
+			// Rows holding chunks are read one by one, by pages of chunks
+			rows = new HashMap<ID, List<Pair<DynamicComposite, String>>>();
+			for (ID key : keys)
+			{
+				rows.put(key, entityMeta.getEntityDao().eagerFetchEntity(key, CHUNK_PAGE_SIZE));
+			}
+		}
+		else
+		{
+			rows = entityMeta.getEntityDao().eagerFetchEntities(keys);
+		}
 
 		for (Entry<ID, List<Pair<DynamicComposite, String>>> entry : rows.entrySet())
 		{
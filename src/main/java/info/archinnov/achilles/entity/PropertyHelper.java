@@ -1,9 +1,15 @@
 package info.archinnov.achilles.entity;
 
+import info.archinnov.achilles.annotations.Chunked;
+import info.archinnov.achilles.annotations.Codec;
+import info.archinnov.achilles.annotations.Compressed;
 import info.archinnov.achilles.annotations.Consistency;
 import info.archinnov.achilles.annotations.Counter;
 import info.archinnov.achilles.annotations.Key;
 import info.archinnov.achilles.annotations.Lazy;
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.codec.ValueCodec;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.metadata.MultiKeyProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
@@ -12,6 +18,7 @@ import info.archinnov.achilles.entity.type.MultiKey;
 import info.archinnov.achilles.exception.BeanMappingException;
 import info.archinnov.achilles.validation.Validator;
 
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -34,6 +41,7 @@ import me.prettyprint.hector.api.Serializer;
 import me.prettyprint.hector.api.beans.AbstractComposite.Component;
 
 import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -228,6 +236,75 @@ public class PropertyHelper
 		return keyClass;
 	}
 
+	/**
+	 * Codec of the @Codec annotation of an entity class or a field, or the given default codec
+	 */
+	public ValueCodec findValueCodec(AnnotatedElement element, ObjectMapper objectMapper,
+			ValueCodec defaultCodec)
+	{
+		Codec codec = element.getAnnotation(Codec.class);
+		if (codec == null)
+		{
+			return defaultCodec;
+		}
+
+		Class<? extends ValueCodec> codecClass = codec.value();
+		try
+		{
+			try
+			{
+				return codecClass.getConstructor(ObjectMapper.class).newInstance(objectMapper);
+			}
+			catch (NoSuchMethodException e)
+			{
+				return codecClass.newInstance();
+			}
+		}
+		catch (Exception e)
+		{
+			throw new BeanMappingException("Cannot instantiate the codec '"
+					+ codecClass.getCanonicalName() + "' of '" + element + "'", e);
+		}
+	}
+
+	/**
+	 * Compressor of the @Compressed annotation of a field, or the given default compressor
+	 */
+	public ValueCompressor findValueCompressor(Field field, ValueCompressor defaultCompressor)
+	{
+		Compressed compressed = field.getAnnotation(Compressed.class);
+		if (compressed == null)
+		{
+			return defaultCompressor;
+		}
+		Validator.validateBeanMappingTrue(compressed.threshold() >= 0,
+				"The compression threshold of the field '" + field.getName()
+						+ "' should be positive");
+		return new ValueCompressor(compressed.threshold());
+	}
+
+	/**
+	 * Chunker of the @Chunked annotation of a field, or null
+	 */
+	public ValueChunker findValueChunker(Field field)
+	{
+		Chunked chunked = field.getAnnotation(Chunked.class);
+		if (chunked == null)
+		{
+			return null;
+		}
+		Validator.validateBeanMappingTrue(chunked.size() > 0, "The chunk size of the field '"
+				+ field.getName() + "' should be strictly positive");
+		Validator.validateBeanMappingTrue(field.getAnnotation(Compressed.class) == null,
+				"The field '" + field.getName() + "' cannot be both chunked and compressed");
+		return new ValueChunker(chunked.size());
+	}
+
+	public boolean hasChunkedAnnotation(Field field)
+	{
+		return field.getAnnotation(Chunked.class) != null;
+	}
+
 	public boolean isLazy(Field field)
 	{
 		boolean lazy = false;
@@ -238,6 +315,17 @@ public class PropertyHelper
 		return lazy;
 	}
 
+	public String getFetchGroup(Field field)
+	{
+		String fetchGroup = null;
+		Lazy lazy = field.getAnnotation(Lazy.class);
+		if (lazy != null && StringUtils.isNotBlank(lazy.group()))
+		{
+			fetchGroup = lazy.group();
+		}
+		return fetchGroup;
+	}
+
 	public boolean hasCounterAnnotation(Field field)
 	{
 		boolean counter = false;
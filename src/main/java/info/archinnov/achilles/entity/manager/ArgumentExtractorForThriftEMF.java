@@ -1,7 +1,14 @@
 package info.archinnov.achilles.entity.manager;
 
+import info.archinnov.achilles.codec.ValueCompressor;
+import info.archinnov.achilles.dao.CounterDao;
+import info.archinnov.achilles.dao.CounterDeltaAggregator;
+import info.archinnov.achilles.dao.MultigetPolicy;
+import info.archinnov.achilles.dao.MutationBatchingPolicy;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.type.ConsistencyLevel;
 import info.archinnov.achilles.exception.AchillesException;
+import info.archinnov.achilles.iterator.AdaptivePagingPolicy;
 import info.archinnov.achilles.json.DefaultObjectMapperFactory;
 import info.archinnov.achilles.json.ObjectMapperFactory;
 import info.archinnov.achilles.validation.Validator;
@@ -11,8 +18,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import me.prettyprint.cassandra.model.QuorumAllConsistencyLevelPolicy;
 import me.prettyprint.cassandra.service.CassandraHostConfigurator;
+import me.prettyprint.cassandra.service.FailoverPolicy;
 import me.prettyprint.hector.api.Cluster;
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.factory.HFactory;
@@ -20,6 +33,8 @@ import me.prettyprint.hector.api.factory.HFactory;
 import org.apache.commons.lang.StringUtils;
 import org.codehaus.jackson.map.ObjectMapper;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * ThriftArgumentExtractor
  * 
@@ -36,6 +51,7 @@ public class ArgumentExtractorForThriftEMF
 
 	public static final String CLUSTER_PARAM = "achilles.cassandra.cluster";
 	public static final String KEYSPACE_PARAM = "achilles.cassandra.keyspace";
+	public static final String FAILOVER_POLICY_PARAM = "achilles.cassandra.failover.policy";
 
 	public static final String FORCE_CF_CREATION_PARAM = "achilles.ddl.force.column.family.creation";
 	public static final String OBJECT_MAPPER_FACTORY_PARAM = "achilles.json.object.mapper.factory";
@@ -46,7 +62,51 @@ public class ArgumentExtractorForThriftEMF
 	public static final String READ_CONSISTENCY_MAP_PARAM = "achilles.consistency.read.map";
 	public static final String WRITE_CONSISTENCY_MAP_PARAM = "achilles.consistency.write.map";
 
+	public static final String ASYNC_EXECUTOR_PARAM = "achilles.async.executor";
+	public static final String ASYNC_THREAD_COUNT_PARAM = "achilles.async.thread.count";
+	public static final String ASYNC_QUEUE_SIZE_PARAM = "achilles.async.queue.size";
+
+	public static final String ADAPTIVE_PAGING_PARAM = "achilles.paging.adaptive";
+	public static final String PAGING_MIN_COUNT_PARAM = "achilles.paging.min.count";
+	public static final String PAGING_MAX_COUNT_PARAM = "achilles.paging.max.count";
+	public static final String PAGING_TARGET_BYTES_PARAM = "achilles.paging.target.bytes";
+	public static final String PAGING_TARGET_LATENCY_PARAM = "achilles.paging.target.latency.ms";
+
+	public static final String COUNTER_AGGREGATION_PARAM = "achilles.counter.aggregation";
+	public static final String COUNTER_FLUSH_THRESHOLD_PARAM = "achilles.counter.flush.threshold";
+	public static final String COUNTER_FLUSH_INTERVAL_PARAM = "achilles.counter.flush.interval.ms";
+
+	public static final String MUTATION_BATCHING_PARAM = "achilles.mutation.batching";
+	public static final String MUTATION_BATCH_MAX_COLUMNS_PARAM = "achilles.mutation.batch.max.columns";
+	public static final String MUTATION_BATCH_MAX_BYTES_PARAM = "achilles.mutation.batch.max.bytes";
+	public static final String MUTATION_BATCH_PARALLELISM_PARAM = "achilles.mutation.batch.parallelism";
+
+	public static final String MULTIGET_CHUNK_SIZE_PARAM = "achilles.multiget.chunk.size";
+	public static final String MULTIGET_PARALLELISM_PARAM = "achilles.multiget.parallelism";
+
+	public static final String PERSISTENCE_CONTEXT_PARAM = "achilles.persistence.context";
+
+	public static final String CACHE_MAX_SIZE_PARAM = "achilles.cache.max.size";
+	public static final String CACHE_TTL_PARAM = "achilles.cache.ttl.ms";
+
+	public static final String COMPRESSION_THRESHOLD_PARAM = "achilles.compression.threshold";
+
 	private static final ConsistencyLevel DEFAULT_LEVEL = ConsistencyLevel.QUORUM;
+	static final int DEFAULT_ASYNC_THREAD_COUNT = 10;
+	static final int DEFAULT_ASYNC_QUEUE_SIZE = 1000;
+	static final int DEFAULT_PAGING_MIN_COUNT = 10;
+	static final int DEFAULT_PAGING_MAX_COUNT = 1000;
+	static final int DEFAULT_PAGING_TARGET_BYTES = 512 * 1024;
+	static final int DEFAULT_PAGING_TARGET_LATENCY = 100;
+	static final int DEFAULT_COUNTER_FLUSH_THRESHOLD = 1000;
+	static final int DEFAULT_COUNTER_FLUSH_INTERVAL = 1000;
+	static final int DEFAULT_MUTATION_BATCH_MAX_COLUMNS = 5000;
+	static final int DEFAULT_MUTATION_BATCH_MAX_BYTES = 4 * 1024 * 1024;
+	static final int DEFAULT_MUTATION_BATCH_PARALLELISM = 4;
+	static final int DEFAULT_MULTIGET_CHUNK_SIZE = 200;
+	static final int DEFAULT_MULTIGET_PARALLELISM = 4;
+	static final int DEFAULT_CACHE_MAX_SIZE = 10000;
+	static final int DEFAULT_CACHE_TTL = 60000;
 
 	public List<String> initEntityPackages(Map<String, Object> configurationMap)
 	{
@@ -100,7 +160,8 @@ public class ArgumentExtractorForThriftEMF
 		return cluster;
 	}
 
-	public Keyspace initKeyspace(Cluster cluster, Map<String, Object> configurationMap)
+	public Keyspace initKeyspace(Cluster cluster, FailoverPolicy failoverPolicy,
+			Map<String, Object> configurationMap)
 	{
 		Keyspace keyspace = (Keyspace) configurationMap.get(KEYSPACE_PARAM);
 		if (keyspace == null)
@@ -115,12 +176,24 @@ public class ArgumentExtractorForThriftEMF
 									+ KEYSPACE_NAME_PARAM
 									+ "' property should be provided for Achilles ThrifEntityManagerFactory bootstraping");
 
-			keyspace = HFactory.createKeyspace(keyspaceName, cluster);
+			keyspace = HFactory.createKeyspace(keyspaceName, cluster,
+					new QuorumAllConsistencyLevelPolicy(), failoverPolicy);
 		}
 
 		return keyspace;
 	}
 
+	public FailoverPolicy initFailoverPolicy(Map<String, Object> configurationMap)
+	{
+		FailoverPolicy failoverPolicy = (FailoverPolicy) configurationMap
+				.get(FAILOVER_POLICY_PARAM);
+		if (failoverPolicy == null)
+		{
+			failoverPolicy = FailoverPolicy.ON_FAIL_TRY_ALL_AVAILABLE;
+		}
+		return failoverPolicy;
+	}
+
 	public boolean initForceCFCreation(Map<String, Object> configurationMap)
 	{
 		Boolean forceColumnFamilyCreation = (Boolean) configurationMap.get(FORCE_CF_CREATION_PARAM);
@@ -134,6 +207,19 @@ public class ArgumentExtractorForThriftEMF
 		}
 	}
 
+	public boolean initPersistenceContext(Map<?, ?> configurationMap)
+	{
+		Boolean persistenceContext = (Boolean) configurationMap.get(PERSISTENCE_CONTEXT_PARAM);
+		if (persistenceContext != null)
+		{
+			return persistenceContext;
+		}
+		else
+		{
+			return false;
+		}
+	}
+
 	public ObjectMapperFactory initObjectMapperFactory(Map<String, Object> configurationMap)
 	{
 		ObjectMapperFactory objectMapperFactory = (ObjectMapperFactory) configurationMap
@@ -217,6 +303,122 @@ public class ArgumentExtractorForThriftEMF
 		return level;
 	}
 
+	public ExecutorService initAsyncExecutor(Map<String, Object> configMap)
+	{
+		ExecutorService executor = (ExecutorService) configMap.get(ASYNC_EXECUTOR_PARAM);
+		if (executor == null)
+		{
+			int threadCount = parsePositiveIntOrGetDefault(configMap, ASYNC_THREAD_COUNT_PARAM,
+					DEFAULT_ASYNC_THREAD_COUNT);
+			int queueSize = parsePositiveIntOrGetDefault(configMap, ASYNC_QUEUE_SIZE_PARAM,
+					DEFAULT_ASYNC_QUEUE_SIZE);
+
+			executor = new ThreadPoolExecutor(threadCount, threadCount, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactoryBuilder()
+							.setNameFormat("achilles-async-%d").setDaemon(true).build(),
+					new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+		return executor;
+	}
+
+	public AdaptivePagingPolicy initAdaptivePagingPolicy(Map<String, Object> configMap)
+	{
+		Boolean adaptivePaging = (Boolean) configMap.get(ADAPTIVE_PAGING_PARAM);
+		if (adaptivePaging == null || !adaptivePaging)
+		{
+			return null;
+		}
+		int minCount = parsePositiveIntOrGetDefault(configMap, PAGING_MIN_COUNT_PARAM,
+				DEFAULT_PAGING_MIN_COUNT);
+		int maxCount = parsePositiveIntOrGetDefault(configMap, PAGING_MAX_COUNT_PARAM,
+				DEFAULT_PAGING_MAX_COUNT);
+		int targetBytes = parsePositiveIntOrGetDefault(configMap, PAGING_TARGET_BYTES_PARAM,
+				DEFAULT_PAGING_TARGET_BYTES);
+		int targetLatency = parsePositiveIntOrGetDefault(configMap, PAGING_TARGET_LATENCY_PARAM,
+				DEFAULT_PAGING_TARGET_LATENCY);
+		Validator.validateTrue(minCount <= maxCount, "'" + PAGING_MIN_COUNT_PARAM
+				+ "' property should not be greater than '" + PAGING_MAX_COUNT_PARAM + "'");
+
+		return new AdaptivePagingPolicy(minCount, maxCount, targetBytes, targetLatency);
+	}
+
+	public CounterDeltaAggregator initCounterDeltaAggregator(Map<String, Object> configMap,
+			CounterDao counterDao)
+	{
+		Boolean aggregation = (Boolean) configMap.get(COUNTER_AGGREGATION_PARAM);
+		if (aggregation == null || !aggregation)
+		{
+			return null;
+		}
+		int flushThreshold = parsePositiveIntOrGetDefault(configMap, COUNTER_FLUSH_THRESHOLD_PARAM,
+				DEFAULT_COUNTER_FLUSH_THRESHOLD);
+		int flushInterval = parsePositiveIntOrGetDefault(configMap, COUNTER_FLUSH_INTERVAL_PARAM,
+				DEFAULT_COUNTER_FLUSH_INTERVAL);
+
+		return new CounterDeltaAggregator(counterDao, flushThreshold, flushInterval);
+	}
+
+	public MutationBatchingPolicy initMutationBatchingPolicy(Map<String, Object> configMap)
+	{
+		Boolean batching = (Boolean) configMap.get(MUTATION_BATCHING_PARAM);
+		if (batching == null || !batching)
+		{
+			return null;
+		}
+		int maxColumns = parsePositiveIntOrGetDefault(configMap, MUTATION_BATCH_MAX_COLUMNS_PARAM,
+				DEFAULT_MUTATION_BATCH_MAX_COLUMNS);
+		int maxBytes = parsePositiveIntOrGetDefault(configMap, MUTATION_BATCH_MAX_BYTES_PARAM,
+				DEFAULT_MUTATION_BATCH_MAX_BYTES);
+		int parallelism = parsePositiveIntOrGetDefault(configMap,
+				MUTATION_BATCH_PARALLELISM_PARAM, DEFAULT_MUTATION_BATCH_PARALLELISM);
+
+		return new MutationBatchingPolicy(maxColumns, maxBytes, parallelism);
+	}
+
+	public MultigetPolicy initMultigetPolicy(Map<String, Object> configMap)
+	{
+		int chunkSize = parsePositiveIntOrGetDefault(configMap, MULTIGET_CHUNK_SIZE_PARAM,
+				DEFAULT_MULTIGET_CHUNK_SIZE);
+		int parallelism = parsePositiveIntOrGetDefault(configMap, MULTIGET_PARALLELISM_PARAM,
+				DEFAULT_MULTIGET_PARALLELISM);
+
+		return new MultigetPolicy(chunkSize, parallelism);
+	}
+
+	public EntityCache initEntityCache(Map<String, Object> configMap)
+	{
+		int maxSize = parsePositiveIntOrGetDefault(configMap, CACHE_MAX_SIZE_PARAM,
+				DEFAULT_CACHE_MAX_SIZE);
+		int timeToLive = parsePositiveIntOrGetDefault(configMap, CACHE_TTL_PARAM, DEFAULT_CACHE_TTL);
+
+		return new EntityCache(maxSize, timeToLive);
+	}
+
+	/**
+	 * Compressor of all the properties, or null when no threshold is configured
+	 */
+	public ValueCompressor initValueCompressor(Map<String, Object> configMap)
+	{
+		if (configMap.get(COMPRESSION_THRESHOLD_PARAM) == null)
+		{
+			return null;
+		}
+		return new ValueCompressor(parsePositiveIntOrGetDefault(configMap,
+				COMPRESSION_THRESHOLD_PARAM, 0));
+	}
+
+	private int parsePositiveIntOrGetDefault(Map<String, Object> configMap, String param,
+			int defaultValue)
+	{
+		Integer value = (Integer) configMap.get(param);
+		if (value == null)
+		{
+			return defaultValue;
+		}
+		Validator.validateTrue(value > 0, "'" + param + "' property should be strictly positive");
+		return value;
+	}
+
 	protected static ObjectMapperFactory factoryFromMapper(final ObjectMapper mapper)
 	{
 		return new ObjectMapperFactory()
@@ -0,0 +1,62 @@
+package info.archinnov.achilles.entity.manager;
+
+import info.archinnov.achilles.dao.Pair;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PersistenceContext
+ * 
+ * Identity map of the 'managed' entities of an entity manager, by entity class and primary key.
+ * 
+ * A find on an entity already in the context returns the same proxy without reading Cassandra
+ * 
+ * The context is thread-safe so that asynchronous operations can share it
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class PersistenceContext
+{
+	private final Map<Pair<Class<?>, Object>, Object> entities = new ConcurrentHashMap<Pair<Class<?>, Object>, Object>();
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(Class<T> entityClass, Object primaryKey)
+	{
+		return (T) entities.get(buildKey(entityClass, primaryKey));
+	}
+
+	public void put(Class<?> entityClass, Object primaryKey, Object proxy)
+	{
+		entities.put(buildKey(entityClass, primaryKey), proxy);
+	}
+
+	public void remove(Class<?> entityClass, Object primaryKey)
+	{
+		entities.remove(buildKey(entityClass, primaryKey));
+	}
+
+	/**
+	 * Whether the given proxy is the instance held by the context for its class and primary key
+	 */
+	public boolean contains(Class<?> entityClass, Object primaryKey, Object proxy)
+	{
+		return entities.get(buildKey(entityClass, primaryKey)) == proxy;
+	}
+
+	public void clear()
+	{
+		entities.clear();
+	}
+
+	public int size()
+	{
+		return entities.size();
+	}
+
+	private Pair<Class<?>, Object> buildKey(Class<?> entityClass, Object primaryKey)
+	{
+		return new Pair<Class<?>, Object>(entityClass, primaryKey);
+	}
+}
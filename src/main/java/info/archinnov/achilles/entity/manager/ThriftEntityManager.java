@@ -1,27 +1,40 @@
 package info.archinnov.achilles.entity.manager;
 
-import static info.archinnov.achilles.entity.metadata.PropertyType.WIDE_MAP_COUNTER;
-import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import static info.archinnov.achilles.entity.metadata.PropertyType.COUNTER;
+import info.archinnov.achilles.dao.AbstractDao;
+import info.archinnov.achilles.dao.AsyncTaskCallable;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
+import info.archinnov.achilles.entity.operations.BatchMutators;
+import info.archinnov.achilles.entity.operations.EntityGraphLoader;
+import info.archinnov.achilles.entity.operations.EntityInitializer;
 import info.archinnov.achilles.entity.operations.EntityLoader;
 import info.archinnov.achilles.entity.operations.EntityMerger;
 import info.archinnov.achilles.entity.operations.EntityPersister;
 import info.archinnov.achilles.entity.operations.EntityRefresher;
 import info.archinnov.achilles.entity.operations.EntityValidator;
-import info.archinnov.achilles.entity.type.ConsistencyLevel;
+import info.archinnov.achilles.entity.operations.UnitOfWork;
+import info.archinnov.achilles.exception.AchillesException;
+import info.archinnov.achilles.iterator.ChunkedValueReader;
 import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
 import info.archinnov.achilles.validation.Validator;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
@@ -29,6 +42,7 @@ import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import javax.persistence.Query;
 
+import me.prettyprint.hector.api.beans.Composite;
 import me.prettyprint.hector.api.mutation.Mutator;
 import net.sf.cglib.proxy.Factory;
 
@@ -44,6 +58,10 @@ import org.slf4j.LoggerFactory;
  * 
  * thread-safe.
  * 
+ * When it has a persistence context, the entity manager keeps the entities it found or merged in
+ * 
+ * an identity map and should be used for a single unit of work instead.
+ * 
  * Internally the ThriftEntityManager relies on Hector API for common operations
  * 
  * @author DuyHai DOAN
@@ -54,18 +72,29 @@ public class ThriftEntityManager implements EntityManager
 	private static final Logger log = LoggerFactory.getLogger(ThriftEntityManager.class);
 
 	private final Map<Class<?>, EntityMeta<?>> entityMetaMap;
+	private final ExecutorService executor;
+	private PersistenceContext persistenceContext;
+	private FlushModeType flushMode = FlushModeType.AUTO;
 
 	private EntityPersister persister = new EntityPersister();
 	private EntityLoader loader = new EntityLoader();
 	private EntityMerger merger = new EntityMerger();
 	private EntityRefresher entityRefresher = new EntityRefresher();
+	private EntityInitializer initializer = new EntityInitializer();
+	private EntityGraphLoader graphLoader = new EntityGraphLoader();
 	private EntityHelper helper = new EntityHelper();
 	private EntityValidator entityValidator = new EntityValidator();
-	public static final ThreadLocal<ConsistencyLevel> currentReadConsistencyLevel = new ThreadLocal<ConsistencyLevel>();
-	public static final ThreadLocal<ConsistencyLevel> currentWriteConsistencyLevel = new ThreadLocal<ConsistencyLevel>();
+	private UnitOfWork unitOfWork = new UnitOfWork();
 
-	ThriftEntityManager(Map<Class<?>, EntityMeta<?>> entityMetaMap) {
+	ThriftEntityManager(Map<Class<?>, EntityMeta<?>> entityMetaMap, ExecutorService executor) {
+		this(entityMetaMap, executor, null);
+	}
+
+	ThriftEntityManager(Map<Class<?>, EntityMeta<?>> entityMetaMap, ExecutorService executor,
+			PersistenceContext persistenceContext) {
 		this.entityMetaMap = entityMetaMap;
+		this.executor = executor;
+		this.persistenceContext = persistenceContext;
 	}
 
 	/**
@@ -90,7 +119,21 @@ public class ThriftEntityManager implements EntityManager
 
 		EntityMeta<?> entityMeta = this.entityMetaMap.get(entity.getClass());
 
-		this.persister.persist(entity, entityMeta);
+		if (flushMode == FlushModeType.COMMIT)
+		{
+			this.unitOfWork.persist(entity, entityMeta);
+		}
+		else
+		{
+			this.persister.persist(entity, entityMeta);
+		}
+
+		// The persisted entity stays transient, the instance found before for its key is stale
+		if (persistenceContext != null)
+		{
+			persistenceContext.remove(entity.getClass(),
+					helper.determinePrimaryKey(entity, entityMeta));
+		}
 	}
 
 	/**
@@ -122,7 +165,24 @@ public class ThriftEntityManager implements EntityManager
 		entityValidator.validateEntity(entity, entityMetaMap);
 		Class<?> baseClass = helper.deriveBaseClass(entity);
 		EntityMeta<?> entityMeta = this.entityMetaMap.get(baseClass);
-		return this.merger.mergeEntity(entity, entityMeta);
+		T proxy;
+		if (flushMode == FlushModeType.COMMIT)
+		{
+			this.unitOfWork.merge(entity, entityMeta);
+			// Not written before the flush, the properties of a transient entity are not loaded
+			proxy = helper.isProxy(entity) ? entity : helper.buildTransientProxy(entity,
+					entityMeta);
+		}
+		else
+		{
+			proxy = this.merger.mergeEntity(entity, entityMeta);
+		}
+
+		if (persistenceContext != null)
+		{
+			persistenceContext.put(baseClass, helper.determinePrimaryKey(proxy, entityMeta), proxy);
+		}
+		return proxy;
 	}
 
 	/**
@@ -146,12 +206,109 @@ public class ThriftEntityManager implements EntityManager
 
 		Class<?> baseClass = helper.deriveBaseClass(entity);
 		EntityMeta<?> entityMeta = this.entityMetaMap.get(baseClass);
-		this.persister.remove(entity, entityMeta);
+		if (flushMode == FlushModeType.COMMIT)
+		{
+			this.unitOfWork.remove(entity, entityMeta);
+		}
+		else
+		{
+			this.persister.remove(entity, entityMeta);
+		}
+
+		if (persistenceContext != null)
+		{
+			persistenceContext.remove(baseClass, helper.determinePrimaryKey(entity, entityMeta));
+		}
 
 	}
 
 	/**
-	 * Find an entity.
+	 * Remove several entities. Works exactly as remove(Object entity) but the rows, the rows of
+	 * 
+	 * the external wide maps and the counters of all the entities are removed with one batch per
+	 * 
+	 * column family
+	 * 
+	 * @param entities
+	 *            Entities to be removed
+	 */
+	public void remove(Collection<?> entities)
+	{
+		Validator.validateNotNull(entities, "Entities to remove should not be null");
+		for (Object entity : entities)
+		{
+			entityValidator.validateEntity(entity, entityMetaMap);
+			helper.ensureProxy(entity);
+		}
+
+		BatchMutators batchMutators = new BatchMutators();
+		for (Object entity : entities)
+		{
+			Class<?> baseClass = helper.deriveBaseClass(entity);
+			EntityMeta<?> entityMeta = this.entityMetaMap.get(baseClass);
+			if (flushMode == FlushModeType.COMMIT)
+			{
+				this.unitOfWork.remove(entity, entityMeta);
+			}
+			else
+			{
+				this.persister.batchRemove(entity, entityMeta, batchMutators);
+			}
+
+			if (persistenceContext != null)
+			{
+				persistenceContext.remove(baseClass,
+						helper.determinePrimaryKey(entity, entityMeta));
+			}
+		}
+		batchMutators.execute();
+	}
+
+	/**
+	 * Remove the entities of several primary keys with one batch per column family, without
+	 * 
+	 * loading them. In FlushModeType.COMMIT, the pending operations are flushed first and the
+	 * 
+	 * entities are removed immediately
+	 * 
+	 * @param entityClass
+	 *            Entity type
+	 * @param primaryKeys
+	 *            Primary keys (Cassandra row keys) of the entities to remove
+	 */
+	@SuppressWarnings("unchecked")
+	public void removeByIds(Class<?> entityClass, Collection<?> primaryKeys)
+	{
+		Validator.validateNotNull(entityClass, "Entity class should not be null");
+		Validator.validateNotNull(primaryKeys, "Entity primaryKeys should not be null");
+
+		EntityMeta<Object> entityMeta = (EntityMeta<Object>) this.entityMetaMap.get(entityClass);
+		Validator.validateNotNull(entityMeta, "The entity class '"
+				+ entityClass.getCanonicalName() + "' is not managed");
+
+		Set<Object> distinctKeys = new LinkedHashSet<Object>(primaryKeys);
+		Validator.validateTrue(!distinctKeys.contains(null),
+				"Entity primaryKeys should not contain null");
+
+		if (flushMode == FlushModeType.COMMIT)
+		{
+			this.unitOfWork.flush();
+		}
+		this.persister.removeByIds(distinctKeys, entityMeta);
+
+		if (persistenceContext != null)
+		{
+			for (Object primaryKey : distinctKeys)
+			{
+				persistenceContext.remove(entityClass, primaryKey);
+			}
+		}
+	}
+
+	/**
+	 * Find an entity. With a persistence context, an entity already found or merged by this entity
+	 * 
+	 * manager is returned without reading Cassandra
 	 * 
 	 * @param entityClass
 	 *            Entity type
@@ -167,6 +324,15 @@ public class ThriftEntityManager implements EntityManager
 		Validator.validateNotNull(entityClass, "Entity class should not be null");
 		Validator.validateNotNull(primaryKey, "Entity primaryKey should not be null");
 
+		if (persistenceContext != null)
+		{
+			T entity = persistenceContext.get(entityClass, primaryKey);
+			if (entity != null)
+			{
+				return entity;
+			}
+		}
+
 		EntityMeta<Serializable> entityMeta = (EntityMeta<Serializable>) this.entityMetaMap
 				.get(entityClass);
 
@@ -174,12 +340,142 @@ public class ThriftEntityManager implements EntityManager
 
 		if (entity != null)
 		{
-			entity = helper.buildProxy(entity, entityMeta);
+			entity = helper.buildLoadedProxy(entity, entityMeta);
+			if (persistenceContext != null)
+			{
+				persistenceContext.put(entityClass, primaryKey, entity);
+			}
 		}
 
 		return entity;
 	}
 
+	/**
+	 * Find the entities of several primary keys. The rows are loaded with multiget queries of at
+	 * 
+	 * most "achilles.multiget.chunk.size" keys, sent in parallel
+	 * 
+	 * @param entityClass
+	 *            Entity type
+	 * @param primaryKeys
+	 *            Primary keys (Cassandra row keys) of the entities to load
+	 * @return Found entities, in the order of their primary keys. Primary keys without entity are
+	 * 
+	 *         skipped and duplicated primary keys return a single entity
+	 */
+	public <T> List<T> findAll(Class<T> entityClass, Collection<?> primaryKeys)
+	{
+		return this.findAll(entityClass, primaryKeys, 0);
+	}
+
+	/**
+	 * Find the entities of several primary keys with their join entities, loaded level by level
+	 * 
+	 * down to the given depth. At each level the join entities of all the entities of the previous
+	 * 
+	 * level are loaded with a single chunked multiget per entity type
+	 * 
+	 * @param entityClass
+	 *            Entity type
+	 * @param primaryKeys
+	 *            Primary keys (Cassandra row keys) of the entities to load
+	 * @param joinDepth
+	 *            Number of join levels to load, 0 loads no join entity
+	 * @return Found entities, in the order of their primary keys. Primary keys without entity are
+	 * 
+	 *         skipped and duplicated primary keys return a single entity
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> findAll(Class<T> entityClass, Collection<?> primaryKeys, int joinDepth)
+	{
+		Validator.validateNotNull(entityClass, "Entity class should not be null");
+		Validator.validateNotNull(primaryKeys, "Entity primaryKeys should not be null");
+
+		EntityMeta<Object> entityMeta = (EntityMeta<Object>) this.entityMetaMap.get(entityClass);
+
+		Set<Object> distinctKeys = new LinkedHashSet<Object>(primaryKeys);
+		Validator.validateTrue(!distinctKeys.contains(null),
+				"Entity primaryKeys should not contain null");
+		List<Object> keys = new ArrayList<Object>(distinctKeys);
+
+		// Entities of the persistence context are not loaded again
+		Map<Object, T> proxiesByKey = new HashMap<Object, T>();
+		List<Object> keysToLoad = keys;
+		if (persistenceContext != null)
+		{
+			keysToLoad = new ArrayList<Object>();
+			for (Object key : keys)
+			{
+				T proxy = persistenceContext.get(entityClass, key);
+				if (proxy != null)
+				{
+					proxiesByKey.put(key, proxy);
+				}
+				else
+				{
+					keysToLoad.add(key);
+				}
+			}
+		}
+		Map<Object, T> entitiesByKey = this.loader.loadAll(entityClass, keysToLoad, entityMeta);
+
+		List<Object> foundKeys = new ArrayList<Object>(entitiesByKey.size());
+		List<T> entities = new ArrayList<T>(entitiesByKey.size());
+		for (Object key : keysToLoad)
+		{
+			T entity = entitiesByKey.get(key);
+			if (entity != null)
+			{
+				foundKeys.add(key);
+				entities.add(entity);
+			}
+		}
+		this.graphLoader.loadJoins(entities, entityMeta, joinDepth);
+
+		for (int i = 0; i < entities.size(); i++)
+		{
+			T proxy = helper.buildLoadedProxy(entities.get(i), entityMeta);
+			proxiesByKey.put(foundKeys.get(i), proxy);
+			if (persistenceContext != null)
+			{
+				persistenceContext.put(entityClass, foundKeys.get(i), proxy);
+			}
+		}
+
+		List<T> proxies = new ArrayList<T>(proxiesByKey.size());
+		for (Object key : keys)
+		{
+			T proxy = proxiesByKey.get(key);
+			if (proxy != null)
+			{
+				proxies.add(proxy);
+			}
+		}
+		return proxies;
+	}
+
+	/**
+	 * Check whether an entity exists, without loading it
+	 * 
+	 * @param entityClass
+	 *            Entity type
+	 * @param primaryKey
+	 *            Primary key (Cassandra row key) of the entity
+	 * @return true if the entity exists
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean exists(Class<?> entityClass, Object primaryKey)
+	{
+		Validator.validateNotNull(entityClass, "Entity class should not be null");
+		Validator.validateNotNull(primaryKey, "Entity primaryKey should not be null");
+
+		EntityMeta<Object> entityMeta = (EntityMeta<Object>) this.entityMetaMap.get(entityClass);
+		Validator.validateNotNull(entityMeta, "The entity class '"
+				+ entityClass.getCanonicalName() + "' is not managed");
+
+		return this.loader.exists(primaryKey, entityMeta);
+	}
+
 	/**
 	 * Find an entity. Works exactly as find(Class<T> entityClass, Object primaryKey)
 	 * 
@@ -197,31 +493,143 @@ public class ThriftEntityManager implements EntityManager
 	}
 
 	/**
-	 * Not supported operation. Will throw UnsupportedOperationException
+	 * Persist an entity asynchronously. Works exactly as persist(Object entity)
+	 * 
+	 * The entity should not be modified until the returned future is done
+	 * 
+	 * @param entity
+	 *            Entity to be persisted
+	 * @return Future to wait for the completion of the persistence
+	 */
+	public Future<Void> persistAsync(final Object entity)
+	{
+		return submit(new Callable<Void>()
+		{
+			@Override
+			public Void call()
+			{
+				persist(entity);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Merge an entity asynchronously. Works exactly as merge(T entity)
+	 * 
+	 * The entity should not be modified until the returned future is done
+	 * 
+	 * @param entity
+	 *            Entity to be merged
+	 * @return Future of the merged entity or a new proxy object
+	 */
+	public <T> Future<T> mergeAsync(final T entity)
+	{
+		return submit(new Callable<T>()
+		{
+			@Override
+			public T call()
+			{
+				return merge(entity);
+			}
+		});
+	}
+
+	/**
+	 * Remove an entity asynchronously. Works exactly as remove(Object entity)
+	 * 
+	 * @param entity
+	 *            Entity to be removed
+	 * @return Future to wait for the completion of the removal
+	 */
+	public Future<Void> removeAsync(final Object entity)
+	{
+		return submit(new Callable<Void>()
+		{
+			@Override
+			public Void call()
+			{
+				remove(entity);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Find an entity asynchronously. Works exactly as find(Class<T> entityClass, Object primaryKey)
+	 * 
+	 * @param entityClass
+	 *            Entity type
+	 * @param primaryKey
+	 *            Primary key (Cassandra row key) of the entity to load
+	 * @return Future of the found entity, or of null if no entity is found
+	 */
+	public <T> Future<T> findAsync(final Class<T> entityClass, final Object primaryKey)
+	{
+		return submit(new Callable<T>()
+		{
+			@Override
+			public T call()
+			{
+				return find(entityClass, primaryKey);
+			}
+		});
+	}
+
+	private <V> Future<V> submit(Callable<V> task)
+	{
+		Validator.validateNotNull(executor,
+				"No executor has been configured for asynchronous operations");
+		return executor.submit(new AsyncTaskCallable<V>(task));
+	}
+
+	/**
+	 * Write the persist, merge and remove operations recorded in FlushModeType.COMMIT. The writes
+	 * 
+	 * of all the entities of a column family are sent as a single batch, the batches of the
+	 * 
+	 * different column families being executed in parallel
+	 * 
+	 * Do nothing if there is no pending operation
 	 */
 	@Override
 	public void flush()
 	{
-		throw new UnsupportedOperationException("This operation is not supported for Cassandra");
+		this.unitOfWork.flush();
 	}
 
 	/**
-	 * Not supported operation. Will throw UnsupportedOperationException
+	 * Set the flush mode of the entity manager
+	 * 
+	 * FlushModeType.AUTO (default): each persist, merge or remove is written immediately
+	 * 
+	 * FlushModeType.COMMIT: persist, merge and remove are recorded and only written on flush(),
+	 * 
+	 * operations on the same entity being coalesced. Switching back to AUTO flushes the pending
+	 * 
+	 * operations. An entity manager in COMMIT mode should not be shared between threads
+	 * 
+	 * @param flushMode
+	 *            flush mode
 	 */
 	@Override
 	public void setFlushMode(FlushModeType flushMode)
 	{
-		throw new UnsupportedOperationException("This operation is not supported for Cassandra");
-
+		Validator.validateNotNull(flushMode, "Flush mode should not be null");
+		if (flushMode == FlushModeType.AUTO)
+		{
+			this.unitOfWork.flush();
+		}
+		this.flushMode = flushMode;
 	}
 
 	/**
-	 * Always return FlushModeType.AUTO
+	 * Return the flush mode, FlushModeType.AUTO by default
 	 */
 	@Override
 	public FlushModeType getFlushMode()
 	{
-		return FlushModeType.AUTO;
+		return flushMode;
 	}
 
 	/**
@@ -248,26 +656,59 @@ public class ThriftEntityManager implements EntityManager
 
 		helper.ensureProxy(entity);
 		entityRefresher.refresh(entity, entityMetaMap);
+
+		// The refreshed entity replaces any other instance of the persistence context
+		if (persistenceContext != null)
+		{
+			Class<?> baseClass = helper.deriveBaseClass(entity);
+			persistenceContext.put(baseClass,
+					helper.determinePrimaryKey(entity, entityMetaMap.get(baseClass)), entity);
+		}
 	}
 
 	/**
-	 * Not supported operation. Will throw UnsupportedOperationException
+	 * Clear the persistence context, the entities it held are not returned by find() anymore.
+	 * 
+	 * The operations not flushed yet in FlushModeType.COMMIT are discarded
 	 */
 	@Override
 	public void clear()
 	{
-		throw new UnsupportedOperationException(
-				"This operation is not supported for this Cassandra");
+		unitOfWork.clear();
+		if (persistenceContext != null)
+		{
+			persistenceContext.clear();
+		}
 	}
 
 	/**
-	 * Not supported operation. Will throw UnsupportedOperationException
+	 * Check whether an entity is 'managed'. With a persistence context, the entity should also be
+	 * 
+	 * the instance held by the context for its primary key
+	 * 
+	 * @param entity
+	 *            Entity to check
+	 * @return true if the entity is 'managed' by this entity manager
 	 */
 	@Override
 	public boolean contains(Object entity)
 	{
-		throw new UnsupportedOperationException(
-				"This operation is not supported for this Cassandra");
+		Validator.validateNotNull(entity, "Entity should not be null");
+
+		if (!helper.isProxy(entity))
+		{
+			return false;
+		}
+		else if (persistenceContext == null)
+		{
+			return true;
+		}
+		else
+		{
+			Class<?> baseClass = helper.deriveBaseClass(entity);
+			return persistenceContext.contains(baseClass,
+					helper.determinePrimaryKey(entity, entityMetaMap.get(baseClass)), entity);
+		}
 	}
 
 	/**
@@ -381,6 +822,8 @@ public class ThriftEntityManager implements EntityManager
 	 * 
 	 * A new mutator is created for each join <strong>WideMap</strong> entity
 	 * 
+	 * and for each counter property, batching their increments
+	 * 
 	 * The batch does not affect dirty checking of other fields.
 	 * 
 	 * It only works on <strong>WideMap</strong> fields
@@ -406,7 +849,7 @@ public class ThriftEntityManager implements EntityManager
 					mutatorMap.put(propertyMeta.getPropertyName(), propertyMeta.joinMeta()
 							.getEntityDao().buildMutator());
 				}
-				else if (propertyMeta.type() == WIDE_MAP_COUNTER)
+				else if (propertyMeta.isCounter())
 				{
 					mutatorMap.put(propertyMeta.getPropertyName(), propertyMeta.counterDao()
 							.buildMutator());
@@ -458,12 +901,14 @@ public class ThriftEntityManager implements EntityManager
 			}
 			for (Entry<String, Mutator<?>> entry : interceptor.getMutatorMap().entrySet())
 			{
-				Mutator<?> joinMutator = entry.getValue();
-				if (joinMutator != null)
+				Mutator<?> propertyMutator = entry.getValue();
+				if (propertyMutator != null)
 				{
-					GenericDynamicCompositeDao<?> joinDao = entityMeta.getPropertyMetas()
-							.get(entry.getKey()).joinMeta().getEntityDao();
-					joinDao.executeMutator((Mutator) joinMutator);
+					PropertyMeta<?, ?> propertyMeta = entityMeta.getPropertyMetas().get(
+							entry.getKey());
+					AbstractDao<?, ?, ?> dao = propertyMeta.counterDao() != null ? propertyMeta
+							.counterDao() : propertyMeta.joinMeta().getEntityDao();
+					dao.executeMutator((Mutator) propertyMutator);
 				}
 			}
 			interceptor.setMutatorMap(null);
@@ -474,6 +919,152 @@ public class ThriftEntityManager implements EntityManager
 		}
 	}
 
+	/**
+	 * Increment a @Counter property of a 'managed' entity without reading its current value.
+	 * 
+	 * The increment is batched if a batch has been started for the entity
+	 * 
+	 * @param entity
+	 *            Managed entity
+	 * @param propertyName
+	 *            Name of the counter property
+	 * @param delta
+	 *            Value added to the counter
+	 */
+	public <T> void increment(T entity, String propertyName, long delta)
+	{
+		addToCounter(entity, propertyName, delta);
+	}
+
+	/**
+	 * Decrement a @Counter property of a 'managed' entity without reading its current value.
+	 * 
+	 * The decrement is batched if a batch has been started for the entity
+	 * 
+	 * @param entity
+	 *            Managed entity
+	 * @param propertyName
+	 *            Name of the counter property
+	 * @param delta
+	 *            Value subtracted from the counter
+	 */
+	public <T> void decrement(T entity, String propertyName, long delta)
+	{
+		addToCounter(entity, propertyName, -delta);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T, ID> void addToCounter(T entity, String propertyName, long delta)
+	{
+		helper.ensureProxy(entity);
+		EntityMeta<ID> entityMeta = (EntityMeta<ID>) this.entityMetaMap.get(helper
+				.deriveBaseClass(entity));
+		PropertyMeta<Void, Long> propertyMeta = (PropertyMeta<Void, Long>) entityMeta
+				.getPropertyMetas().get(propertyName);
+		Validator.validateTrue(propertyMeta != null && propertyMeta.type() == COUNTER,
+				"The property '" + propertyName + "' is not a simple counter property");
+
+		JpaEntityInterceptor<ID, T> interceptor = helper.getInterceptor(entity);
+		Mutator<Composite> mutator = null;
+		if (interceptor.isBatchMode())
+		{
+			mutator = (Mutator<Composite>) interceptor.getMutatorForProperty(propertyName);
+		}
+		persister.incrementCounter(interceptor.getKey(), propertyMeta, delta, mutator);
+
+		// Keep the value already loaded in the entity up to date
+		Object realObject = helper.getRealObject(entity);
+		Long currentValue = (Long) helper.getValueFromField(realObject, propertyMeta.getGetter());
+		if (currentValue != null)
+		{
+			helper.setValueToField(realObject, propertyMeta.getSetter(), currentValue + delta);
+		}
+	}
+
+	/**
+	 * Open a stream on the value of a @Chunked property of a 'managed' entity. The chunks are read
+	 * 
+	 * one at a time while the stream is consumed, the value held by the entity is not loaded.
+	 * 
+	 * For a String property, the stream returns the value itself. For other types, it returns the
+	 * 
+	 * value encoded by the codec of the property
+	 * 
+	 * @param entity
+	 *            Managed entity
+	 * @param propertyName
+	 *            Name of the chunked property
+	 * @return stream of the stored value, empty if there is no value
+	 */
+	public <T> Reader openChunkedReader(T entity, String propertyName)
+	{
+		helper.ensureProxy(entity);
+		EntityMeta<Object> entityMeta = this.findEntityMeta(entity);
+		PropertyMeta<?, ?> propertyMeta = this.findChunkedPropertyMeta(entityMeta, propertyName);
+		JpaEntityInterceptor<Object, T> interceptor = helper.getInterceptor(entity);
+
+		return new ChunkedValueReader<Object>(entityMeta.getEntityDao(), interceptor.getKey(),
+				propertyMeta);
+	}
+
+	/**
+	 * Write the value of a @Chunked property of a 'managed' entity from a stream, one chunk at a
+	 * 
+	 * time. The stream is read until its end but not closed. Works as openChunkedReader(T entity,
+	 * 
+	 * String propertyName) for the content of the stream.
+	 * 
+	 * The value held by the entity is not updated: a lazy property is loaded again on its next
+	 * 
+	 * access, an eager property on refresh(T entity)
+	 * 
+	 * @param entity
+	 *            Managed entity
+	 * @param propertyName
+	 *            Name of the chunked property
+	 * @param reader
+	 *            Stream of the value to store
+	 */
+	public <T> void writeChunked(T entity, String propertyName, Reader reader)
+	{
+		helper.ensureProxy(entity);
+		Validator.validateNotNull(reader, "The stream to write should not be null");
+		EntityMeta<Object> entityMeta = this.findEntityMeta(entity);
+		PropertyMeta<?, ?> propertyMeta = this.findChunkedPropertyMeta(entityMeta, propertyName);
+		JpaEntityInterceptor<Object, T> interceptor = helper.getInterceptor(entity);
+
+		try
+		{
+			persister.persistChunkedValue(interceptor.getKey(), entityMeta.getEntityDao(),
+					propertyMeta, reader);
+		}
+		catch (IOException e)
+		{
+			throw new AchillesException("Cannot write the value of the property '" + propertyName
+					+ "' from the stream", e);
+		}
+		persister.invalidateCachedEntity(interceptor.getKey(), entityMeta);
+
+		// The written value supersedes the value held by the entity
+		interceptor.getDirtyMap().remove(propertyMeta.getGetter());
+		interceptor.getLazyAlreadyLoaded().remove(propertyMeta.getGetter());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> EntityMeta<Object> findEntityMeta(T entity)
+	{
+		return (EntityMeta<Object>) this.entityMetaMap.get(helper.deriveBaseClass(entity));
+	}
+
+	private PropertyMeta<?, ?> findChunkedPropertyMeta(EntityMeta<?> entityMeta,
+			String propertyName)
+	{
+		PropertyMeta<?, ?> propertyMeta = entityMeta.getPropertyMetas().get(propertyName);
+		Validator.validateTrue(propertyMeta != null && propertyMeta.isChunked(), "The property '"
+				+ propertyName + "' is not a chunked property");
+		return propertyMeta;
+	}
+
 	/**
 	 * Initialize all lazy fields of a 'managed' entity, except WideMap fields.
 	 * 
@@ -508,11 +1099,35 @@ public class ThriftEntityManager implements EntityManager
 	/**
 	 * Initialize all lazy fields of a collection of 'managed' entities, except WideMap fields.
 	 * 
+	 * The lazy simple, list, set and map fields of the entities of a same class are loaded with
+	 * 
+	 * chunked multiget queries
+	 * 
 	 * Raise an IllegalStateException if an entity is not 'managed'
 	 * 
 	 */
 	public <T> void initialize(Collection<T> entities)
 	{
+		Map<Class<?>, List<T>> entitiesByClass = new HashMap<Class<?>, List<T>>();
+		for (T entity : entities)
+		{
+			helper.ensureProxy(entity);
+			Class<?> entityClass = helper.getRealObject(entity).getClass();
+			List<T> classEntities = entitiesByClass.get(entityClass);
+			if (classEntities == null)
+			{
+				classEntities = new ArrayList<T>();
+				entitiesByClass.put(entityClass, classEntities);
+			}
+			classEntities.add(entity);
+		}
+
+		for (Entry<Class<?>, List<T>> entry : entitiesByClass.entrySet())
+		{
+			initializer.loadLazyProperties(entry.getValue(), entityMetaMap.get(entry.getKey()));
+		}
+
+		// Remaining join and counter fields, the fields loaded above are not loaded again
 		for (T entity : entities)
 		{
 			this.initialize(entity);
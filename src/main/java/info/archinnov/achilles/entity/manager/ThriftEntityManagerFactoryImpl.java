@@ -1,13 +1,20 @@
 package info.archinnov.achilles.entity.manager;
 
 import info.archinnov.achilles.columnFamily.ColumnFamilyCreator;
+import info.archinnov.achilles.dao.AbstractDao;
 import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
+import info.archinnov.achilles.dao.ConsistencyLevelKeyspaces;
 import info.archinnov.achilles.dao.CounterDao;
+import info.archinnov.achilles.dao.CounterDeltaAggregator;
+import info.archinnov.achilles.dao.MultigetPolicy;
+import info.archinnov.achilles.dao.MutationBatchingPolicy;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.parser.EntityExplorer;
 import info.archinnov.achilles.entity.parser.EntityParser;
 import info.archinnov.achilles.exception.BeanMappingException;
+import info.archinnov.achilles.iterator.AdaptivePagingPolicy;
 import info.archinnov.achilles.json.ObjectMapperFactory;
 import info.archinnov.achilles.validation.Validator;
 
@@ -15,9 +22,11 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import javax.persistence.EntityManager;
 
+import me.prettyprint.cassandra.service.FailoverPolicy;
 import me.prettyprint.hector.api.Cluster;
 import me.prettyprint.hector.api.Keyspace;
 
@@ -39,6 +48,7 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 	private List<String> entityPackages;
 	private Cluster cluster;
 	private Keyspace keyspace;
+	private ConsistencyLevelKeyspaces consistencyLevelKeyspaces;
 	private ColumnFamilyCreator columnFamilyCreator;
 	private ObjectMapperFactory objectMapperFactory;
 
@@ -47,6 +57,15 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 	private EntityExplorer entityExplorer = new EntityExplorer();
 	boolean forceColumnFamilyCreation = false;
 	private CounterDao counterDao;
+	private ExecutorService asyncExecutor;
+	private AdaptivePagingPolicy pagingPolicy;
+	private MutationBatchingPolicy batchingPolicy;
+	private MultigetPolicy multigetPolicy;
+	private boolean persistenceContext = false;
+	private EntityCache entityCache;
+	private CounterDeltaAggregator counterDeltaAggregator;
+	private boolean ownsAsyncExecutor = false;
+	private volatile boolean open = true;
 
 	private ArgumentExtractorForThriftEMF argumentExtractor = new ArgumentExtractorForThriftEMF();
 
@@ -93,6 +112,11 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 	 *            <strong>Either "achilles.cassandra.cluster" or "achilles.cassandra.host"/"achilles.cassandra.cluster.name" parameters should be provided</strong> <br/>
 	 *            <br/>
 	 *            <strong>Either "achilles.cassandra.keyspace" or "achilles.cassandra.keyspace.name" parameters should be provided</strong>
+	 *            <ul>
+	 *            <li>"achilles.cassandra.failover.policy" <strong>(OPTIONAL)</strong>: instance of <em>me.prettyprint.cassandra.service.FailoverPolicy</em> used by the keyspaces created by Achilles, one per consistency level. Default = ON_FAIL_TRY_ALL_AVAILABLE<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
 	 * 
 	 *            <hr/>
 	 *            <h1>DDL Parameter</h1>
@@ -155,6 +179,124 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 	 *            <br/>
 	 *            </li>
 	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Asynchronous operations</h1>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.async.executor" <strong>(OPTIONAL)</strong>: instance of pre-configured <em>java.util.concurrent.ExecutorService</em> to run asynchronous operations<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.async.thread.count" <strong>(OPTIONAL)</strong>: number of threads of the executor for asynchronous operations. Default = 10<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.async.queue.size" <strong>(OPTIONAL)</strong>: maximum number of pending asynchronous operations. Default = 1000<br/>
+	 *            <br/>
+	 *            &nbsp;&nbsp;When the queue is full, the asynchronous operation is executed by the calling thread<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Adaptive paging</h1>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.paging.adaptive" <strong>(OPTIONAL)</strong>: adapt the page size of wide row iterators to the size of the columns and the latency of previous pages. Default = 'false'<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.paging.min.count" <strong>(OPTIONAL)</strong>: minimum number of columns per page. Default = 10<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.paging.max.count" <strong>(OPTIONAL)</strong>: maximum number of columns per page. Default = 1000<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.paging.target.bytes" <strong>(OPTIONAL)</strong>: targeted size of a page, in bytes. Default = 524288<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.paging.target.latency.ms" <strong>(OPTIONAL)</strong>: targeted time to fetch a page, in milliseconds. Default = 100<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Mutation batching</h1>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.mutation.batching" <strong>(OPTIONAL)</strong>: cut the batches of mutations into chunks sent in parallel instead of a single Thrift batch. Default = 'false'<br/>
+	 *            <br/>
+	 *            &nbsp;&nbsp;When some chunks fail, the other chunks are written and a <strong>MutationBatchException</strong> reports the failed chunks<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.mutation.batch.max.columns" <strong>(OPTIONAL)</strong>: maximum number of mutations per chunk. Default = 5000<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.mutation.batch.max.bytes" <strong>(OPTIONAL)</strong>: maximum serialized size of a chunk, in bytes. Default = 4194304<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.mutation.batch.parallelism" <strong>(OPTIONAL)</strong>: maximum number of chunks sent in parallel, using the executor for asynchronous operations. Default = 4<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Multiget</h1>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.multiget.chunk.size" <strong>(OPTIONAL)</strong>: maximum number of rows loaded by a single multiget query, larger sets of keys are cut into chunks. Default = 200<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.multiget.parallelism" <strong>(OPTIONAL)</strong>: maximum number of chunks queried in parallel, using the executor for asynchronous operations. Default = 4<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Persistence context</h1>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.persistence.context" <strong>(OPTIONAL)</strong>: keep the entities found or merged by an entity manager in an identity map, find() returning them without reading Cassandra. Default = 'false'<br/>
+	 *            <br/>
+	 *            &nbsp;&nbsp;Entity managers with a persistence context are not meant to be shared as singletons: create one per unit of work and clear() it when done. The parameter can also be given
+	 *            to createEntityManager(Map)<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Entity cache</h1>
+	 *            <br/>
+	 *            The eager columns of the entities annotated with @Cached are kept in a cache shared by all the entity managers. Persist, merge and remove invalidate the cached entity<br/>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.cache.max.size" <strong>(OPTIONAL)</strong>: maximum number of cached entities, the least recently used are evicted first. Default = 10000<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.cache.ttl.ms" <strong>(OPTIONAL)</strong>: time to live of a cached entity, in milliseconds. Default = 60000<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Counter delta aggregation</h1>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.counter.aggregation" <strong>(OPTIONAL)</strong>: buffer the counter increments and write the sum of the deltas of each counter at once. Default = 'false'<br/>
+	 *            <br/>
+	 *            &nbsp;&nbsp;Buffered deltas are not visible to readers until they are flushed. They are flushed when the factory is closed<br/>
+	 *            <br/>
+	 *            &nbsp;&nbsp;Buffered deltas are written with the write consistency level of the counter column family, the level requested for an increment is ignored<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.counter.flush.threshold" <strong>(OPTIONAL)</strong>: number of buffered counters triggering a flush. Default = 1000<br/>
+	 *            <br/>
+	 *            </li>
+	 *            <li>"achilles.counter.flush.interval.ms" <strong>(OPTIONAL)</strong>: maximum time between two flushes, in milliseconds. Default = 1000<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
+	 *            <hr/>
+	 *            <h1>Value compression</h1>
+	 *            <br/>
+	 *            <ul>
+	 *            <li>"achilles.compression.threshold" <strong>(OPTIONAL)</strong>: compress with LZF the values of all the properties whose stored text is at least this number of characters long. Default = no compression<br/>
+	 *            <br/>
+	 *            &nbsp;&nbsp;Properties annotated with @Compressed use the threshold of the annotation. Compressed values start with a NUL character, uncompressed values already stored stay readable<br/>
+	 *            <br/>
+	 *            </li>
+	 *            </ul>
 	 * 
 	 * 
 	 */
@@ -166,17 +308,34 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 
 		this.entityPackages = argumentExtractor.initEntityPackages(configurationMap);
 		this.cluster = argumentExtractor.initCluster(configurationMap);
-		this.keyspace = argumentExtractor.initKeyspace(this.cluster, configurationMap);
+		FailoverPolicy failoverPolicy = argumentExtractor.initFailoverPolicy(configurationMap);
+		this.keyspace = argumentExtractor.initKeyspace(this.cluster, failoverPolicy,
+				configurationMap);
+		this.consistencyLevelKeyspaces = new ConsistencyLevelKeyspaces(this.keyspace, this.cluster,
+				failoverPolicy);
 		this.forceColumnFamilyCreation = argumentExtractor.initForceCFCreation(configurationMap);
 		this.objectMapperFactory = argumentExtractor.initObjectMapperFactory(configurationMap);
+		this.asyncExecutor = argumentExtractor.initAsyncExecutor(configurationMap);
+		this.ownsAsyncExecutor = configurationMap
+				.get(ArgumentExtractorForThriftEMF.ASYNC_EXECUTOR_PARAM) == null;
+		this.pagingPolicy = argumentExtractor.initAdaptivePagingPolicy(configurationMap);
+		this.batchingPolicy = argumentExtractor.initMutationBatchingPolicy(configurationMap);
+		this.multigetPolicy = argumentExtractor.initMultigetPolicy(configurationMap);
+		this.persistenceContext = argumentExtractor.initPersistenceContext(configurationMap);
 
 		log.info(
 				"Initializing Achilles ThriftEntityManagerFactory for cluster '{}' and keyspace '{}' ",
 				cluster.getName(), keyspace.getKeyspaceName());
 
 		this.columnFamilyCreator = new ColumnFamilyCreator(this.cluster, this.keyspace);
-		this.entityParser = new EntityParser(this.objectMapperFactory);
+		this.entityParser = new EntityParser(this.objectMapperFactory,
+				argumentExtractor.initValueCompressor(configurationMap));
 		this.bootstrap();
+		this.initEntityCache(configurationMap);
+
+		this.counterDeltaAggregator = argumentExtractor.initCounterDeltaAggregator(
+				configurationMap, counterDao);
+		this.counterDao.setDeltaAggregator(counterDeltaAggregator);
 	}
 
 	protected void bootstrap()
@@ -239,6 +398,7 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 		}
 
 		this.keyspace.setConsistencyLevelPolicy(configurableCLPolicyTL.get());
+		initDaos();
 		cleanThreadLocals();
 
 		return hasCounter;
@@ -252,36 +412,66 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 	@Override
 	public EntityManager createEntityManager()
 	{
-		return new ThriftEntityManager(entityMetaMap);
+		return new ThriftEntityManager(entityMetaMap, asyncExecutor,
+				buildPersistenceContext(persistenceContext));
 	}
 
 	/**
 	 * Create a new ThriftEntityManager
 	 * 
+	 * @param map
+	 *            properties of the entity manager. "achilles.persistence.context" overrides the
+	 * 
+	 *            value of the factory configuration
 	 * @return ThriftEntityManager
 	 */
 	@Override
 	public EntityManager createEntityManager(@SuppressWarnings("rawtypes") Map map)
 	{
-		return new ThriftEntityManager(entityMetaMap);
+		boolean enabled = persistenceContext;
+		if (map != null && map.containsKey(ArgumentExtractorForThriftEMF.PERSISTENCE_CONTEXT_PARAM))
+		{
+			enabled = argumentExtractor.initPersistenceContext(map);
+		}
+		return new ThriftEntityManager(entityMetaMap, asyncExecutor,
+				buildPersistenceContext(enabled));
+	}
+
+	private PersistenceContext buildPersistenceContext(boolean enabled)
+	{
+		return enabled ? new PersistenceContext() : null;
 	}
 
 	/**
-	 * Not supported operation. Will throw UnsupportedOperationException
+	 * Close the factory. The buffered counter deltas are flushed and the executor for
+	 * 
+	 * asynchronous operations is shut down, unless it was provided in the configuration
 	 */
 	@Override
 	public void close()
 	{
-		throw new UnsupportedOperationException("This operation is not supported for Cassandra");
+		if (open)
+		{
+			open = false;
+			log.info("Closing Achilles Thrift-based EntityManagerFactory");
+			if (counterDeltaAggregator != null)
+			{
+				counterDeltaAggregator.close();
+			}
+			if (ownsAsyncExecutor && asyncExecutor != null)
+			{
+				asyncExecutor.shutdown();
+			}
+		}
 	}
 
 	/**
-	 * Not supported operation. Will throw UnsupportedOperationException
+	 * Whether the factory has not been closed yet
 	 */
 	@Override
 	public boolean isOpen()
 	{
-		throw new UnsupportedOperationException("This operation is not supported for Cassandra");
+		return open;
 	}
 
 	private void initThreadLocalsAndCounterDao()
@@ -292,6 +482,106 @@ public class ThriftEntityManagerFactoryImpl implements AchillesEntityManagerFact
 		counterDaoTL.set(counterDao);
 	}
 
+	private void initDaos()
+	{
+		for (EntityMeta<?> entityMeta : entityMetaMap.values())
+		{
+			initDao(entityMeta.getEntityDao());
+			initDao(entityMeta.getColumnFamilyDao());
+			for (PropertyMeta<?, ?> propertyMeta : entityMeta.getPropertyMetas().values())
+			{
+				if (propertyMeta.getExternalWideMapProperties() != null)
+				{
+					initDao(propertyMeta.getExternalWideMapProperties().getExternalWideMapDao());
+				}
+			}
+		}
+		initDao(counterDao);
+	}
+
+	private void initDao(AbstractDao<?, ?, ?> dao)
+	{
+		if (dao != null)
+		{
+			// All the column families are parsed, their levels can be bound to the DAO
+			dao.setPolicy(configurableCLPolicyTL.get());
+			if (consistencyLevelKeyspaces != null)
+			{
+				dao.setKeyspaces(consistencyLevelKeyspaces);
+			}
+			dao.setExecutor(asyncExecutor);
+			dao.setPagingPolicy(pagingPolicy);
+			dao.setBatchingPolicy(batchingPolicy);
+			dao.setMultigetPolicy(multigetPolicy);
+		}
+	}
+
+	/**
+	 * Adaptive paging policy shared by the slice iterators, exposing the chosen page sizes
+	 * 
+	 * @return the policy or null when adaptive paging is not enabled
+	 */
+	public AdaptivePagingPolicy getPagingPolicy()
+	{
+		return pagingPolicy;
+	}
+
+	/**
+	 * Mutation batching policy shared by the DAOs, exposing the number of chunks sent and failed
+	 * 
+	 * @return the policy or null when mutation batching is not enabled
+	 */
+	public MutationBatchingPolicy getBatchingPolicy()
+	{
+		return batchingPolicy;
+	}
+
+	/**
+	 * Multiget policy shared by the DAOs, exposing the number of multigets and chunks sent
+	 * 
+	 * @return the policy
+	 */
+	public MultigetPolicy getMultigetPolicy()
+	{
+		return multigetPolicy;
+	}
+
+	/**
+	 * Entity cache shared by the entity managers, exposing the hit, miss and eviction counts
+	 * 
+	 * @return the cache or null when no entity is annotated with @Cached
+	 */
+	public EntityCache getEntityCache()
+	{
+		return entityCache;
+	}
+
+	/**
+	 * Write-behind buffer of the counter increments, exposing the pending deltas and flush latencies
+	 * 
+	 * @return the aggregator or null when counter delta aggregation is not enabled
+	 */
+	public CounterDeltaAggregator getCounterDeltaAggregator()
+	{
+		return counterDeltaAggregator;
+	}
+
+	private void initEntityCache(Map<String, Object> configurationMap)
+	{
+		for (EntityMeta<?> entityMeta : entityMetaMap.values())
+		{
+			if (entityMeta.isCached() && !entityMeta.isColumnFamilyDirectMapping())
+			{
+				if (entityCache == null)
+				{
+					entityCache = argumentExtractor.initEntityCache(configurationMap);
+				}
+				entityMeta.setEntityCache(entityCache);
+				entityMeta.getEntityDao().setEntityCache(entityCache);
+			}
+		}
+	}
+
 	private void cleanThreadLocals()
 	{
 		joinPropertyMetaToBeFilledTL.remove();
@@ -4,9 +4,11 @@ import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.dao.GenericCompositeDao;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.type.ConsistencyLevel;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Map;
 
 import me.prettyprint.hector.api.Serializer;
@@ -32,9 +34,13 @@ public class EntityMeta<ID>
 	private CounterDao counterDao;
 	private Map<Method, PropertyMeta<?, ?>> getterMetas;
 	private Map<Method, PropertyMeta<?, ?>> setterMetas;
+	private Map<String, List<PropertyMeta<?, ?>>> fetchGroups;
 	private boolean columnFamilyDirectMapping = false;
 	private Boolean hasCounter = false;
 	private Pair<ConsistencyLevel, ConsistencyLevel> consistencyLevels;
+	private boolean cached = false;
+	private boolean eagerChunked = false;
+	private EntityCache entityCache;
 
 	public String getClassName()
 	{
@@ -126,6 +132,19 @@ public class EntityMeta<ID>
 		this.setterMetas = setterMetas;
 	}
 
+	/**
+	 * Lazy properties by fetch group
+	 */
+	public Map<String, List<PropertyMeta<?, ?>>> getFetchGroups()
+	{
+		return fetchGroups;
+	}
+
+	public void setFetchGroups(Map<String, List<PropertyMeta<?, ?>>> fetchGroups)
+	{
+		this.fetchGroups = fetchGroups;
+	}
+
 	public boolean isColumnFamilyDirectMapping()
 	{
 		return columnFamilyDirectMapping;
@@ -176,4 +195,37 @@ public class EntityMeta<ID>
 		this.consistencyLevels = consistencyLevels;
 	}
 
+	public boolean isCached()
+	{
+		return cached;
+	}
+
+	public void setCached(boolean cached)
+	{
+		this.cached = cached;
+	}
+
+	/**
+	 * Whether the entity has eager chunked properties, whose chunks are read with the entity
+	 */
+	public boolean isEagerChunked()
+	{
+		return eagerChunked;
+	}
+
+	public void setEagerChunked(boolean eagerChunked)
+	{
+		this.eagerChunked = eagerChunked;
+	}
+
+	public EntityCache getEntityCache()
+	{
+		return entityCache;
+	}
+
+	public void setEntityCache(EntityCache entityCache)
+	{
+		this.entityCache = entityCache;
+	}
+
 }
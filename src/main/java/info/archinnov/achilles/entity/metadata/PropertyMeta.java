@@ -5,11 +5,16 @@ import static info.archinnov.achilles.entity.metadata.PropertyType.COUNTER;
 import static info.archinnov.achilles.entity.metadata.PropertyType.WIDE_MAP_COUNTER;
 import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_MAP;
 import static info.archinnov.achilles.entity.metadata.PropertyType.MAP;
+import info.archinnov.achilles.codec.JsonValueCodec;
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.codec.ValueCodec;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.type.ConsistencyLevel;
 import info.archinnov.achilles.entity.type.KeyValue;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -19,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 
 import me.prettyprint.hector.api.Serializer;
+import me.prettyprint.hector.api.beans.DynamicComposite;
 
 import org.codehaus.jackson.map.ObjectMapper;
 import org.slf4j.Logger;
@@ -32,7 +38,9 @@ import org.slf4j.LoggerFactory;
  */
 public class PropertyMeta<K, V>
 {
-	private ObjectMapper objectMapper;
+	private ValueCodec valueCodec;
+	private ValueCompressor valueCompressor;
+	private ValueChunker valueChunker;
 	private PropertyType type;
 	private String propertyName;
 	private Class<K> keyClass;
@@ -46,6 +54,8 @@ public class PropertyMeta<K, V>
 	private MultiKeyProperties multiKeyProperties;
 	private ExternalWideMapProperties<?> externalWideMapProperties;
 	private Pair<ConsistencyLevel, ConsistencyLevel> consistencyLevels;
+	private String fetchGroup;
+	private volatile Pair<DynamicComposite, DynamicComposite> queryBounds;
 
 	private boolean singleKey;
 
@@ -59,6 +69,7 @@ public class PropertyMeta<K, V>
 	public void setType(PropertyType propertyType)
 	{
 		this.type = propertyType;
+		this.queryBounds = null;
 	}
 
 	public List<V> newListInstance()
@@ -84,6 +95,7 @@ public class PropertyMeta<K, V>
 	public void setPropertyName(String propertyName)
 	{
 		this.propertyName = propertyName;
+		this.queryBounds = null;
 	}
 
 	public Class<K> getKeyClass()
@@ -167,11 +179,11 @@ public class PropertyMeta<K, V>
 		{
 			if (valueClass == String.class)
 			{
-				return valueClass.cast(object);
+				return valueClass.cast(decompress(object));
 			}
 			else
 			{
-				return this.objectMapper.readValue((String) object, this.valueClass);
+				return this.valueCodec.decode(decompress(object), this.valueClass);
 			}
 		}
 		catch (Exception e)
@@ -186,7 +198,7 @@ public class PropertyMeta<K, V>
 	{
 		try
 		{
-			return this.objectMapper.readValue((String) object, KeyValue.class);
+			return this.valueCodec.decode(decompress(object), KeyValue.class);
 
 		}
 		catch (Exception e)
@@ -202,11 +214,11 @@ public class PropertyMeta<K, V>
 		{
 			if (valueClass == String.class && type != MAP && type != LAZY_MAP)
 			{
-				return (String) value;
+				return compress((String) value);
 			}
 			else
 			{
-				return this.objectMapper.writeValueAsString(value);
+				return compress(this.valueCodec.encode(value));
 			}
 		}
 		catch (Exception e)
@@ -226,7 +238,7 @@ public class PropertyMeta<K, V>
 			}
 			else
 			{
-				return this.objectMapper.writeValueAsString(value);
+				return compress(this.valueCodec.encode(value));
 			}
 		}
 		catch (Exception e)
@@ -250,7 +262,7 @@ public class PropertyMeta<K, V>
 			}
 			else
 			{
-				return objectMapper.readValue((String) object, valueClass);
+				return valueCodec.decode(decompress(object), valueClass);
 			}
 
 		}
@@ -323,7 +335,42 @@ public class PropertyMeta<K, V>
 
 	public void setObjectMapper(ObjectMapper objectMapper)
 	{
-		this.objectMapper = objectMapper;
+		this.valueCodec = new JsonValueCodec(objectMapper);
+	}
+
+	public ValueCodec getValueCodec()
+	{
+		return valueCodec;
+	}
+
+	public void setValueCodec(ValueCodec valueCodec)
+	{
+		this.valueCodec = valueCodec;
+	}
+
+	public ValueCompressor getValueCompressor()
+	{
+		return valueCompressor;
+	}
+
+	public void setValueCompressor(ValueCompressor valueCompressor)
+	{
+		this.valueCompressor = valueCompressor;
+	}
+
+	public ValueChunker getValueChunker()
+	{
+		return valueChunker;
+	}
+
+	public void setValueChunker(ValueChunker valueChunker)
+	{
+		this.valueChunker = valueChunker;
+	}
+
+	public boolean isChunked()
+	{
+		return valueChunker != null;
 	}
 
 	public CounterProperties getCounterProperties()
@@ -376,4 +423,44 @@ public class PropertyMeta<K, V>
 		this.consistencyLevels = consistencyLevels;
 	}
 
+	/**
+	 * Fetch group of a lazy property, loaded along with the other properties of the group
+	 * 
+	 * @return the group name, or null when the property is loaded alone
+	 */
+	public String getFetchGroup()
+	{
+		return fetchGroup;
+	}
+
+	public void setFetchGroup(String fetchGroup)
+	{
+		this.fetchGroup = fetchGroup;
+	}
+
+	/**
+	 * Start and end composites bounding all the columns of the property, already serialized
+	 * 
+	 * @return the bounds, or null when not yet built
+	 */
+	public Pair<DynamicComposite, DynamicComposite> getQueryBounds()
+	{
+		return queryBounds;
+	}
+
+	public void setQueryBounds(Pair<DynamicComposite, DynamicComposite> queryBounds)
+	{
+		this.queryBounds = queryBounds;
+	}
+
+	private String compress(String text) throws IOException
+	{
+		return valueCompressor != null ? valueCompressor.compress(text) : text;
+	}
+
+	private String decompress(Object object) throws IOException
+	{
+		String text = (String) object;
+		return valueCompressor != null ? ValueCompressor.decompress(text) : text;
+	}
 }
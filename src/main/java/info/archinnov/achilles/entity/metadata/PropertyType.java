@@ -63,6 +63,16 @@ public enum PropertyType
 		|| this == EXTERNAL_JOIN_WIDE_MAP);
 	}
 
+	public boolean isMultiValue()
+	{
+		return (this == LIST //
+				|| this == LAZY_LIST //
+				|| this == SET //
+				|| this == LAZY_SET //
+				|| this == MAP //
+		|| this == LAZY_MAP);
+	}
+
 	public boolean isJoinColumn()
 	{
 		return (this == JOIN_SIMPLE //
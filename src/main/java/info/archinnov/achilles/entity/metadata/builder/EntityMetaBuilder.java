@@ -9,12 +9,15 @@ import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
 import info.archinnov.achilles.entity.type.ConsistencyLevel;
 import info.archinnov.achilles.validation.Validator;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import me.prettyprint.cassandra.serializers.SerializerTypeInferer;
@@ -40,6 +43,7 @@ public class EntityMetaBuilder<ID>
 	private boolean hasCounter = false;
 	private CounterDao counterDao;
 	private Pair<ConsistencyLevel, ConsistencyLevel> consistencyLevels;
+	private boolean cached = false;
 
 	public static <ID> EntityMetaBuilder<ID> entityMetaBuilder(PropertyMeta<Void, ID> idMeta)
 	{
@@ -76,10 +80,13 @@ public class EntityMetaBuilder<ID>
 		meta.setPropertyMetas(Collections.unmodifiableMap(propertyMetas));
 		meta.setGetterMetas(Collections.unmodifiableMap(this.extractGetterMetas(propertyMetas)));
 		meta.setSetterMetas(Collections.unmodifiableMap(this.extractSetterMetas(propertyMetas)));
+		meta.setFetchGroups(Collections.unmodifiableMap(this.extractFetchGroups(propertyMetas)));
 		meta.setColumnFamilyDirectMapping(columnFamilyDirectMapping);
 		meta.setHasCounter(hasCounter);
 		meta.setCounterDao(counterDao);
 		meta.setConsistencyLevels(consistencyLevels);
+		meta.setCached(cached);
+		meta.setEagerChunked(this.hasEagerChunkedProperty(propertyMetas));
 
 		if (columnFamilyDirectMapping)
 		{
@@ -108,6 +115,18 @@ public class EntityMetaBuilder<ID>
 		return meta;
 	}
 
+	private boolean hasEagerChunkedProperty(Map<String, PropertyMeta<?, ?>> propertyMetas)
+	{
+		for (PropertyMeta<?, ?> propertyMeta : propertyMetas.values())
+		{
+			if (propertyMeta.type() == PropertyType.SIMPLE && propertyMeta.isChunked())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private Map<Method, PropertyMeta<?, ?>> extractGetterMetas(
 			Map<String, PropertyMeta<?, ?>> propertyMetas)
 	{
@@ -130,6 +149,27 @@ public class EntityMetaBuilder<ID>
 		return setterMetas;
 	}
 
+	private Map<String, List<PropertyMeta<?, ?>>> extractFetchGroups(
+			Map<String, PropertyMeta<?, ?>> propertyMetas)
+	{
+		Map<String, List<PropertyMeta<?, ?>>> fetchGroups = new HashMap<String, List<PropertyMeta<?, ?>>>();
+		for (PropertyMeta<?, ?> propertyMeta : propertyMetas.values())
+		{
+			String fetchGroup = propertyMeta.getFetchGroup();
+			if (fetchGroup != null)
+			{
+				List<PropertyMeta<?, ?>> groupMetas = fetchGroups.get(fetchGroup);
+				if (groupMetas == null)
+				{
+					groupMetas = new ArrayList<PropertyMeta<?, ?>>();
+					fetchGroups.put(fetchGroup, groupMetas);
+				}
+				groupMetas.add(propertyMeta);
+			}
+		}
+		return fetchGroups;
+	}
+
 	public EntityMetaBuilder<ID> className(String className)
 	{
 		this.className = className;
@@ -184,4 +224,10 @@ public class EntityMetaBuilder<ID>
 		this.consistencyLevels = consistencyLevels;
 		return this;
 	}
+
+	public EntityMetaBuilder<ID> cached(boolean cached)
+	{
+		this.cached = cached;
+		return this;
+	}
 }
@@ -1,5 +1,8 @@
 package info.archinnov.achilles.entity.metadata.factory;
 
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.codec.ValueCodec;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.metadata.CounterProperties;
 import info.archinnov.achilles.entity.metadata.JoinProperties;
@@ -29,11 +32,15 @@ public class PropertyMetaFactory<K, V>
 	private Class<V> valueClass;
 	private Method[] accessors;
 	private ObjectMapper objectMapper;
+	private ValueCodec valueCodec;
+	private ValueCompressor valueCompressor;
+	private ValueChunker valueChunker;
 	private CounterProperties counterProperties;
 
 	private JoinProperties joinProperties;
 	private MultiKeyProperties multiKeyProperties;
 	private Pair<ConsistencyLevel, ConsistencyLevel> consistencyLevels;
+	private String fetchGroup;
 
 	public PropertyMetaFactory(Class<K> keyClass, Class<V> valueClass) {
 		this.keyClass = keyClass;
@@ -62,6 +69,24 @@ public class PropertyMetaFactory<K, V>
 		return this;
 	}
 
+	public PropertyMetaFactory<K, V> valueCodec(ValueCodec valueCodec)
+	{
+		this.valueCodec = valueCodec;
+		return this;
+	}
+
+	public PropertyMetaFactory<K, V> valueCompressor(ValueCompressor valueCompressor)
+	{
+		this.valueCompressor = valueCompressor;
+		return this;
+	}
+
+	public PropertyMetaFactory<K, V> valueChunker(ValueChunker valueChunker)
+	{
+		this.valueChunker = valueChunker;
+		return this;
+	}
+
 	@SuppressWarnings(
 	{
 			"unchecked",
@@ -97,6 +122,12 @@ public class PropertyMetaFactory<K, V>
 		}
 
 		meta.setObjectMapper(objectMapper);
+		if (valueCodec != null)
+		{
+			meta.setValueCodec(valueCodec);
+		}
+		meta.setValueCompressor(valueCompressor);
+		meta.setValueChunker(valueChunker);
 		meta.setType(type);
 		meta.setPropertyName(propertyName);
 		meta.setKeyClass(keyClass);
@@ -115,6 +146,7 @@ public class PropertyMetaFactory<K, V>
 		meta.setSingleKey(singleKey);
 		meta.setCounterProperties(counterProperties);
 		meta.setConsistencyLevels(consistencyLevels);
+		meta.setFetchGroup(fetchGroup);
 
 		return meta;
 	}
@@ -156,4 +188,10 @@ public class PropertyMetaFactory<K, V>
 		return this;
 	}
 
+	public PropertyMetaFactory<K, V> fetchGroup(String fetchGroup)
+	{
+		this.fetchGroup = fetchGroup;
+		return this;
+	}
+
 }
@@ -0,0 +1,134 @@
+package info.archinnov.achilles.entity.operations;
+
+import info.archinnov.achilles.dao.AbstractDao;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import me.prettyprint.hector.api.mutation.Mutator;
+
+/**
+ * BatchMutators
+ * 
+ * Mutators collecting the writes of several entities, one per column family, so that each column
+ * 
+ * family receives a single batch. The mutators are executed together at the end: a single one is
+ * 
+ * executed directly, several ones are executed in parallel on the asynchronous executor of the
+ * 
+ * DAOs, whose thread count bounds the number of batches sent at the same time. Completions are
+ * 
+ * run once all the mutators are executed successfully
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class BatchMutators
+{
+	private final Map<AbstractDao<?, ?, ?>, Mutator<?>> mutators = new LinkedHashMap<AbstractDao<?, ?, ?>, Mutator<?>>();
+	private final List<Runnable> completions = new ArrayList<Runnable>();
+
+	/**
+	 * Mutator of the column family of the given DAO, built at first call
+	 */
+	@SuppressWarnings("unchecked")
+	public <K> Mutator<K> getMutator(AbstractDao<K, ?, ?> dao)
+	{
+		Mutator<K> mutator = (Mutator<K>) mutators.get(dao);
+		if (mutator == null)
+		{
+			mutator = dao.buildMutator();
+			mutators.put(dao, mutator);
+		}
+		return mutator;
+	}
+
+	/**
+	 * Task run after a successful execution, to update the state of the written entities. It is
+	 * 
+	 * discarded when the execution fails, so that a retry writes the same columns again
+	 */
+	public void addCompletion(Runnable completion)
+	{
+		completions.add(completion);
+	}
+
+	public int size()
+	{
+		return mutators.size();
+	}
+
+	/**
+	 * Execute the mutators and wait for all of them, then run the completions. The first failure
+	 * 
+	 * is thrown once all the batches are done
+	 */
+	public void execute()
+	{
+		List<Runnable> pendingCompletions = new ArrayList<Runnable>(completions);
+		completions.clear();
+
+		this.executeMutators();
+
+		for (Runnable completion : pendingCompletions)
+		{
+			completion.run();
+		}
+	}
+
+	@SuppressWarnings(
+	{
+			"unchecked",
+			"rawtypes"
+	})
+	private void executeMutators()
+	{
+		if (mutators.size() == 1)
+		{
+			Entry<AbstractDao<?, ?, ?>, Mutator<?>> entry = mutators.entrySet()
+					.iterator().next();
+			mutators.clear();
+			((AbstractDao) entry.getKey()).executeMutator(entry.getValue());
+			return;
+		}
+
+		List<Future<Void>> pendingBatches = new ArrayList<Future<Void>>();
+		for (Entry<AbstractDao<?, ?, ?>, Mutator<?>> entry : mutators.entrySet())
+		{
+			pendingBatches.add(((AbstractDao) entry.getKey())
+					.executeMutatorAsync(entry.getValue()));
+		}
+		mutators.clear();
+
+		RuntimeException failure = null;
+		for (Future<Void> pendingBatch : pendingBatches)
+		{
+			try
+			{
+				pendingBatch.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			catch (ExecutionException e)
+			{
+				if (failure == null)
+				{
+					failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e
+							.getCause() : new RuntimeException(e.getCause());
+				}
+			}
+		}
+		if (failure != null)
+		{
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package info.archinnov.achilles.entity.operations;
+
+import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_MAP;
+import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.JoinEntityHelper;
+import info.archinnov.achilles.entity.metadata.EntityMeta;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.type.KeyValue;
+import info.archinnov.achilles.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * EntityGraphLoader
+ * 
+ * Load the join simple, list, set and map properties of several entities level by level: the join
+ * 
+ * entities of a level are the parents of the next one. At each level the join ids of all the
+ * 
+ * parents are read with chunked multiget queries, deduplicated, then the join entities of each
+ * 
+ * class are loaded with a single chunked multiget
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class EntityGraphLoader
+{
+	private static final Logger log = LoggerFactory.getLogger(EntityGraphLoader.class);
+
+	private EntityHelper helper = new EntityHelper();
+	private EntityLoader loader = new EntityLoader();
+	private JoinEntityHelper joinHelper = new JoinEntityHelper();
+
+	/**
+	 * Load the join properties of the given entities, then the join properties of the loaded join
+	 * 
+	 * entities and so on, down to the given depth
+	 * 
+	 * @param entities
+	 *            real objects, not proxies
+	 * @param entityMeta
+	 *            meta of the entities
+	 * @param depth
+	 *            number of join levels to load, 0 loads nothing
+	 */
+	public <T> void loadJoins(List<T> entities, EntityMeta<?> entityMeta, int depth)
+	{
+		Validator.validateTrue(depth >= 0, "Join loading depth should not be negative");
+
+		Map<EntityMeta<?>, List<Object>> level = new LinkedHashMap<EntityMeta<?>, List<Object>>();
+		if (!entities.isEmpty())
+		{
+			level.put(entityMeta, new ArrayList<Object>(entities));
+		}
+
+		for (int i = 0; i < depth && !level.isEmpty(); i++)
+		{
+			log.trace("Loading join level {} of entities {}", i + 1, entityMeta.getClassName());
+			level = this.loadLevel(level);
+		}
+	}
+
+	private Map<EntityMeta<?>, List<Object>> loadLevel(Map<EntityMeta<?>, List<Object>> level)
+	{
+		List<JoinIds> pendingJoins = new ArrayList<JoinIds>();
+		Map<EntityMeta<?>, Set<Object>> joinIdsByMeta = new LinkedHashMap<EntityMeta<?>, Set<Object>>();
+		Map<EntityMeta<?>, Class<?>> joinClasses = new HashMap<EntityMeta<?>, Class<?>>();
+
+		for (Entry<EntityMeta<?>, List<Object>> entry : level.entrySet())
+		{
+			for (JoinIds joinIds : this.readJoinIds(entry.getValue(), entry.getKey()))
+			{
+				PropertyMeta<?, ?> propertyMeta = joinIds.propertyMeta;
+				Set<Object> ids = joinIdsByMeta.get(propertyMeta.joinMeta());
+				if (ids == null)
+				{
+					ids = new LinkedHashSet<Object>();
+					joinIdsByMeta.put(propertyMeta.joinMeta(), ids);
+					joinClasses.put(propertyMeta.joinMeta(), propertyMeta.getValueClass());
+				}
+				for (Pair<Object, Object> keyAndId : joinIds.keysAndIds)
+				{
+					ids.add(keyAndId.right);
+				}
+				pendingJoins.add(joinIds);
+			}
+		}
+
+		Map<EntityMeta<?>, Map<Object, Object>> joinEntitiesByMeta = new HashMap<EntityMeta<?>, Map<Object, Object>>();
+		Map<EntityMeta<?>, List<Object>> nextLevel = new LinkedHashMap<EntityMeta<?>, List<Object>>();
+		for (Entry<EntityMeta<?>, Set<Object>> entry : joinIdsByMeta.entrySet())
+		{
+			Map<Object, Object> joinEntities = this.loadJoinEntities(
+					joinClasses.get(entry.getKey()), new ArrayList<Object>(entry.getValue()),
+					entry.getKey());
+			joinEntitiesByMeta.put(entry.getKey(), joinEntities);
+			if (!joinEntities.isEmpty())
+			{
+				nextLevel.put(entry.getKey(), new ArrayList<Object>(joinEntities.values()));
+			}
+		}
+
+		for (JoinIds joinIds : pendingJoins)
+		{
+			this.setJoinValue(joinIds,
+					joinEntitiesByMeta.get(joinIds.propertyMeta.joinMeta()));
+		}
+		return nextLevel;
+	}
+
+	private <ID> List<JoinIds> readJoinIds(List<Object> entities, EntityMeta<ID> entityMeta)
+	{
+		List<JoinIds> result = new ArrayList<JoinIds>();
+		if (entityMeta.isColumnFamilyDirectMapping())
+		{
+			return result;
+		}
+
+		Map<String, PropertyMeta<?, ?>> joinMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		for (PropertyMeta<?, ?> propertyMeta : entityMeta.getPropertyMetas().values())
+		{
+			if (propertyMeta.isJoin() && !propertyMeta.isWideMap())
+			{
+				joinMetas.put(propertyMeta.getPropertyName(), propertyMeta);
+			}
+		}
+		if (joinMetas.isEmpty())
+		{
+			return result;
+		}
+
+		List<ID> keys = new ArrayList<ID>();
+		for (Object entity : entities)
+		{
+			keys.add(helper.getKey(entity, entityMeta.getIdMeta()));
+		}
+
+		Map<ID, List<Pair<DynamicComposite, String>>> columnsByKey = loader.loadLazyColumns(keys,
+				entityMeta, new ArrayList<PropertyMeta<?, ?>>(joinMetas.values()));
+
+		for (int i = 0; i < entities.size(); i++)
+		{
+			Map<String, JoinIds> joinIdsByProperty = new HashMap<String, JoinIds>();
+			for (PropertyMeta<?, ?> propertyMeta : joinMetas.values())
+			{
+				JoinIds joinIds = new JoinIds(entities.get(i), propertyMeta);
+				joinIdsByProperty.put(propertyMeta.getPropertyName(), joinIds);
+				result.add(joinIds);
+			}
+
+			List<Pair<DynamicComposite, String>> columns = columnsByKey.get(keys.get(i));
+			if (columns != null)
+			{
+				for (Pair<DynamicComposite, String> pair : columns)
+				{
+					JoinIds joinIds = joinIdsByProperty.get(pair.left.get(1, STRING_SRZ));
+					if (joinIds != null)
+					{
+						joinIds.add(pair.right);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T, JOIN_ID> Map<Object, Object> loadJoinEntities(Class<T> joinClass,
+			List<Object> joinIds, EntityMeta<?> joinMeta)
+	{
+		Map<Object, Object> joinEntities = new HashMap<Object, Object>();
+		if (!joinIds.isEmpty())
+		{
+			joinEntities.putAll(joinHelper.loadJoinEntities(joinClass, (List<JOIN_ID>) joinIds,
+					(EntityMeta<JOIN_ID>) joinMeta));
+		}
+		return joinEntities;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <K, V> void setJoinValue(JoinIds joinIds, Map<Object, Object> joinEntities)
+	{
+		PropertyMeta<K, V> propertyMeta = (PropertyMeta<K, V>) joinIds.propertyMeta;
+		Object value = null;
+		switch (propertyMeta.type())
+		{
+			case JOIN_SIMPLE:
+				if (!joinIds.keysAndIds.isEmpty())
+				{
+					value = joinEntities.get(joinIds.keysAndIds.get(0).right);
+				}
+				break;
+			case JOIN_LIST:
+				List<Object> list = new ArrayList<Object>();
+				for (Pair<Object, Object> keyAndId : joinIds.keysAndIds)
+				{
+					list.add(joinEntities.get(keyAndId.right));
+				}
+				value = list;
+				break;
+			case JOIN_SET:
+				Set<Object> set = new HashSet<Object>();
+				for (Pair<Object, Object> keyAndId : joinIds.keysAndIds)
+				{
+					set.add(joinEntities.get(keyAndId.right));
+				}
+				value = set;
+				break;
+			case JOIN_MAP:
+				Map<K, V> map = propertyMeta.newMapInstance();
+				for (Pair<Object, Object> keyAndId : joinIds.keysAndIds)
+				{
+					map.put(propertyMeta.getKeyClass().cast(keyAndId.left),
+							(V) joinEntities.get(keyAndId.right));
+				}
+				value = map;
+				break;
+			default:
+				return;
+		}
+		helper.setValueToField(joinIds.entity, propertyMeta.getSetter(), value);
+	}
+
+	/**
+	 * Join ids read for one join property of an entity, with their map key for join maps
+	 */
+	private static class JoinIds
+	{
+		private final Object entity;
+		private final PropertyMeta<?, ?> propertyMeta;
+		private final List<Pair<Object, Object>> keysAndIds = new ArrayList<Pair<Object, Object>>();
+
+		private JoinIds(Object entity, PropertyMeta<?, ?> propertyMeta)
+		{
+			this.entity = entity;
+			this.propertyMeta = propertyMeta;
+		}
+
+		private void add(String columnValue)
+		{
+			PropertyMeta<Void, ?> joinIdMeta = propertyMeta.joinIdMeta();
+			if (propertyMeta.type() == JOIN_MAP)
+			{
+				KeyValue<?, ?> holder = propertyMeta.getKeyValueFromString(columnValue);
+				keysAndIds.add(new Pair<Object, Object>(holder.getKey(), joinIdMeta
+						.getValueFromString(holder.getValue())));
+			}
+			else
+			{
+				keysAndIds.add(new Pair<Object, Object>(null, joinIdMeta
+						.getValueFromString(columnValue)));
+			}
+		}
+	}
+}
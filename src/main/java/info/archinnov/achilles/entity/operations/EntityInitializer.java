@@ -0,0 +1,127 @@
+package info.archinnov.achilles.entity.operations;
+
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_LIST;
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_MAP;
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_SET;
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_SIMPLE;
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.EntityMapper;
+import info.archinnov.achilles.entity.metadata.EntityMeta;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
+import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * EntityInitializer
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class EntityInitializer
+{
+	private static final Logger log = LoggerFactory.getLogger(EntityInitializer.class);
+
+	private EntityHelper helper = new EntityHelper();
+	private EntityLoader loader = new EntityLoader();
+	private EntityMapper mapper = new EntityMapper();
+
+	/**
+	 * Load the lazy simple, list, set and map properties of several 'managed' entities of the same
+	 * 
+	 * class with chunked multiget queries, then mark them as loaded in the interceptors.
+	 * 
+	 * Properties already loaded or set keep their current value
+	 */
+	public <ID, T> void loadLazyProperties(List<T> proxies, EntityMeta<ID> entityMeta)
+	{
+		if (proxies.isEmpty() || entityMeta.isColumnFamilyDirectMapping())
+		{
+			return;
+		}
+
+		List<JpaEntityInterceptor<ID, T>> interceptors = new ArrayList<JpaEntityInterceptor<ID, T>>();
+		List<ID> keys = new ArrayList<ID>();
+		for (T proxy : proxies)
+		{
+			JpaEntityInterceptor<ID, T> interceptor = helper.getInterceptor(proxy);
+			interceptors.add(interceptor);
+			keys.add(interceptor.getKey());
+		}
+
+		List<PropertyMeta<?, ?>> lazyMetas = new ArrayList<PropertyMeta<?, ?>>();
+		for (PropertyMeta<?, ?> propertyMeta : entityMeta.getPropertyMetas().values())
+		{
+			if (isLazyValue(propertyMeta.type()) && !isLoadedByAll(interceptors, propertyMeta))
+			{
+				lazyMetas.add(propertyMeta);
+			}
+		}
+
+		if (lazyMetas.isEmpty())
+		{
+			return;
+		}
+
+		log.trace("Loading {} lazy properties of {} entities {}", lazyMetas.size(), keys.size(),
+				entityMeta.getClassName());
+
+		Map<ID, List<Pair<DynamicComposite, String>>> columnsByKey = loader.loadLazyColumns(keys,
+				entityMeta, lazyMetas);
+
+		for (JpaEntityInterceptor<ID, T> interceptor : interceptors)
+		{
+			List<PropertyMeta<?, ?>> notLoadedMetas = new ArrayList<PropertyMeta<?, ?>>();
+			for (PropertyMeta<?, ?> propertyMeta : lazyMetas)
+			{
+				if (!interceptor.getLazyAlreadyLoaded().contains(propertyMeta.getGetter()))
+				{
+					notLoadedMetas.add(propertyMeta);
+				}
+			}
+
+			if (!notLoadedMetas.isEmpty())
+			{
+				List<Pair<DynamicComposite, String>> columns = columnsByKey.get(interceptor
+						.getKey());
+				if (columns == null)
+				{
+					columns = new ArrayList<Pair<DynamicComposite, String>>();
+				}
+				mapper.setLazyPropertiesToEntity(columns, notLoadedMetas, interceptor.getTarget());
+
+				for (PropertyMeta<?, ?> propertyMeta : notLoadedMetas)
+				{
+					interceptor.getLazyAlreadyLoaded().add(propertyMeta.getGetter());
+				}
+			}
+		}
+	}
+
+	private boolean isLazyValue(PropertyType type)
+	{
+		return type == LAZY_SIMPLE || type == LAZY_LIST || type == LAZY_SET || type == LAZY_MAP;
+	}
+
+	private <ID, T> boolean isLoadedByAll(List<JpaEntityInterceptor<ID, T>> interceptors,
+			PropertyMeta<?, ?> propertyMeta)
+	{
+		for (JpaEntityInterceptor<ID, T> interceptor : interceptors)
+		{
+			if (!interceptor.getLazyAlreadyLoaded().contains(propertyMeta.getGetter()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -1,13 +1,13 @@
 package info.archinnov.achilles.entity.operations;
 
-import static info.archinnov.achilles.entity.manager.ThriftEntityManager.currentReadConsistencyLevel;
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.EQUAL;
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.GREATER_THAN_EQUAL;
 import info.archinnov.achilles.composite.factory.CompositeKeyFactory;
 import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.ConsistencyContext;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.JoinEntityHelper;
 import info.archinnov.achilles.entity.EntityMapper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
@@ -15,16 +15,26 @@ import info.archinnov.achilles.entity.metadata.PropertyType;
 import info.archinnov.achilles.entity.type.KeyValue;
 import info.archinnov.achilles.validation.Validator;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
 import me.prettyprint.hector.api.beans.Composite;
 import me.prettyprint.hector.api.beans.DynamicComposite;
+import me.prettyprint.hector.api.beans.HColumn;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+
 /**
  * EntityLoader
  * 
@@ -39,6 +49,27 @@ public class EntityLoader
 	private EntityMapper mapper = new EntityMapper();
 	private EntityHelper helper = new EntityHelper();
 	private JoinEntityLoader joinLoader = new JoinEntityLoader();
+	private JoinEntityHelper joinHelper = new JoinEntityHelper();
+
+	private static final int CHUNK_PAGE_SIZE = 10;
+
+	private static final Function<HColumn<DynamicComposite, String>, Pair<DynamicComposite, String>> HCOLUMN_TO_PAIR = new Function<HColumn<DynamicComposite, String>, Pair<DynamicComposite, String>>()
+	{
+		@Override
+		public Pair<DynamicComposite, String> apply(HColumn<DynamicComposite, String> hColumn)
+		{
+			return new Pair<DynamicComposite, String>(hColumn.getName(), hColumn.getValue());
+		}
+	};
+
+	private static final Comparator<PropertyMeta<?, ?>> PROPERTY_NAME_COMPARATOR = new Comparator<PropertyMeta<?, ?>>()
+	{
+		@Override
+		public int compare(PropertyMeta<?, ?> meta1, PropertyMeta<?, ?> meta2)
+		{
+			return meta1.getPropertyName().compareTo(meta2.getPropertyName());
+		}
+	};
 
 	public <T, ID> T load(Class<T> entityClass, ID key, EntityMeta<ID> entityMeta)
 	{
@@ -59,14 +90,13 @@ public class EntityLoader
 			}
 			else
 			{
-				List<Pair<DynamicComposite, String>> columns = entityMeta.getEntityDao()
-						.eagerFetchEntity(key);
+				List<Pair<DynamicComposite, String>> columns = this.fetchEagerColumns(key,
+						entityMeta);
 				if (columns.size() > 0)
 				{
 					entity = entityClass.newInstance();
 					mapper.setEagerPropertiesToEntity(key, columns, entityMeta, entity);
 					helper.setValueToField(entity, entityMeta.getIdMeta().getSetter(), key);
-
 				}
 			}
 
@@ -79,6 +109,97 @@ public class EntityLoader
 		return entity;
 	}
 
+	private <ID> List<Pair<DynamicComposite, String>> fetchEagerColumns(ID key,
+			EntityMeta<ID> entityMeta)
+	{
+		EntityCache entityCache = entityMeta.getEntityCache();
+		if (entityCache == null)
+		{
+			return this.eagerFetchEntity(key, entityMeta);
+		}
+
+		long readSequence = entityCache.getWriteSequence();
+		List<Pair<DynamicComposite, String>> columns = entityCache.get(
+				entityMeta.getColumnFamilyName(), key);
+		if (columns == null)
+		{
+			columns = this.eagerFetchEntity(key, entityMeta);
+			// Absent entities are not cached, they can be inserted without the entity manager
+			if (columns.size() > 0)
+			{
+				entityCache.put(entityMeta.getColumnFamilyName(), key, columns, readSequence);
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Eager columns of entities with chunked eager properties are read by pages of chunks
+	 */
+	private <ID> List<Pair<DynamicComposite, String>> eagerFetchEntity(ID key,
+			EntityMeta<ID> entityMeta)
+	{
+		if (entityMeta.isEagerChunked())
+		{
+			return entityMeta.getEntityDao().eagerFetchEntity(key, CHUNK_PAGE_SIZE);
+		}
+		return entityMeta.getEntityDao().eagerFetchEntity(key);
+	}
+
+	/**
+	 * Load the entities of several keys with chunked multiget queries
+	 * 
+	 * @return the found entities by key, keys without entity are absent
+	 */
+	public <T, ID> Map<ID, T> loadAll(Class<T> entityClass, List<ID> keys,
+			EntityMeta<ID> entityMeta)
+	{
+		Validator.validateNotNull(entityClass, "Entity class should not be null");
+		Validator.validateNotNull(keys, "Entity '" + entityClass.getCanonicalName()
+				+ "' keys should not be null");
+		Validator.validateNotNull(entityMeta, "Entity meta for '" + entityClass.getCanonicalName()
+				+ "' should not be null");
+
+		if (keys.isEmpty())
+		{
+			return new HashMap<ID, T>();
+		}
+		else if (entityMeta.isColumnFamilyDirectMapping())
+		{
+			Map<ID, T> entitiesByKey = new HashMap<ID, T>();
+			for (ID key : keys)
+			{
+				entitiesByKey.put(key, this.load(entityClass, key, entityMeta));
+			}
+			return entitiesByKey;
+		}
+		else
+		{
+			return joinHelper.loadJoinEntities(entityClass, keys, entityMeta);
+		}
+	}
+
+	/**
+	 * Check whether an entity exists by reading its serialVersionUID column only, or the first
+	 * 
+	 * column of the row for entities mapped directly to a column family
+	 */
+	public <ID> boolean exists(ID key, EntityMeta<ID> entityMeta)
+	{
+		Validator.validateNotNull(key, "Entity key should not be null");
+		Validator.validateNotNull(entityMeta, "Entity meta should not be null");
+
+		if (entityMeta.isColumnFamilyDirectMapping())
+		{
+			return !entityMeta.getColumnFamilyDao().findColumnsRange(key, null, null, false, 1)
+					.isEmpty();
+		}
+		else
+		{
+			return this.loadVersionSerialUID(key, entityMeta.getEntityDao()) != null;
+		}
+	}
+
 	protected <ID, V> Long loadVersionSerialUID(ID key, GenericDynamicCompositeDao<ID> dao)
 	{
 		DynamicComposite composite = new DynamicComposite();
@@ -99,17 +220,37 @@ public class EntityLoader
 	protected <ID, V> V loadSimpleProperty(ID key, GenericDynamicCompositeDao<ID> dao,
 			PropertyMeta<?, V> propertyMeta)
 	{
-		DynamicComposite composite = dynamicCompositeKeyFactory.createBaseForQuery(propertyMeta,
-				EQUAL);
+		if (propertyMeta.isChunked())
+		{
+			return propertyMeta.getValueFromString(this.loadChunkedText(key, dao, propertyMeta));
+		}
+
+		DynamicComposite composite = dynamicCompositeKeyFactory
+				.createBoundsForQuery(propertyMeta).left;
 		return propertyMeta.getValueFromString(dao.getValue(key, composite));
 	}
 
+	/**
+	 * Text of a chunked property, read by pages of chunks
+	 */
+	protected <ID> String loadChunkedText(ID key, GenericDynamicCompositeDao<ID> dao,
+			PropertyMeta<?, ?> propertyMeta)
+	{
+		Pair<DynamicComposite, DynamicComposite> bounds = dynamicCompositeKeyFactory
+				.createBoundsForQuery(propertyMeta);
+		Iterator<Pair<DynamicComposite, String>> columns = Iterators.transform(
+				dao.getColumnsIterator(key, bounds.left, bounds.right, false, CHUNK_PAGE_SIZE),
+				HCOLUMN_TO_PAIR);
+		return mapper.joinChunks(columns, propertyMeta);
+	}
+
 	@SuppressWarnings("unchecked")
 	protected <ID> Long loadSimpleCounterProperty(ID key, PropertyMeta<?, ?> propertyMeta)
 	{
 		Composite keyComp = compositeKeyFactory.createKeyForCounter(propertyMeta.fqcn(), key,
 				(PropertyMeta<Void, ID>) propertyMeta.counterIdMeta());
-		DynamicComposite comp = dynamicCompositeKeyFactory.createBaseForQuery(propertyMeta, EQUAL);
+		DynamicComposite comp = dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)
+				.left;
 
 		Long counter = loadCounterWithConsistencyLevel(propertyMeta, keyComp, comp);
 
@@ -119,40 +260,32 @@ public class EntityLoader
 	private Long loadCounterWithConsistencyLevel(PropertyMeta<?, ?> propertyMeta,
 			Composite keyComp, DynamicComposite comp)
 	{
-		boolean resetConsistencyLevel = false;
-		if (currentReadConsistencyLevel.get() == null)
-		{
-			currentReadConsistencyLevel.set(propertyMeta.getReadConsistencyLevel());
-			resetConsistencyLevel = true;
-		}
 		Long counter;
 		try
 		{
-			counter = propertyMeta.counterDao().getCounterValue(keyComp, comp);
+			counter = propertyMeta.counterDao().getCounterValue(keyComp, comp,
+					ConsistencyContext.forRead(propertyMeta.getReadConsistencyLevel()));
 		}
 		catch (Throwable throwable)
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
-		{
-			if (resetConsistencyLevel)
-			{
-				currentReadConsistencyLevel.remove();
-			}
-		}
 		return counter;
 	}
 
 	protected <ID, V> List<V> loadListProperty(ID key, GenericDynamicCompositeDao<ID> dao,
 			PropertyMeta<?, V> listPropertyMeta)
 	{
-		DynamicComposite start = dynamicCompositeKeyFactory.createBaseForQuery(listPropertyMeta,
-				EQUAL);
-		DynamicComposite end = dynamicCompositeKeyFactory.createBaseForQuery(listPropertyMeta,
-				GREATER_THAN_EQUAL);
-		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, start, end, false,
-				Integer.MAX_VALUE);
+		Pair<DynamicComposite, DynamicComposite> bounds = dynamicCompositeKeyFactory
+				.createBoundsForQuery(listPropertyMeta);
+		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, bounds.left,
+				bounds.right, false, Integer.MAX_VALUE);
+		return this.buildList(columns, listPropertyMeta);
+	}
+
+	private <V> List<V> buildList(List<Pair<DynamicComposite, String>> columns,
+			PropertyMeta<?, V> listPropertyMeta)
+	{
 		List<V> list = null;
 		if (columns.size() > 0)
 		{
@@ -169,12 +302,16 @@ public class EntityLoader
 			PropertyMeta<?, V> setPropertyMeta)
 	{
 
-		DynamicComposite start = dynamicCompositeKeyFactory.createBaseForQuery(setPropertyMeta,
-				EQUAL);
-		DynamicComposite end = dynamicCompositeKeyFactory.createBaseForQuery(setPropertyMeta,
-				GREATER_THAN_EQUAL);
-		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, start, end, false,
-				Integer.MAX_VALUE);
+		Pair<DynamicComposite, DynamicComposite> bounds = dynamicCompositeKeyFactory
+				.createBoundsForQuery(setPropertyMeta);
+		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, bounds.left,
+				bounds.right, false, Integer.MAX_VALUE);
+		return this.buildSet(columns, setPropertyMeta);
+	}
+
+	private <V> Set<V> buildSet(List<Pair<DynamicComposite, String>> columns,
+			PropertyMeta<?, V> setPropertyMeta)
+	{
 		Set<V> set = null;
 		if (columns.size() > 0)
 		{
@@ -191,13 +328,16 @@ public class EntityLoader
 			PropertyMeta<K, V> mapPropertyMeta)
 	{
 
-		DynamicComposite start = dynamicCompositeKeyFactory.createBaseForQuery(mapPropertyMeta,
-				EQUAL);
-		DynamicComposite end = dynamicCompositeKeyFactory.createBaseForQuery(mapPropertyMeta,
-				GREATER_THAN_EQUAL);
-		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, start, end, false,
-				Integer.MAX_VALUE);
+		Pair<DynamicComposite, DynamicComposite> bounds = dynamicCompositeKeyFactory
+				.createBoundsForQuery(mapPropertyMeta);
+		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, bounds.left,
+				bounds.right, false, Integer.MAX_VALUE);
+		return this.buildMap(columns, mapPropertyMeta);
+	}
 
+	private <K, V> Map<K, V> buildMap(List<Pair<DynamicComposite, String>> columns,
+			PropertyMeta<K, V> mapPropertyMeta)
+	{
 		Class<K> keyClass = mapPropertyMeta.getKeyClass();
 		Map<K, V> map = null;
 		if (columns.size() > 0)
@@ -257,6 +397,112 @@ public class EntityLoader
 		helper.setValueToField(realObject, propertyMeta.getSetter(), value);
 	}
 
+	/**
+	 * Load the lazy properties of a fetch group with as few slice queries as possible, usually a
+	 * 
+	 * single one
+	 */
+	public <ID> void loadFetchGroupIntoObject(Object realObject, ID key,
+			EntityMeta<ID> entityMeta, List<PropertyMeta<?, ?>> groupMetas)
+	{
+		Validator.validateNotEmpty(groupMetas, "Fetch group properties should not be empty");
+
+		GenericDynamicCompositeDao<ID> dao = entityMeta.getEntityDao();
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		for (Pair<DynamicComposite, DynamicComposite> range : this.buildLazyRanges(entityMeta,
+				groupMetas))
+		{
+			columns.addAll(dao.findColumnsRange(key, range.left, range.right, false,
+					Integer.MAX_VALUE));
+		}
+		mapper.setLazyPropertiesToEntity(columns, groupMetas, realObject);
+	}
+
+	/**
+	 * Load the columns of lazy properties for several entities with chunked multiget queries
+	 * 
+	 * @return the columns by key
+	 */
+	public <ID> Map<ID, List<Pair<DynamicComposite, String>>> loadLazyColumns(List<ID> keys,
+			EntityMeta<ID> entityMeta, List<PropertyMeta<?, ?>> lazyMetas)
+	{
+		Validator.validateNotEmpty(lazyMetas, "Lazy properties should not be empty");
+
+		GenericDynamicCompositeDao<ID> dao = entityMeta.getEntityDao();
+		Map<ID, List<Pair<DynamicComposite, String>>> columnsByKey = new HashMap<ID, List<Pair<DynamicComposite, String>>>();
+		for (Pair<DynamicComposite, DynamicComposite> range : this.buildLazyRanges(entityMeta,
+				lazyMetas))
+		{
+			for (Entry<ID, List<Pair<DynamicComposite, String>>> entry : dao.multiGetColumnsRange(
+					keys, range.left, range.right).entrySet())
+			{
+				List<Pair<DynamicComposite, String>> columns = columnsByKey.get(entry.getKey());
+				if (columns == null)
+				{
+					columnsByKey.put(entry.getKey(), entry.getValue());
+				}
+				else
+				{
+					columns.addAll(entry.getValue());
+				}
+			}
+		}
+		return columnsByKey;
+	}
+
+	/**
+	 * Lazy properties share the same column flag and their columns are sorted by property name.
+	 * 
+	 * The properties to load are cut into runs of properties following each other in the row so
+	 * 
+	 * that a single slice reads each run without reading the columns of other properties, like
+	 * 
+	 * wide maps
+	 */
+	private List<Pair<DynamicComposite, DynamicComposite>> buildLazyRanges(
+			EntityMeta<?> entityMeta, List<PropertyMeta<?, ?>> lazyMetas)
+	{
+		List<PropertyMeta<?, ?>> rowMetas = new ArrayList<PropertyMeta<?, ?>>();
+		for (PropertyMeta<?, ?> propertyMeta : entityMeta.getPropertyMetas().values())
+		{
+			if (propertyMeta.isLazy() && !propertyMeta.isExternal() && !propertyMeta.isCounter())
+			{
+				rowMetas.add(propertyMeta);
+			}
+		}
+		Collections.sort(rowMetas, PROPERTY_NAME_COMPARATOR);
+
+		List<Pair<DynamicComposite, DynamicComposite>> ranges = new ArrayList<Pair<DynamicComposite, DynamicComposite>>();
+		PropertyMeta<?, ?> firstMeta = null;
+		PropertyMeta<?, ?> lastMeta = null;
+		for (PropertyMeta<?, ?> propertyMeta : rowMetas)
+		{
+			if (lazyMetas.contains(propertyMeta))
+			{
+				firstMeta = firstMeta == null ? propertyMeta : firstMeta;
+				lastMeta = propertyMeta;
+			}
+			else if (firstMeta != null)
+			{
+				ranges.add(this.buildRange(firstMeta, lastMeta));
+				firstMeta = null;
+			}
+		}
+		if (firstMeta != null)
+		{
+			ranges.add(this.buildRange(firstMeta, lastMeta));
+		}
+		return ranges;
+	}
+
+	private Pair<DynamicComposite, DynamicComposite> buildRange(PropertyMeta<?, ?> firstMeta,
+			PropertyMeta<?, ?> lastMeta)
+	{
+		return new Pair<DynamicComposite, DynamicComposite>(
+				dynamicCompositeKeyFactory.createBoundsForQuery(firstMeta).left,
+				dynamicCompositeKeyFactory.createBoundsForQuery(lastMeta).right);
+	}
+
 	@SuppressWarnings("unchecked")
 	public <ID, JOIN_ID, V> V loadJoinSimple(ID key, GenericDynamicCompositeDao<ID> dao,
 			PropertyMeta<?, V> propertyMeta)
@@ -265,8 +511,8 @@ public class EntityLoader
 		PropertyMeta<Void, JOIN_ID> joinIdMeta = (PropertyMeta<Void, JOIN_ID>) propertyMeta
 				.joinIdMeta();
 
-		DynamicComposite composite = dynamicCompositeKeyFactory.createBaseForQuery(propertyMeta,
-				EQUAL);
+		DynamicComposite composite = dynamicCompositeKeyFactory
+				.createBoundsForQuery(propertyMeta).left;
 
 		String stringJoinId = dao.getValue(key, composite);
 
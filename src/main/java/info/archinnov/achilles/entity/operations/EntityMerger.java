@@ -1,11 +1,5 @@
 package info.archinnov.achilles.entity.operations;
 
-import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_LIST;
-import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_MAP;
-import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_SET;
-import static info.archinnov.achilles.entity.metadata.PropertyType.LIST;
-import static info.archinnov.achilles.entity.metadata.PropertyType.MAP;
-import static info.archinnov.achilles.entity.metadata.PropertyType.SET;
 import static javax.persistence.CascadeType.ALL;
 import static javax.persistence.CascadeType.MERGE;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
@@ -13,14 +7,16 @@ import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.JoinProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
-import info.archinnov.achilles.entity.metadata.PropertyType;
 import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
 import info.archinnov.achilles.validation.Validator;
+import info.archinnov.achilles.wrapper.PropertyDelta;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,8 +26,6 @@ import javax.persistence.CascadeType;
 
 import me.prettyprint.hector.api.mutation.Mutator;
 
-import com.google.common.collect.Sets;
-
 /**
  * EntityMerger
  * 
@@ -42,10 +36,12 @@ public class EntityMerger
 {
 	private EntityPersister persister = new EntityPersister();
 	private EntityHelper helper = new EntityHelper();
-	private Set<PropertyType> multiValueTypes = Sets.newHashSet(LIST, LAZY_LIST, SET, LAZY_SET,
-			MAP, LAZY_MAP);
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Merge an entity and, in cascade, its join entities. The dirty columns of the whole graph are
+	 * 
+	 * first collected into one mutator per column family, then the mutators are executed together
+	 */
 	public <T, ID> T mergeEntity(T entity, EntityMeta<ID> entityMeta)
 	{
 		Validator.validateNotNull(entity, "Proxy object should not be null");
@@ -54,120 +50,264 @@ public class EntityMerger
 		T proxy;
 		if (helper.isProxy(entity))
 		{
-			T realObject = helper.getRealObject(entity);
-			JpaEntityInterceptor<ID, T> interceptor = (JpaEntityInterceptor<ID, T>) helper
-					.getInterceptor(entity);
+			BatchMutators batchMutators = new BatchMutators();
+			proxy = this.batchMerge(entity, entityMeta, batchMutators);
+			batchMutators.execute();
+		}
+		else
+		{
+			this.persister.persist(entity, entityMeta);
+			proxy = helper.buildProxy(entity, entityMeta, false);
+		}
 
-			GenericDynamicCompositeDao<ID> dao = entityMeta.getEntityDao();
+		return proxy;
+	}
+
+	/**
+	 * Merge an entity and, in cascade, its join entities, adding their dirty properties to the
+	 * 
+	 * mutators of their column families. The caller executes the mutators. Transient entities are
+	 * 
+	 * persisted with the mutators. The dirty state of the proxies is only reset once the mutators
+	 * 
+	 * are executed successfully
+	 */
+	public <T, ID> T batchMerge(T entity, EntityMeta<ID> entityMeta, BatchMutators batchMutators)
+	{
+		Validator.validateNotNull(entity, "Proxy object should not be null");
+		Validator.validateNotNull(entityMeta, "entityMeta should not be null");
+
+		return this.batchMerge(entity, entityMeta, batchMutators,
+				new IdentityHashMap<Object, Object>());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T, ID> T batchMerge(T entity, EntityMeta<ID> entityMeta, BatchMutators batchMutators,
+			Map<Object, Object> mergedEntities)
+	{
+		// An entity reached several times in the graph is merged once
+		if (mergedEntities.containsKey(entity))
+		{
+			return (T) mergedEntities.get(entity);
+		}
 
-			Map<Method, PropertyMeta<?, ?>> dirtyMap = interceptor.getDirtyMap();
+		T proxy;
+		if (helper.isProxy(entity))
+		{
+			mergedEntities.put(entity, entity);
+			final T realObject = helper.getRealObject(entity);
+			final JpaEntityInterceptor<ID, T> interceptor = (JpaEntityInterceptor<ID, T>) helper
+					.getInterceptor(entity);
 
-			if (dirtyMap.size() > 0)
+			final List<PropertyMeta<?, ?>> storedProperties;
+			if (interceptor.getDirtyMap().size() > 0)
+			{
+				Mutator<ID> mutator = batchMutators.getMutator(entityMeta.getEntityDao());
+				storedProperties = this.mergeDirtyProperties(realObject, interceptor, entityMeta,
+						mutator);
+			}
+			else
 			{
-				Mutator<ID> mutator = dao.buildMutator();
+				storedProperties = new ArrayList<PropertyMeta<?, ?>>();
+			}
+			this.mergeJoinProperties(realObject, entityMeta, batchMutators, mergedEntities);
 
-				for (Entry<Method, PropertyMeta<?, ?>> entry : dirtyMap.entrySet())
+			batchMutators.addCompletion(new Runnable()
+			{
+				@Override
+				public void run()
 				{
-					PropertyMeta<?, ?> propertyMeta = entry.getValue();
-					ID key = interceptor.getKey();
-					if (multiValueTypes.contains(propertyMeta.type()))
-					{
-						this.persister.removePropertyBatch(key, dao, propertyMeta, mutator);
-					}
-					this.persister.persistProperty(realObject, key, dao, propertyMeta, mutator);
+					completeMerge(realObject, interceptor, storedProperties);
 				}
-				dao.executeMutator(mutator);
+			});
+			proxy = entity;
+		}
+		else
+		{
+			GenericDynamicCompositeDao<ID> dao = entityMeta.getEntityDao();
+			if (dao != null)
+			{
+				this.persister.persist(entity, entityMeta, batchMutators.getMutator(dao));
+			}
+			else
+			{
+				this.persister.persist(entity, entityMeta);
 			}
+			proxy = helper.buildProxy(entity, entityMeta, false);
+			mergedEntities.put(entity, proxy);
+		}
+		return proxy;
+	}
 
-			dirtyMap.clear();
+	/**
+	 * Add the dirty properties to the mutator and return the list, set and map properties whose
+	 * 
+	 * columns are known once written
+	 */
+	private <T, ID> List<PropertyMeta<?, ?>> mergeDirtyProperties(T realObject,
+			JpaEntityInterceptor<ID, T> interceptor, EntityMeta<ID> entityMeta, Mutator<ID> mutator)
+	{
+		GenericDynamicCompositeDao<ID> dao = entityMeta.getEntityDao();
+		ID key = interceptor.getKey();
+		List<PropertyMeta<?, ?>> storedProperties = new ArrayList<PropertyMeta<?, ?>>();
+		for (Entry<Method, PropertyMeta<?, ?>> entry : interceptor.getDirtyMap().entrySet())
+		{
+			PropertyMeta<?, ?> propertyMeta = entry.getValue();
+			boolean multiValue = propertyMeta.type().isMultiValue();
+			PropertyDelta delta = interceptor.getDeltaMap().get(entry.getKey());
+			Set<Integer> storedColumns = interceptor.getStoredColumns().get(entry.getKey());
+			boolean rewritten = true;
+			if (multiValue && delta != null && delta.size() < this.size(realObject, propertyMeta))
+			{
+				// Only write the changed columns unless they outnumber the elements
+				this.persister.batchPersistPropertyDelta(key, dao, propertyMeta, delta, mutator);
+				rewritten = false;
+			}
+			else if (multiValue && storedColumns != null)
+			{
+				// Known columns are deleted without reading them first
+				this.persister.removePropertyColumnsBatch(key, dao, propertyMeta, storedColumns,
+						mutator);
+				this.persister.persistProperty(realObject, key, dao, propertyMeta, mutator);
+			}
+			else
+			{
+				if (multiValue)
+				{
+					this.persister.removePropertyBatch(key, dao, propertyMeta, mutator);
+				}
+				this.persister.persistProperty(realObject, key, dao, propertyMeta, mutator);
+			}
 
-			for (Entry<String, PropertyMeta<?, ?>> entry : entityMeta.getPropertyMetas().entrySet())
+			// Columns are known after a rewrite or after a delta applied to known columns
+			if (multiValue && (rewritten || storedColumns != null))
 			{
+				storedProperties.add(propertyMeta);
+			}
+		}
+		this.persister.invalidateCachedEntity(key, entityMeta, mutator);
+		return storedProperties;
+	}
 
-				PropertyMeta<?, ?> propertyMeta = entry.getValue();
+	/**
+	 * Number of elements of a list, set or map property, 0 when null
+	 */
+	private int size(Object realObject, PropertyMeta<?, ?> propertyMeta)
+	{
+		Object value = helper.getValueFromField(realObject, propertyMeta.getGetter());
+		int size = 0;
+		if (value instanceof Collection)
+		{
+			size = ((Collection<?>) value).size();
+		}
+		else if (value instanceof Map)
+		{
+			size = ((Map<?, ?>) value).size();
+		}
+		return size;
+	}
+
+	private <T, ID> void completeMerge(T realObject, JpaEntityInterceptor<ID, T> interceptor,
+			List<PropertyMeta<?, ?>> storedProperties)
+	{
+		interceptor.getDirtyMap().clear();
+		interceptor.getDeltaMap().clear();
+		for (PropertyMeta<?, ?> propertyMeta : storedProperties)
+		{
+			interceptor.recordStoredColumns(propertyMeta);
+		}
+		interceptor.setTarget(realObject);
+	}
+
+	private <T, ID> void mergeJoinProperties(T realObject, EntityMeta<ID> entityMeta,
+			BatchMutators batchMutators, Map<Object, Object> mergedEntities)
+	{
+		for (Entry<String, PropertyMeta<?, ?>> entry : entityMeta.getPropertyMetas().entrySet())
+		{
 
-				if (propertyMeta.isJoin())
+			PropertyMeta<?, ?> propertyMeta = entry.getValue();
+
+			if (propertyMeta.isJoin())
+			{
+				List<CascadeType> cascadeTypes = propertyMeta.getJoinProperties()
+						.getCascadeTypes();
+				if (cascadeTypes.contains(MERGE) || cascadeTypes.contains(ALL))
 				{
-					List<CascadeType> cascadeTypes = propertyMeta.getJoinProperties()
-							.getCascadeTypes();
-					if (cascadeTypes.contains(MERGE) || cascadeTypes.contains(ALL))
+					switch (propertyMeta.type())
 					{
-						switch (propertyMeta.type())
-						{
-							case JOIN_SIMPLE:
-								mergeJoinProperty(realObject, propertyMeta);
-								break;
-							case JOIN_LIST:
-								mergeJoinListProperty(realObject, propertyMeta);
-								break;
-							case JOIN_SET:
-								mergeJoinSetProperty(realObject, propertyMeta);
-								break;
-							case JOIN_MAP:
-								mergeJoinMapProperty(realObject, propertyMeta);
-								break;
-							default:
-								break;
-						}
+						case JOIN_SIMPLE:
+							mergeJoinProperty(realObject, propertyMeta, batchMutators,
+									mergedEntities);
+							break;
+						case JOIN_LIST:
+							mergeJoinListProperty(realObject, propertyMeta, batchMutators,
+									mergedEntities);
+							break;
+						case JOIN_SET:
+							mergeJoinSetProperty(realObject, propertyMeta, batchMutators,
+									mergedEntities);
+							break;
+						case JOIN_MAP:
+							mergeJoinMapProperty(realObject, propertyMeta, batchMutators,
+									mergedEntities);
+							break;
+						default:
+							break;
 					}
 				}
 			}
-			interceptor.setTarget(realObject);
-			proxy = entity;
 		}
-		else
-		{
-			this.persister.persist(entity, entityMeta);
-			proxy = helper.buildProxy(entity, entityMeta);
-		}
-
-		return proxy;
 	}
 
-	private <T> void mergeJoinProperty(T entity, PropertyMeta<?, ?> propertyMeta)
+	private <T> void mergeJoinProperty(T entity, PropertyMeta<?, ?> propertyMeta,
+			BatchMutators batchMutators, Map<Object, Object> mergedEntities)
 	{
 		JoinProperties joinProperties = propertyMeta.getJoinProperties();
 		Object joinEntity = helper.getValueFromField(entity, propertyMeta.getGetter());
 		if (joinEntity != null)
 		{
-			Object mergedEntity = this.mergeEntity(joinEntity, joinProperties.getEntityMeta());
+			Object mergedEntity = this.batchMerge(joinEntity, joinProperties.getEntityMeta(),
+					batchMutators, mergedEntities);
 			helper.setValueToField(entity, propertyMeta.getSetter(), mergedEntity);
 		}
 	}
 
-	private <T> void mergeJoinListProperty(T entity, PropertyMeta<?, ?> propertyMeta)
+	private <T> void mergeJoinListProperty(T entity, PropertyMeta<?, ?> propertyMeta,
+			BatchMutators batchMutators, Map<Object, Object> mergedEntities)
 	{
 		JoinProperties joinProperties = propertyMeta.getJoinProperties();
 		List<?> joinEntities = (List<?>) helper.getValueFromField(entity, propertyMeta.getGetter());
-		List<Object> mergedEntities = new ArrayList<Object>();
+		List<Object> mergedJoinEntities = new ArrayList<Object>();
 		if (joinEntities != null)
 		{
 			for (Object joinEntity : joinEntities)
 			{
-				Object mergedEntity = this.mergeEntity(joinEntity, joinProperties.getEntityMeta());
-				mergedEntities.add(mergedEntity);
+				mergedJoinEntities.add(this.batchMerge(joinEntity, joinProperties.getEntityMeta(),
+						batchMutators, mergedEntities));
 			}
 		}
-		helper.setValueToField(entity, propertyMeta.getSetter(), mergedEntities);
+		helper.setValueToField(entity, propertyMeta.getSetter(), mergedJoinEntities);
 	}
 
-	private <T> void mergeJoinSetProperty(T entity, PropertyMeta<?, ?> propertyMeta)
+	private <T> void mergeJoinSetProperty(T entity, PropertyMeta<?, ?> propertyMeta,
+			BatchMutators batchMutators, Map<Object, Object> mergedEntities)
 	{
 		JoinProperties joinProperties = propertyMeta.getJoinProperties();
 		Set<?> joinEntities = (Set<?>) helper.getValueFromField(entity, propertyMeta.getGetter());
-		Set<Object> mergedEntities = new HashSet<Object>();
+		Set<Object> mergedJoinEntities = new HashSet<Object>();
 		if (joinEntities != null)
 		{
 			for (Object joinEntity : joinEntities)
 			{
-				Object mergedEntity = this.mergeEntity(joinEntity, joinProperties.getEntityMeta());
-				mergedEntities.add(mergedEntity);
+				mergedJoinEntities.add(this.batchMerge(joinEntity, joinProperties.getEntityMeta(),
+						batchMutators, mergedEntities));
 			}
 		}
-		helper.setValueToField(entity, propertyMeta.getSetter(), mergedEntities);
+		helper.setValueToField(entity, propertyMeta.getSetter(), mergedJoinEntities);
 	}
 
-	private <T> void mergeJoinMapProperty(T entity, PropertyMeta<?, ?> propertyMeta)
+	private <T> void mergeJoinMapProperty(T entity, PropertyMeta<?, ?> propertyMeta,
+			BatchMutators batchMutators, Map<Object, Object> mergedEntities)
 	{
 		JoinProperties joinProperties = propertyMeta.getJoinProperties();
 		Map<?, ?> joinEntitiesMap = (Map<?, ?>) helper.getValueFromField(entity,
@@ -177,8 +317,8 @@ public class EntityMerger
 		{
 			for (Entry<?, ?> joinEntityEntry : joinEntitiesMap.entrySet())
 			{
-				Object mergedEntity = this.mergeEntity(joinEntityEntry.getValue(),
-						joinProperties.getEntityMeta());
+				Object mergedEntity = this.batchMerge(joinEntityEntry.getValue(),
+						joinProperties.getEntityMeta(), batchMutators, mergedEntities);
 				mergedEntitiesMap.put(joinEntityEntry.getKey(), mergedEntity);
 			}
 		}
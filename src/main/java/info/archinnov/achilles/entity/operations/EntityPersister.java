@@ -1,16 +1,20 @@
 package info.archinnov.achilles.entity.operations;
 
-import static info.archinnov.achilles.entity.manager.ThriftEntityManager.currentWriteConsistencyLevel;
 import static info.archinnov.achilles.serializer.SerializerUtils.BYTE_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
 import static javax.persistence.CascadeType.ALL;
 import static javax.persistence.CascadeType.PERSIST;
 import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.GREATER_THAN_EQUAL;
+import info.archinnov.achilles.codec.ValueChunker;
 import info.archinnov.achilles.composite.factory.CompositeKeyFactory;
 import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
 import info.archinnov.achilles.dao.AbstractDao;
+import info.archinnov.achilles.dao.ConsistencyContext;
 import info.archinnov.achilles.dao.CounterDao;
+import info.archinnov.achilles.dao.GenericCompositeDao;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.ExternalWideMapProperties;
@@ -18,10 +22,16 @@ import info.archinnov.achilles.entity.metadata.JoinProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
 import info.archinnov.achilles.entity.type.KeyValue;
+import info.archinnov.achilles.exception.AchillesException;
 import info.archinnov.achilles.exception.BeanMappingException;
-import info.archinnov.achilles.validation.Validator;
+import info.archinnov.achilles.wrapper.PropertyDelta;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -61,6 +71,7 @@ public class EntityPersister
 			Validate.notNull(key, "key value for entity '" + entityMeta.getClassName()
 					+ "' should not be null");
 			GenericDynamicCompositeDao<ID> dao = entityMeta.getEntityDao();
+			this.invalidateCachedEntity(key, entityMeta, mutator);
 			this.batchPersistVersionSerialUID(entity.getClass(), key, dao, mutator);
 			for (Entry<String, PropertyMeta<?, ?>> entry : entityMeta.getPropertyMetas().entrySet())
 			{
@@ -98,8 +109,6 @@ public class EntityPersister
 				DynamicComposite joinName = dynamicCompositeKeyFactory
 						.createForBatchInsertSingleValue(propertyMeta);
 				dao.insertColumnBatch(key, joinName, joinId, mutator);
-
-				cascadePersistOrEnsureExists(joinEntity, joinProperties);
 			}
 		}
 	}
@@ -126,8 +135,7 @@ public class EntityPersister
 		Validate.notNull(joinId, "key value for entity '" + joinEntityMeta.getClassName()
 				+ "' should not be null");
 
-		List<CascadeType> cascadeTypes = joinProperties.getCascadeTypes();
-		if (cascadeTypes.contains(PERSIST) || cascadeTypes.contains(ALL))
+		if (isCascadePersist(joinProperties))
 		{
 			this.persist(helper.unproxy(joinEntity), joinEntityMeta, joinMutator);
 		}
@@ -135,20 +143,75 @@ public class EntityPersister
 		{
 			Long joinVersionSerialUID = loader.loadVersionSerialUID(joinId,
 					joinEntityMeta.getEntityDao());
-			Validator
-					.validateNotNull(
-							joinVersionSerialUID,
-							"The entity '"
-									+ joinProperties.getEntityMeta().getClassName()
-									+ "' with id '"
-									+ joinId
-									+ "' cannot be found. Maybe you should persist it first or enable CascadeType.PERSIST/CascadeType.ALL");
+			if (joinVersionSerialUID == null)
+			{
+				throwJoinEntityNotFound(joinEntityMeta, joinId);
+			}
 		}
 
 		return joinId;
 
 	}
 
+	/**
+	 * Same as cascadePersistOrEnsureExists for all the join entities of a collection or map
+	 * 
+	 * property. Without cascade, their existence is checked with a single multiget instead of one
+	 * 
+	 * read per join entity
+	 */
+	@SuppressWarnings("unchecked")
+	public <JOIN_ID> void cascadePersistOrEnsureExistAll(Collection<?> joinEntities,
+			JoinProperties joinProperties, Mutator<JOIN_ID> joinMutator)
+	{
+		if (isCascadePersist(joinProperties))
+		{
+			for (Object joinEntity : joinEntities)
+			{
+				this.cascadePersistOrEnsureExists(joinEntity, joinProperties, joinMutator);
+			}
+		}
+		else if (!joinEntities.isEmpty())
+		{
+			EntityMeta<JOIN_ID> joinEntityMeta = (EntityMeta<JOIN_ID>) joinProperties
+					.getEntityMeta();
+			Set<JOIN_ID> joinIds = new LinkedHashSet<JOIN_ID>();
+			for (Object joinEntity : joinEntities)
+			{
+				JOIN_ID joinId = helper.getKey(joinEntity, joinEntityMeta.getIdMeta());
+				Validate.notNull(joinId, "key value for entity '" + joinEntityMeta.getClassName()
+						+ "' should not be null");
+				joinIds.add(joinId);
+			}
+
+			Set<JOIN_ID> existingIds = joinEntityMeta.getEntityDao().findExistingKeys(
+					new ArrayList<JOIN_ID>(joinIds));
+			for (JOIN_ID joinId : joinIds)
+			{
+				if (!existingIds.contains(joinId))
+				{
+					throwJoinEntityNotFound(joinEntityMeta, joinId);
+				}
+			}
+		}
+	}
+
+	private boolean isCascadePersist(JoinProperties joinProperties)
+	{
+		List<CascadeType> cascadeTypes = joinProperties.getCascadeTypes();
+		return cascadeTypes.contains(PERSIST) || cascadeTypes.contains(ALL);
+	}
+
+	private void throwJoinEntityNotFound(EntityMeta<?> joinEntityMeta, Object joinId)
+	{
+		throw new AchillesException(
+				"The entity '"
+						+ joinEntityMeta.getClassName()
+						+ "' with id '"
+						+ joinId
+						+ "' cannot be found. Maybe you should persist it first or enable CascadeType.PERSIST/CascadeType.ALL");
+	}
+
 	protected <ID> void batchPersistSimpleProperty(Object entity, ID key,
 			GenericDynamicCompositeDao<ID> dao, PropertyMeta<?, ?> propertyMeta, Mutator<ID> mutator)
 	{
@@ -156,12 +219,109 @@ public class EntityPersister
 				.createForBatchInsertSingleValue(propertyMeta);
 		String value = propertyMeta.writeValueToString(helper.getValueFromField(entity,
 				propertyMeta.getGetter()));
-		if (value != null)
+		if (value != null && propertyMeta.isChunked())
+		{
+			this.batchPersistChunkedValue(key, dao, propertyMeta, value, mutator);
+		}
+		else if (value != null)
 		{
 			dao.insertColumnBatch(key, name, value, mutator);
 		}
 	}
 
+	/**
+	 * Write the text of a chunked property, split into the chunk columns of a new generation if
+	 * 
+	 * it is too long, or stored whole in the head column under the new generation otherwise
+	 */
+	protected <ID> void batchPersistChunkedValue(ID key, GenericDynamicCompositeDao<ID> dao,
+			PropertyMeta<?, ?> propertyMeta, String value, Mutator<ID> mutator)
+	{
+		ValueChunker chunker = propertyMeta.getValueChunker();
+		long generation = dao.createClock();
+		String headValue = ValueChunker.wholeHead(generation, value);
+		if (chunker.isSplit(value))
+		{
+			int chunkCount = 0;
+			for (String chunk : chunker.split(value))
+			{
+				DynamicComposite chunkName = dynamicCompositeKeyFactory.createForChunk(
+						propertyMeta, generation, chunkCount);
+				dao.insertColumnBatch(key, chunkName, chunk, mutator);
+				chunkCount++;
+			}
+			headValue = ValueChunker.chunkHead(generation, chunkCount);
+		}
+		this.batchPersistChunkedHead(key, dao, propertyMeta, headValue, generation, mutator);
+	}
+
+	/**
+	 * Stream the text of a chunked property from a reader. Each chunk is written by its own
+	 * 
+	 * mutation so that a single chunk is held in memory. The chunks belong to a new generation,
+	 * 
+	 * only switched to by the column of the property written last, so that a failure or a
+	 * 
+	 * concurrent read sees the previous value whole
+	 */
+	public <ID> void persistChunkedValue(ID key, GenericDynamicCompositeDao<ID> dao,
+			PropertyMeta<?, ?> propertyMeta, Reader reader) throws IOException
+	{
+		Validate.notNull(key, "key should not be null");
+		char[] buffer = new char[propertyMeta.getValueChunker().getChunkSize()];
+		long generation = dao.createClock();
+		int chunkCount = 0;
+		int length;
+		while ((length = this.readChunk(reader, buffer)) > 0)
+		{
+			DynamicComposite chunkName = dynamicCompositeKeyFactory.createForChunk(propertyMeta,
+					generation, chunkCount);
+			Mutator<ID> chunkMutator = dao.buildMutator();
+			dao.insertColumnBatch(key, chunkName, new String(buffer, 0, length), chunkMutator);
+			dao.executeMutator(chunkMutator);
+			chunkCount++;
+		}
+
+		Mutator<ID> mutator = dao.buildMutator();
+		this.batchPersistChunkedHead(key, dao, propertyMeta,
+				ValueChunker.chunkHead(generation, chunkCount), generation, mutator);
+		dao.executeMutator(mutator);
+	}
+
+	/**
+	 * The head column is timestamped with its generation, so that the head of an older generation
+	 * 
+	 * written late by a concurrent write never replaces the head of a newer one. The chunks of
+	 * 
+	 * older generations are deleted by the same mutator. Thrift deletions do not accept slice
+	 * 
+	 * ranges, so the names of these chunks are read by pages first
+	 */
+	private <ID> void batchPersistChunkedHead(ID key, GenericDynamicCompositeDao<ID> dao,
+			PropertyMeta<?, ?> propertyMeta, String headValue, long generation,
+			Mutator<ID> mutator)
+	{
+		Pair<DynamicComposite, DynamicComposite> olderChunks = dynamicCompositeKeyFactory
+				.createBoundsForOlderChunks(propertyMeta, generation);
+		dao.removeColumnRangeBatch(key, olderChunks.left, olderChunks.right, mutator);
+
+		DynamicComposite name = dynamicCompositeKeyFactory
+				.createForBatchInsertSingleValue(propertyMeta);
+		dao.insertColumnBatch(key, name, headValue, generation, mutator);
+	}
+
+	private int readChunk(Reader reader, char[] buffer) throws IOException
+	{
+		int length = 0;
+		int read;
+		while (length < buffer.length
+				&& (read = reader.read(buffer, length, buffer.length - length)) != -1)
+		{
+			length += read;
+		}
+		return length;
+	}
+
 	protected <ID> void batchPersistSetProperty(Object entity, ID key,
 			GenericDynamicCompositeDao<ID> dao, PropertyMeta<?, ?> propertyMeta, Mutator<ID> mutator)
 	{
@@ -228,8 +388,8 @@ public class EntityPersister
 				String value = propertyMeta.writeValueToString(new KeyValue<K, String>(entry
 						.getKey(), joinEntityIdStringValue));
 				dao.insertColumnBatch(key, name, value, mutator);
-				this.cascadePersistOrEnsureExists(joinEntity, joinProperties, joinMutator);
 			}
+			this.cascadePersistOrEnsureExistAll(map.values(), joinProperties, joinMutator);
 		}
 
 		joinEntityDao.executeMutator(joinMutator);
@@ -282,8 +442,50 @@ public class EntityPersister
 		removeById(key, entityMeta);
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Remove an entity. Its row, the rows of its external wide maps and the reset of its counters
+	 * 
+	 * are sent with one batch per column family
+	 */
 	public <ID> void removeById(ID id, EntityMeta<ID> entityMeta)
+	{
+		BatchMutators batchMutators = new BatchMutators();
+		this.batchRemoveById(id, entityMeta, batchMutators);
+		batchMutators.execute();
+	}
+
+	/**
+	 * Remove several entities of the same class with one batch per column family. The ids should
+	 * 
+	 * be distinct since the counters to reset are read before the batches are executed
+	 */
+	public <ID> void removeByIds(Collection<ID> ids, EntityMeta<ID> entityMeta)
+	{
+		BatchMutators batchMutators = new BatchMutators();
+		for (ID id : ids)
+		{
+			this.batchRemoveById(id, entityMeta, batchMutators);
+		}
+		batchMutators.execute();
+	}
+
+	/**
+	 * Remove an entity, adding the deletion of its row, of the rows of its external wide maps and
+	 * 
+	 * the reset of its counters to the mutators of their column families. The caller executes the
+	 * 
+	 * mutators
+	 */
+	public <ID> void batchRemove(Object entity, EntityMeta<ID> entityMeta,
+			BatchMutators batchMutators)
+	{
+		ID key = helper.getKey(entity, entityMeta.getIdMeta());
+		this.batchRemoveById(key, entityMeta, batchMutators);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <ID> void batchRemoveById(ID id, EntityMeta<ID> entityMeta,
+			BatchMutators batchMutators)
 	{
 		Validate.notNull(id, "key value for entity '" + entityMeta.getClassName() + "'");
 
@@ -296,29 +498,77 @@ public class EntityPersister
 		{
 			dao = entityMeta.getEntityDao();
 		}
-		dao.removeRow(id);
+		Mutator<ID> mutator = batchMutators.getMutator(dao);
+		dao.removeRowBatch(id, mutator);
+		this.invalidateCachedEntity(id, entityMeta, mutator);
+
+		List<PropertyMeta<?, ?>> simpleCounterMetas = new ArrayList<PropertyMeta<?, ?>>();
+		Set<String> resetCounterRows = new HashSet<String>();
 		for (Entry<String, PropertyMeta<?, ?>> entry : entityMeta.getPropertyMetas().entrySet())
 		{
 			PropertyMeta<?, ?> propertyMeta = entry.getValue();
 			if (propertyMeta.isExternal())
 			{
-				ExternalWideMapProperties<ID> externalWideMapProperties = (ExternalWideMapProperties<ID>) propertyMeta
-						.getExternalWideMapProperties();
-				externalWideMapProperties.getExternalWideMapDao().removeRow(id);
+				GenericCompositeDao<ID, ?> externalWideMapDao = ((ExternalWideMapProperties<ID>) propertyMeta
+						.getExternalWideMapProperties()).getExternalWideMapDao();
+				externalWideMapDao.removeRowBatch(id, batchMutators.getMutator(externalWideMapDao));
 			}
 
 			if (propertyMeta.isCounter())
 			{
-				if (propertyMeta.isWideMap())
+				if (!propertyMeta.isWideMap())
 				{
-					this.removeCounterWideMap(id, (PropertyMeta<Void, Long>) propertyMeta);
+					simpleCounterMetas.add(propertyMeta);
 				}
-				else
+				else if (resetCounterRows.add(propertyMeta.fqcn()))
 				{
-					this.removeSimpleCounter(id, (PropertyMeta<Void, Long>) propertyMeta);
+					CounterDao counterDao = propertyMeta.counterDao();
+					counterDao.removeCounterRowBatch(this.buildCounterKey(id, propertyMeta),
+							batchMutators.getMutator(counterDao));
 				}
 			}
 		}
+
+		// The counters of an entity share one row, already reset if it holds a wide map counter
+		for (PropertyMeta<?, ?> propertyMeta : simpleCounterMetas)
+		{
+			if (!resetCounterRows.contains(propertyMeta.fqcn()))
+			{
+				CounterDao counterDao = propertyMeta.counterDao();
+				DynamicComposite name = dynamicCompositeKeyFactory
+						.createForBatchInsertSingleValue(propertyMeta);
+				counterDao.removeCounterBatch(this.buildCounterKey(id, propertyMeta), name,
+						batchMutators.getMutator(counterDao));
+			}
+		}
+	}
+
+	/**
+	 * Remove the eager columns of an entity from the entity cache after a write, if the entity is
+	 * 
+	 * cached
+	 */
+	public <ID> void invalidateCachedEntity(ID key, EntityMeta<ID> entityMeta)
+	{
+		EntityCache entityCache = entityMeta.getEntityCache();
+		if (entityCache != null)
+		{
+			entityCache.invalidate(entityMeta.getColumnFamilyName(), key);
+		}
+	}
+
+	/**
+	 * Remove the eager columns of an entity from the entity cache, and keep them out of it until
+	 * 
+	 * the mutator holding the write is executed by the entity DAO
+	 */
+	public <ID> void invalidateCachedEntity(ID key, EntityMeta<ID> entityMeta, Mutator<ID> mutator)
+	{
+		EntityCache entityCache = entityMeta.getEntityCache();
+		if (entityCache != null)
+		{
+			entityCache.beginWrite(entityMeta.getColumnFamilyName(), key, mutator);
+		}
 	}
 
 	public <ID, V> void removeProperty(ID key, GenericDynamicCompositeDao<ID> dao,
@@ -343,6 +593,49 @@ public class EntityPersister
 		dao.removeColumnRangeBatch(key, start, end, mutator);
 	}
 
+	/**
+	 * Delete the given columns of a list, set or map property without reading them first
+	 */
+	public <ID> void removePropertyColumnsBatch(ID key, GenericDynamicCompositeDao<ID> dao,
+			PropertyMeta<?, ?> propertyMeta, Collection<Integer> hashOrPositions,
+			Mutator<ID> mutator)
+	{
+		Validate.notNull(key, "key should not be null");
+		for (Integer hashOrPosition : hashOrPositions)
+		{
+			DynamicComposite name = dynamicCompositeKeyFactory.createForBatchInsertMultiValue(
+					propertyMeta, hashOrPosition);
+			dao.removeColumnBatch(key, name, mutator);
+		}
+	}
+
+	/**
+	 * Write the changes of a list, set or map property column by column instead of rewriting the
+	 * 
+	 * whole property
+	 */
+	public <ID> void batchPersistPropertyDelta(ID key, GenericDynamicCompositeDao<ID> dao,
+			PropertyMeta<?, ?> propertyMeta, PropertyDelta delta, Mutator<ID> mutator)
+	{
+		for (Integer hashOrPosition : delta.getDeletions())
+		{
+			DynamicComposite name = dynamicCompositeKeyFactory.createForBatchInsertMultiValue(
+					propertyMeta, hashOrPosition);
+			dao.removeColumnBatch(key, name, mutator);
+		}
+
+		for (Entry<Integer, Object> insertion : delta.getInsertions().entrySet())
+		{
+			DynamicComposite name = dynamicCompositeKeyFactory.createForBatchInsertMultiValue(
+					propertyMeta, insertion.getKey());
+			String value = propertyMeta.writeValueToString(insertion.getValue());
+			if (value != null)
+			{
+				dao.insertColumnBatch(key, name, value, mutator);
+			}
+		}
+	}
+
 	private <ID> void batchPersistListProperty(Object entity, ID key,
 			GenericDynamicCompositeDao<ID> dao, PropertyMeta<?, ?> propertyMeta, Mutator<ID> mutator)
 	{
@@ -383,6 +676,7 @@ public class EntityPersister
 		int count = 0;
 		if (list != null)
 		{
+			List<Object> joinEntities = new ArrayList<Object>(list.size());
 			for (Object joinEntity : list)
 			{
 				DynamicComposite name = dynamicCompositeKeyFactory.createForBatchInsertMultiValue(
@@ -394,10 +688,11 @@ public class EntityPersister
 				if (joinEntityIdStringValue != null)
 				{
 					dao.insertColumnBatch(key, name, joinEntityIdStringValue, mutator);
-					this.cascadePersistOrEnsureExists(joinEntity, joinProperties, joinMutator);
+					joinEntities.add(joinEntity);
 				}
 				count++;
 			}
+			this.cascadePersistOrEnsureExistAll(joinEntities, joinProperties, joinMutator);
 		}
 
 		joinEntityDao.executeMutator(joinMutator);
@@ -446,45 +741,48 @@ public class EntityPersister
 	private void insertCounterWithConsistencyLevel(PropertyMeta<Void, Long> propertyMeta,
 			CounterDao dao, Composite keyComp, DynamicComposite comp, Object counterValue)
 	{
-		boolean resetConsistencyLevel = false;
-		if (currentWriteConsistencyLevel.get() == null)
-		{
-			currentWriteConsistencyLevel.set(propertyMeta.getWriteConsistencyLevel());
-			resetConsistencyLevel = true;
-		}
 		try
 		{
-			dao.insertCounter(keyComp, comp, (Long) counterValue);
+			dao.insertCounter(keyComp, comp, (Long) counterValue,
+					ConsistencyContext.forWrite(propertyMeta.getWriteConsistencyLevel()));
 		}
 		catch (Throwable throwable)
 		{
 			throw new RuntimeException(throwable);
 		}
-		finally
-		{
-			if (resetConsistencyLevel)
-			{
-				currentWriteConsistencyLevel.remove();
-			}
-		}
 	}
 
+	/**
+	 * Add a delta to a simple counter property without reading its current value
+	 * 
+	 * @param mutator
+	 *            batch mutator of the counter property, or null to increment immediately
+	 */
 	@SuppressWarnings("unchecked")
-	private <ID> void removeSimpleCounter(ID key, PropertyMeta<Void, Long> propertyMeta)
+	public <ID> void incrementCounter(ID key, PropertyMeta<Void, Long> propertyMeta, long delta,
+			Mutator<Composite> mutator)
 	{
+		CounterDao dao = propertyMeta.counterDao();
 		Composite keyComp = compositeKeyFactory.createKeyForCounter(propertyMeta.fqcn(), key,
 				(PropertyMeta<Void, ID>) propertyMeta.counterIdMeta());
-		DynamicComposite com = dynamicCompositeKeyFactory
+		DynamicComposite comp = dynamicCompositeKeyFactory
 				.createForBatchInsertSingleValue(propertyMeta);
 
-		propertyMeta.counterDao().removeCounter(keyComp, com);
+		if (mutator != null)
+		{
+			dao.incrementCounterBatch(keyComp, comp, delta, mutator);
+		}
+		else
+		{
+			dao.incrementCounter(keyComp, comp, delta,
+					ConsistencyContext.forWrite(propertyMeta.getWriteConsistencyLevel()));
+		}
 	}
 
 	@SuppressWarnings("unchecked")
-	private <ID> void removeCounterWideMap(ID key, PropertyMeta<Void, Long> propertyMeta)
+	private <ID> Composite buildCounterKey(ID id, PropertyMeta<?, ?> propertyMeta)
 	{
-		Composite keyComp = compositeKeyFactory.createKeyForCounter(propertyMeta.fqcn(), key,
+		return compositeKeyFactory.createKeyForCounter(propertyMeta.fqcn(), id,
 				(PropertyMeta<Void, ID>) propertyMeta.counterIdMeta());
-		propertyMeta.counterDao().removeCounterRow(keyComp);
 	}
 }
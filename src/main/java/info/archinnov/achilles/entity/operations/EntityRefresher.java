@@ -1,5 +1,6 @@
 package info.archinnov.achilles.entity.operations;
 
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
@@ -36,10 +37,22 @@ public class EntityRefresher
 		EntityMeta<T> entityMeta = (EntityMeta<T>) entityMetaMap.get(entityClass);
 		T primaryKey = (T) helper.determinePrimaryKey(entity, entityMeta);
 
+		// A refresh always reads Cassandra
+		EntityCache entityCache = entityMeta.getEntityCache();
+		if (entityCache != null)
+		{
+			entityCache.invalidate(entityMeta.getColumnFamilyName(), primaryKey);
+		}
 		T freshEntity = this.loader.load(entityClass, primaryKey, entityMeta);
 
 		interceptor.getDirtyMap().clear();
+		interceptor.getDeltaMap().clear();
 		interceptor.getLazyAlreadyLoaded().clear();
+		interceptor.getStoredColumns().clear();
 		interceptor.setTarget(freshEntity);
+		if (freshEntity != null)
+		{
+			interceptor.recordLoadedColumns();
+		}
 	}
 }
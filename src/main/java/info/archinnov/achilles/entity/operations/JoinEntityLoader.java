@@ -1,7 +1,5 @@
 package info.archinnov.achilles.entity.operations;
 
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.EQUAL;
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.GREATER_THAN_EQUAL;
 import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.dao.Pair;
@@ -35,10 +33,10 @@ public class JoinEntityLoader
 	protected <ID, JOIN_ID, V> List<V> loadJoinListProperty(ID key,
 			GenericDynamicCompositeDao<ID> dao, PropertyMeta<?, V> propertyMeta)
 	{
-		DynamicComposite start = keyFactory.createBaseForQuery(propertyMeta, EQUAL);
-		DynamicComposite end = keyFactory.createBaseForQuery(propertyMeta, GREATER_THAN_EQUAL);
-		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, start, end, false,
-				Integer.MAX_VALUE);
+		Pair<DynamicComposite, DynamicComposite> bounds = keyFactory
+				.createBoundsForQuery(propertyMeta);
+		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, bounds.left,
+				bounds.right, false, Integer.MAX_VALUE);
 		List<JOIN_ID> joinIds = new ArrayList<JOIN_ID>();
 
 		EntityMeta<JOIN_ID> joinMeta = (EntityMeta<JOIN_ID>) propertyMeta.joinMeta();
@@ -69,10 +67,10 @@ public class JoinEntityLoader
 			GenericDynamicCompositeDao<ID> dao, PropertyMeta<?, V> propertyMeta)
 	{
 
-		DynamicComposite start = keyFactory.createBaseForQuery(propertyMeta, EQUAL);
-		DynamicComposite end = keyFactory.createBaseForQuery(propertyMeta, GREATER_THAN_EQUAL);
-		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, start, end, false,
-				Integer.MAX_VALUE);
+		Pair<DynamicComposite, DynamicComposite> bounds = keyFactory
+				.createBoundsForQuery(propertyMeta);
+		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, bounds.left,
+				bounds.right, false, Integer.MAX_VALUE);
 
 		List<JOIN_ID> joinIds = new ArrayList<JOIN_ID>();
 
@@ -105,10 +103,10 @@ public class JoinEntityLoader
 			GenericDynamicCompositeDao<ID> dao, PropertyMeta<K, V> propertyMeta)
 	{
 
-		DynamicComposite start = keyFactory.createBaseForQuery(propertyMeta, EQUAL);
-		DynamicComposite end = keyFactory.createBaseForQuery(propertyMeta, GREATER_THAN_EQUAL);
-		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, start, end, false,
-				Integer.MAX_VALUE);
+		Pair<DynamicComposite, DynamicComposite> bounds = keyFactory
+				.createBoundsForQuery(propertyMeta);
+		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(key, bounds.left,
+				bounds.right, false, Integer.MAX_VALUE);
 
 		EntityMeta<JOIN_ID> joinMeta = (EntityMeta<JOIN_ID>) propertyMeta.joinMeta();
 		PropertyMeta<Void, JOIN_ID> joinIdMeta = (PropertyMeta<Void, JOIN_ID>) propertyMeta
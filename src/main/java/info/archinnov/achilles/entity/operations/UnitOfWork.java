@@ -0,0 +1,215 @@
+package info.archinnov.achilles.entity.operations;
+
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.metadata.EntityMeta;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * UnitOfWork
+ * 
+ * Write-behind buffer of the persist, merge and remove operations of an entity manager in
+ * 
+ * FlushModeType.COMMIT. Operations on the same entity are coalesced so that each row is written
+ * 
+ * once per flush: a merge after a persist is covered by the persist, the dirty properties of a
+ * 
+ * proxy merged several times are written once and a remove discards the pending writes of the row.
+ * 
+ * Operations that cannot be coalesced, like a persist after a remove, flush the pending ones first
+ * 
+ * On flush, the writes of all the entities of a column family, including the join entities merged
+ * 
+ * in cascade, go through a single mutator and the mutators of the different column families are
+ * 
+ * executed in parallel. The rows of external wide maps and the counters of removed entities are
+ * 
+ * removed with the same mutators
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class UnitOfWork
+{
+	private static final Logger log = LoggerFactory.getLogger(UnitOfWork.class);
+
+	private EntityPersister persister = new EntityPersister();
+	private EntityMerger merger = new EntityMerger();
+	private EntityHelper helper = new EntityHelper();
+
+	private final Map<Pair<Class<?>, Object>, PendingOperation> operations = new LinkedHashMap<Pair<Class<?>, Object>, PendingOperation>();
+
+	public void persist(Object entity, EntityMeta<?> entityMeta)
+	{
+		this.record(new PendingOperation(OperationType.PERSIST, entity, entityMeta));
+	}
+
+	/**
+	 * Record the merge of a proxy, the merge of a transient entity being recorded as a persist
+	 */
+	public void merge(Object entity, EntityMeta<?> entityMeta)
+	{
+		OperationType type = helper.isProxy(entity) ? OperationType.MERGE : OperationType.PERSIST;
+		this.record(new PendingOperation(type, entity, entityMeta));
+	}
+
+	public void remove(Object entity, EntityMeta<?> entityMeta)
+	{
+		this.record(new PendingOperation(OperationType.REMOVE, entity, entityMeta));
+	}
+
+	public synchronized int getPendingOperationCount()
+	{
+		return operations.size();
+	}
+
+	/**
+	 * Discard the pending operations
+	 */
+	public synchronized void clear()
+	{
+		operations.clear();
+	}
+
+	/**
+	 * Execute the pending operations. Do nothing if there is no pending operation
+	 */
+	public void flush()
+	{
+		List<PendingOperation> toFlush;
+		synchronized (this)
+		{
+			toFlush = new ArrayList<PendingOperation>(operations.values());
+			operations.clear();
+		}
+		if (toFlush.isEmpty())
+		{
+			return;
+		}
+
+		log.debug("Flushing {} pending operations", toFlush.size());
+		BatchMutators batchMutators = new BatchMutators();
+		for (PendingOperation operation : toFlush)
+		{
+			if (operation.entityMeta.isColumnFamilyDirectMapping())
+			{
+				this.applyDirectly(operation);
+			}
+			else
+			{
+				this.apply(operation, operation.entityMeta, batchMutators);
+			}
+		}
+		batchMutators.execute();
+	}
+
+	private void record(PendingOperation operation)
+	{
+		boolean coalesced;
+		synchronized (this)
+		{
+			coalesced = this.coalesce(operation);
+		}
+		if (!coalesced)
+		{
+			// The pending operation of the entity cannot absorb this one, it is flushed first
+			this.flush();
+			synchronized (this)
+			{
+				this.coalesce(operation);
+			}
+		}
+	}
+
+	private boolean coalesce(PendingOperation operation)
+	{
+		Object key = helper.determinePrimaryKey(operation.entity, operation.entityMeta);
+		Pair<Class<?>, Object> operationKey = new Pair<Class<?>, Object>(
+				helper.deriveBaseClass(operation.entity), key);
+
+		PendingOperation pending = operations.get(operationKey);
+		if (pending == null || operation.type == OperationType.REMOVE)
+		{
+			operations.put(operationKey, operation);
+			return true;
+		}
+		else if (pending.type == OperationType.REMOVE)
+		{
+			return false;
+		}
+		else if (operation.type == OperationType.PERSIST)
+		{
+			operations.put(operationKey, operation);
+			return true;
+		}
+		else if (pending.type == OperationType.PERSIST)
+		{
+			// The persist writes all the properties of the object wrapped by the merged proxy
+			return pending.entity == helper.getRealObject(operation.entity);
+		}
+		else
+		{
+			return pending.entity == operation.entity;
+		}
+	}
+
+	private <ID> void apply(PendingOperation operation, EntityMeta<ID> entityMeta,
+			BatchMutators batchMutators)
+	{
+		switch (operation.type)
+		{
+			case PERSIST:
+				persister.persist(operation.entity, entityMeta,
+						batchMutators.getMutator(entityMeta.getEntityDao()));
+				break;
+			case MERGE:
+				merger.batchMerge(operation.entity, entityMeta, batchMutators);
+				break;
+			case REMOVE:
+				persister.batchRemove(operation.entity, entityMeta, batchMutators);
+				break;
+		}
+	}
+
+	private void applyDirectly(PendingOperation operation)
+	{
+		switch (operation.type)
+		{
+			case PERSIST:
+				persister.persist(operation.entity, operation.entityMeta);
+				break;
+			case MERGE:
+				merger.mergeEntity(operation.entity, operation.entityMeta);
+				break;
+			case REMOVE:
+				persister.remove(operation.entity, operation.entityMeta);
+				break;
+		}
+	}
+
+	private static enum OperationType
+	{
+		PERSIST, MERGE, REMOVE
+	}
+
+	private static class PendingOperation
+	{
+		private final OperationType type;
+		private final Object entity;
+		private final EntityMeta<?> entityMeta;
+
+		private PendingOperation(OperationType type, Object entity, EntityMeta<?> entityMeta)
+		{
+			this.type = type;
+			this.entity = entity;
+			this.entityMeta = entityMeta;
+		}
+	}
+}
@@ -4,11 +4,16 @@ import static info.archinnov.achilles.entity.manager.ThriftEntityManagerFactoryI
 import static info.archinnov.achilles.entity.metadata.PropertyType.EXTERNAL_JOIN_WIDE_MAP;
 import static info.archinnov.achilles.entity.metadata.PropertyType.WIDE_MAP;
 import static info.archinnov.achilles.entity.metadata.builder.EntityMetaBuilder.entityMetaBuilder;
+import info.archinnov.achilles.annotations.Cached;
 import info.archinnov.achilles.annotations.ColumnFamily;
+import info.archinnov.achilles.codec.JsonValueCodec;
+import info.archinnov.achilles.codec.ValueCodec;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.dao.GenericCompositeDao;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.PropertyHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.ExternalWideMapProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
@@ -46,13 +51,17 @@ public class EntityParser
 	private JoinPropertyParser joinParser = new JoinPropertyParser();
 	private PropertyFilter filter = new PropertyFilter();
 	private EntityHelper helper = new EntityHelper();
+	private PropertyHelper propertyHelper = new PropertyHelper();
 	private ObjectMapperFactory objectMapperFactory;
+	private ValueCompressor valueCompressor;
 
 	static ThreadLocal<Map<PropertyMeta<?, ?>, String>> externalWideMapTL = new ThreadLocal<Map<PropertyMeta<?, ?>, String>>();
 	static ThreadLocal<Map<PropertyMeta<?, ?>, String>> joinExternalWideMapTL = new ThreadLocal<Map<PropertyMeta<?, ?>, String>>();
 	static ThreadLocal<Map<String, PropertyMeta<?, ?>>> propertyMetasTL = new ThreadLocal<Map<String, PropertyMeta<?, ?>>>();
 	static ThreadLocal<List<PropertyMeta<?, ?>>> counterMetasTL = new ThreadLocal<List<PropertyMeta<?, ?>>>();
 	static ThreadLocal<ObjectMapper> objectMapperTL = new ThreadLocal<ObjectMapper>();
+	static ThreadLocal<ValueCodec> valueCodecTL = new ThreadLocal<ValueCodec>();
+	static ThreadLocal<ValueCompressor> valueCompressorTL = new ThreadLocal<ValueCompressor>();
 	static ThreadLocal<Class<?>> entityClassTL = new ThreadLocal<Class<?>>();
 	static ThreadLocal<Pair<ConsistencyLevel, ConsistencyLevel>> consistencyLevelsTL = new ThreadLocal<Pair<ConsistencyLevel, ConsistencyLevel>>();
 
@@ -62,6 +71,16 @@ public class EntityParser
 		this.objectMapperFactory = objectMapperFactory;
 	}
 
+	/**
+	 * @param valueCompressor
+	 *            compressor of the properties without @Compressed annotation, null to compress
+	 *            them only when annotated
+	 */
+	public EntityParser(ObjectMapperFactory objectMapperFactory, ValueCompressor valueCompressor) {
+		this(objectMapperFactory);
+		this.valueCompressor = valueCompressor;
+	}
+
 	@SuppressWarnings("unchecked")
 	public EntityMeta<?> parseEntity(Keyspace keyspace, Class<?> entityClass)
 	{
@@ -129,6 +148,7 @@ public class EntityParser
 				.hasCounter(hasCounter) //
 				.counterDao(counterDao) //
 				.consistencyLevels(consistencyLevels.left) //
+				.cached(entityClass.getAnnotation(Cached.class) != null) //
 				.build();
 
 		cleanThreadLocals();
@@ -291,6 +311,9 @@ public class EntityParser
 		counterMetasTL.set(new ArrayList<PropertyMeta<?, ?>>());
 		entityClassTL.set(entityClass);
 		objectMapperTL.set(objectMapper);
+		valueCodecTL.set(propertyHelper.findValueCodec(entityClass, objectMapper,
+				new JsonValueCodec(objectMapper)));
+		valueCompressorTL.set(valueCompressor);
 	}
 
 	private Pair<Pair<ConsistencyLevel, ConsistencyLevel>, Pair<HConsistencyLevel, HConsistencyLevel>> initConsistencyLevelsThreadLocals(
@@ -314,6 +337,8 @@ public class EntityParser
 		propertyMetasTL.remove();
 		counterMetasTL.remove();
 		objectMapperTL.remove();
+		valueCodecTL.remove();
+		valueCompressorTL.remove();
 		entityClassTL.remove();
 		consistencyLevelsTL.remove();
 	}
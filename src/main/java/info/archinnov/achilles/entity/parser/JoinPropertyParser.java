@@ -65,6 +65,9 @@ public class JoinPropertyParser
 		JoinProperties joinProperties = findCascadeType(entityClass.getCanonicalName(), field);
 		joinPropertyMeta.setJoinProperties(joinProperties);
 
+		// Join properties are loaded with their own queries, never in a fetch group
+		joinPropertyMeta.setFetchGroup(null);
+
 		// Override each type by their JOIN type counterpart
 		switch (joinPropertyMeta.type())
 		{
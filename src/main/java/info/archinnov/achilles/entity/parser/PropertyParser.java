@@ -22,8 +22,13 @@ import static info.archinnov.achilles.entity.parser.EntityParser.entityClassTL;
 import static info.archinnov.achilles.entity.parser.EntityParser.externalWideMapTL;
 import static info.archinnov.achilles.entity.parser.EntityParser.objectMapperTL;
 import static info.archinnov.achilles.entity.parser.EntityParser.propertyMetasTL;
+import static info.archinnov.achilles.entity.parser.EntityParser.valueCodecTL;
+import static info.archinnov.achilles.entity.parser.EntityParser.valueCompressorTL;
 import static info.archinnov.achilles.entity.type.ConsistencyLevel.ANY;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.codec.ValueCodec;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.GenericCompositeDao;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.EntityHelper;
@@ -35,6 +40,7 @@ import info.archinnov.achilles.entity.metadata.MultiKeyProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
 import info.archinnov.achilles.entity.type.ConsistencyLevel;
+import info.archinnov.achilles.entity.type.CounterWideMap;
 import info.archinnov.achilles.entity.type.MultiKey;
 import info.archinnov.achilles.entity.type.WideMap;
 import info.archinnov.achilles.exception.BeanMappingException;
@@ -127,6 +133,12 @@ public class PropertyParser
 						entityClass.getCanonicalName());
 			}
 
+			Validator.validateBeanMappingTrue(!propertyHelper.hasChunkedAnnotation(field)
+					|| (propertyMeta.isChunked() && !joinColumn),
+					"The property '" + propertyName + "' of entity '"
+							+ entityClass.getCanonicalName()
+							+ "' cannot be chunked, only simple properties can");
+
 			propertyMetasTL.get().put(propertyName, propertyMeta);
 			if (isExternal)
 			{
@@ -152,6 +164,8 @@ public class PropertyParser
 		Method[] accessors = entityHelper.findAccessors(entityClass, field);
 		PropertyType type;
 		CounterProperties counterProperties = null;
+		String fetchGroup = null;
+		ValueChunker valueChunker = null;
 		if (propertyHelper.hasCounterAnnotation(field))
 		{
 			counterProperties = buildCounterProperties(field.getType(), field.getName(), fqcn);
@@ -160,15 +174,24 @@ public class PropertyParser
 		else
 		{
 			type = propertyHelper.isLazy(field) ? LAZY_SIMPLE : SIMPLE;
+			fetchGroup = propertyHelper.getFetchGroup(field);
+			valueChunker = propertyHelper.findValueChunker(field);
 		}
 
+		// Chunked values are not compressed, their chunks are streamed as stored
+		ValueCompressor valueCompressor = valueChunker == null ? findValueCompressor(field) : null;
+
 		PropertyMeta<Void, ?> propertyMeta = factory(field.getType()) //
 				.objectMapper(objectMapper) //
+				.valueCodec(findValueCodec(field)) //
+				.valueCompressor(valueCompressor) //
+				.valueChunker(valueChunker) //
 				.type(type) //
 				.propertyName(propertyName) //
 				.accessors(accessors) //
 				.counterProperties(counterProperties) //
 				.consistencyLevels(consistencyLevelsTL.get()) //
+				.fetchGroup(fetchGroup) //
 				.build();
 
 		if (counterProperties != null)
@@ -198,9 +221,12 @@ public class PropertyParser
 
 		return factory(valueClass) //
 				.objectMapper(objectMapper) //
+				.valueCodec(findValueCodec(field)) //
+				.valueCompressor(findValueCompressor(field)) //
 				.type(type) //
 				.propertyName(propertyName) //
 				.consistencyLevels(consistencyLevelsTL.get()) //
+				.fetchGroup(propertyHelper.getFetchGroup(field)) //
 				.accessors(accessors).build();
 
 	}
@@ -221,9 +247,12 @@ public class PropertyParser
 
 		return factory(valueClass) //
 				.objectMapper(objectMapper) //
+				.valueCodec(findValueCodec(field)) //
+				.valueCompressor(findValueCompressor(field)) //
 				.type(type) //
 				.propertyName(propertyName) //
 				.consistencyLevels(consistencyLevelsTL.get()) //
+				.fetchGroup(propertyHelper.getFetchGroup(field)) //
 				.accessors(accessors).build();
 	}
 
@@ -267,9 +296,12 @@ public class PropertyParser
 
 		return factory(keyType, valueClass) //
 				.objectMapper(objectMapper) //
+				.valueCodec(findValueCodec(field)) //
+				.valueCompressor(findValueCompressor(field)) //
 				.type(type) //
 				.propertyName(propertyName) //
 				.consistencyLevels(consistencyLevelsTL.get()) //
+				.fetchGroup(propertyHelper.getFetchGroup(field)) //
 				.accessors(accessors).build();
 
 	}
@@ -293,7 +325,20 @@ public class PropertyParser
 		{
 			ParameterizedType pt = (ParameterizedType) genericType;
 			Type[] actualTypeArguments = pt.getActualTypeArguments();
-			if (actualTypeArguments.length > 1)
+			if (field.getType() == CounterWideMap.class)
+			{
+				Validator.validateBeanMappingTrue(propertyHelper.hasCounterAnnotation(field),
+						"The CounterWideMap field '" + field.getName() + "' of the entity "
+								+ entityClass.getCanonicalName()
+								+ " should be annotated with @Counter");
+				keyClass = (Class<?>) actualTypeArguments[0];
+				valueClass = Long.class;
+
+				multiKeyProperties = parseWideMapKey(multiKeyProperties, keyClass);
+				counterProperties = buildCounterProperties(valueClass, field.getName(), fqcn);
+				type = WIDE_MAP_COUNTER;
+			}
+			else if (actualTypeArguments.length > 1)
 			{
 				keyClass = (Class<?>) actualTypeArguments[0];
 				valueClass = (Class<?>) actualTypeArguments[1];
@@ -325,6 +370,8 @@ public class PropertyParser
 
 		PropertyMeta<?, ?> propertyMeta = factory(keyClass, valueClass) //
 				.objectMapper(objectMapper) //
+				.valueCodec(findValueCodec(field)) //
+				.valueCompressor(findValueCompressor(field)) //
 				.type(type) //
 				.propertyName(propertyName) //
 				.accessors(accessors) //
@@ -463,4 +510,14 @@ public class PropertyParser
 		}
 		propertyMeta.setConsistencyLevels(consistencyLevels);
 	}
+
+	private ValueCodec findValueCodec(Field field)
+	{
+		return propertyHelper.findValueCodec(field, objectMapperTL.get(), valueCodecTL.get());
+	}
+
+	private ValueCompressor findValueCompressor(Field field)
+	{
+		return propertyHelper.findValueCompressor(field, valueCompressorTL.get());
+	}
 }
@@ -0,0 +1,48 @@
+package info.archinnov.achilles.entity.type;
+
+/**
+ * CounterWideMap
+ * 
+ * WideMap of counters, updated without reading their current value
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public interface CounterWideMap<K> extends WideMap<K, Long>
+{
+	/**
+	 * Increment a counter by one
+	 * 
+	 * @param key
+	 *            Search key. Can be a multi key
+	 */
+	public void increment(K key);
+
+	/**
+	 * Increment a counter
+	 * 
+	 * @param key
+	 *            Search key. Can be a multi key
+	 * @param delta
+	 *            Value added to the counter
+	 */
+	public void increment(K key, long delta);
+
+	/**
+	 * Decrement a counter by one
+	 * 
+	 * @param key
+	 *            Search key. Can be a multi key
+	 */
+	public void decrement(K key);
+
+	/**
+	 * Decrement a counter
+	 * 
+	 * @param key
+	 *            Search key. Can be a multi key
+	 * @param delta
+	 *            Value subtracted from the counter
+	 */
+	public void decrement(K key, long delta);
+}
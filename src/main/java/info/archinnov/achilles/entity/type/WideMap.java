@@ -477,6 +477,32 @@ public interface WideMap<K, V>
 	 */
 	public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds, OrderingMode ordering);
 
+	/**
+	 * Find a key/value iterator, fetching the next pages in background
+	 * 
+	 * While the current page is consumed, up to <em>prefetchDepth</em> pages are loaded ahead by
+	 * 
+	 * the asynchronous executor. With no executor configured or a depth of 0, pages are fetched
+	 * 
+	 * on demand as with the other iterator methods
+	 * 
+	 * @param start
+	 *            Start key
+	 * @param end
+	 *            End key. Should be less/greater than start key depending on the reverse flag
+	 * @param count
+	 *            Maximum number of key/value pairs to be fetched per page
+	 * @param bounds
+	 * 			  Bounds specified mode
+	 * @param ordering
+	 * 			  Order specified mode
+	 * @param prefetchDepth
+	 * 			  Maximum number of pages fetched ahead
+	 * @return KeyValue iterator
+	 */
+	public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds,
+			OrderingMode ordering, int prefetchDepth);
+
 	/**
 	 * Remove a key/value pair by key
 	 * 
@@ -0,0 +1,102 @@
+package info.archinnov.achilles.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * MutationBatchException
+ * 
+ * Raised when some chunks of a batch of mutations failed to be written. The other chunks have been
+ * 
+ * written and are not rolled back
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class MutationBatchException extends AchillesException
+{
+	private static final long serialVersionUID = 1L;
+
+	private final int chunkCount;
+	private final List<FailedChunk> failedChunks;
+
+	public MutationBatchException(int chunkCount, List<FailedChunk> failedChunks) {
+		super(failedChunks.size() + " of " + chunkCount
+				+ " mutation chunks failed to be written, first failure: "
+				+ failedChunks.get(0).getCause().getMessage(), failedChunks.get(0).getCause());
+		this.chunkCount = chunkCount;
+		this.failedChunks = Collections.unmodifiableList(failedChunks);
+	}
+
+	public int getChunkCount()
+	{
+		return chunkCount;
+	}
+
+	public int getWrittenChunkCount()
+	{
+		return chunkCount - failedChunks.size();
+	}
+
+	public List<FailedChunk> getFailedChunks()
+	{
+		return failedChunks;
+	}
+
+	/**
+	 * A chunk of the batch which failed to be written. The mutations of the chunk are identified by
+	 * 
+	 * their position in the batch, in the order they were added to the mutator
+	 */
+	public static class FailedChunk
+	{
+		private final int chunkIndex;
+		private final int firstMutationIndex;
+		private final int mutationCount;
+		private final long byteSize;
+		private final Throwable cause;
+
+		public FailedChunk(int chunkIndex, int firstMutationIndex, int mutationCount,
+				long byteSize, Throwable cause)
+		{
+			this.chunkIndex = chunkIndex;
+			this.firstMutationIndex = firstMutationIndex;
+			this.mutationCount = mutationCount;
+			this.byteSize = byteSize;
+			this.cause = cause;
+		}
+
+		public int getChunkIndex()
+		{
+			return chunkIndex;
+		}
+
+		public int getFirstMutationIndex()
+		{
+			return firstMutationIndex;
+		}
+
+		public int getMutationCount()
+		{
+			return mutationCount;
+		}
+
+		public long getByteSize()
+		{
+			return byteSize;
+		}
+
+		public Throwable getCause()
+		{
+			return cause;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "FailedChunk [chunkIndex=" + chunkIndex + ", firstMutationIndex="
+					+ firstMutationIndex + ", mutationCount=" + mutationCount + ", byteSize="
+					+ byteSize + ", cause=" + cause + "]";
+		}
+	}
+}
@@ -11,6 +11,8 @@ import info.archinnov.achilles.validation.Validator;
 import java.lang.reflect.Method;
 import java.util.List;
 
+import me.prettyprint.hector.api.beans.AbstractComposite;
+import me.prettyprint.hector.api.beans.AbstractComposite.Component;
 import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
 
 /**
@@ -168,4 +170,29 @@ public class CompositeHelper
 
 		return result;
 	}
+
+	/**
+	 * Compare the component values of two composites, ignoring their equality flags
+	 */
+	public boolean hasSameComponents(AbstractComposite composite1, AbstractComposite composite2)
+	{
+		if (composite1 == null || composite2 == null)
+		{
+			return false;
+		}
+		List<Component<?>> components1 = composite1.getComponents();
+		List<Component<?>> components2 = composite2.getComponents();
+		if (components1.size() != components2.size())
+		{
+			return false;
+		}
+		for (int i = 0; i < components1.size(); i++)
+		{
+			if (!components1.get(i).getBytes().equals(components2.get(i).getBytes()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
 }
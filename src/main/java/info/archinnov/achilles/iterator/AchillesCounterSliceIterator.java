@@ -10,9 +10,12 @@ package info.archinnov.achilles.iterator;
  */
 
 import static info.archinnov.achilles.dao.AbstractDao.DEFAULT_LENGTH;
-import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
+import info.archinnov.achilles.helper.CompositeHelper;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import me.prettyprint.hector.api.beans.AbstractComposite;
 import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
@@ -30,20 +33,22 @@ public class AchillesCounterSliceIterator<K, N extends AbstractComposite> implem
 	private boolean reversed;
 	private int count = DEFAULT_LENGTH;
 	private int columns = 0;
-	private AchillesConfigurableConsistencyLevelPolicy policy;
-	private String columnFamily;
+	private CompositeHelper compositeHelper = new CompositeHelper();
+	private SlicePrefetcher<N, HCounterColumn<N>> prefetcher;
+	private AdaptivePagingPolicy pagingPolicy;
+	private long pageBytes;
+	private long pageLatency;
 
-	public AchillesCounterSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy,
-			String cf, SliceCounterQuery<K, N> query, N start, final N finish, boolean reversed)
+	public AchillesCounterSliceIterator(SliceCounterQuery<K, N> query, N start, final N finish,
+			boolean reversed)
 	{
-		this(policy, cf, query, start, finish, reversed, DEFAULT_LENGTH);
+		this(query, start, finish, reversed, DEFAULT_LENGTH);
 	}
 
-	public AchillesCounterSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy,
-			String cf, SliceCounterQuery<K, N> query, N start, final N finish, boolean reversed,
-			int count)
+	public AchillesCounterSliceIterator(SliceCounterQuery<K, N> query, N start, final N finish,
+			boolean reversed, int count)
 	{
-		this(policy, cf, query, start, new ColumnSliceFinish<N>()
+		this(query, start, new ColumnSliceFinish<N>()
 		{
 
 			@Override
@@ -54,19 +59,15 @@ public class AchillesCounterSliceIterator<K, N extends AbstractComposite> implem
 		}, reversed, count);
 	}
 
-	public AchillesCounterSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy,
-			String cf, SliceCounterQuery<K, N> query, N start, ColumnSliceFinish<N> finish,
-			boolean reversed)
+	public AchillesCounterSliceIterator(SliceCounterQuery<K, N> query, N start,
+			ColumnSliceFinish<N> finish, boolean reversed)
 	{
-		this(policy, cf, query, start, finish, reversed, DEFAULT_LENGTH);
+		this(query, start, finish, reversed, DEFAULT_LENGTH);
 	}
 
-	public AchillesCounterSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy,
-			String cf, SliceCounterQuery<K, N> query, N start, ColumnSliceFinish<N> finish,
-			boolean reversed, int count)
+	public AchillesCounterSliceIterator(SliceCounterQuery<K, N> query, N start,
+			ColumnSliceFinish<N> finish, boolean reversed, int count)
 	{
-		this.policy = policy;
-		this.columnFamily = cf;
 		this.query = query;
 		this.start = start;
 		this.finish = finish;
@@ -75,17 +76,67 @@ public class AchillesCounterSliceIterator<K, N extends AbstractComposite> implem
 		this.query.setRange(this.start, this.finish.function(), this.reversed, this.count);
 	}
 
+	public AchillesCounterSliceIterator(SliceCounterQuery<K, N> query, N start, final N finish,
+			boolean reversed, int count, ExecutorService executor, int prefetchDepth,
+			AdaptivePagingPolicy pagingPolicy)
+	{
+		this(query, start, finish, reversed, count);
+		if (pagingPolicy != null)
+		{
+			this.pagingPolicy = pagingPolicy;
+			this.count = pagingPolicy.initialCount(count);
+			this.query.setRange(this.start, this.finish.function(), this.reversed, this.count);
+		}
+		if (executor != null && prefetchDepth > 0)
+		{
+			this.prefetcher = new SlicePrefetcher<N, HCounterColumn<N>>(executor,
+					new SlicePrefetcher.PageLoader<N, HCounterColumn<N>>()
+					{
+						@Override
+						public List<HCounterColumn<N>> loadPage(N pageStart, boolean firstPage,
+								int pageSize)
+						{
+							return fetchPage(pageStart, firstPage, pageSize);
+						}
+
+						@Override
+						public int nextPageSize()
+						{
+							return AchillesCounterSliceIterator.this.count;
+						}
+
+						@Override
+						public N nameOf(HCounterColumn<N> column)
+						{
+							return column.getName();
+						}
+					}, start, prefetchDepth);
+		}
+	}
+
 	@Override
 	public boolean hasNext()
 	{
+		if (prefetcher != null)
+		{
+			if (iterator == null || !iterator.hasNext())
+			{
+				iterator = prefetcher.nextPage().iterator();
+			}
+			return iterator.hasNext();
+		}
+
 		if (iterator == null)
 		{
-			policy.loadConsistencyLevelForRead(columnFamily);
-			iterator = query.execute().get().getColumns().iterator();
-			policy.reinitDefaultConsistencyLevel();
+			executeQuery();
 		}
 		else if (!iterator.hasNext() && columns == count)
 		{ // only need to do another query if maximum columns were retrieved
+			if (compositeHelper.hasSameComponents(start, finish.function()))
+			{
+				// Last column is the finish bound, nothing left to fetch
+				return false;
+			}
 
 			// Exclude start from the query because is has been already fetched
 			if (reversed)
@@ -97,16 +148,64 @@ public class AchillesCounterSliceIterator<K, N extends AbstractComposite> implem
 				start.setEquality(ComponentEquality.GREATER_THAN_EQUAL);
 			}
 
+			if (pagingPolicy != null)
+			{
+				count = pagingPolicy.nextCount(count, columns, pageBytes, pageLatency);
+			}
 			query.setRange(start, finish.function(), reversed, count);
-			policy.loadConsistencyLevelForRead(columnFamily);
-			iterator = query.execute().get().getColumns().iterator();
-			policy.reinitDefaultConsistencyLevel();
+			executeQuery();
 			columns = 0;
 		}
 
 		return iterator.hasNext();
 	}
 
+	private void executeQuery()
+	{
+		long startTime = System.nanoTime();
+		List<HCounterColumn<N>> page = query.execute().get().getColumns();
+		pageLatency = System.nanoTime() - startTime;
+		if (pagingPolicy != null)
+		{
+			pageBytes = PageBytesEstimator.estimateCounterBytes(page);
+		}
+		iterator = page.iterator();
+	}
+
+	private List<HCounterColumn<N>> fetchPage(N pageStart, boolean firstPage, int pageSize)
+	{
+		if (!firstPage)
+		{
+			if (compositeHelper.hasSameComponents(pageStart, finish.function()))
+			{
+				return new ArrayList<HCounterColumn<N>>();
+			}
+
+			// Exclude start from the query because is has been already fetched
+			if (reversed)
+			{
+				pageStart.setEquality(ComponentEquality.LESS_THAN_EQUAL);
+			}
+			else
+			{
+				pageStart.setEquality(ComponentEquality.GREATER_THAN_EQUAL);
+			}
+		}
+
+		query.setRange(pageStart, finish.function(), reversed, pageSize);
+		long startTime = System.nanoTime();
+		List<HCounterColumn<N>> columns = new ArrayList<HCounterColumn<N>>(query.execute()
+				.get().getColumns());
+
+		if (pagingPolicy != null)
+		{
+			long latency = System.nanoTime() - startTime;
+			count = pagingPolicy.nextCount(pageSize, columns.size(),
+					PageBytesEstimator.estimateCounterBytes(columns), latency);
+		}
+		return columns;
+	}
+
 	@Override
 	public HCounterColumn<N> next()
 	{
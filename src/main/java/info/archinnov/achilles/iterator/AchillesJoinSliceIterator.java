@@ -1,17 +1,18 @@
 package info.archinnov.achilles.iterator;
 
 import static info.archinnov.achilles.dao.AbstractDao.DEFAULT_LENGTH;
-import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.JoinEntityHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.helper.CompositeHelper;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import me.prettyprint.cassandra.service.ColumnSliceIterator.ColumnSliceFinish;
 import me.prettyprint.hector.api.beans.AbstractComposite;
@@ -38,23 +39,24 @@ public class AchillesJoinSliceIterator<K, N extends AbstractComposite, V, KEY, V
 	private boolean reversed;
 	private int count = DEFAULT_LENGTH;
 	private int columns = 0;
-	private AchillesConfigurableConsistencyLevelPolicy policy;
-	private String columnFamily;
+	private CompositeHelper compositeHelper = new CompositeHelper();
 	private PropertyMeta<KEY, VALUE> propertyMeta;
 	private JoinEntityHelper joinHelper = new JoinEntityHelper();
+	private SlicePrefetcher<N, HColumn<N, VALUE>> prefetcher;
+	private AdaptivePagingPolicy pagingPolicy;
+	private long pageBytes;
+	private long pageLatency;
 
-	public AchillesJoinSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy, String cf,
-			PropertyMeta<KEY, VALUE> propertyMeta, SliceQuery<K, N, V> query, N start,
-			final N finish, boolean reversed)
+	public AchillesJoinSliceIterator(PropertyMeta<KEY, VALUE> propertyMeta,
+			SliceQuery<K, N, V> query, N start, final N finish, boolean reversed)
 	{
-		this(policy, cf, propertyMeta, query, start, finish, reversed, DEFAULT_LENGTH);
+		this(propertyMeta, query, start, finish, reversed, DEFAULT_LENGTH);
 	}
 
-	public AchillesJoinSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy, String cf,
-			PropertyMeta<KEY, VALUE> propertyMeta, SliceQuery<K, N, V> query, N start,
-			final N finish, boolean reversed, int count)
+	public AchillesJoinSliceIterator(PropertyMeta<KEY, VALUE> propertyMeta,
+			SliceQuery<K, N, V> query, N start, final N finish, boolean reversed, int count)
 	{
-		this(policy, cf, propertyMeta, query, start, new ColumnSliceFinish<N>()
+		this(propertyMeta, query, start, new ColumnSliceFinish<N>()
 		{
 
 			@Override
@@ -65,19 +67,16 @@ public class AchillesJoinSliceIterator<K, N extends AbstractComposite, V, KEY, V
 		}, reversed, count);
 	}
 
-	public AchillesJoinSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy, String cf,
-			PropertyMeta<KEY, VALUE> propertyMeta, SliceQuery<K, N, V> query, N start,
-			ColumnSliceFinish<N> finish, boolean reversed)
+	public AchillesJoinSliceIterator(PropertyMeta<KEY, VALUE> propertyMeta,
+			SliceQuery<K, N, V> query, N start, ColumnSliceFinish<N> finish, boolean reversed)
 	{
-		this(policy, cf, propertyMeta, query, start, finish, reversed, DEFAULT_LENGTH);
+		this(propertyMeta, query, start, finish, reversed, DEFAULT_LENGTH);
 	}
 
-	public AchillesJoinSliceIterator(AchillesConfigurableConsistencyLevelPolicy policy, String cf,
-			PropertyMeta<KEY, VALUE> propertyMeta, SliceQuery<K, N, V> query, N start,
-			ColumnSliceFinish<N> finish, boolean reversed, int count)
+	public AchillesJoinSliceIterator(PropertyMeta<KEY, VALUE> propertyMeta,
+			SliceQuery<K, N, V> query, N start, ColumnSliceFinish<N> finish, boolean reversed,
+			int count)
 	{
-		this.policy = policy;
-		this.columnFamily = cf;
 		this.propertyMeta = propertyMeta;
 		this.query = query;
 		this.start = start;
@@ -87,16 +86,68 @@ public class AchillesJoinSliceIterator<K, N extends AbstractComposite, V, KEY, V
 		this.query.setRange(this.start, this.finish.function(), this.reversed, this.count);
 	}
 
+	public AchillesJoinSliceIterator(PropertyMeta<KEY, VALUE> propertyMeta,
+			SliceQuery<K, N, V> query, N start, final N finish, boolean reversed, int count,
+			ExecutorService executor, int prefetchDepth, AdaptivePagingPolicy pagingPolicy)
+	{
+		this(propertyMeta, query, start, finish, reversed, count);
+		if (pagingPolicy != null)
+		{
+			this.pagingPolicy = pagingPolicy;
+			this.count = pagingPolicy.initialCount(count);
+			this.query.setRange(this.start, this.finish.function(), this.reversed, this.count);
+		}
+		if (executor != null && prefetchDepth > 0)
+		{
+			this.prefetcher = new SlicePrefetcher<N, HColumn<N, VALUE>>(executor,
+					new SlicePrefetcher.PageLoader<N, HColumn<N, VALUE>>()
+					{
+						@Override
+						public List<HColumn<N, VALUE>> loadPage(N pageStart, boolean firstPage,
+								int pageSize)
+						{
+							return fetchPage(pageStart, firstPage, pageSize);
+						}
+
+						@Override
+						public int nextPageSize()
+						{
+							return AchillesJoinSliceIterator.this.count;
+						}
+
+						@Override
+						public N nameOf(HColumn<N, VALUE> column)
+						{
+							return column.getName();
+						}
+					}, start, prefetchDepth);
+		}
+	}
+
 	@Override
 	public boolean hasNext()
 	{
+		if (prefetcher != null)
+		{
+			if (iterator == null || !iterator.hasNext())
+			{
+				iterator = prefetcher.nextPage().iterator();
+			}
+			return iterator.hasNext();
+		}
+
 		if (iterator == null)
 		{
-			loadEntities();
+			iterator = loadEntities().iterator();
 
 		}
 		else if (!iterator.hasNext() && columns == count)
 		{ // only need to do another query if maximum columns were retrieved
+			if (compositeHelper.hasSameComponents(start, finish.function()))
+			{
+				// Last column is the finish bound, nothing left to fetch
+				return false;
+			}
 
 			// Exclude start from the query because is has been already fetched
 			if (reversed)
@@ -108,20 +159,60 @@ public class AchillesJoinSliceIterator<K, N extends AbstractComposite, V, KEY, V
 				start.setEquality(ComponentEquality.GREATER_THAN_EQUAL);
 			}
 
+			nextCount(count, columns);
 			query.setRange(start, finish.function(), reversed, count);
-			loadEntities();
+			iterator = loadEntities().iterator();
 			columns = 0;
 		}
 
 		return iterator.hasNext();
 	}
 
+	private List<HColumn<N, VALUE>> fetchPage(N pageStart, boolean firstPage, int pageSize)
+	{
+		if (!firstPage)
+		{
+			if (compositeHelper.hasSameComponents(pageStart, finish.function()))
+			{
+				return new ArrayList<HColumn<N, VALUE>>();
+			}
+
+			// Exclude start from the query because is has been already fetched
+			if (reversed)
+			{
+				pageStart.setEquality(ComponentEquality.LESS_THAN_EQUAL);
+			}
+			else
+			{
+				pageStart.setEquality(ComponentEquality.GREATER_THAN_EQUAL);
+			}
+		}
+
+		query.setRange(pageStart, finish.function(), reversed, pageSize);
+		List<HColumn<N, VALUE>> joinedHColumns = loadEntities();
+		nextCount(pageSize, joinedHColumns.size());
+		return joinedHColumns;
+	}
+
+	private void nextCount(int pageSize, int columnCount)
+	{
+		if (pagingPolicy != null)
+		{
+			count = pagingPolicy.nextCount(pageSize, columnCount, pageBytes, pageLatency);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
-	private void loadEntities()
+	private List<HColumn<N, VALUE>> loadEntities()
 	{
-		policy.loadConsistencyLevelForRead(columnFamily);
-		Iterator<HColumn<N, V>> iter = query.execute().get().getColumns().iterator();
-		policy.reinitDefaultConsistencyLevel();
+		long startTime = System.nanoTime();
+		List<HColumn<N, V>> page = query.execute().get().getColumns();
+		pageLatency = System.nanoTime() - startTime;
+		if (pagingPolicy != null)
+		{
+			pageBytes = PageBytesEstimator.estimateBytes(page);
+		}
+		Iterator<HColumn<N, V>> iter = page.iterator();
 
 		List<V> joinIds = new ArrayList<V>();
 		Map<V, Pair<N, Integer>> hColumMap = new HashMap<V, Pair<N, Integer>>();
@@ -167,7 +258,7 @@ public class AchillesJoinSliceIterator<K, N extends AbstractComposite, V, KEY, V
 			}
 		}
 
-		iterator = joinedHColumns.iterator();
+		return joinedHColumns;
 	}
 
 	@Override
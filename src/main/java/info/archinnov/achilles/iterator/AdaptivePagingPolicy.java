@@ -0,0 +1,169 @@
+package info.archinnov.achilles.iterator;
+
+import info.archinnov.achilles.validation.Validator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AdaptivePagingPolicy
+ * 
+ * Compute the size of the next page of a column slice from the bytes and the latency observed for
+ * 
+ * the previous page. The next size is the number of columns fitting both the target page size in
+ * 
+ * bytes and the target latency, at most doubled or halved from one page to the other and kept
+ * 
+ * within the [minCount, maxCount] bounds
+ * 
+ * The chosen page sizes are recorded and exposed as metrics. The policy is thread-safe and shared
+ * 
+ * by all the iterators of an entity manager factory
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class AdaptivePagingPolicy
+{
+	private final int minCount;
+	private final int maxCount;
+	private final long targetPageBytes;
+	private final long targetLatencyNanos;
+
+	private final AtomicLong pageCount = new AtomicLong();
+	private final AtomicLong totalPageSize = new AtomicLong();
+	private final AtomicLong growCount = new AtomicLong();
+	private final AtomicLong shrinkCount = new AtomicLong();
+	private volatile int lastPageSize;
+
+	public AdaptivePagingPolicy(int minCount, int maxCount, long targetPageBytes,
+			long targetLatencyMillis)
+	{
+		Validator.validateTrue(minCount > 0,
+				"Adaptive paging minimum count should be strictly positive");
+		Validator.validateTrue(maxCount >= minCount,
+				"Adaptive paging maximum count should be greater or equal to the minimum count");
+		Validator.validateTrue(targetPageBytes > 0,
+				"Adaptive paging target page size should be strictly positive");
+		Validator.validateTrue(targetLatencyMillis > 0,
+				"Adaptive paging target latency should be strictly positive");
+
+		this.minCount = minCount;
+		this.maxCount = maxCount;
+		this.targetPageBytes = targetPageBytes;
+		this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+	}
+
+	/**
+	 * Size of the first page, the requested count kept within bounds
+	 */
+	public int initialCount(int requestedCount)
+	{
+		int count = bound(requestedCount);
+		record(count);
+		return count;
+	}
+
+	/**
+	 * Size of the next page
+	 * 
+	 * @param currentCount
+	 *            size requested for the previous page
+	 * @param columnCount
+	 *            number of columns returned for the previous page
+	 * @param pageBytes
+	 *            total size of the names and values of the columns of the previous page
+	 * @param latencyNanos
+	 *            time spent executing the query of the previous page
+	 * @return size of the next page
+	 */
+	public int nextCount(int currentCount, int columnCount, long pageBytes, long latencyNanos)
+	{
+		int count = currentCount;
+		if (columnCount > 0)
+		{
+			long bytesPerColumn = Math.max(1L, pageBytes / columnCount);
+			long nanosPerColumn = Math.max(1L, latencyNanos / columnCount);
+			long target = Math.min(targetPageBytes / bytesPerColumn, targetLatencyNanos
+					/ nanosPerColumn);
+
+			target = Math.min(target, currentCount * 2L);
+			target = Math.max(target, currentCount / 2L);
+			count = bound(target);
+		}
+
+		if (count > currentCount)
+		{
+			growCount.incrementAndGet();
+		}
+		else if (count < currentCount)
+		{
+			shrinkCount.incrementAndGet();
+		}
+		record(count);
+		return count;
+	}
+
+	private int bound(long count)
+	{
+		return (int) Math.max(minCount, Math.min(maxCount, count));
+	}
+
+	private void record(int count)
+	{
+		pageCount.incrementAndGet();
+		totalPageSize.addAndGet(count);
+		lastPageSize = count;
+	}
+
+	public int getMinCount()
+	{
+		return minCount;
+	}
+
+	public int getMaxCount()
+	{
+		return maxCount;
+	}
+
+	/**
+	 * Number of page sizes chosen by the policy
+	 */
+	public long getPageCount()
+	{
+		return pageCount.get();
+	}
+
+	/**
+	 * Average of the page sizes chosen by the policy
+	 */
+	public double getAveragePageSize()
+	{
+		long pages = pageCount.get();
+		return pages == 0 ? 0 : (double) totalPageSize.get() / pages;
+	}
+
+	/**
+	 * Last page size chosen by the policy
+	 */
+	public int getLastPageSize()
+	{
+		return lastPageSize;
+	}
+
+	/**
+	 * Number of times the page size has been increased
+	 */
+	public long getGrowCount()
+	{
+		return growCount.get();
+	}
+
+	/**
+	 * Number of times the page size has been decreased
+	 */
+	public long getShrinkCount()
+	{
+		return shrinkCount.get();
+	}
+}
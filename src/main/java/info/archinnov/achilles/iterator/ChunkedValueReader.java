@@ -0,0 +1,115 @@
+package info.archinnov.achilles.iterator;
+
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * ChunkedValueReader
+ * 
+ * Stream of the text stored for a chunked property. Chunks are read one column at a time when
+ * 
+ * the previous one has been consumed, so that only one chunk is held in memory. Only the chunks
+ * 
+ * of the generation read from the column of the property are streamed. A value stored whole in
+ * 
+ * the column of the property, with a chunk count of 0, is streamed from that column
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ChunkedValueReader<ID> extends Reader
+{
+	private GenericDynamicCompositeDao<ID> dao;
+	private ID key;
+	private PropertyMeta<?, ?> propertyMeta;
+	private DynamicCompositeKeyFactory keyFactory = new DynamicCompositeKeyFactory();
+
+	private boolean started = false;
+	private long generation;
+	private int chunkCount;
+	private int nextChunk;
+	private String chunk;
+	private int position;
+
+	public ChunkedValueReader(GenericDynamicCompositeDao<ID> dao, ID key,
+			PropertyMeta<?, ?> propertyMeta)
+	{
+		this.dao = dao;
+		this.key = key;
+		this.propertyMeta = propertyMeta;
+	}
+
+	@Override
+	public int read(char[] buffer, int offset, int length) throws IOException
+	{
+		if (length == 0)
+		{
+			return 0;
+		}
+
+		while (chunk == null || position == chunk.length())
+		{
+			if (!this.readNextChunk())
+			{
+				return -1;
+			}
+		}
+
+		int read = Math.min(length, chunk.length() - position);
+		chunk.getChars(position, position + read, buffer, offset);
+		position += read;
+		return read;
+	}
+
+	@Override
+	public void close()
+	{
+		chunk = null;
+		nextChunk = chunkCount;
+		started = true;
+	}
+
+	private boolean readNextChunk() throws IOException
+	{
+		if (!started)
+		{
+			started = true;
+			String value = dao.getValue(key,
+					keyFactory.createForBatchInsertSingleValue(propertyMeta));
+			if (!ValueChunker.isChunkHead(value))
+			{
+				chunk = value;
+				position = 0;
+				return value != null;
+			}
+			generation = ValueChunker.parseGeneration(value);
+			chunkCount = ValueChunker.parseChunkCount(value);
+			if (chunkCount == 0)
+			{
+				chunk = ValueChunker.parseWholeText(value);
+				position = 0;
+				return true;
+			}
+		}
+
+		if (nextChunk == chunkCount)
+		{
+			return false;
+		}
+
+		chunk = dao.getValue(key, keyFactory.createForChunk(propertyMeta, generation, nextChunk));
+		if (chunk == null)
+		{
+			throw new IOException("The chunk " + nextChunk + " of the property '"
+					+ propertyMeta.getPropertyName() + "' for key '" + key + "' is missing");
+		}
+		nextChunk++;
+		position = 0;
+		return true;
+	}
+}
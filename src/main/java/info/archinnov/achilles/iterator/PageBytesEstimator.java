@@ -0,0 +1,56 @@
+package info.archinnov.achilles.iterator;
+
+import java.util.List;
+
+import me.prettyprint.hector.api.beans.HColumn;
+import me.prettyprint.hector.api.beans.HCounterColumn;
+
+/**
+ * PageBytesEstimator
+ * 
+ * Estimate the size in bytes of a page of columns for the adaptive paging policy.
+ * 
+ * Hector serializes the names and values again to measure them, so only the first and the last
+ * 
+ * columns of the page are measured and their average size is applied to the whole page
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class PageBytesEstimator
+{
+	// counter values are serialized as 8 bytes longs
+	private static final long COUNTER_VALUE_BYTES = 8L;
+
+	public static long estimateBytes(List<? extends HColumn<?, ?>> columns)
+	{
+		if (columns.isEmpty())
+		{
+			return 0L;
+		}
+		long sampledBytes = columnBytes(columns.get(0))
+				+ columnBytes(columns.get(columns.size() - 1));
+		return sampledBytes * columns.size() / 2;
+	}
+
+	public static long estimateCounterBytes(List<? extends HCounterColumn<?>> columns)
+	{
+		if (columns.isEmpty())
+		{
+			return 0L;
+		}
+		long sampledBytes = counterColumnBytes(columns.get(0))
+				+ counterColumnBytes(columns.get(columns.size() - 1));
+		return sampledBytes * columns.size() / 2;
+	}
+
+	private static long columnBytes(HColumn<?, ?> column)
+	{
+		return column.getNameBytes().remaining() + column.getValueBytes().remaining();
+	}
+
+	private static long counterColumnBytes(HCounterColumn<?> column)
+	{
+		return column.getNameBytes().remaining() + COUNTER_VALUE_BYTES;
+	}
+}
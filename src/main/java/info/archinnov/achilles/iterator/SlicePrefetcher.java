@@ -0,0 +1,200 @@
+package info.archinnov.achilles.iterator;
+
+import info.archinnov.achilles.dao.AsyncTaskCallable;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * SlicePrefetcher
+ * 
+ * Fetch the pages of a column slice in the background, keeping up to <em>prefetchDepth</em>
+ * 
+ * pages ahead of the consumer.
+ * 
+ * Since the start of a page is the last column of the previous one, pages are fetched one after
+ * 
+ * the other. At most one query is in flight and no thread is blocked when the buffer is full, so
+ * 
+ * an abandoned iterator does not hold any executor thread.
+ * 
+ * Pages requested from an asynchronous task are loaded on the calling thread, without prefetching,
+ * 
+ * since waiting for the executor from one of its own threads may never return
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class SlicePrefetcher<N, C>
+{
+	private final ExecutorService executor;
+	private final PageLoader<N, C> pageLoader;
+	private final int prefetchDepth;
+
+	private final LinkedList<List<C>> pages = new LinkedList<List<C>>();
+	private N nextStart;
+	private boolean firstPage = true;
+	private boolean fetching = false;
+	private boolean exhausted = false;
+	private Throwable failure;
+
+	public SlicePrefetcher(ExecutorService executor, PageLoader<N, C> pageLoader, N start,
+			int prefetchDepth)
+	{
+		this.executor = executor;
+		this.pageLoader = pageLoader;
+		this.nextStart = start;
+		this.prefetchDepth = prefetchDepth;
+	}
+
+	/**
+	 * Return the next page of columns, waiting for it to be fetched if necessary
+	 * 
+	 * @return next page or an empty list when the slice is exhausted
+	 */
+	public synchronized List<C> nextPage()
+	{
+		boolean inline = AsyncTaskCallable.isRunningAsyncTask();
+		if (inline)
+		{
+			loadIfNeeded();
+		}
+		else
+		{
+			scheduleFetchIfNeeded();
+		}
+		while (pages.isEmpty())
+		{
+			if (failure != null)
+			{
+				throw new RuntimeException(failure);
+			}
+			if (exhausted)
+			{
+				return Collections.emptyList();
+			}
+			try
+			{
+				wait();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		List<C> page = pages.removeFirst();
+		if (!inline)
+		{
+			scheduleFetchIfNeeded();
+		}
+		return page;
+	}
+
+	private void loadIfNeeded()
+	{
+		if (pages.isEmpty() && !fetching && !exhausted && failure == null)
+		{
+			fetching = true;
+			boolean first = firstPage;
+			firstPage = false;
+			fetch(nextStart, first, false);
+		}
+	}
+
+	private void scheduleFetchIfNeeded()
+	{
+		if (!fetching && !exhausted && failure == null && pages.size() < prefetchDepth)
+		{
+			fetching = true;
+			final N start = nextStart;
+			final boolean first = firstPage;
+			firstPage = false;
+			try
+			{
+				executor.submit(new AsyncTaskCallable<Void>(new Callable<Void>()
+				{
+					@Override
+					public Void call()
+					{
+						fetch(start, first, true);
+						return null;
+					}
+				}));
+			}
+			catch (RuntimeException e)
+			{
+				fetching = false;
+				failure = e;
+			}
+		}
+	}
+
+	private void fetch(N start, boolean first, boolean prefetch)
+	{
+		List<C> page = null;
+		Throwable error = null;
+		int count = pageLoader.nextPageSize();
+		try
+		{
+			page = pageLoader.loadPage(start, first, count);
+		}
+		catch (Throwable throwable)
+		{
+			error = throwable;
+		}
+
+		synchronized (this)
+		{
+			fetching = false;
+			if (error != null)
+			{
+				failure = error;
+			}
+			else
+			{
+				pages.addLast(page);
+				if (page.size() < count)
+				{
+					exhausted = true;
+				}
+				else
+				{
+					nextStart = pageLoader.nameOf(page.get(page.size() - 1));
+					if (prefetch)
+					{
+						scheduleFetchIfNeeded();
+					}
+				}
+			}
+			notifyAll();
+		}
+	}
+
+	public interface PageLoader<N, C>
+	{
+		/**
+		 * Execute the slice query for one page
+		 * 
+		 * @param start
+		 *            start of the page
+		 * @param firstPage
+		 *            when false, the start column has already been returned with the previous
+		 *            page and should be excluded
+		 * @param count
+		 *            maximum number of columns of the page
+		 * @return columns of the page
+		 */
+		List<C> loadPage(N start, boolean firstPage, int count);
+
+		/**
+		 * Size of the next page to load. The slice is exhausted when fewer columns are returned
+		 */
+		int nextPageSize();
+
+		N nameOf(C column);
+	}
+}
@@ -15,7 +15,7 @@ import me.prettyprint.hector.api.beans.DynamicComposite;
 import me.prettyprint.hector.api.beans.HColumn;
 import me.prettyprint.hector.api.beans.HCounterColumn;
 
-import com.google.common.collect.Lists;
+import com.google.common.base.Function;
 
 /**
  * KeyValueFactory
@@ -57,7 +57,7 @@ public class KeyValueFactory
 	public <K, V> List<V> createValueListForDynamicComposite(PropertyMeta<K, V> propertyMeta,
 			List<HColumn<DynamicComposite, String>> hColumns)
 	{
-		return Lists.transform(hColumns,
+		return materialize(hColumns,
 				dynamicCompositeTransformer.buildValueTransformer(propertyMeta));
 	}
 
@@ -69,11 +69,11 @@ public class KeyValueFactory
 	public <K, V> List<V> createJoinValueListForDynamicComposite(PropertyMeta<K, V> propertyMeta,
 			List<HColumn<DynamicComposite, String>> hColumns)
 	{
-		List<?> joinIds = Lists.transform(hColumns,
+		List<?> joinIds = materialize(hColumns,
 				dynamicCompositeTransformer.buildRawValueTransformer(propertyMeta));
 		Map<?, V> joinEntities = joinHelper.loadJoinEntities(propertyMeta.getValueClass(), joinIds,
 				(EntityMeta) propertyMeta.getJoinProperties().getEntityMeta());
-		List<V> result = new ArrayList<V>();
+		List<V> result = new ArrayList<V>(joinIds.size());
 		for (Object joinId : joinIds)
 		{
 
@@ -88,14 +88,14 @@ public class KeyValueFactory
 	public <K, V> List<K> createKeyListForDynamicComposite(PropertyMeta<K, V> propertyMeta,
 			List<HColumn<DynamicComposite, String>> hColumns)
 	{
-		return Lists.transform(hColumns,
+		return materialize(hColumns,
 				dynamicCompositeTransformer.buildKeyTransformer(propertyMeta));
 	}
 
 	public <K, V> List<KeyValue<K, V>> createKeyValueListForDynamicComposite(
 			PropertyMeta<K, V> propertyMeta, List<HColumn<DynamicComposite, String>> hColumns)
 	{
-		return Lists.transform(hColumns,
+		return materialize(hColumns,
 				dynamicCompositeTransformer.buildKeyValueTransformer(propertyMeta));
 	}
 
@@ -107,17 +107,28 @@ public class KeyValueFactory
 	public <K, V> List<KeyValue<K, V>> createJoinKeyValueListForDynamicComposite(
 			PropertyMeta<K, V> propertyMeta, List<HColumn<DynamicComposite, String>> hColumns)
 	{
-		List<K> keys = Lists.transform(hColumns,
-				dynamicCompositeTransformer.buildKeyTransformer(propertyMeta));
-		List<Object> joinIds = Lists.transform(hColumns,
-				dynamicCompositeTransformer.buildRawValueTransformer(propertyMeta));
+		Function<HColumn<DynamicComposite, ?>, K> keyTransformer = dynamicCompositeTransformer
+				.buildKeyTransformer(propertyMeta);
+		Function<HColumn<DynamicComposite, String>, Object> rawValueTransformer = dynamicCompositeTransformer
+				.buildRawValueTransformer(propertyMeta);
+		Function<HColumn<DynamicComposite, String>, Integer> ttlTransformer = dynamicCompositeTransformer
+				.buildTtlTransformer();
+
+		int size = hColumns.size();
+		List<K> keys = new ArrayList<K>(size);
+		List<Object> joinIds = new ArrayList<Object>(size);
+		List<Integer> ttls = new ArrayList<Integer>(size);
+		for (HColumn<DynamicComposite, String> hColumn : hColumns)
+		{
+			keys.add(keyTransformer.apply(hColumn));
+			joinIds.add(rawValueTransformer.apply(hColumn));
+			ttls.add(ttlTransformer.apply(hColumn));
+		}
 
 		Map<Object, V> joinEntities = joinHelper.loadJoinEntities(propertyMeta.getValueClass(),
 				joinIds, (EntityMeta) propertyMeta.getJoinProperties().getEntityMeta());
-		List<Integer> ttls = Lists.transform(hColumns,
-				dynamicCompositeTransformer.buildTtlTransformer());
 
-		List<KeyValue<K, V>> result = new ArrayList<KeyValue<K, V>>();
+		List<KeyValue<K, V>> result = new ArrayList<KeyValue<K, V>>(size);
 
 		for (int i = 0; i < keys.size(); i++)
 		{
@@ -156,13 +167,13 @@ public class KeyValueFactory
 	public <K, V> List<V> createValueListForComposite(PropertyMeta<K, V> propertyMeta,
 			List<HColumn<Composite, ?>> hColumns)
 	{
-		return Lists.transform(hColumns, compositeTransformer.buildValueTransformer(propertyMeta));
+		return materialize(hColumns, compositeTransformer.buildValueTransformer(propertyMeta));
 	}
 
 	public <K, V> List<K> createKeyListForComposite(PropertyMeta<K, V> propertyMeta,
 			List<HColumn<Composite, ?>> hColumns)
 	{
-		return Lists.transform(hColumns, compositeTransformer.buildKeyTransformer(propertyMeta));
+		return materialize(hColumns, compositeTransformer.buildKeyTransformer(propertyMeta));
 	}
 
 	@SuppressWarnings(
@@ -173,11 +184,10 @@ public class KeyValueFactory
 	public <K, V> List<V> createJoinValueListForComposite(PropertyMeta<K, V> propertyMeta,
 			List<HColumn<Composite, ?>> hColumns)
 	{
-		List<?> joinIds = Lists
-				.transform(hColumns, compositeTransformer.buildRawValueTransformer());
+		List<?> joinIds = materialize(hColumns, compositeTransformer.buildRawValueTransformer());
 		Map<?, V> joinEntities = joinHelper.loadJoinEntities(propertyMeta.getValueClass(), joinIds,
 				(EntityMeta) propertyMeta.getJoinProperties().getEntityMeta());
-		List<V> result = new ArrayList<V>();
+		List<V> result = new ArrayList<V>(joinIds.size());
 		for (Object joinId : joinIds)
 		{
 			V joinEntity = joinEntities.get(joinId);
@@ -192,8 +202,7 @@ public class KeyValueFactory
 	public <K, V> List<KeyValue<K, V>> createKeyValueListForComposite(
 			PropertyMeta<K, V> propertyMeta, List<HColumn<Composite, ?>> hColumns)
 	{
-		return Lists.transform(hColumns,
-				compositeTransformer.buildKeyValueTransformer(propertyMeta));
+		return materialize(hColumns, compositeTransformer.buildKeyValueTransformer(propertyMeta));
 	}
 
 	@SuppressWarnings(
@@ -204,15 +213,28 @@ public class KeyValueFactory
 	public <K, V> List<KeyValue<K, V>> createJoinKeyValueListForComposite(
 			PropertyMeta<K, V> propertyMeta, List<HColumn<Composite, ?>> hColumns)
 	{
-		List<K> keys = Lists.transform(hColumns,
-				compositeTransformer.buildKeyTransformer(propertyMeta));
-		List<Object> joinIds = Lists.transform(hColumns,
-				compositeTransformer.buildRawValueTransformer());
+		Function<HColumn<Composite, ?>, K> keyTransformer = compositeTransformer
+				.buildKeyTransformer(propertyMeta);
+		Function<HColumn<Composite, ?>, ?> rawValueTransformer = compositeTransformer
+				.buildRawValueTransformer();
+		Function<HColumn<Composite, ?>, Integer> ttlTransformer = compositeTransformer
+				.buildTtlTransformer();
+
+		int size = hColumns.size();
+		List<K> keys = new ArrayList<K>(size);
+		List<Object> joinIds = new ArrayList<Object>(size);
+		List<Integer> ttls = new ArrayList<Integer>(size);
+		for (HColumn<Composite, ?> hColumn : hColumns)
+		{
+			keys.add(keyTransformer.apply(hColumn));
+			joinIds.add(rawValueTransformer.apply(hColumn));
+			ttls.add(ttlTransformer.apply(hColumn));
+		}
+
 		Map<Object, V> joinEntities = joinHelper.loadJoinEntities(propertyMeta.getValueClass(),
 				joinIds, (EntityMeta) propertyMeta.getJoinProperties().getEntityMeta());
-		List<Integer> ttls = Lists.transform(hColumns, compositeTransformer.buildTtlTransformer());
 
-		List<KeyValue<K, V>> result = new ArrayList<KeyValue<K, V>>();
+		List<KeyValue<K, V>> result = new ArrayList<KeyValue<K, V>>(size);
 
 		for (int i = 0; i < keys.size(); i++)
 		{
@@ -249,21 +271,36 @@ public class KeyValueFactory
 	public <K> List<KeyValue<K, Long>> createCounterKeyValueListForDynamicComposite(
 			PropertyMeta<K, Long> propertyMeta, List<HCounterColumn<DynamicComposite>> hColumns)
 	{
-		return Lists.transform(hColumns,
+		return materialize(hColumns,
 				dynamicCompositeTransformer.buildCounterKeyValueTransformer(propertyMeta));
 	}
 
 	public <K> List<Long> createCounterValueListForDynamicComposite(
 			PropertyMeta<K, Long> propertyMeta, List<HCounterColumn<DynamicComposite>> hColumns)
 	{
-		return Lists.transform(hColumns,
+		return materialize(hColumns,
 				dynamicCompositeTransformer.buildCounterValueTransformer(propertyMeta));
 	}
 
 	public <K> List<K> createCounterKeyListForDynamicComposite(PropertyMeta<K, Long> propertyMeta,
 			List<HCounterColumn<DynamicComposite>> hColumns)
 	{
-		return Lists.transform(hColumns,
+		return materialize(hColumns,
 				dynamicCompositeTransformer.buildCounterKeyTransformer(propertyMeta));
 	}
+
+	/**
+	 * Apply the transformer once to each column. Unlike a lazy view, the values are not
+	 * 
+	 * deserialized again each time the list is read
+	 */
+	private <F, T> List<T> materialize(List<F> hColumns, Function<? super F, T> transformer)
+	{
+		List<T> result = new ArrayList<T>(hColumns.size());
+		for (F hColumn : hColumns)
+		{
+			result.add(transformer.apply(hColumn));
+		}
+		return result;
+	}
 }
@@ -5,12 +5,14 @@ import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
 import info.archinnov.achilles.dao.GenericCompositeDao;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.operations.EntityLoader;
 import info.archinnov.achilles.entity.operations.EntityPersister;
 import info.archinnov.achilles.helper.CompositeHelper;
 import info.archinnov.achilles.iterator.factory.IteratorFactory;
 import info.archinnov.achilles.iterator.factory.KeyValueFactory;
+import info.archinnov.achilles.wrapper.PropertyDelta;
 import info.archinnov.achilles.wrapper.builder.CounterWideMapWrapperBuilder;
 import info.archinnov.achilles.wrapper.builder.ExternalWideMapWrapperBuilder;
 import info.archinnov.achilles.wrapper.builder.JoinExternalWideMapWrapperBuilder;
@@ -21,6 +23,9 @@ import info.archinnov.achilles.wrapper.builder.SetWrapperBuilder;
 import info.archinnov.achilles.wrapper.builder.WideMapWrapperBuilder;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -47,6 +52,7 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 	private EntityPersister persister = new EntityPersister();
 	private EntityHelper entityHelper = new EntityHelper();
 
+	private EntityMeta<ID> entityMeta;
 	private GenericDynamicCompositeDao<ID> entityDao;
 	private GenericCompositeDao<ID, ?> columnFamilyDao;
 	private Boolean directColumnFamilyMapping;
@@ -58,6 +64,8 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 	private Map<Method, PropertyMeta<?, ?>> getterMetas;
 	private Map<Method, PropertyMeta<?, ?>> setterMetas;
 	private Map<Method, PropertyMeta<?, ?>> dirtyMap;
+	private Map<Method, PropertyDelta> deltaMap;
+	private Map<Method, Set<Integer>> storedColumns;
 	private Set<Method> lazyAlreadyLoaded;
 	private Mutator<ID> mutator;
 	private Map<String, Mutator<?>> mutatorMap;
@@ -107,15 +115,28 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 	{
 		Object result = null;
 		PropertyMeta propertyMeta = this.getterMetas.get(method);
+		boolean lazyLoading = propertyMeta.type().isLazy()
+				&& !this.lazyAlreadyLoaded.contains(method);
 
 		// Load lazy into target object
-		if (propertyMeta.type().isLazy() && !this.lazyAlreadyLoaded.contains(method))
+		if (lazyLoading)
 		{
-			this.loader.loadPropertyIntoObject(target, key, entityDao, propertyMeta);
-			this.lazyAlreadyLoaded.add(method);
+			if (propertyMeta.getFetchGroup() != null)
+			{
+				this.loadFetchGroup(propertyMeta.getFetchGroup());
+			}
+			else
+			{
+				this.loader.loadPropertyIntoObject(target, key, entityDao, propertyMeta);
+				this.lazyAlreadyLoaded.add(method);
+			}
 		}
 
 		Object rawValue = proxy.invoke(target, args);
+		if (lazyLoading && propertyMeta.type().isMultiValue())
+		{
+			this.recordStoredColumns(propertyMeta, rawValue);
+		}
 
 		// Build proxy when necessary
 		switch (propertyMeta.type())
@@ -134,6 +155,7 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 					List<?> list = (List<?>) rawValue;
 					result = ListWrapperBuilder.builder(list) //
 							.dirtyMap(dirtyMap) //
+							.deltaMap(deltaMap) //
 							.setter(propertyMeta.getSetter()) //
 							.propertyMeta(propertyMeta) //
 							.helper(entityHelper) //
@@ -147,6 +169,7 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 				{
 					Set<?> set = (Set<?>) rawValue;
 					result = SetWrapperBuilder.builder(set).dirtyMap(dirtyMap) //
+							.deltaMap(deltaMap) //
 							.setter(propertyMeta.getSetter())//
 							.propertyMeta(propertyMeta) //
 							.helper(entityHelper) //
@@ -161,6 +184,7 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 					Map<?, ?> map = (Map<?, ?>) rawValue;
 					result = MapWrapperBuilder.builder(map)//
 							.dirtyMap(dirtyMap) //
+							.deltaMap(deltaMap) //
 							.setter(propertyMeta.getSetter()) //
 							.propertyMeta(propertyMeta) //
 							.helper(entityHelper) //
@@ -197,6 +221,26 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 		return result;
 	}
 
+	private void loadFetchGroup(String fetchGroup)
+	{
+		// Properties of the group already loaded or set keep their current value
+		List<PropertyMeta<?, ?>> groupMetas = new ArrayList<PropertyMeta<?, ?>>();
+		for (PropertyMeta<?, ?> groupMeta : this.entityMeta.getFetchGroups().get(fetchGroup))
+		{
+			if (!this.lazyAlreadyLoaded.contains(groupMeta.getGetter()))
+			{
+				groupMetas.add(groupMeta);
+			}
+		}
+
+		this.loader.loadFetchGroupIntoObject(target, key, entityMeta, groupMetas);
+
+		for (PropertyMeta<?, ?> groupMeta : groupMetas)
+		{
+			this.lazyAlreadyLoaded.add(groupMeta.getGetter());
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private <K extends Comparable<K>, V> Object buildExternalWideMapWrapper(
 			PropertyMeta<K, V> propertyMeta)
@@ -313,6 +357,7 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 			this.lazyAlreadyLoaded.add(propertyMeta.getGetter());
 		}
 		this.dirtyMap.put(method, propertyMeta);
+		this.deltaMap.remove(method);
 		result = proxy.invoke(target, args);
 		return result;
 	}
@@ -322,6 +367,89 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 		return dirtyMap;
 	}
 
+	/**
+	 * Changes of the dirty list, set and map properties when they can be written column by column.
+	 * 
+	 * Dirty properties without delta are rewritten
+	 */
+	public Map<Method, PropertyDelta> getDeltaMap()
+	{
+		return deltaMap;
+	}
+
+	/**
+	 * Columns stored in Cassandra for the list, set and map properties, by setter: list positions,
+	 * 
+	 * set value hashes or map key hashes. Properties without entry have unknown columns
+	 */
+	public Map<Method, Set<Integer>> getStoredColumns()
+	{
+		return storedColumns;
+	}
+
+	/**
+	 * Record the columns of the list, set and map properties loaded with the entity
+	 */
+	public void recordLoadedColumns()
+	{
+		if (entityMeta.getPropertyMetas() != null)
+		{
+			for (PropertyMeta<?, ?> propertyMeta : entityMeta.getPropertyMetas().values())
+			{
+				if (propertyMeta.type().isMultiValue() && !propertyMeta.type().isLazy())
+				{
+					this.recordStoredColumns(propertyMeta);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Record the columns of the current value of a list, set or map property, just loaded or
+	 * 
+	 * written. Values whose hash code is not value-based give unknown columns
+	 */
+	public void recordStoredColumns(PropertyMeta<?, ?> propertyMeta)
+	{
+		this.recordStoredColumns(propertyMeta,
+				entityHelper.getValueFromField(target, propertyMeta.getGetter()));
+	}
+
+	private void recordStoredColumns(PropertyMeta<?, ?> propertyMeta, Object value)
+	{
+		Collection<?> hashed = null;
+		Set<Integer> columns = new HashSet<Integer>();
+		if (value instanceof List)
+		{
+			for (int i = 0; i < ((List<?>) value).size(); i++)
+			{
+				columns.add(i);
+			}
+		}
+		else if (value instanceof Set)
+		{
+			hashed = (Set<?>) value;
+		}
+		else if (value instanceof Map)
+		{
+			hashed = ((Map<?, ?>) value).keySet();
+		}
+
+		if (hashed != null)
+		{
+			for (Object element : hashed)
+			{
+				if (!entityHelper.hasValueHashCode(element))
+				{
+					this.storedColumns.remove(propertyMeta.getSetter());
+					return;
+				}
+				columns.add(element.hashCode());
+			}
+		}
+		this.storedColumns.put(propertyMeta.getSetter(), columns);
+	}
+
 	public Set<Method> getLazyAlreadyLoaded()
 	{
 		return lazyAlreadyLoaded;
@@ -378,6 +506,21 @@ public class JpaEntityInterceptor<ID, T> implements MethodInterceptor, AchillesI
 		this.dirtyMap = dirtyMap;
 	}
 
+	void setDeltaMap(Map<Method, PropertyDelta> deltaMap)
+	{
+		this.deltaMap = deltaMap;
+	}
+
+	void setStoredColumns(Map<Method, Set<Integer>> storedColumns)
+	{
+		this.storedColumns = storedColumns;
+	}
+
+	void setEntityMeta(EntityMeta<ID> entityMeta)
+	{
+		this.entityMeta = entityMeta;
+	}
+
 	void setLazyLoaded(Set<Method> lazyLoaded)
 	{
 		this.lazyAlreadyLoaded = lazyLoaded;
@@ -5,6 +5,7 @@ import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.operations.EntityLoader;
 import info.archinnov.achilles.validation.Validator;
+import info.archinnov.achilles.wrapper.PropertyDelta;
 
 import java.lang.reflect.Method;
 import java.util.HashMap;
@@ -22,6 +23,9 @@ public class JpaEntityInterceptorBuilder<ID, T>
 
 	private T target;
 	private Set<Method> lazyLoaded = new HashSet<Method>();
+	private boolean loadedJoins = true;
+	private boolean loadedColumns = false;
+	private boolean loadedProperties = false;
 	private EntityMeta<ID> entityMeta;
 	private EntityHelper helper = new EntityHelper();
 	private EntityLoader loader = new EntityLoader();
@@ -45,6 +49,27 @@ public class JpaEntityInterceptorBuilder<ID, T>
 		return this;
 	}
 
+	public JpaEntityInterceptorBuilder<ID, T> loadedJoins(boolean loadedJoins)
+	{
+		this.loadedJoins = loadedJoins;
+		return this;
+	}
+
+	public JpaEntityInterceptorBuilder<ID, T> loadedColumns(boolean loadedColumns)
+	{
+		this.loadedColumns = loadedColumns;
+		return this;
+	}
+
+	/**
+	 * Lazy and join properties of a target not written to Cassandra yet are never loaded
+	 */
+	public JpaEntityInterceptorBuilder<ID, T> loadedProperties(boolean loadedProperties)
+	{
+		this.loadedProperties = loadedProperties;
+		return this;
+	}
+
 	@SuppressWarnings("unchecked")
 	public JpaEntityInterceptor<ID, T> build()
 	{
@@ -73,6 +98,7 @@ public class JpaEntityInterceptorBuilder<ID, T>
 		interceptor.setTarget(target);
 		interceptor.setGetterMetas(entityMeta.getGetterMetas());
 		interceptor.setSetterMetas(entityMeta.getSetterMetas());
+		interceptor.setEntityMeta(entityMeta);
 		interceptor.setIdGetter(entityMeta.getIdMeta().getGetter());
 		interceptor.setIdSetter(entityMeta.getIdMeta().getSetter());
 
@@ -80,12 +106,58 @@ public class JpaEntityInterceptorBuilder<ID, T>
 		{
 			this.lazyLoaded = new HashSet<Method>();
 		}
+		if (this.loadedProperties)
+		{
+			this.addLoadedProperties();
+		}
+		else if (this.loadedJoins)
+		{
+			this.addLoadedJoins();
+		}
 		interceptor.setLazyLoaded(this.lazyLoaded);
 		interceptor.setDirtyMap(new HashMap<Method, PropertyMeta<?, ?>>());
+		interceptor.setDeltaMap(new HashMap<Method, PropertyDelta>());
+		interceptor.setStoredColumns(new HashMap<Method, Set<Integer>>());
 		interceptor.setKey((ID) helper
 				.getValueFromField(target, entityMeta.getIdMeta().getGetter()));
 
 		interceptor.setLoader(loader);
+		if (this.loadedColumns)
+		{
+			interceptor.recordLoadedColumns();
+		}
 		return interceptor;
 	}
+
+	private void addLoadedProperties()
+	{
+		if (entityMeta.getPropertyMetas() != null)
+		{
+			for (PropertyMeta<?, ?> propertyMeta : entityMeta.getPropertyMetas().values())
+			{
+				if (propertyMeta.type().isLazy() && !propertyMeta.isWideMap())
+				{
+					this.lazyLoaded.add(propertyMeta.getGetter());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Join properties already set in the target, by a graph load for example, are not reloaded
+	 */
+	private void addLoadedJoins()
+	{
+		if (entityMeta.getPropertyMetas() != null)
+		{
+			for (PropertyMeta<?, ?> propertyMeta : entityMeta.getPropertyMetas().values())
+			{
+				if (propertyMeta.isJoin() && !propertyMeta.isWideMap()
+						&& helper.getValueFromField(target, propertyMeta.getGetter()) != null)
+				{
+					this.lazyLoaded.add(propertyMeta.getGetter());
+				}
+			}
+		}
+	}
 }
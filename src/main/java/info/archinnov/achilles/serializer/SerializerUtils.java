@@ -1,5 +1,6 @@
 package info.archinnov.achilles.serializer;
 
+import me.prettyprint.cassandra.serializers.ByteBufferSerializer;
 import me.prettyprint.cassandra.serializers.BytesArraySerializer;
 import me.prettyprint.cassandra.serializers.CharSerializer;
 import me.prettyprint.cassandra.serializers.CompositeSerializer;
@@ -33,4 +34,5 @@ public class SerializerUtils
 	public static final ObjectSerializer OBJECT_SRZ = ObjectSerializer.get();
 	public static final BytesArraySerializer BYTE_SRZ = BytesArraySerializer.get();
 	public static final CharSerializer CHAR_SRZ = CharSerializer.get();
+	public static final ByteBufferSerializer BYTE_BUFFER_SRZ = ByteBufferSerializer.get();
 }
@@ -230,6 +230,13 @@ public abstract class AbstractWideMapWrapper<K, V> implements WideMap<K, V>
 		return iterator(start, end, count, BoundingMode.INCLUSIVE_BOUNDS, OrderingMode.ASCENDING);
 	}
 
+	@Override
+	public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds,
+			OrderingMode ordering)
+	{
+		return iterator(start, end, count, bounds, ordering, 0);
+	}
+
 	@Override
 	public KeyValueIterator<K, V> iteratorBoundsExclusive(K start, K end, int count)
 	{
@@ -16,6 +16,7 @@ import java.util.Map;
 public abstract class AbstractWrapper<K, V>
 {
 	protected Map<Method, PropertyMeta<?, ?>> dirtyMap;
+	protected Map<Method, PropertyDelta> deltaMap;
 	protected Method setter;
 	protected PropertyMeta<K, V> propertyMeta;
 	protected EntityHelper helper;
@@ -30,6 +31,16 @@ public abstract class AbstractWrapper<K, V>
 		this.dirtyMap = dirtyMap;
 	}
 
+	public Map<Method, PropertyDelta> getDeltaMap()
+	{
+		return deltaMap;
+	}
+
+	public void setDeltaMap(Map<Method, PropertyDelta> deltaMap)
+	{
+		this.deltaMap = deltaMap;
+	}
+
 	public void setSetter(Method setter)
 	{
 		this.setter = setter;
@@ -46,6 +57,57 @@ public abstract class AbstractWrapper<K, V>
 		{
 			dirtyMap.put(this.setter, this.propertyMeta);
 		}
+		if (deltaMap != null)
+		{
+			// The change cannot be tracked column by column, the property will be rewritten
+			deltaMap.remove(this.setter);
+		}
+	}
+
+	/**
+	 * Whether the changes of the property can be recorded column by column
+	 */
+	protected boolean isDeltaTracked()
+	{
+		return deltaMap != null && !isJoin();
+	}
+
+	protected void markInserted(int hashOrPosition, Object value)
+	{
+		PropertyDelta delta = this.delta();
+		if (delta != null)
+		{
+			delta.insert(hashOrPosition, value);
+		}
+	}
+
+	protected void markDeleted(int hashOrPosition)
+	{
+		PropertyDelta delta = this.delta();
+		if (delta != null)
+		{
+			delta.delete(hashOrPosition);
+		}
+	}
+
+	/**
+	 * Delta of the property, created when the property becomes dirty. Returns null when the
+	 * 
+	 * property is already due to be fully rewritten
+	 */
+	private PropertyDelta delta()
+	{
+		if (!isDeltaTracked())
+		{
+			this.markDirty();
+			return null;
+		}
+		if (!dirtyMap.containsKey(this.setter))
+		{
+			dirtyMap.put(this.setter, this.propertyMeta);
+			deltaMap.put(this.setter, new PropertyDelta());
+		}
+		return deltaMap.get(this.setter);
 	}
 
 	public void setHelper(EntityHelper helper)
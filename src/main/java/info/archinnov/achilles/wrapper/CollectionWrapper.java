@@ -25,8 +25,9 @@ public class CollectionWrapper<V> extends AbstractWrapper<Void, V> implements Co
 		boolean result = false;
 		if (target != null)
 		{
-			result = target.add(helper.unproxy(arg0));
-			this.markDirty();
+			V value = helper.unproxy(arg0);
+			result = target.add(value);
+			this.markAdded(value);
 
 		}
 		return result;
@@ -38,10 +39,11 @@ public class CollectionWrapper<V> extends AbstractWrapper<Void, V> implements Co
 		boolean result = false;
 		if (target != null)
 		{
-			result = target.addAll(helper.unproxy(arg0));
+			Collection<? extends V> values = helper.unproxy(arg0);
+			result = target.addAll(values);
 			if (result)
 			{
-				this.markDirty();
+				this.markAllAdded(values);
 			}
 		}
 		return result;
@@ -101,6 +103,7 @@ public class CollectionWrapper<V> extends AbstractWrapper<Void, V> implements Co
 		{
 			result = builder(this.target.iterator()) //
 					.dirtyMap(dirtyMap) //
+					.deltaMap(deltaMap) //
 					.setter(setter) //
 					.propertyMeta(propertyMeta) //
 					.helper(helper) //
@@ -115,10 +118,11 @@ public class CollectionWrapper<V> extends AbstractWrapper<Void, V> implements Co
 		boolean result = false;
 		if (target != null)
 		{
-			result = this.target.remove(helper.unproxy(arg0));
+			Object value = helper.unproxy(arg0);
+			result = this.target.remove(value);
 			if (result)
 			{
-				this.markDirty();
+				this.markRemoved(value);
 			}
 		}
 		return result;
@@ -217,6 +221,29 @@ public class CollectionWrapper<V> extends AbstractWrapper<Void, V> implements Co
 		return result;
 	}
 
+	/**
+	 * Record an element added to the collection. Unless overridden, the whole property is rewritten
+	 */
+	protected void markAdded(V value)
+	{
+		this.markDirty();
+	}
+
+	protected void markAllAdded(Collection<? extends V> values)
+	{
+		this.markDirty();
+	}
+
+	/**
+	 * Record an element removed from the collection. Unless overridden, the whole property is
+	 * 
+	 * rewritten
+	 */
+	protected void markRemoved(Object value)
+	{
+		this.markDirty();
+	}
+
 	public Collection<V> getTarget()
 	{
 		Collection<V> result = null;
@@ -5,6 +5,7 @@ import info.archinnov.achilles.composite.factory.CompositeKeyFactory;
 import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
 import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.type.CounterWideMap;
 import info.archinnov.achilles.entity.type.KeyValue;
 import info.archinnov.achilles.entity.type.KeyValueIterator;
 import info.archinnov.achilles.helper.CompositeHelper;
@@ -25,7 +26,8 @@ import me.prettyprint.hector.api.mutation.Mutator;
  * @author DuyHai DOAN
  * 
  */
-public class CounterWideMapWrapper<ID, K> extends AbstractWideMapWrapper<K, Long>
+public class CounterWideMapWrapper<ID, K> extends AbstractWideMapWrapper<K, Long> implements
+		CounterWideMap<K>
 {
 
 	protected ID id;
@@ -55,7 +57,6 @@ public class CounterWideMapWrapper<ID, K> extends AbstractWideMapWrapper<K, Long
 		throw new UnsupportedOperationException("Cannot insert counter value with ttl");
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void insert(K key, Long value)
 	{
@@ -65,8 +66,7 @@ public class CounterWideMapWrapper<ID, K> extends AbstractWideMapWrapper<K, Long
 
 		if (this.interceptor.isBatchMode())
 		{
-			counterDao.insertCounter(keyComp, comp, value,
-					(Mutator<Composite>) interceptor.getMutator());
+			counterDao.insertCounter(keyComp, comp, value, getCounterMutator());
 		}
 		else
 		{
@@ -74,6 +74,47 @@ public class CounterWideMapWrapper<ID, K> extends AbstractWideMapWrapper<K, Long
 		}
 	}
 
+	@Override
+	public void increment(K key)
+	{
+		increment(key, 1L);
+	}
+
+	@Override
+	public void increment(K key, long delta)
+	{
+		Composite keyComp = compositeKeyFactory.createKeyForCounter(fqcn, id, idMeta);
+		DynamicComposite comp = dynamicCompositeKeyFactory.createForInsert(propertyMeta, key);
+
+		if (this.interceptor.isBatchMode())
+		{
+			counterDao.incrementCounterBatch(keyComp, comp, delta, getCounterMutator());
+		}
+		else
+		{
+			counterDao.incrementCounter(keyComp, comp, delta);
+		}
+	}
+
+	@Override
+	public void decrement(K key)
+	{
+		increment(key, -1L);
+	}
+
+	@Override
+	public void decrement(K key, long delta)
+	{
+		increment(key, -delta);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Mutator<Composite> getCounterMutator()
+	{
+		return (Mutator<Composite>) interceptor.getMutatorForProperty(propertyMeta
+				.getPropertyName());
+	}
+
 	@Override
 	public List<KeyValue<K, Long>> find(K start, K end, int count, BoundingMode bounds,
 			OrderingMode ordering)
@@ -122,7 +163,7 @@ public class CounterWideMapWrapper<ID, K> extends AbstractWideMapWrapper<K, Long
 
 	@Override
 	public KeyValueIterator<K, Long> iterator(K start, K end, int count, BoundingMode bounds,
-			OrderingMode ordering)
+			OrderingMode ordering, int prefetchDepth)
 	{
 		Composite keyComp = compositeKeyFactory.createKeyForCounter(fqcn, id, idMeta);
 		DynamicComposite[] queryComps = dynamicCompositeKeyFactory.createForQuery( //
@@ -130,7 +171,7 @@ public class CounterWideMapWrapper<ID, K> extends AbstractWideMapWrapper<K, Long
 
 		AchillesCounterSliceIterator<Composite, DynamicComposite> columnSliceIterator = counterDao
 				.getCounterColumnsIterator(keyComp, queryComps[0], queryComps[1],
-						ordering.isReverse(), count);
+						ordering.isReverse(), count, prefetchDepth);
 
 		return iteratorFactory.createCounterKeyValueIteratorForDynamicComposite(
 				columnSliceIterator, propertyMeta);
@@ -16,6 +16,7 @@ public class EntryIteratorWrapper<K, V> extends AbstractWrapper<K, V> implements
 {
 
 	private Iterator<Entry<K, V>> target;
+	private K lastReturnedKey;
 
 	public EntryIteratorWrapper(Iterator<Entry<K, V>> target) {
 		this.target = target;
@@ -39,8 +40,10 @@ public class EntryIteratorWrapper<K, V> extends AbstractWrapper<K, V> implements
 		if (target != null)
 		{
 			Entry<K, V> entry = this.target.next();
+			lastReturnedKey = entry.getKey();
 			result = builder(entry) //
 					.dirtyMap(dirtyMap) //
+					.deltaMap(deltaMap) //
 					.setter(setter) //
 					.propertyMeta(propertyMeta) //
 					.helper(helper) //
@@ -56,7 +59,14 @@ public class EntryIteratorWrapper<K, V> extends AbstractWrapper<K, V> implements
 		if (target != null)
 		{
 			this.target.remove();
-			this.markDirty();
+			if (this.isDeltaTracked() && helper.hasValueHashCode(lastReturnedKey))
+			{
+				this.markDeleted(lastReturnedKey.hashCode());
+			}
+			else
+			{
+				this.markDirty();
+			}
 		}
 	}
 
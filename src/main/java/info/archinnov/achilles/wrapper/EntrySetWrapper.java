@@ -87,6 +87,7 @@ public class EntrySetWrapper<K, V> extends AbstractWrapper<K, V> implements Set<
 		{
 			result = builder(this.target.iterator()) //
 					.dirtyMap(dirtyMap) //
+					.deltaMap(deltaMap) //
 					.setter(setter) //
 					.propertyMeta(propertyMeta) //
 					.helper(helper) //
@@ -165,6 +166,7 @@ public class EntrySetWrapper<K, V> extends AbstractWrapper<K, V> implements Set<
 				{
 					array[i] = builder(entry) //
 							.dirtyMap(dirtyMap) //
+							.deltaMap(deltaMap) //
 							.setter(setter) //
 							.propertyMeta(propertyMeta) //
 							.helper(helper) //
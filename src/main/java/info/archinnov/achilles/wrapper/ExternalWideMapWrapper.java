@@ -98,12 +98,13 @@ public class ExternalWideMapWrapper<ID, K, V> extends AbstractWideMapWrapper<K,
     }
 
     @Override
-    public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds, OrderingMode ordering) {
+    public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds, OrderingMode ordering,
+            int prefetchDepth) {
 
         Composite[] composites = compositeKeyFactory.createForQuery(propertyMeta, start, end, bounds, ordering);
 
         AchillesSliceIterator<ID, Composite, V> columnSliceIterator = dao.getColumnsIterator(id, composites[0],
-                composites[1], ordering.isReverse(), count);
+                composites[1], ordering.isReverse(), count, prefetchDepth);
 
         return iteratorFactory.createKeyValueIteratorForComposite(columnSliceIterator, propertyMeta);
 
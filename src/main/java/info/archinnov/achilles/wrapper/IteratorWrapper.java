@@ -1,5 +1,8 @@
 package info.archinnov.achilles.wrapper;
 
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_SET;
+import static info.archinnov.achilles.entity.metadata.PropertyType.SET;
+
 import java.util.Iterator;
 
 /**
@@ -11,6 +14,7 @@ import java.util.Iterator;
 public class IteratorWrapper<V> extends AbstractWrapper<Void, V> implements Iterator<V>
 {
 	protected Iterator<V> target;
+	private V lastReturned;
 
 	public IteratorWrapper(Iterator<V> target) {
 		this.target = target;
@@ -25,14 +29,15 @@ public class IteratorWrapper<V> extends AbstractWrapper<Void, V> implements Iter
 	@Override
 	public V next()
 	{
+		lastReturned = this.target.next();
 		if (isJoin())
 		{
-			return helper.buildProxy(this.target.next(), joinMeta());
+			return helper.buildProxy(lastReturned, joinMeta());
 		}
 		else
 		{
 
-			return this.target.next();
+			return lastReturned;
 		}
 	}
 
@@ -40,6 +45,16 @@ public class IteratorWrapper<V> extends AbstractWrapper<Void, V> implements Iter
 	public void remove()
 	{
 		this.target.remove();
-		this.markDirty();
+
+		// Set elements are stored in the column of their hash
+		if ((propertyMeta.type() == SET || propertyMeta.type() == LAZY_SET)
+				&& helper.hasValueHashCode(lastReturned))
+		{
+			this.markDeleted(lastReturned.hashCode());
+		}
+		else
+		{
+			this.markDirty();
+		}
 	}
 }
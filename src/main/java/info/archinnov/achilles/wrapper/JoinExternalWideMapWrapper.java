@@ -120,11 +120,12 @@ public class JoinExternalWideMapWrapper<ID, JOIN_ID, K, V> extends AbstractWideM
     }
 
     @Override
-    public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds, OrderingMode ordering) {
+    public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds, OrderingMode ordering,
+            int prefetchDepth) {
         Composite[] composites = compositeKeyFactory.createForQuery(propertyMeta, start, end, bounds, ordering);
 
         AchillesJoinSliceIterator<ID, Composite, JOIN_ID, K, V> joinColumnSliceIterator = dao.getJoinColumnsIterator(
-                propertyMeta, id, composites[0], composites[1], ordering.isReverse(), count);
+                propertyMeta, id, composites[0], composites[1], ordering.isReverse(), count, prefetchDepth);
 
         return iteratorFactory.createKeyValueJoinIteratorForComposite(joinColumnSliceIterator, propertyMeta);
     }
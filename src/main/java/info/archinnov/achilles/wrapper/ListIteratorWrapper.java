@@ -12,6 +12,8 @@ public class ListIteratorWrapper<V> extends AbstractWrapper<Void, V> implements
 {
 
 	private ListIterator<V> target;
+	private boolean positionTracked = true;
+	private int lastReturnedIndex = -1;
 
 	public ListIteratorWrapper(ListIterator<V> target) {
 		this.target = target;
@@ -21,6 +23,7 @@ public class ListIteratorWrapper<V> extends AbstractWrapper<Void, V> implements
 	public void add(V e)
 	{
 		this.target.add(helper.unproxy(e));
+		lastReturnedIndex = -1;
 		this.markDirty();
 	}
 
@@ -39,6 +42,7 @@ public class ListIteratorWrapper<V> extends AbstractWrapper<Void, V> implements
 	@Override
 	public V next()
 	{
+		lastReturnedIndex = this.target.nextIndex();
 		if (isJoin())
 		{
 			return helper.buildProxy(this.target.next(), joinMeta());
@@ -58,6 +62,7 @@ public class ListIteratorWrapper<V> extends AbstractWrapper<Void, V> implements
 	@Override
 	public V previous()
 	{
+		lastReturnedIndex = this.target.previousIndex();
 		if (isJoin())
 		{
 			return helper.buildProxy(this.target.previous(), joinMeta());
@@ -78,6 +83,7 @@ public class ListIteratorWrapper<V> extends AbstractWrapper<Void, V> implements
 	public void remove()
 	{
 		this.target.remove();
+		lastReturnedIndex = -1;
 		this.markDirty();
 
 	}
@@ -85,9 +91,26 @@ public class ListIteratorWrapper<V> extends AbstractWrapper<Void, V> implements
 	@Override
 	public void set(V e)
 	{
-		this.target.set(helper.unproxy(e));
-		this.markDirty();
+		V value = helper.unproxy(e);
+		this.target.set(value);
+		if (positionTracked && value != null)
+		{
+			this.markInserted(lastReturnedIndex, value);
+		}
+		else
+		{
+			this.markDirty();
+		}
 
 	}
 
+	/**
+	 * Whether the iterator positions are the positions of the property columns, which is not the
+	 * 
+	 * case for iterators over a sub list
+	 */
+	void setPositionTracked(boolean positionTracked)
+	{
+		this.positionTracked = positionTracked;
+	}
 }
@@ -15,6 +15,8 @@ import java.util.ListIterator;
  */
 public class ListWrapper<V> extends CollectionWrapper<V> implements List<V>
 {
+	// Positions of a sub list are not the positions of the property columns
+	private boolean positionTracked = true;
 
 	public ListWrapper(List<V> target) {
 		super(target);
@@ -23,15 +25,29 @@ public class ListWrapper<V> extends CollectionWrapper<V> implements List<V>
 	@Override
 	public void add(int arg0, V arg1)
 	{
-		((List<V>) super.target).add(arg0, helper.unproxy(arg1));
-		super.markDirty();
+		V value = helper.unproxy(arg1);
+		((List<V>) super.target).add(arg0, value);
+		if (arg0 == super.target.size() - 1)
+		{
+			this.markAdded(value);
+		}
+		else
+		{
+			super.markDirty();
+		}
 	}
 
 	@Override
 	public boolean addAll(int arg0, Collection<? extends V> arg1)
 	{
-		boolean result = ((List<V>) super.target).addAll(arg0, helper.unproxy(arg1));
-		if (result)
+		boolean appended = arg0 == super.target.size();
+		Collection<? extends V> values = helper.unproxy(arg1);
+		boolean result = ((List<V>) super.target).addAll(arg0, values);
+		if (result && appended)
+		{
+			this.markAllAdded(values);
+		}
+		else if (result)
 		{
 			super.markDirty();
 		}
@@ -70,12 +86,7 @@ public class ListWrapper<V> extends CollectionWrapper<V> implements List<V>
 	{
 		ListIterator<V> target = ((List<V>) super.target).listIterator();
 
-		return builder(target) //
-				.dirtyMap(dirtyMap) //
-				.setter(setter) //
-				.propertyMeta(propertyMeta) //
-				.helper(helper) //
-				.build();
+		return this.buildListIterator(target);
 	}
 
 	@Override
@@ -83,27 +94,43 @@ public class ListWrapper<V> extends CollectionWrapper<V> implements List<V>
 	{
 		ListIterator<V> target = ((List<V>) super.target).listIterator(arg0);
 
-		return builder(target) //
+		return this.buildListIterator(target);
+	}
+
+	private ListIterator<V> buildListIterator(ListIterator<V> target)
+	{
+		ListIteratorWrapper<V> listIterator = builder(target) //
 				.dirtyMap(dirtyMap) //
+				.deltaMap(deltaMap) //
 				.setter(setter) //
 				.propertyMeta(propertyMeta) //
 				.helper(helper) //
 				.build();
+		listIterator.setPositionTracked(positionTracked);
+		return listIterator;
 	}
 
 	@Override
 	public V remove(int arg0)
 	{
 		V result = ((List<V>) super.target).remove(arg0);
-		super.markDirty();
+		if (positionTracked && arg0 == super.target.size())
+		{
+			super.markDeleted(arg0);
+		}
+		else
+		{
+			super.markDirty();
+		}
 		return result;
 	}
 
 	@Override
 	public V set(int arg0, V arg1)
 	{
-		V result = ((List<V>) super.target).set(arg0, helper.unproxy(arg1));
-		super.markDirty();
+		V value = helper.unproxy(arg1);
+		V result = ((List<V>) super.target).set(arg0, value);
+		this.markSet(arg0, value);
 		return result;
 	}
 
@@ -112,12 +139,61 @@ public class ListWrapper<V> extends CollectionWrapper<V> implements List<V>
 	{
 		List<V> target = ((List<V>) super.target).subList(arg0, arg1);
 
-		return builder(target) //
+		ListWrapper<V> subList = builder(target) //
 				.dirtyMap(dirtyMap) //
+				.deltaMap(deltaMap) //
 				.setter(setter) //
 				.propertyMeta(propertyMeta) //
 				.helper(helper) //
 				.build();
+		subList.positionTracked = false;
+		return subList;
+	}
+
+	/**
+	 * Elements are stored in the column of their position. Only appended elements can be tracked,
+	 * 
+	 * other additions shift the following elements
+	 */
+	@Override
+	protected void markAdded(V value)
+	{
+		this.markSet(super.target.size() - 1, value);
+	}
+
+	@Override
+	protected void markAllAdded(Collection<? extends V> values)
+	{
+		if (positionTracked && super.isDeltaTracked())
+		{
+			int position = super.target.size() - values.size();
+			for (V value : values)
+			{
+				this.markSet(position++, value);
+			}
+		}
+		else
+		{
+			super.markDirty();
+		}
+	}
+
+	@Override
+	protected void markRemoved(Object value)
+	{
+		super.markDirty();
+	}
+
+	private void markSet(int position, V value)
+	{
+		if (positionTracked && value != null)
+		{
+			super.markInserted(position, value);
+		}
+		else
+		{
+			super.markDirty();
+		}
 	}
 
 	@Override
@@ -1,5 +1,7 @@
 package info.archinnov.achilles.wrapper;
 
+import info.archinnov.achilles.entity.type.KeyValue;
+
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -40,8 +42,17 @@ public class MapEntryWrapper<K, V> extends AbstractWrapper<K, V> implements Map.
 	@Override
 	public V setValue(V value)
 	{
-		V result = this.target.setValue(helper.unproxy(value));
-		this.markDirty();
+		V unproxy = helper.unproxy(value);
+		V result = this.target.setValue(unproxy);
+		K key = this.target.getKey();
+		if (helper.hasValueHashCode(key))
+		{
+			this.markInserted(key.hashCode(), new KeyValue<K, V>(key, unproxy));
+		}
+		else
+		{
+			this.markDirty();
+		}
 		return result;
 	}
 
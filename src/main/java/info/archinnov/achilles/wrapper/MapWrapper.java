@@ -4,6 +4,7 @@ import static info.archinnov.achilles.wrapper.builder.EntrySetWrapperBuilder.bui
 import static info.archinnov.achilles.wrapper.builder.KeySetWrapperBuilder.builder;
 import static info.archinnov.achilles.wrapper.builder.ValueCollectionWrapperBuilder.builder;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.type.KeyValue;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -62,6 +63,7 @@ public class MapWrapper<K, V> extends AbstractWrapper<K, V> implements Map<K, V>
 		if (targetEntrySet.size() > 0)
 		{
 			EntrySetWrapper<K, V> wrapperSet = builder(targetEntrySet).dirtyMap(dirtyMap) //
+					.deltaMap(deltaMap) //
 					.setter(setter) //
 					.propertyMeta(propertyMeta) //
 					.helper(helper) //
@@ -103,6 +105,7 @@ public class MapWrapper<K, V> extends AbstractWrapper<K, V> implements Map<K, V>
 		{
 			KeySetWrapper<K> keySetWrapper = builder(keySet) //
 					.dirtyMap(dirtyMap) //
+					.deltaMap(deltaMap) //
 					.setter(setter) //
 					.propertyMeta((PropertyMeta) propertyMeta) //
 					.helper(helper) //
@@ -115,8 +118,9 @@ public class MapWrapper<K, V> extends AbstractWrapper<K, V> implements Map<K, V>
 	@Override
 	public V put(K key, V value)
 	{
-		V result = this.target.put(key, helper.unproxy(value));
-		this.markDirty();
+		V unproxy = helper.unproxy(value);
+		V result = this.target.put(key, unproxy);
+		this.markPut(key, unproxy);
 		return result;
 	}
 
@@ -129,7 +133,17 @@ public class MapWrapper<K, V> extends AbstractWrapper<K, V> implements Map<K, V>
 			map.put(entry.getKey(), helper.unproxy(entry.getValue()));
 		}
 		this.target.putAll(map);
-		this.markDirty();
+		if (this.isDeltaTracked())
+		{
+			for (Entry<K, V> entry : map.entrySet())
+			{
+				this.markPut(entry.getKey(), entry.getValue());
+			}
+		}
+		else
+		{
+			this.markDirty();
+		}
 	}
 
 	@Override
@@ -138,7 +152,14 @@ public class MapWrapper<K, V> extends AbstractWrapper<K, V> implements Map<K, V>
 		Object unproxy = helper.unproxy(key);
 		if (this.target.containsKey(unproxy))
 		{
-			this.markDirty();
+			if (helper.hasValueHashCode(unproxy))
+			{
+				this.markDeleted(unproxy.hashCode());
+			}
+			else
+			{
+				this.markDirty();
+			}
 		}
 		return this.target.remove(unproxy);
 	}
@@ -163,6 +184,7 @@ public class MapWrapper<K, V> extends AbstractWrapper<K, V> implements Map<K, V>
 		{
 			ValueCollectionWrapper<V> collectionWrapper = builder(values) //
 					.dirtyMap(dirtyMap) //
+					.deltaMap(deltaMap) //
 					.setter(setter) //
 					.propertyMeta((PropertyMeta) propertyMeta) //
 					.helper(helper) //
@@ -172,6 +194,21 @@ public class MapWrapper<K, V> extends AbstractWrapper<K, V> implements Map<K, V>
 		return values;
 	}
 
+	/**
+	 * Entries are stored in the column of their key hash
+	 */
+	private void markPut(K key, V value)
+	{
+		if (helper.hasValueHashCode(key))
+		{
+			this.markInserted(key.hashCode(), new KeyValue<K, V>(key, value));
+		}
+		else
+		{
+			this.markDirty();
+		}
+	}
+
 	public Map<K, V> getTarget()
 	{
 		return target;
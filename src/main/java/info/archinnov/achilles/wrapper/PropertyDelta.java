@@ -0,0 +1,56 @@
+package info.archinnov.achilles.wrapper;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PropertyDelta
+ * 
+ * Changes made through the wrappers of a list, set or map property since the last merge, by
+ * 
+ * column: list position, set value hash or map key hash. The last change of a column wins
+ * 
+ * Insertions hold the value to write, which is the element for lists and sets and the key/value
+ * 
+ * pair for maps
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class PropertyDelta
+{
+	private final Map<Integer, Object> insertions = new LinkedHashMap<Integer, Object>();
+	private final Set<Integer> deletions = new LinkedHashSet<Integer>();
+
+	public void insert(int hashOrPosition, Object value)
+	{
+		deletions.remove(hashOrPosition);
+		insertions.put(hashOrPosition, value);
+	}
+
+	public void delete(int hashOrPosition)
+	{
+		insertions.remove(hashOrPosition);
+		deletions.add(hashOrPosition);
+	}
+
+	public Map<Integer, Object> getInsertions()
+	{
+		return insertions;
+	}
+
+	public Set<Integer> getDeletions()
+	{
+		return deletions;
+	}
+
+	/**
+	 * Number of columns to write or delete
+	 */
+	public int size()
+	{
+		return insertions.size() + deletions.size();
+	}
+}
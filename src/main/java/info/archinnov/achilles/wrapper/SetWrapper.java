@@ -1,5 +1,6 @@
 package info.archinnov.achilles.wrapper;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -15,6 +16,51 @@ public class SetWrapper<E> extends CollectionWrapper<E> implements Set<E>
 		super(target);
 	}
 
+	/**
+	 * Elements are stored in the column of their hash
+	 */
+	@Override
+	protected void markAdded(E value)
+	{
+		if (helper.hasValueHashCode(value))
+		{
+			super.markInserted(value.hashCode(), value);
+		}
+		else
+		{
+			super.markDirty();
+		}
+	}
+
+	@Override
+	protected void markAllAdded(Collection<? extends E> values)
+	{
+		if (super.isDeltaTracked())
+		{
+			for (E value : values)
+			{
+				this.markAdded(value);
+			}
+		}
+		else
+		{
+			super.markDirty();
+		}
+	}
+
+	@Override
+	protected void markRemoved(Object value)
+	{
+		if (helper.hasValueHashCode(value))
+		{
+			super.markDeleted(value.hashCode());
+		}
+		else
+		{
+			super.markDirty();
+		}
+	}
+
 	@Override
 	public Set<E> getTarget()
 	{
@@ -120,7 +120,8 @@ public class WideMapWrapper<ID, K, V> extends AbstractWideMapWrapper<K, V> {
     }
 
     @Override
-    public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds, OrderingMode ordering) {
+    public KeyValueIterator<K, V> iterator(K start, K end, int count, BoundingMode bounds, OrderingMode ordering,
+            int prefetchDepth) {
 
         DynamicComposite[] queryComps = keyFactory.createForQuery( //
                 propertyMeta, start, end, bounds, ordering);
@@ -128,7 +129,8 @@ public class WideMapWrapper<ID, K, V> extends AbstractWideMapWrapper<K, V> {
         if (propertyMeta.isJoin()) {
 
             AchillesJoinSliceIterator<ID, DynamicComposite, String, K, V> joinColumnSliceIterator = entityDao
-                    .getJoinColumnsIterator(propertyMeta, id, queryComps[0], queryComps[1], ordering.isReverse(), count);
+                    .getJoinColumnsIterator(propertyMeta, id, queryComps[0], queryComps[1], ordering.isReverse(), count,
+                            prefetchDepth);
 
             return iteratorFactory.createKeyValueJoinIteratorForDynamicComposite(joinColumnSliceIterator,
                     propertyMeta);
@@ -136,7 +138,7 @@ public class WideMapWrapper<ID, K, V> extends AbstractWideMapWrapper<K, V> {
         } else {
 
             AchillesSliceIterator<ID, DynamicComposite, String> columnSliceIterator = entityDao.getColumnsIterator(
-                    id, queryComps[0], queryComps[1], ordering.isReverse(), count);
+                    id, queryComps[0], queryComps[1], ordering.isReverse(), count, prefetchDepth);
 
             return iteratorFactory.createKeyValueIteratorForDynamicComposite(columnSliceIterator, propertyMeta);
         }
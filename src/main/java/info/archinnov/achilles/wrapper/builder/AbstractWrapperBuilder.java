@@ -3,6 +3,7 @@ package info.archinnov.achilles.wrapper.builder;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.wrapper.AbstractWrapper;
+import info.archinnov.achilles.wrapper.PropertyDelta;
 
 import java.lang.reflect.Method;
 import java.util.Map;
@@ -17,6 +18,7 @@ import java.util.Map;
 public abstract class AbstractWrapperBuilder<T extends AbstractWrapperBuilder<T, K, V>, K, V>
 {
 	private Map<Method, PropertyMeta<?, ?>> dirtyMap;
+	private Map<Method, PropertyDelta> deltaMap;
 	private Method setter;
 	private PropertyMeta<K, V> propertyMeta;
 	private EntityHelper helper;
@@ -27,6 +29,12 @@ public abstract class AbstractWrapperBuilder<T extends AbstractWrapperBuilder<T,
 		return (T) this;
 	}
 
+	public T deltaMap(Map<Method, PropertyDelta> deltaMap)
+	{
+		this.deltaMap = deltaMap;
+		return (T) this;
+	}
+
 	public T setter(Method setter)
 	{
 		this.setter = setter;
@@ -48,6 +56,7 @@ public abstract class AbstractWrapperBuilder<T extends AbstractWrapperBuilder<T,
 	public void build(AbstractWrapper<K, V> wrapper)
 	{
 		wrapper.setDirtyMap(dirtyMap);
+		wrapper.setDeltaMap(deltaMap);
 		wrapper.setSetter(setter);
 		wrapper.setPropertyMeta(propertyMeta);
 		wrapper.setHelper(helper);
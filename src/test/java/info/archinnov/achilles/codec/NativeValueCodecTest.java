@@ -0,0 +1,98 @@
+package info.archinnov.achilles.codec;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.entity.type.ConsistencyLevel;
+import info.archinnov.achilles.entity.type.KeyValue;
+
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.UUID;
+
+import mapping.entity.UserBean;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+/**
+ * NativeValueCodecTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class NativeValueCodecTest
+{
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	private NativeValueCodec codec = new NativeValueCodec(objectMapper);
+
+	@Test
+	public void should_encode_native_types_as_plain_text() throws Exception
+	{
+		UUID uuid = new UUID(10L, 11L);
+
+		assertThat(codec.encode(123L)).isEqualTo("123");
+		assertThat(codec.encode(1.5d)).isEqualTo("1.5");
+		assertThat(codec.encode(true)).isEqualTo("true");
+		assertThat(codec.encode('c')).isEqualTo("c");
+		assertThat(codec.encode(new BigInteger("123456789123456789"))).isEqualTo(
+				"123456789123456789");
+		assertThat(codec.encode(uuid)).isEqualTo(uuid.toString());
+		assertThat(codec.encode(new Date(1000L))).isEqualTo("1000");
+		assertThat(codec.encode(ConsistencyLevel.QUORUM)).isEqualTo("QUORUM");
+	}
+
+	@Test
+	public void should_decode_native_types() throws Exception
+	{
+		UUID uuid = new UUID(10L, 11L);
+
+		assertThat(codec.decode("123", Long.class)).isEqualTo(123L);
+		assertThat(codec.decode("12", int.class)).isEqualTo(12);
+		assertThat(codec.decode("1.5", Double.class)).isEqualTo(1.5d);
+		assertThat(codec.decode("true", boolean.class)).isTrue();
+		assertThat(codec.decode("c", Character.class)).isEqualTo('c');
+		assertThat(codec.decode(uuid.toString(), UUID.class)).isEqualTo(uuid);
+		assertThat(codec.decode("1000", Date.class)).isEqualTo(new Date(1000L));
+		assertThat(codec.decode("QUORUM", ConsistencyLevel.class)).isSameAs(
+				ConsistencyLevel.QUORUM);
+	}
+
+	@Test
+	public void should_decode_values_written_as_json() throws Exception
+	{
+		UUID uuid = new UUID(10L, 11L);
+
+		assertThat(codec.decode(objectMapper.writeValueAsString(uuid), UUID.class)).isEqualTo(
+				uuid);
+		assertThat(codec.decode(objectMapper.writeValueAsString('"'), Character.class))
+				.isEqualTo('"');
+		assertThat(codec.decode(objectMapper.writeValueAsString(ConsistencyLevel.ONE),
+				ConsistencyLevel.class)).isSameAs(ConsistencyLevel.ONE);
+		assertThat(codec.decode(objectMapper.writeValueAsString(new Date(1000L)), Date.class))
+				.isEqualTo(new Date(1000L));
+		assertThat(codec.decode("null", Long.class)).isNull();
+	}
+
+	@Test
+	public void should_keep_strings_unchanged() throws Exception
+	{
+		assertThat(codec.encode("\"quoted\"")).isEqualTo("\"quoted\"");
+		assertThat(codec.decode("\"quoted\"", String.class)).isEqualTo("\"quoted\"");
+	}
+
+	@Test
+	public void should_encode_other_types_as_json() throws Exception
+	{
+		UserBean user = new UserBean();
+		user.setUserId(12L);
+		user.setName("user");
+		KeyValue<Integer, UUID> keyValue = new KeyValue<Integer, UUID>(1, new UUID(10L, 11L));
+
+		String userText = codec.encode(user);
+		String keyValueText = codec.encode(keyValue);
+
+		assertThat(userText).isEqualTo(objectMapper.writeValueAsString(user));
+		assertThat(codec.decode(userText, UserBean.class).getName()).isEqualTo("user");
+		assertThat(keyValueText).isEqualTo(objectMapper.writeValueAsString(keyValue));
+	}
+}
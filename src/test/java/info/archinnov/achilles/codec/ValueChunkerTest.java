@@ -0,0 +1,56 @@
+package info.archinnov.achilles.codec;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * ValueChunkerTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ValueChunkerTest
+{
+	private ValueChunker chunker = new ValueChunker(4);
+
+	@Test
+	public void should_split_long_value() throws Exception
+	{
+		assertThat(chunker.isSplit("abcdefghij")).isTrue();
+		assertThat(chunker.split("abcdefghij")).containsExactly("abcd", "efgh", "ij");
+		assertThat(chunker.split("abcdefgh")).containsExactly("abcd", "efgh");
+	}
+
+	@Test
+	public void should_not_split_short_value() throws Exception
+	{
+		assertThat(chunker.isSplit("abcd")).isFalse();
+		assertThat(chunker.isSplit("")).isFalse();
+		assertThat(chunker.isSplit(null)).isFalse();
+	}
+
+	@Test
+	public void should_write_and_parse_whole_head() throws Exception
+	{
+		String wholeHead = ValueChunker.wholeHead(1362045600000000L, ValueChunker.HEADER + "a:b");
+
+		assertThat(ValueChunker.isChunkHead(wholeHead)).isTrue();
+		assertThat(ValueChunker.parseGeneration(wholeHead)).isEqualTo(1362045600000000L);
+		assertThat(ValueChunker.parseChunkCount(wholeHead)).isEqualTo(0);
+		assertThat(ValueChunker.parseWholeText(wholeHead)).isEqualTo(ValueChunker.HEADER + "a:b");
+		assertThat(ValueChunker.parseWholeText(ValueChunker.chunkHead(1L, 0))).isEmpty();
+	}
+
+	@Test
+	public void should_write_and_parse_chunk_head() throws Exception
+	{
+		String chunkHead = ValueChunker.chunkHead(1362045600000000L, 12);
+
+		assertThat(ValueChunker.isChunkHead(chunkHead)).isTrue();
+		assertThat(ValueChunker.parseGeneration(chunkHead)).isEqualTo(1362045600000000L);
+		assertThat(ValueChunker.parseChunkCount(chunkHead)).isEqualTo(12);
+		assertThat(ValueChunker.isChunkHead("12")).isFalse();
+		assertThat(ValueChunker.isChunkHead(null)).isFalse();
+	}
+}
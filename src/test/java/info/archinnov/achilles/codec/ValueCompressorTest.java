@@ -0,0 +1,58 @@
+package info.archinnov.achilles.codec;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+/**
+ * ValueCompressorTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ValueCompressorTest
+{
+	private ValueCompressor compressor = new ValueCompressor(100);
+
+	@Test
+	public void should_compress_value_above_threshold() throws Exception
+	{
+		String text = "[" + StringUtils.repeat("\"Cassandra é\",", 200) + "\"end\"]";
+
+		String compressed = compressor.compress(text);
+
+		assertThat(compressed.length()).isLessThan(text.length() / 5);
+		assertThat(compressed).startsWith(ValueCompressor.HEADER);
+		assertThat(ValueCompressor.isCompressed(compressed)).isTrue();
+		assertThat(ValueCompressor.decompress(compressed)).isEqualTo(text);
+	}
+
+	@Test
+	public void should_not_compress_value_below_threshold() throws Exception
+	{
+		String text = StringUtils.repeat("a", 99);
+
+		assertThat(compressor.compress(text)).isSameAs(text);
+		assertThat(compressor.compress(null)).isNull();
+	}
+
+	@Test
+	public void should_not_compress_value_when_not_shorter() throws Exception
+	{
+		String text = RandomStringUtils.randomAlphanumeric(200);
+
+		assertThat(compressor.compress(text)).isSameAs(text);
+	}
+
+	@Test
+	public void should_return_uncompressed_value_unchanged() throws Exception
+	{
+		assertThat(ValueCompressor.decompress("{\"name\":\"test\"}")).isEqualTo(
+				"{\"name\":\"test\"}");
+		assertThat(ValueCompressor.decompress("")).isEmpty();
+		assertThat(ValueCompressor.decompress(null)).isNull();
+		assertThat(ValueCompressor.decompress("\u0000text")).isEqualTo("\u0000text");
+	}
+}
@@ -57,6 +57,7 @@ public abstract class CassandraDaoTest
 
 	public static final Logger log = LoggerFactory.getLogger(CassandraDaoTest.class);
 
+	private static ThriftEntityManagerFactoryImpl factory;
 	private static ThriftEntityManager em;
 
 	static
@@ -106,7 +107,7 @@ public abstract class CassandraDaoTest
 				CLUSTER_PARAM, getCluster(), KEYSPACE_PARAM, getKeyspace(),
 				FORCE_CF_CREATION_PARAM, true);
 
-		ThriftEntityManagerFactoryImpl factory = new ThriftEntityManagerFactoryImpl(configMap);
+		factory = new ThriftEntityManagerFactoryImpl(configMap);
 		em = (ThriftEntityManager) factory.createEntityManager();
 	}
 
@@ -138,6 +139,11 @@ public abstract class CassandraDaoTest
 		return keyspace;
 	}
 
+	public static ThriftEntityManagerFactoryImpl getEntityManagerFactory()
+	{
+		return factory;
+	}
+
 	public static ThriftEntityManager getEm()
 	{
 		return em;
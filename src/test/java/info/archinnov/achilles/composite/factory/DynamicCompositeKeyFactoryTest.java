@@ -15,6 +15,7 @@ import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEqualit
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.MultiKeyProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
@@ -195,6 +196,24 @@ public class DynamicCompositeKeyFactoryTest
 		assertThat(comp.getComponent(1).getEquality()).isSameAs(GREATER_THAN_EQUAL);
 	}
 
+	@Test
+	public void should_create_query_bounds_once() throws Exception
+	{
+		PropertyMeta<Void, String> meta = new PropertyMeta<Void, String>();
+		meta.setPropertyName("friends");
+		meta.setType(LIST);
+
+		Pair<DynamicComposite, DynamicComposite> bounds = keyFactory.createBoundsForQuery(meta);
+
+		assertThat(bounds.left.getComponent(1).getValue()).isEqualTo("friends");
+		assertThat(bounds.left.getComponent(1).getEquality()).isSameAs(EQUAL);
+		assertThat(bounds.right.getComponent(1).getValue()).isEqualTo("friends");
+		assertThat(bounds.right.getComponent(1).getEquality()).isSameAs(GREATER_THAN_EQUAL);
+		assertThat(keyFactory.createBoundsForQuery(meta)).isSameAs(bounds);
+		assertThat(bounds.left.serialize()).isEqualTo(
+				keyFactory.createBaseForQuery(meta, EQUAL).serialize());
+	}
+
 	@Test
 	public void should_create_for_query_with_value() throws Exception
 	{
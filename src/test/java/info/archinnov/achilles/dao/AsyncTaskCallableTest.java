@@ -0,0 +1,55 @@
+package info.archinnov.achilles.dao;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+/**
+ * AsyncTaskCallableTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class AsyncTaskCallableTest
+{
+
+	@Test
+	public void should_flag_thread_running_async_task() throws Exception
+	{
+		Boolean running = new AsyncTaskCallable<Boolean>(new Callable<Boolean>()
+		{
+			@Override
+			public Boolean call()
+			{
+				return AsyncTaskCallable.isRunningAsyncTask();
+			}
+		}).call();
+
+		assertThat(running).isTrue();
+		assertThat(AsyncTaskCallable.isRunningAsyncTask()).isFalse();
+	}
+
+	@Test
+	public void should_restore_flag_when_task_fails() throws Exception
+	{
+		try
+		{
+			new AsyncTaskCallable<Void>(new Callable<Void>()
+			{
+				@Override
+				public Void call()
+				{
+					throw new IllegalStateException("failure");
+				}
+			}).call();
+		}
+		catch (IllegalStateException e)
+		{
+			// expected
+		}
+
+		assertThat(AsyncTaskCallable.isRunningAsyncTask()).isFalse();
+	}
+}
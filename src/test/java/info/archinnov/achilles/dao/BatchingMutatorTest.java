@@ -0,0 +1,236 @@
+package info.archinnov.achilles.dao;
+
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
+import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.exception.AchillesException;
+import info.archinnov.achilles.exception.MutationBatchException;
+import info.archinnov.achilles.exception.MutationBatchException.FailedChunk;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.prettyprint.cassandra.model.ExecutingKeyspace;
+import me.prettyprint.cassandra.model.ExecutionResult;
+import me.prettyprint.cassandra.service.Operation;
+import me.prettyprint.hector.api.exceptions.HTimedOutException;
+import me.prettyprint.hector.api.factory.HFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+/**
+ * BatchingMutatorTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingMutatorTest
+{
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+
+	@Mock
+	private ExecutingKeyspace keyspace;
+
+	private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private AtomicInteger executions = new AtomicInteger();
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp()
+	{
+		when(keyspace.doExecuteOperation(any(Operation.class))).thenAnswer(
+				new Answer<ExecutionResult<Void>>()
+				{
+					@Override
+					public ExecutionResult<Void> answer(InvocationOnMock invocation)
+					{
+						executions.incrementAndGet();
+						return new ExecutionResult<Void>(null, 10L, null);
+					}
+				});
+	}
+
+	@After
+	public void tearDown()
+	{
+		executor.shutdown();
+	}
+
+	@Test
+	public void should_split_by_column_count() throws Exception
+	{
+		BatchingMutator<Long> mutator = buildMutator(3, 1000000, 1);
+
+		for (int i = 0; i < 7; i++)
+		{
+			mutator.addInsertion(10L, "cf", HFactory.createStringColumn("name" + i, "value"));
+		}
+
+		assertThat(mutator.getPendingMutationCount()).isEqualTo(7);
+		assertThat(mutator.getPendingChunkCount()).isEqualTo(3);
+
+		mutator.execute();
+
+		assertThat(executions.get()).isEqualTo(3);
+		assertThat(mutator.getPendingMutationCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_split_by_byte_size() throws Exception
+	{
+		BatchingMutator<Long> mutator = buildMutator(1000, 100, 1);
+		char[] chars = new char[20];
+		Arrays.fill(chars, 'a');
+		String largeValue = new String(chars);
+
+		for (int i = 0; i < 5; i++)
+		{
+			mutator.addInsertion(10L, "cf", HFactory.createStringColumn("name" + i, largeValue));
+		}
+
+		// 8 bytes of key + 5 bytes of name + 20 bytes of value per column
+		assertThat(mutator.getPendingChunkCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void should_count_each_key_of_row_deletions() throws Exception
+	{
+		BatchingMutator<Long> mutator = buildMutator(2, 1000000, 1);
+
+		mutator.addDeletion(Arrays.asList(1L, 2L, 3L, 4L, 5L), "cf");
+
+		assertThat(mutator.getPendingMutationCount()).isEqualTo(5);
+		assertThat(mutator.getPendingChunkCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void should_execute_single_chunk_in_calling_thread() throws Exception
+	{
+		MutationBatchingPolicy policy = new MutationBatchingPolicy(10, 1000000, 4);
+		BatchingMutator<Long> mutator = new BatchingMutator<Long>(keyspace, LONG_SRZ, policy,
+				executor);
+		mutator.addInsertion(10L, "cf", HFactory.createStringColumn("name", "value"));
+
+		mutator.execute();
+
+		assertThat(executions.get()).isEqualTo(1);
+		assertThat(policy.getBatchCount()).isEqualTo(1L);
+		assertThat(policy.getSplitBatchCount()).isEqualTo(0L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_execute_chunks_in_parallel_on_given_keyspace() throws Exception
+	{
+		MutationBatchingPolicy policy = new MutationBatchingPolicy(2, 1000000, 3);
+		BatchingMutator<Long> mutator = new BatchingMutator<Long>(keyspace, LONG_SRZ, policy,
+				executor);
+		for (int i = 0; i < 20; i++)
+		{
+			mutator.addInsertion((long) i, "cf", HFactory.createStringColumn("name", "value"));
+		}
+
+		mutator.execute();
+
+		assertThat(executions.get()).isEqualTo(10);
+		verify(keyspace, times(10)).doExecuteOperation(any(Operation.class));
+		assertThat(policy.getSplitBatchCount()).isEqualTo(1L);
+		assertThat(policy.getChunkCount()).isEqualTo(10L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_report_failed_chunks() throws Exception
+	{
+		doAnswer(new Answer<ExecutionResult<Void>>()
+		{
+			@Override
+			public ExecutionResult<Void> answer(InvocationOnMock invocation)
+			{
+				if (executions.incrementAndGet() == 2)
+				{
+					throw new HTimedOutException("timeout");
+				}
+				return new ExecutionResult<Void>(null, 10L, null);
+			}
+		}).when(keyspace).doExecuteOperation(any(Operation.class));
+		MutationBatchingPolicy policy = new MutationBatchingPolicy(2, 1000000, 1);
+		BatchingMutator<Long> mutator = new BatchingMutator<Long>(keyspace, LONG_SRZ, policy,
+				executor);
+		for (int i = 0; i < 5; i++)
+		{
+			mutator.addInsertion(10L, "cf",
+					HFactory.createColumn("name" + i, "value", STRING_SRZ, STRING_SRZ));
+		}
+
+		MutationBatchException batchException = null;
+		try
+		{
+			mutator.execute();
+		}
+		catch (MutationBatchException e)
+		{
+			batchException = e;
+		}
+
+		assertThat(batchException).isNotNull();
+		assertThat(batchException.getChunkCount()).isEqualTo(3);
+		assertThat(batchException.getWrittenChunkCount()).isEqualTo(2);
+		assertThat(batchException.getFailedChunks()).hasSize(1);
+		FailedChunk failedChunk = batchException.getFailedChunks().get(0);
+		assertThat(failedChunk.getChunkIndex()).isEqualTo(1);
+		assertThat(failedChunk.getFirstMutationIndex()).isEqualTo(2);
+		assertThat(failedChunk.getMutationCount()).isEqualTo(2);
+		assertThat(failedChunk.getCause()).isInstanceOf(HTimedOutException.class);
+		assertThat(batchException.getMessage()).startsWith(
+				"1 of 3 mutation chunks failed to be written");
+		assertThat(executions.get()).isEqualTo(3);
+		assertThat(policy.getFailedChunkCount()).isEqualTo(1L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_not_batch_immediate_mutations() throws Exception
+	{
+		BatchingMutator<Long> mutator = buildMutator(2, 1000000, 1);
+
+		mutator.insert(10L, "cf", HFactory.createStringColumn("name", "value"));
+
+		assertThat(mutator.getPendingMutationCount()).isEqualTo(0);
+		verify(keyspace, times(1)).doExecuteOperation(any(Operation.class));
+	}
+
+	@Test
+	public void should_exception_when_parallelism_not_positive() throws Exception
+	{
+		exception.expect(AchillesException.class);
+		exception.expectMessage("Mutation batch parallelism should be strictly positive");
+
+		new MutationBatchingPolicy(10, 10, 0);
+	}
+
+	private BatchingMutator<Long> buildMutator(int maxColumns, long maxBytes, int parallelism)
+	{
+		return new BatchingMutator<Long>(keyspace, LONG_SRZ, new MutationBatchingPolicy(
+				maxColumns, maxBytes, parallelism), executor);
+	}
+}
@@ -0,0 +1,57 @@
+package info.archinnov.achilles.dao;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.entity.type.ConsistencyLevel;
+import me.prettyprint.hector.api.HConsistencyLevel;
+
+import org.junit.Test;
+
+/**
+ * ConsistencyContextTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ConsistencyContextTest
+{
+
+	@Test
+	public void should_resolve_column_family_levels_by_default() throws Exception
+	{
+		ConsistencyContext context = ConsistencyContext.DEFAULT;
+
+		assertThat(context.resolveReadLevel(HConsistencyLevel.ONE)).isEqualTo(
+				HConsistencyLevel.ONE);
+		assertThat(context.resolveWriteLevel(HConsistencyLevel.ALL)).isEqualTo(
+				HConsistencyLevel.ALL);
+	}
+
+	@Test
+	public void should_override_read_level() throws Exception
+	{
+		ConsistencyContext context = ConsistencyContext.forRead(ConsistencyLevel.EACH_QUORUM);
+
+		assertThat(context.resolveReadLevel(HConsistencyLevel.ONE)).isEqualTo(
+				HConsistencyLevel.EACH_QUORUM);
+		assertThat(context.resolveWriteLevel(HConsistencyLevel.ONE)).isEqualTo(
+				HConsistencyLevel.ONE);
+	}
+
+	@Test
+	public void should_override_write_level() throws Exception
+	{
+		ConsistencyContext context = ConsistencyContext.forWrite(ConsistencyLevel.LOCAL_QUORUM);
+
+		assertThat(context.resolveReadLevel(HConsistencyLevel.ONE)).isEqualTo(
+				HConsistencyLevel.ONE);
+		assertThat(context.resolveWriteLevel(HConsistencyLevel.ONE)).isEqualTo(
+				HConsistencyLevel.LOCAL_QUORUM);
+	}
+
+	@Test
+	public void should_return_default_context_when_no_level() throws Exception
+	{
+		assertThat(ConsistencyContext.forRead(null)).isSameAs(ConsistencyContext.DEFAULT);
+		assertThat(ConsistencyContext.forWrite(null)).isSameAs(ConsistencyContext.DEFAULT);
+	}
+}
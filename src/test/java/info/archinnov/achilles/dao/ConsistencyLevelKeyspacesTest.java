@@ -0,0 +1,83 @@
+package info.archinnov.achilles.dao;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import me.prettyprint.cassandra.connection.HConnectionManager;
+import me.prettyprint.cassandra.model.ExecutingKeyspace;
+import me.prettyprint.cassandra.service.FailoverPolicy;
+import me.prettyprint.cassandra.service.OperationType;
+import me.prettyprint.cassandra.service.ThriftCluster;
+import me.prettyprint.hector.api.ConsistencyLevelPolicy;
+import me.prettyprint.hector.api.HConsistencyLevel;
+import me.prettyprint.hector.api.Keyspace;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * ConsistencyLevelKeyspacesTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ConsistencyLevelKeyspacesTest
+{
+	@Mock
+	private ExecutingKeyspace keyspace;
+
+	@Mock
+	private ThriftCluster cluster;
+
+	@Mock
+	private HConnectionManager connectionManager;
+
+	@Test
+	public void should_map_all_levels_to_keyspace_without_cluster() throws Exception
+	{
+		ConsistencyLevelKeyspaces keyspaces = new ConsistencyLevelKeyspaces(keyspace);
+
+		assertThat(keyspaces.get(HConsistencyLevel.ONE)).isSameAs(keyspace);
+		assertThat(keyspaces.get(HConsistencyLevel.ALL)).isSameAs(keyspace);
+		assertThat(keyspaces.get(null)).isSameAs(keyspace);
+	}
+
+	@Test
+	public void should_create_one_keyspace_per_level() throws Exception
+	{
+		when(keyspace.getKeyspaceName()).thenReturn("achilles");
+		when(cluster.getConnectionManager()).thenReturn(connectionManager);
+
+		ConsistencyLevelKeyspaces keyspaces = new ConsistencyLevelKeyspaces(keyspace, cluster,
+				FailoverPolicy.FAIL_FAST);
+
+		for (HConsistencyLevel level : HConsistencyLevel.values())
+		{
+			Keyspace levelKeyspace = keyspaces.get(level);
+			assertThat(levelKeyspace).isNotSameAs(keyspace);
+			assertThat(levelKeyspace.getKeyspaceName()).isEqualTo("achilles");
+
+			ConsistencyLevelPolicy policy = Whitebox.getInternalState(levelKeyspace,
+					"consistencyLevelPolicy");
+			assertThat(policy.get(OperationType.READ)).isEqualTo(level);
+			assertThat(policy.get(OperationType.WRITE, "cf")).isEqualTo(level);
+			assertThat(Whitebox.getInternalState(levelKeyspace, "failoverPolicy")).isSameAs(
+					FailoverPolicy.FAIL_FAST);
+		}
+	}
+
+	@Test
+	public void should_return_base_keyspace_when_no_level() throws Exception
+	{
+		when(keyspace.getKeyspaceName()).thenReturn("achilles");
+		when(cluster.getConnectionManager()).thenReturn(connectionManager);
+
+		ConsistencyLevelKeyspaces keyspaces = new ConsistencyLevelKeyspaces(keyspace, cluster,
+				FailoverPolicy.FAIL_FAST);
+
+		assertThat(keyspaces.get(null)).isSameAs(keyspace);
+	}
+}
@@ -0,0 +1,341 @@
+package info.archinnov.achilles.dao;
+
+import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.exception.AchillesException;
+import info.archinnov.achilles.exception.MutationBatchException;
+import info.archinnov.achilles.exception.MutationBatchException.FailedChunk;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.prettyprint.hector.api.beans.Composite;
+import me.prettyprint.hector.api.beans.DynamicComposite;
+import me.prettyprint.hector.api.exceptions.HTimedOutException;
+import me.prettyprint.hector.api.mutation.Mutator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+/**
+ * CounterDeltaAggregatorTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CounterDeltaAggregatorTest
+{
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+
+	@Mock
+	private CounterDao counterDao;
+
+	@Mock
+	private Mutator<Composite> mutator;
+
+	private CounterDeltaAggregator aggregator;
+
+	private Composite key = new Composite();
+
+	private DynamicComposite views = new DynamicComposite();
+
+	private DynamicComposite likes = new DynamicComposite();
+
+	@Before
+	public void setUp()
+	{
+		key.addComponent("CompleteBean", STRING_SRZ);
+		views.addComponent("views", STRING_SRZ);
+		likes.addComponent("likes", STRING_SRZ);
+		when(counterDao.buildMutator()).thenReturn(mutator);
+	}
+
+	@After
+	public void tearDown()
+	{
+		if (aggregator != null && !aggregator.isClosed())
+		{
+			aggregator.close();
+		}
+	}
+
+	@Test
+	public void should_coalesce_deltas_of_same_counter() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+
+		aggregator.add(key, views, 1L);
+		aggregator.add(key, views, 1L);
+		aggregator.add(key, views, 3L);
+		aggregator.add(key, likes, -2L);
+
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(2);
+		assertThat(aggregator.getReceivedDeltaCount()).isEqualTo(4L);
+		verify(counterDao, never()).executeMutator(mutator);
+
+		aggregator.flush();
+
+		verify(counterDao).incrementCounterBatch(key, views, 5L, mutator);
+		verify(counterDao).incrementCounterBatch(key, likes, -2L, mutator);
+		verify(counterDao).executeMutator(mutator);
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(0);
+		assertThat(aggregator.getFlushedDeltaCount()).isEqualTo(2L);
+		assertThat(aggregator.getFlushCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void should_not_write_deltas_summing_to_zero() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+
+		aggregator.add(key, views, 2L);
+		aggregator.add(key, views, -2L);
+		aggregator.flush();
+
+		verify(counterDao, never()).buildMutator();
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_flush_when_threshold_reached() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 2, 60000);
+
+		aggregator.add(key, views, 1L);
+		aggregator.add(key, views, 1L);
+		verify(counterDao, never()).buildMutator();
+
+		aggregator.add(key, likes, 1L);
+
+		verify(counterDao, timeout(5000)).executeMutator(mutator);
+		verify(counterDao).incrementCounterBatch(key, views, 2L, mutator);
+		verify(counterDao).incrementCounterBatch(key, likes, 1L, mutator);
+	}
+
+	@Test
+	public void should_flush_periodically() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 50);
+
+		aggregator.add(key, views, 4L);
+
+		verify(counterDao, timeout(5000)).executeMutator(mutator);
+		verify(counterDao).incrementCounterBatch(key, views, 4L, mutator);
+	}
+
+	@Test
+	public void should_flush_on_close() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+
+		aggregator.add(key, views, 7L);
+		aggregator.close();
+
+		assertThat(aggregator.isClosed()).isTrue();
+		verify(counterDao).incrementCounterBatch(key, views, 7L, mutator);
+		verify(counterDao).executeMutator(mutator);
+	}
+
+	@Test
+	public void should_write_right_away_after_close() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+		aggregator.close();
+
+		aggregator.add(key, views, 3L);
+
+		verify(counterDao).incrementCounterBatch(key, views, 3L, mutator);
+		verify(counterDao).executeMutator(mutator);
+	}
+
+	@Test
+	public void should_flush_pending_delta_of_one_counter() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+
+		aggregator.add(key, views, 5L);
+		aggregator.add(key, likes, 2L);
+		aggregator.flushCounter(key, views);
+
+		verify(counterDao).incrementCounterBatch(key, views, 5L, mutator);
+		verify(counterDao, never()).incrementCounterBatch(key, likes, 2L, mutator);
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_not_write_anything_when_counter_has_no_pending_delta() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+
+		aggregator.flushCounter(key, views);
+
+		verify(counterDao, never()).buildMutator();
+	}
+
+	@Test
+	public void should_flush_pending_deltas_of_one_row() throws Exception
+	{
+		Composite otherKey = new Composite();
+		otherKey.addComponent("OtherBean", STRING_SRZ);
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+
+		aggregator.add(key, views, 5L);
+		aggregator.add(key, likes, 2L);
+		aggregator.add(otherKey, views, 1L);
+		aggregator.flushRow(key);
+
+		verify(counterDao).incrementCounterBatch(key, views, 5L, mutator);
+		verify(counterDao).incrementCounterBatch(key, likes, 2L, mutator);
+		verify(counterDao, never()).incrementCounterBatch(otherKey, views, 1L, mutator);
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_keep_deltas_when_flush_fails() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+		doThrow(new HTimedOutException("timeout")).doNothing().when(counterDao)
+				.executeMutator(mutator);
+
+		aggregator.add(key, views, 3L);
+		try
+		{
+			aggregator.flush();
+		}
+		catch (HTimedOutException e)
+		{
+			// expected
+		}
+
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(1);
+		assertThat(aggregator.getFailedFlushCount()).isEqualTo(1L);
+
+		aggregator.add(key, views, 1L);
+		aggregator.flush();
+
+		verify(counterDao).incrementCounterBatch(key, views, 4L, mutator);
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_keep_only_deltas_of_failed_chunks() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 100, 60000);
+		FailedChunk failedChunk = new FailedChunk(0, 0, 1, 10L, new HTimedOutException("timeout"));
+		doThrow(new MutationBatchException(2, Arrays.asList(failedChunk))).doNothing()
+				.when(counterDao).executeMutator(mutator);
+
+		aggregator.add(key, views, 3L);
+		aggregator.add(key, likes, 2L);
+		try
+		{
+			aggregator.flush();
+		}
+		catch (MutationBatchException e)
+		{
+			// expected
+		}
+
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(1);
+		assertThat(aggregator.getFlushedDeltaCount()).isEqualTo(1L);
+		assertThat(aggregator.getFailedFlushCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void should_split_flush_in_batches() throws Exception
+	{
+		aggregator = new CounterDeltaAggregator(counterDao, 10000, 60000);
+
+		for (int i = 0; i < CounterDeltaAggregator.FLUSH_BATCH_SIZE + 1; i++)
+		{
+			DynamicComposite name = new DynamicComposite();
+			name.addComponent("name" + i, STRING_SRZ);
+			aggregator.add(key, name, 1L);
+		}
+		aggregator.flush();
+
+		verify(counterDao, times(2)).executeMutator(mutator);
+		assertThat(aggregator.getFlushedDeltaCount()).isEqualTo(
+				CounterDeltaAggregator.FLUSH_BATCH_SIZE + 1L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_not_lose_deltas_with_concurrent_flushes() throws Exception
+	{
+		final ConcurrentHashMap<DynamicComposite, AtomicLong> written = new ConcurrentHashMap<DynamicComposite, AtomicLong>();
+		written.put(views, new AtomicLong());
+		written.put(likes, new AtomicLong());
+		doAnswer(new Answer<Void>()
+		{
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable
+			{
+				Object[] args = invocation.getArguments();
+				written.get(args[1]).addAndGet((Long) args[2]);
+				return null;
+			}
+		}).when(counterDao).incrementCounterBatch(any(Composite.class),
+				any(DynamicComposite.class), anyLong(), any(Mutator.class));
+
+		aggregator = new CounterDeltaAggregator(counterDao, 1, 1);
+
+		final int threadCount = 4;
+		final int increments = 5000;
+		final CountDownLatch done = new CountDownLatch(threadCount);
+		for (int i = 0; i < threadCount; i++)
+		{
+			final DynamicComposite name = i % 2 == 0 ? views : likes;
+			Thread thread = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					for (int j = 0; j < increments; j++)
+					{
+						aggregator.add(key, name, 1L);
+					}
+					done.countDown();
+				}
+			};
+			thread.start();
+		}
+		done.await();
+		aggregator.close();
+
+		assertThat(written.get(views).get()).isEqualTo(2L * increments);
+		assertThat(written.get(likes).get()).isEqualTo(2L * increments);
+		assertThat(aggregator.getReceivedDeltaCount()).isEqualTo((long) threadCount * increments);
+		assertThat(aggregator.getPendingDeltaCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_exception_when_threshold_not_positive() throws Exception
+	{
+		exception.expect(AchillesException.class);
+		exception.expectMessage("Counter delta flush threshold should be strictly positive");
+
+		new CounterDeltaAggregator(counterDao, 0, 1000);
+	}
+}
@@ -3,20 +3,47 @@ package info.archinnov.achilles.dao;
 import static info.archinnov.achilles.entity.metadata.PropertyType.END_EAGER;
 import static info.archinnov.achilles.entity.metadata.PropertyType.START_EAGER;
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.entity.EntityCache;
+import info.archinnov.achilles.entity.type.ConsistencyLevel;
+import info.archinnov.achilles.exception.AchillesException;
 import info.archinnov.achilles.serializer.SerializerUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
 import me.prettyprint.cassandra.model.ExecutingKeyspace;
+import me.prettyprint.hector.api.HConsistencyLevel;
 import me.prettyprint.hector.api.Serializer;
 import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
+import me.prettyprint.hector.api.beans.ColumnSlice;
 import me.prettyprint.hector.api.beans.DynamicComposite;
+import me.prettyprint.hector.api.beans.HColumn;
+import me.prettyprint.hector.api.beans.Row;
+import me.prettyprint.hector.api.beans.Rows;
+import me.prettyprint.hector.api.factory.HFactory;
 import me.prettyprint.hector.api.mutation.Mutator;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.powermock.reflect.Whitebox;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 /**
  * GenericDynamicCompositeDaoTest
  * 
@@ -26,6 +53,8 @@ import org.powermock.reflect.Whitebox;
 @RunWith(MockitoJUnitRunner.class)
 public class GenericDynamicCompositeDaoTest
 {
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
 
 	@InjectMocks
 	private GenericDynamicCompositeDao<Long> dao = new GenericDynamicCompositeDao<Long>();
@@ -44,6 +73,57 @@ public class GenericDynamicCompositeDaoTest
 		assertThat(mutator).isNotNull();
 	}
 
+	@Test
+	public void should_build_mutator_on_keyspace_of_column_family_write_level() throws Exception
+	{
+		ConsistencyLevelKeyspaces keyspaces = mock(ConsistencyLevelKeyspaces.class);
+		when(keyspaces.get(HConsistencyLevel.ONE)).thenReturn(keyspace);
+		dao.setKeyspaces(keyspaces);
+		dao.setConsistencyLevels(HConsistencyLevel.QUORUM, HConsistencyLevel.ONE);
+
+		assertThat(dao.buildMutator()).isNotNull();
+
+		verify(keyspaces).get(HConsistencyLevel.ONE);
+	}
+
+	@Test
+	public void should_build_mutator_on_keyspace_of_context_write_level() throws Exception
+	{
+		ConsistencyLevelKeyspaces keyspaces = mock(ConsistencyLevelKeyspaces.class);
+		when(keyspaces.get(HConsistencyLevel.ALL)).thenReturn(keyspace);
+		dao.setKeyspaces(keyspaces);
+		dao.setConsistencyLevels(HConsistencyLevel.QUORUM, HConsistencyLevel.ONE);
+
+		assertThat(dao.buildMutator(ConsistencyContext.forWrite(ConsistencyLevel.ALL)))
+				.isNotNull();
+
+		verify(keyspaces).get(HConsistencyLevel.ALL);
+		verify(keyspaces, never()).get(HConsistencyLevel.ONE);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_end_cached_entity_writes_after_executing_mutator() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(10, 60000);
+		dao.setEntityCache(entityCache);
+		Mutator<Long> mutator = mock(Mutator.class);
+		when(mutator.execute()).thenThrow(new IllegalStateException("timeout"));
+		entityCache.beginWrite("cf", 1L, mutator);
+
+		try
+		{
+			dao.executeMutator(mutator);
+		}
+		catch (RuntimeException e)
+		{
+			// expected
+		}
+
+		assertThat(entityCache.put("cf", 1L, new ArrayList<Pair<DynamicComposite, String>>(),
+				entityCache.getWriteSequence())).isTrue();
+	}
+
 	@Test
 	public void should_build_start_composite_for_eager_fetch() throws Exception
 	{
@@ -64,4 +144,128 @@ public class GenericDynamicCompositeDaoTest
 		assertThat(comp.getComponent(0).getEquality()).isSameAs(
 				ComponentEquality.GREATER_THAN_EQUAL);
 	}
+
+	@Test
+	public void should_get_value_async() throws Exception
+	{
+		DynamicComposite name = new DynamicComposite();
+		GenericDynamicCompositeDao<Long> spyDao = spy(dao);
+		spyDao.setExecutor(MoreExecutors.sameThreadExecutor());
+		doReturn("value").when(spyDao).getValue(1L, name);
+
+		assertThat(spyDao.getValueAsync(1L, name).get()).isEqualTo("value");
+	}
+
+	@Test
+	public void should_exception_when_no_executor_for_async_operation() throws Exception
+	{
+		Whitebox.setInternalState(dao, "columnFamily", "cf");
+
+		exception.expect(AchillesException.class);
+		exception
+				.expectMessage("No executor has been configured for asynchronous operations on column family 'cf'");
+
+		dao.getValueAsync(1L, new DynamicComposite());
+	}
+
+	@Test
+	public void should_run_async_operation_inline_from_async_task() throws Exception
+	{
+		final DynamicComposite name = new DynamicComposite();
+		final GenericDynamicCompositeDao<Long> spyDao = spy(dao);
+		ExecutorService executor = mock(ExecutorService.class);
+		spyDao.setExecutor(executor);
+		doReturn("value").when(spyDao).getValue(1L, name);
+
+		String value = new AsyncTaskCallable<String>(new Callable<String>()
+		{
+			@Override
+			public String call() throws Exception
+			{
+				return spyDao.getValueAsync(1L, name).get();
+			}
+		}).call();
+
+		assertThat(value).isEqualTo("value");
+		verifyZeroInteractions(executor);
+	}
+
+	@Test
+	public void should_multiget_in_chunks() throws Exception
+	{
+		DynamicComposite start = new DynamicComposite(), end = new DynamicComposite();
+		GenericDynamicCompositeDao<Long> spyDao = spy(dao);
+		MultigetPolicy multigetPolicy = new MultigetPolicy(2, 2);
+		spyDao.setMultigetPolicy(multigetPolicy);
+		spyDao.setExecutor(MoreExecutors.sameThreadExecutor());
+
+		Row<Long, DynamicComposite, String> row1 = mockRow(), row2 = mockRow(), row3 = mockRow();
+		Rows<Long, DynamicComposite, String> rows12 = mockRows(row1, row2);
+		Rows<Long, DynamicComposite, String> rows3 = mockRows(row3);
+		doReturn(rows12).when(spyDao).multiGetSliceRange(Arrays.asList(1L, 2L), start, end,
+				false, 10);
+		doReturn(mockRows()).when(spyDao).multiGetSliceRange(Arrays.asList(3L, 4L), start, end,
+				false, 10);
+		doReturn(rows3).when(spyDao).multiGetSliceRange(Arrays.asList(5L), start, end, false, 10);
+
+		List<Row<Long, DynamicComposite, String>> rows = spyDao.multiGetSliceRangeInChunks(
+				Arrays.asList(1L, 2L, 3L, 4L, 5L), start, end, false, 10);
+
+		assertThat(rows).containsExactly(row1, row2, row3);
+		assertThat(multigetPolicy.getMultigetCount()).isEqualTo(1L);
+		assertThat(multigetPolicy.getChunkCount()).isEqualTo(3L);
+	}
+
+	@Test
+	public void should_multiget_in_single_query_without_policy() throws Exception
+	{
+		DynamicComposite start = new DynamicComposite(), end = new DynamicComposite();
+		GenericDynamicCompositeDao<Long> spyDao = spy(dao);
+		Row<Long, DynamicComposite, String> row = mockRow();
+		Rows<Long, DynamicComposite, String> rows = mockRows(row);
+		List<Long> keys = Arrays.asList(1L, 2L, 3L);
+		doReturn(rows).when(spyDao).multiGetSliceRange(keys, start, end, false, 10);
+
+		assertThat(spyDao.multiGetSliceRangeInChunks(keys, start, end, false, 10)).containsExactly(
+				row);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_find_existing_keys() throws Exception
+	{
+		GenericDynamicCompositeDao<Long> spyDao = spy(dao);
+		Row<Long, DynamicComposite, String> row1 = mockRow(), row2 = mockRow();
+		ColumnSlice<DynamicComposite, String> slice1 = mock(ColumnSlice.class);
+		ColumnSlice<DynamicComposite, String> slice2 = mock(ColumnSlice.class);
+		when(row1.getKey()).thenReturn(1L);
+		when(row1.getColumnSlice()).thenReturn(slice1);
+		when(slice1.getColumns()).thenReturn(
+				Arrays.asList(HFactory.createColumn(new DynamicComposite(), "123")));
+		when(row2.getKey()).thenReturn(2L);
+		when(row2.getColumnSlice()).thenReturn(slice2);
+		when(slice2.getColumns()).thenReturn(new ArrayList<HColumn<DynamicComposite, String>>());
+		DynamicComposite serialVersionUIDComposite = Whitebox.getInternalState(dao,
+				"serialVersionUIDComposite");
+		List<Long> keys = Arrays.asList(1L, 2L);
+		doReturn(Arrays.asList(row1, row2)).when(spyDao).multiGetSliceRangeInChunks(keys,
+				serialVersionUIDComposite, serialVersionUIDComposite, false, 1);
+
+		assertThat(spyDao.findExistingKeys(keys)).containsOnly(1L);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Row<Long, DynamicComposite, String> mockRow()
+	{
+		return mock(Row.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Rows<Long, DynamicComposite, String> mockRows(
+			Row<Long, DynamicComposite, String>... rows)
+	{
+		Rows<Long, DynamicComposite, String> result = mock(Rows.class);
+		when(result.iterator()).thenReturn(Arrays.asList(rows).iterator());
+		return result;
+	}
 }
@@ -0,0 +1,317 @@
+package info.archinnov.achilles.dao;
+
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.dao.TokenRangeScanner.KeyBatchHandler;
+import info.archinnov.achilles.dao.TokenRangeScanner.ScanProgressListener;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.prettyprint.hector.api.HConsistencyLevel;
+
+import org.apache.cassandra.dht.ByteOrderedPartitioner;
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.cassandra.dht.RandomPartitioner;
+import org.apache.cassandra.thrift.Column;
+import org.apache.cassandra.thrift.ColumnOrSuperColumn;
+import org.apache.cassandra.thrift.KeyRange;
+import org.apache.cassandra.thrift.KeySlice;
+import org.apache.cassandra.thrift.TokenRange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * TokenRangeScannerTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class TokenRangeScannerTest
+{
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+
+	private RandomPartitioner randomPartitioner = new RandomPartitioner();
+
+	private ByteOrderedPartitioner orderedPartitioner = new ByteOrderedPartitioner();
+
+	private IPartitioner<?> partitioner = randomPartitioner;
+
+	private TreeMap<BigInteger, Long> keysByToken = new TreeMap<BigInteger, Long>();
+
+	private TreeMap<Long, Long> keysByValue = new TreeMap<Long, Long>();
+
+	private List<TokenRange> ring = new ArrayList<TokenRange>();
+
+	private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private StubScanner scanner = new StubScanner(executor);
+
+	@Before
+	public void setUp()
+	{
+		for (long key = 0; key < 100; key++)
+		{
+			keysByToken.put(randomPartitioner.getToken(LONG_SRZ.toByteBuffer(key)).token, key);
+			keysByValue.put(key, key);
+		}
+		String nodeToken = RandomPartitioner.MAXIMUM.divide(BigInteger.valueOf(3)).toString();
+		ring.add(new TokenRange(nodeToken, nodeToken, Collections.<String> emptyList()));
+	}
+
+	@After
+	public void tearDown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void should_scan_all_keys_once() throws Exception
+	{
+		final Set<Long> scannedKeys = Collections
+				.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+		final AtomicInteger batches = new AtomicInteger();
+
+		long count = scanner.scan(new KeyBatchHandler<Long>()
+		{
+			@Override
+			public void handle(List<Long> keys)
+			{
+				assertThat(keys.size()).isLessThanOrEqualTo(3);
+				batches.incrementAndGet();
+				for (Long key : keys)
+				{
+					assertThat(scannedKeys.add(key)).isTrue();
+				}
+			}
+		}, 3, 3, null);
+
+		assertThat(count).isEqualTo(100L);
+		assertThat(scannedKeys).hasSize(100);
+		assertThat(batches.get()).isGreaterThanOrEqualTo(34);
+	}
+
+	@Test
+	public void should_scan_at_most_concurrency_ranges_at_the_same_time() throws Exception
+	{
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+
+		long count = scanner.scan(new KeyBatchHandler<Long>()
+		{
+			@Override
+			public void handle(List<Long> keys)
+			{
+				int current = running.incrementAndGet();
+				synchronized (maxRunning)
+				{
+					maxRunning.set(Math.max(maxRunning.get(), current));
+				}
+				try
+				{
+					Thread.sleep(5);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+			}
+		}, 2, 5, null);
+
+		assertThat(count).isEqualTo(100L);
+		assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void should_scan_ranges_in_calling_thread_without_executor() throws Exception
+	{
+		scanner = new StubScanner(null);
+		final Thread callingThread = Thread.currentThread();
+		final List<Long> scannedKeys = new ArrayList<Long>();
+
+		long count = scanner.scan(new KeyBatchHandler<Long>()
+		{
+			@Override
+			public void handle(List<Long> keys)
+			{
+				assertThat(Thread.currentThread()).isSameAs(callingThread);
+				scannedKeys.addAll(keys);
+			}
+		}, 3, 10, null);
+
+		assertThat(count).isEqualTo(100L);
+		assertThat(scannedKeys).hasSize(100);
+	}
+
+	@Test
+	public void should_report_progress() throws Exception
+	{
+		final AtomicInteger lastCompletedRanges = new AtomicInteger();
+		final AtomicInteger totalRanges = new AtomicInteger();
+		final AtomicLong maxScannedKeys = new AtomicLong();
+
+		scanner.scan(new KeyBatchHandler<Long>()
+		{
+			@Override
+			public void handle(List<Long> keys)
+			{}
+		}, 2, 10, new ScanProgressListener()
+		{
+			@Override
+			public synchronized void onProgress(int completedRanges, int total, long scannedKeys)
+			{
+				lastCompletedRanges.set(Math.max(lastCompletedRanges.get(), completedRanges));
+				totalRanges.set(total);
+				maxScannedKeys.set(Math.max(maxScannedKeys.get(), scannedKeys));
+			}
+		});
+
+		assertThat(totalRanges.get()).isEqualTo(2 * TokenRangeScanner.SPLITS_PER_THREAD);
+		assertThat(lastCompletedRanges.get()).isEqualTo(totalRanges.get());
+		assertThat(maxScannedKeys.get()).isEqualTo(100L);
+	}
+
+	@Test
+	public void should_split_wrapping_range() throws Exception
+	{
+		Whitebox.setInternalState(scanner, "partitioner", partitioner);
+		List<TokenRange> ranges = Arrays.asList(new TokenRange("100", "10", Collections
+				.<String> emptyList()), new TokenRange("10", "100", Collections
+				.<String> emptyList()));
+
+		List<TokenRange> splits = scanner.splitRanges(ranges, 3);
+
+		assertThat(splits).hasSize(3);
+		assertThat(splits.get(0).getStart_token()).isEqualTo("100");
+		assertThat(splits.get(0).getEnd_token()).isEqualTo(RandomPartitioner.MAXIMUM.toString());
+		assertThat(splits.get(1).getStart_token()).isEqualTo("-1");
+		assertThat(splits.get(1).getEnd_token()).isEqualTo("10");
+		assertThat(splits.get(2).getStart_token()).isEqualTo("10");
+		assertThat(splits.get(2).getEnd_token()).isEqualTo("100");
+	}
+
+	@Test
+	public void should_split_full_ring_evenly() throws Exception
+	{
+		Whitebox.setInternalState(scanner, "partitioner", partitioner);
+		List<TokenRange> splits = scanner.splitRanges(ring, 4);
+
+		assertThat(splits).hasSize(4);
+		assertThat(splits.get(0).getStart_token()).isEqualTo("-1");
+		assertThat(splits.get(3).getEnd_token()).isEqualTo(RandomPartitioner.MAXIMUM.toString());
+		for (int i = 1; i < splits.size(); i++)
+		{
+			assertThat(splits.get(i).getStart_token()).isEqualTo(
+					splits.get(i - 1).getEnd_token());
+		}
+	}
+
+	@Test
+	public void should_scan_keys_sequentially_with_ordered_partitioner() throws Exception
+	{
+		partitioner = orderedPartitioner;
+		final List<Long> scannedKeys = new ArrayList<Long>();
+
+		long count = scanner.scan(new KeyBatchHandler<Long>()
+		{
+			@Override
+			public void handle(List<Long> keys)
+			{
+				assertThat(keys.size()).isLessThanOrEqualTo(7);
+				scannedKeys.addAll(keys);
+			}
+		}, 3, 7, null);
+
+		assertThat(count).isEqualTo(100L);
+		assertThat(scannedKeys).isEqualTo(new ArrayList<Long>(keysByValue.keySet()));
+	}
+
+	@Test
+	public void should_propagate_handler_failure() throws Exception
+	{
+		exception.expect(RuntimeException.class);
+		exception.expectMessage("handler failure");
+
+		scanner.scan(new KeyBatchHandler<Long>()
+		{
+			@Override
+			public void handle(List<Long> keys)
+			{
+				throw new IllegalStateException("handler failure");
+			}
+		}, 2, 10, null);
+	}
+
+	private class StubScanner extends TokenRangeScanner<Long>
+	{
+		public StubScanner(ExecutorService executor) {
+			super(null, "cf", LONG_SRZ, HConsistencyLevel.QUORUM, executor);
+		}
+
+		@Override
+		protected IPartitioner<?> loadPartitioner()
+		{
+			return partitioner;
+		}
+
+		@Override
+		protected List<TokenRange> describeRing()
+		{
+			return ring;
+		}
+
+		@Override
+		protected List<KeySlice> fetchKeySlices(KeyRange keyRange)
+		{
+			Collection<Long> keys;
+			if (keyRange.isSetStart_key())
+			{
+				assertThat(keyRange.isSetStart_token()).isFalse();
+				Long startKey = LONG_SRZ.fromByteBuffer(keyRange.bufferForStart_key());
+				keys = startKey == null ? keysByValue.values() : keysByValue.tailMap(startKey)
+						.values();
+			}
+			else
+			{
+				BigInteger start = new BigInteger(keyRange.getStart_token());
+				BigInteger end = new BigInteger(keyRange.getEnd_token());
+				assertThat(start.compareTo(end)).isLessThan(0);
+				keys = keysByToken.subMap(start, false, end, true).values();
+			}
+
+			List<KeySlice> slices = new ArrayList<KeySlice>();
+			for (Long key : keys)
+			{
+				if (slices.size() == keyRange.getCount())
+				{
+					break;
+				}
+				Column column = new Column(ByteBuffer.wrap(new byte[]
+				{
+					1
+				}));
+				slices.add(new KeySlice(LONG_SRZ.toByteBuffer(key), Arrays
+						.asList(new ColumnOrSuperColumn().setColumn(column))));
+			}
+			return slices;
+		}
+	}
+}
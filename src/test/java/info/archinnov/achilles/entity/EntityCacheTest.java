@@ -0,0 +1,152 @@
+package info.archinnov.achilles.entity;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.exception.AchillesException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * EntityCacheTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class EntityCacheTest
+{
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+
+	private List<Pair<DynamicComposite, String>> columns = buildColumns("name");
+
+	@Test
+	public void should_get_columns_by_column_family_and_key() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(10, 60000);
+		entityCache.put("cf", 1L, columns);
+
+		assertThat(entityCache.get("cf", 1L)).isEqualTo(columns);
+		assertThat(entityCache.get("other_cf", 1L)).isNull();
+		assertThat(entityCache.get("cf", 2L)).isNull();
+		assertThat(entityCache.getHitCount()).isEqualTo(1L);
+		assertThat(entityCache.getMissCount()).isEqualTo(2L);
+	}
+
+	@Test
+	public void should_invalidate_and_clear() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(10, 60000);
+		entityCache.put("cf", 1L, columns);
+		entityCache.put("cf", 2L, columns);
+
+		entityCache.invalidate("cf", 1L);
+		assertThat(entityCache.get("cf", 1L)).isNull();
+		assertThat(entityCache.size()).isEqualTo(1);
+
+		entityCache.clear();
+		assertThat(entityCache.size()).isEqualTo(0);
+		assertThat(entityCache.getEvictionCount()).isEqualTo(0L);
+	}
+
+	@Test
+	public void should_not_cache_columns_while_write_pending() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(10, 60000);
+		Object batch = new Object();
+		entityCache.put("cf", 1L, columns);
+
+		entityCache.beginWrite("cf", 1L, batch);
+		assertThat(entityCache.get("cf", 1L)).isNull();
+
+		long readSequence = entityCache.getWriteSequence();
+		assertThat(entityCache.put("cf", 1L, columns, readSequence)).isFalse();
+		assertThat(entityCache.put("cf", 2L, columns, readSequence)).isTrue();
+
+		entityCache.endWrites(batch);
+		assertThat(entityCache.put("cf", 1L, columns, readSequence)).isFalse();
+		assertThat(entityCache.get("cf", 1L)).isNull();
+
+		assertThat(entityCache.put("cf", 1L, columns, entityCache.getWriteSequence())).isTrue();
+		assertThat(entityCache.get("cf", 1L)).isEqualTo(columns);
+	}
+
+	@Test
+	public void should_not_cache_columns_read_before_invalidation() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(10, 60000);
+		long readSequence = entityCache.getWriteSequence();
+
+		entityCache.invalidate("cf", 1L);
+
+		assertThat(entityCache.put("cf", 1L, columns, readSequence)).isFalse();
+		assertThat(entityCache.put("cf", 1L, columns, entityCache.getWriteSequence())).isTrue();
+	}
+
+	@Test
+	public void should_not_cache_columns_read_before_forgotten_writes() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(1, 60000);
+		long readSequence = entityCache.getWriteSequence();
+
+		entityCache.invalidate("cf", 1L);
+		entityCache.invalidate("cf", 2L);
+
+		assertThat(entityCache.put("cf", 3L, columns, readSequence)).isFalse();
+		assertThat(entityCache.put("cf", 3L, columns, entityCache.getWriteSequence())).isTrue();
+	}
+
+	@Test
+	public void should_evict_least_recently_used_when_full() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(2, 60000);
+		entityCache.put("cf", 1L, columns);
+		entityCache.put("cf", 2L, columns);
+		entityCache.get("cf", 1L);
+
+		entityCache.put("cf", 3L, columns);
+
+		assertThat(entityCache.size()).isEqualTo(2);
+		assertThat(entityCache.get("cf", 1L)).isNotNull();
+		assertThat(entityCache.get("cf", 2L)).isNull();
+		assertThat(entityCache.getEvictionCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void should_evict_expired_entry() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(10, 1);
+		entityCache.put("cf", 1L, columns);
+
+		Thread.sleep(10);
+
+		assertThat(entityCache.get("cf", 1L)).isNull();
+		assertThat(entityCache.size()).isEqualTo(0);
+		assertThat(entityCache.getEvictionCount()).isEqualTo(1L);
+		assertThat(entityCache.getMissCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void should_exception_when_max_size_not_positive() throws Exception
+	{
+		exception.expect(AchillesException.class);
+		exception.expectMessage("Entity cache max size should be strictly positive");
+
+		new EntityCache(0, 60000);
+	}
+
+	private List<Pair<DynamicComposite, String>> buildColumns(String name)
+	{
+		DynamicComposite composite = new DynamicComposite();
+		composite.add(0, name);
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		columns.add(new Pair<DynamicComposite, String>(composite, "value"));
+		return columns;
+	}
+}
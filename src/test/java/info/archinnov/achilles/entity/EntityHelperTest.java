@@ -55,6 +55,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.powermock.reflect.Whitebox;
 
 import parser.entity.BeanWithColumnFamilyName;
 import parser.entity.ChildBean;
@@ -999,6 +1000,30 @@ public class EntityHelperTest
 		assertThat(levels.right.right).isEqualTo(HConsistencyLevel.ONE);
 	}
 
+	@Test
+	public void should_detect_value_hash_code() throws Exception
+	{
+		assertThat(helper.hasValueHashCode("value")).isTrue();
+		assertThat(helper.hasValueHashCode(10L)).isTrue();
+		assertThat(helper.hasValueHashCode(UUID.randomUUID())).isTrue();
+		assertThat(helper.hasValueHashCode(new Bean())).isFalse();
+		assertThat(helper.hasValueHashCode(ConsistencyLevel.ONE)).isFalse();
+		assertThat(helper.hasValueHashCode(null)).isFalse();
+	}
+
+	@Test
+	public void should_cache_value_hash_code_per_class() throws Exception
+	{
+		helper.hasValueHashCode(new Bean());
+		helper.hasValueHashCode("value");
+
+		Map<Class<?>, Boolean> cache = Whitebox.getInternalState(EntityHelper.class,
+				"valueHashCodeClasses");
+		assertThat(cache.get(Bean.class)).isFalse();
+		assertThat(cache.get(String.class)).isTrue();
+		assertThat(helper.hasValueHashCode(new Bean())).isFalse();
+	}
+
 	class Bean
 	{
 
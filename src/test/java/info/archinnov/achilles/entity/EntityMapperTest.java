@@ -1,13 +1,17 @@
 package info.archinnov.achilles.entity;
 
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_LIST;
 import static info.archinnov.achilles.entity.metadata.PropertyType.LIST;
 import static info.archinnov.achilles.entity.metadata.PropertyType.MAP;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SERIAL_VERSION_UID;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SET;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SIMPLE;
+import static info.archinnov.achilles.serializer.SerializerUtils.INT_SRZ;
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
+import info.archinnov.achilles.codec.ValueChunker;
 import info.archinnov.achilles.columnFamily.ColumnFamilyCreator;
 import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
 import info.archinnov.achilles.dao.CounterDao;
@@ -17,12 +21,14 @@ import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.parser.EntityParser;
 import info.archinnov.achilles.entity.type.KeyValue;
+import info.archinnov.achilles.exception.AchillesException;
 import info.archinnov.achilles.json.ObjectMapperFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -186,6 +192,43 @@ public class EntityMapperTest
 		assertThat(setCaptor.getValue()).contains("George", "Paul");
 	}
 
+	@Test
+	public void should_map_lazy_properties() throws Exception
+	{
+		CompleteBean entity = new CompleteBean();
+		PropertyMeta<?, ?> friendsMeta = entityMeta.getPropertyMetas().get("friends");
+
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		DynamicComposite friendsComp = buildLazyListPropertyComposite("friends");
+		DynamicComposite tweetsComp = buildLazyListPropertyComposite("tweets");
+		columns.add(new Pair<DynamicComposite, String>(friendsComp, "foo"));
+		columns.add(new Pair<DynamicComposite, String>(friendsComp, "bar"));
+		columns.add(new Pair<DynamicComposite, String>(tweetsComp, "tweet"));
+
+		doNothing().when(helper).setValueToField(eq(entity), eq(friendsMeta.getSetter()),
+				listCaptor.capture());
+
+		mapper.setLazyPropertiesToEntity(columns, Arrays.<PropertyMeta<?, ?>> asList(friendsMeta),
+				entity);
+
+		assertThat(listCaptor.getValue()).containsExactly("foo", "bar");
+	}
+
+	@Test
+	public void should_map_lazy_property_without_column_to_null() throws Exception
+	{
+		CompleteBean entity = new CompleteBean();
+		PropertyMeta<?, ?> friendsMeta = entityMeta.getPropertyMetas().get("friends");
+
+		doNothing().when(helper).setValueToField(eq(entity), eq(friendsMeta.getSetter()),
+				listCaptor.capture());
+
+		mapper.setLazyPropertiesToEntity(new ArrayList<Pair<DynamicComposite, String>>(),
+				Arrays.<PropertyMeta<?, ?>> asList(friendsMeta), entity);
+
+		assertThat(listCaptor.getValue()).isNull();
+	}
+
 	@Test
 	public void should_map_map_property() throws Exception
 	{
@@ -400,6 +443,102 @@ public class EntityMapperTest
 		assertThat(mapCaptor.getValue().get(3)).isEqualTo("75014");
 	}
 
+	@Test
+	public void should_map_chunked_simple_property() throws Exception
+	{
+		CompleteBean entity = new CompleteBean();
+		PropertyMeta<?, ?> nameMeta = entityMeta.getPropertyMetas().get("name");
+		nameMeta.setValueChunker(new ValueChunker(2));
+
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		columns.add(new Pair<DynamicComposite, String>(buildSimplePropertyComposite("name"),
+				ValueChunker.chunkHead(20L, 2)));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 10L, 0),
+				"stale"));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 20L, 0), "na"));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 20L, 1), "me"));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 30L, 0),
+				"pending"));
+
+		doNothing().when(helper).setValueToField(eq(entity), eq(nameMeta.getSetter()),
+				simpleCaptor.capture());
+
+		mapper.setEagerPropertiesToEntity(2L, columns, entityMeta, entity);
+
+		assertThat(simpleCaptor.getValue()).isEqualTo("name");
+	}
+
+	@Test
+	public void should_join_chunks_from_iterator_until_last_chunk() throws Exception
+	{
+		PropertyMeta<?, ?> nameMeta = entityMeta.getPropertyMetas().get("name");
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		columns.add(new Pair<DynamicComposite, String>(buildSimplePropertyComposite("name"),
+				ValueChunker.chunkHead(20L, 1)));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 20L, 0),
+				"name"));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 30L, 0),
+				"pending"));
+		Iterator<Pair<DynamicComposite, String>> iterator = columns.iterator();
+
+		assertThat(mapper.joinChunks(iterator, nameMeta)).isEqualTo("name");
+		assertThat(iterator.hasNext()).isTrue();
+	}
+
+	@Test
+	public void should_ignore_chunks_without_head() throws Exception
+	{
+		PropertyMeta<?, ?> nameMeta = entityMeta.getPropertyMetas().get("name");
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 30L, 0),
+				"pending"));
+
+		assertThat(mapper.joinChunks(columns, nameMeta)).isNull();
+	}
+
+	@Test
+	public void should_join_chunks_of_value_stored_whole() throws Exception
+	{
+		PropertyMeta<?, ?> nameMeta = entityMeta.getPropertyMetas().get("name");
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		columns.add(new Pair<DynamicComposite, String>(buildSimplePropertyComposite("name"),
+				ValueChunker.wholeHead(20L, "na:me")));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 10L, 0),
+				"stale"));
+
+		assertThat(mapper.joinChunks(columns, nameMeta)).isEqualTo("na:me");
+		assertThat(mapper.joinChunks(new ArrayList<Pair<DynamicComposite, String>>(), nameMeta))
+				.isNull();
+	}
+
+	@Test
+	public void should_join_chunks_of_value_stored_whole_without_generation() throws Exception
+	{
+		PropertyMeta<?, ?> nameMeta = entityMeta.getPropertyMetas().get("name");
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		columns.add(new Pair<DynamicComposite, String>(buildSimplePropertyComposite("name"),
+				"name"));
+
+		assertThat(mapper.joinChunks(columns, nameMeta)).isEqualTo("name");
+	}
+
+	@Test
+	public void should_exception_when_chunk_missing() throws Exception
+	{
+		PropertyMeta<?, ?> nameMeta = entityMeta.getPropertyMetas().get("name");
+		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+		columns.add(new Pair<DynamicComposite, String>(buildSimplePropertyComposite("name"),
+				ValueChunker.chunkHead(20L, 2)));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 10L, 0),
+				"stale"));
+		columns.add(new Pair<DynamicComposite, String>(buildChunkComposite("name", 20L, 1), "me"));
+
+		expectedException.expect(AchillesException.class);
+		expectedException.expectMessage("The chunk 0 of the property 'name' is missing");
+
+		mapper.joinChunks(columns, nameMeta);
+	}
+
 	@Test
 	public void should_exception_when_serialVersionUID_changes() throws Exception
 	{
@@ -425,6 +564,14 @@ public class EntityMapperTest
 		return comp;
 	}
 
+	private DynamicComposite buildChunkComposite(String propertyName, long generation, int index)
+	{
+		DynamicComposite comp = buildSimplePropertyComposite(propertyName);
+		comp.setComponent(2, generation, LONG_SRZ, LONG_SRZ.getComparatorType().getTypeName());
+		comp.setComponent(3, index, INT_SRZ, INT_SRZ.getComparatorType().getTypeName());
+		return comp;
+	}
+
 	private DynamicComposite buildListPropertyComposite(String propertyName)
 	{
 		DynamicComposite comp = new DynamicComposite();
@@ -453,4 +600,12 @@ public class EntityMapperTest
 	{
 		return objectMapper.writeValueAsString(object);
 	}
+
+	private DynamicComposite buildLazyListPropertyComposite(String propertyName)
+	{
+		DynamicComposite comp = new DynamicComposite();
+		comp.add(0, LAZY_LIST.flag());
+		comp.add(1, propertyName);
+		return comp;
+	}
 }
@@ -15,9 +15,16 @@ import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.UUID_SRZ;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
+import info.archinnov.achilles.annotations.Chunked;
+import info.archinnov.achilles.annotations.Codec;
+import info.archinnov.achilles.annotations.Compressed;
 import info.archinnov.achilles.annotations.Consistency;
 import info.archinnov.achilles.annotations.Counter;
 import info.archinnov.achilles.annotations.Lazy;
+import info.archinnov.achilles.codec.JsonValueCodec;
+import info.archinnov.achilles.codec.NativeValueCodec;
+import info.archinnov.achilles.codec.ValueCodec;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.MultiKeyProperties;
@@ -45,6 +52,7 @@ import me.prettyprint.hector.api.beans.Composite;
 import me.prettyprint.hector.api.beans.DynamicComposite;
 import me.prettyprint.hector.api.beans.HColumn;
 
+import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -251,6 +259,101 @@ public class PropertyHelperTest
 		assertThat(helper.isLazy(field)).isTrue();
 	}
 
+	@Test
+	public void should_find_value_codec_of_field() throws Exception
+	{
+		class Test
+		{
+			@Codec(NativeValueCodec.class)
+			private Long count;
+
+			@SuppressWarnings("unused")
+			private Long other;
+		}
+
+		ObjectMapper objectMapper = new ObjectMapper();
+		ValueCodec defaultCodec = new JsonValueCodec(objectMapper);
+
+		ValueCodec codec = helper.findValueCodec(Test.class.getDeclaredField("count"),
+				objectMapper, defaultCodec);
+
+		assertThat(codec).isInstanceOf(NativeValueCodec.class);
+		assertThat(codec.encode(new UUID(10L, 11L))).isEqualTo(new UUID(10L, 11L).toString());
+		assertThat(
+				helper.findValueCodec(Test.class.getDeclaredField("other"), objectMapper,
+						defaultCodec)).isSameAs(defaultCodec);
+	}
+
+	@Test
+	public void should_exception_when_value_codec_cannot_be_instantiated() throws Exception
+	{
+		@Codec(ValueCodec.class)
+		class Test
+		{
+		}
+
+		expectedEx.expect(BeanMappingException.class);
+		expectedEx.expectMessage("Cannot instantiate the codec '"
+				+ ValueCodec.class.getCanonicalName() + "'");
+
+		helper.findValueCodec(Test.class, new ObjectMapper(), null);
+	}
+
+	@Test
+	public void should_find_value_chunker_of_field() throws Exception
+	{
+		class Test
+		{
+			@Chunked(size = 512)
+			private String text;
+
+			@SuppressWarnings("unused")
+			private String other;
+		}
+
+		assertThat(helper.findValueChunker(Test.class.getDeclaredField("text")).getChunkSize())
+				.isEqualTo(512);
+		assertThat(helper.findValueChunker(Test.class.getDeclaredField("other"))).isNull();
+	}
+
+	@Test
+	public void should_exception_when_chunked_and_compressed() throws Exception
+	{
+		class Test
+		{
+			@Chunked
+			@Compressed
+			private String text;
+		}
+
+		expectedEx.expect(BeanMappingException.class);
+		expectedEx.expectMessage("The field 'text' cannot be both chunked and compressed");
+
+		helper.findValueChunker(Test.class.getDeclaredField("text"));
+	}
+
+	@Test
+	public void should_find_value_compressor_of_field() throws Exception
+	{
+		class Test
+		{
+			@Compressed(threshold = 512)
+			private String text;
+
+			@SuppressWarnings("unused")
+			private String other;
+		}
+
+		ValueCompressor defaultCompressor = new ValueCompressor(1024);
+
+		assertThat(
+				helper.findValueCompressor(Test.class.getDeclaredField("text"), defaultCompressor)
+						.getThreshold()).isEqualTo(512);
+		assertThat(
+				helper.findValueCompressor(Test.class.getDeclaredField("other"),
+						defaultCompressor)).isSameAs(defaultCompressor);
+	}
+
 	@Test
 	public void should_check_counter_annotation() throws Exception
 	{
@@ -3,6 +3,7 @@ package info.archinnov.achilles.entity.manager;
 import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.CLUSTER_NAME_PARAM;
 import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.CLUSTER_PARAM;
 import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.ENTITY_PACKAGES_PARAM;
+import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.FAILOVER_POLICY_PARAM;
 import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.FORCE_CF_CREATION_PARAM;
 import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.HOSTNAME_PARAM;
 import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.KEYSPACE_NAME_PARAM;
@@ -14,8 +15,15 @@ import static info.archinnov.achilles.entity.type.ConsistencyLevel.ONE;
 import static info.archinnov.achilles.entity.type.ConsistencyLevel.QUORUM;
 import static info.archinnov.achilles.entity.type.ConsistencyLevel.THREE;
 import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.codec.ValueCompressor;
+import info.archinnov.achilles.dao.CounterDao;
+import info.archinnov.achilles.dao.CounterDeltaAggregator;
+import info.archinnov.achilles.dao.MultigetPolicy;
+import info.archinnov.achilles.dao.MutationBatchingPolicy;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.type.ConsistencyLevel;
 import info.archinnov.achilles.exception.AchillesException;
+import info.archinnov.achilles.iterator.AdaptivePagingPolicy;
 import info.archinnov.achilles.json.ObjectMapperFactory;
 
 import java.util.Collection;
@@ -23,8 +31,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import me.prettyprint.cassandra.service.CassandraHostConfigurator;
+import me.prettyprint.cassandra.service.FailoverPolicy;
 import me.prettyprint.hector.api.Cluster;
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.factory.HFactory;
@@ -42,6 +53,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.powermock.reflect.Whitebox;
 
 import com.google.common.collect.ImmutableMap;
 
@@ -72,6 +84,12 @@ public class ArgumentExtractorForThriftEMFTest
 	@Mock
 	private ObjectMapper mapper;
 
+	@Mock
+	private ExecutorService executor;
+
+	@Mock
+	private CounterDao counterDao;
+
 	private Map<String, Object> configMap = new HashMap<String, Object>();
 
 	@Before
@@ -161,7 +179,7 @@ public class ArgumentExtractorForThriftEMFTest
 	{
 		configMap.put(KEYSPACE_PARAM, keyspace);
 
-		Keyspace actual = extractor.initKeyspace(null, configMap);
+		Keyspace actual = extractor.initKeyspace(null, FailoverPolicy.FAIL_FAST, configMap);
 
 		assertThat(actual).isSameAs(keyspace);
 	}
@@ -174,11 +192,29 @@ public class ArgumentExtractorForThriftEMFTest
 		Cluster cluster = HFactory.getOrCreateCluster("Test Cluster",
 				new CassandraHostConfigurator("localhost:9161"));
 
-		Keyspace actual = extractor.initKeyspace(cluster, configMap);
+		Keyspace actual = extractor.initKeyspace(cluster, FailoverPolicy.FAIL_FAST,
+				configMap);
 
 		assertThat(actual).isNotNull();
 		assertThat(actual).isInstanceOf(Keyspace.class);
 		assertThat(actual.getKeyspaceName()).isEqualTo("achilles");
+		assertThat(Whitebox.getInternalState(actual, "failoverPolicy")).isSameAs(
+				FailoverPolicy.FAIL_FAST);
+	}
+
+	@Test
+	public void should_init_failover_policy() throws Exception
+	{
+		configMap.put(FAILOVER_POLICY_PARAM, FailoverPolicy.FAIL_FAST);
+
+		assertThat(extractor.initFailoverPolicy(configMap)).isSameAs(FailoverPolicy.FAIL_FAST);
+	}
+
+	@Test
+	public void should_init_default_failover_policy() throws Exception
+	{
+		assertThat(extractor.initFailoverPolicy(configMap)).isSameAs(
+				FailoverPolicy.ON_FAIL_TRY_ALL_AVAILABLE);
 	}
 
 	@Test
@@ -191,7 +227,7 @@ public class ArgumentExtractorForThriftEMFTest
 						+ "' property or '"
 						+ KEYSPACE_NAME_PARAM
 						+ "' property should be provided for Achilles ThrifEntityManagerFactory bootstraping");
-		extractor.initKeyspace(null, configMap);
+		extractor.initKeyspace(null, FailoverPolicy.FAIL_FAST, configMap);
 	}
 
 	@Test
@@ -333,4 +369,214 @@ public class ArgumentExtractorForThriftEMFTest
 
 		assertThat(consistencyMap).isEmpty();
 	}
+
+	@Test
+	public void should_init_async_executor() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.ASYNC_EXECUTOR_PARAM, executor);
+
+		assertThat(extractor.initAsyncExecutor(configMap)).isSameAs(executor);
+	}
+
+	@Test
+	public void should_init_default_async_executor() throws Exception
+	{
+		ThreadPoolExecutor pool = (ThreadPoolExecutor) extractor.initAsyncExecutor(configMap);
+
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(
+				ArgumentExtractorForThriftEMF.DEFAULT_ASYNC_THREAD_COUNT);
+		assertThat(pool.getQueue().remainingCapacity()).isEqualTo(
+				ArgumentExtractorForThriftEMF.DEFAULT_ASYNC_QUEUE_SIZE);
+		assertThat(pool.getRejectedExecutionHandler()).isInstanceOf(
+				ThreadPoolExecutor.CallerRunsPolicy.class);
+		pool.shutdown();
+	}
+
+	@Test
+	public void should_init_async_executor_from_thread_count_and_queue_size() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.ASYNC_THREAD_COUNT_PARAM, 3);
+		configMap.put(ArgumentExtractorForThriftEMF.ASYNC_QUEUE_SIZE_PARAM, 50);
+
+		ThreadPoolExecutor pool = (ThreadPoolExecutor) extractor.initAsyncExecutor(configMap);
+
+		assertThat(pool.getCorePoolSize()).isEqualTo(3);
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(3);
+		assertThat(pool.getQueue().remainingCapacity()).isEqualTo(50);
+		pool.shutdown();
+	}
+
+	@Test
+	public void should_exception_when_async_thread_count_not_positive() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.ASYNC_THREAD_COUNT_PARAM, 0);
+
+		exception.expect(AchillesException.class);
+		exception.expectMessage("'achilles.async.thread.count' property should be strictly positive");
+		extractor.initAsyncExecutor(configMap);
+	}
+
+	@Test
+	public void should_not_init_paging_policy_when_adaptive_paging_disabled() throws Exception
+	{
+		assertThat(extractor.initAdaptivePagingPolicy(configMap)).isNull();
+
+		configMap.put(ArgumentExtractorForThriftEMF.ADAPTIVE_PAGING_PARAM, false);
+		assertThat(extractor.initAdaptivePagingPolicy(configMap)).isNull();
+	}
+
+	@Test
+	public void should_init_paging_policy() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.ADAPTIVE_PAGING_PARAM, true);
+		configMap.put(ArgumentExtractorForThriftEMF.PAGING_MIN_COUNT_PARAM, 20);
+
+		AdaptivePagingPolicy policy = extractor.initAdaptivePagingPolicy(configMap);
+
+		assertThat(policy.getMinCount()).isEqualTo(20);
+		assertThat(policy.getMaxCount()).isEqualTo(
+				ArgumentExtractorForThriftEMF.DEFAULT_PAGING_MAX_COUNT);
+	}
+
+	@Test
+	public void should_exception_when_paging_min_count_greater_than_max_count() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.ADAPTIVE_PAGING_PARAM, true);
+		configMap.put(ArgumentExtractorForThriftEMF.PAGING_MIN_COUNT_PARAM, 200);
+		configMap.put(ArgumentExtractorForThriftEMF.PAGING_MAX_COUNT_PARAM, 100);
+
+		exception.expect(AchillesException.class);
+		exception
+				.expectMessage("'achilles.paging.min.count' property should not be greater than 'achilles.paging.max.count'");
+		extractor.initAdaptivePagingPolicy(configMap);
+	}
+
+	@Test
+	public void should_not_init_counter_aggregator_when_aggregation_disabled() throws Exception
+	{
+		assertThat(extractor.initCounterDeltaAggregator(configMap, counterDao)).isNull();
+	}
+
+	@Test
+	public void should_init_counter_aggregator() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.COUNTER_AGGREGATION_PARAM, true);
+		configMap.put(ArgumentExtractorForThriftEMF.COUNTER_FLUSH_THRESHOLD_PARAM, 50);
+
+		CounterDeltaAggregator aggregator = extractor.initCounterDeltaAggregator(configMap,
+				counterDao);
+
+		assertThat(aggregator.getFlushThreshold()).isEqualTo(50);
+		aggregator.close();
+	}
+
+	@Test
+	public void should_exception_when_counter_flush_interval_not_positive() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.COUNTER_AGGREGATION_PARAM, true);
+		configMap.put(ArgumentExtractorForThriftEMF.COUNTER_FLUSH_INTERVAL_PARAM, -1);
+
+		exception.expect(AchillesException.class);
+		exception
+				.expectMessage("'achilles.counter.flush.interval.ms' property should be strictly positive");
+		extractor.initCounterDeltaAggregator(configMap, counterDao);
+	}
+	@Test
+	public void should_not_init_mutation_batching_policy_when_batching_disabled()
+			throws Exception
+	{
+		assertThat(extractor.initMutationBatchingPolicy(configMap)).isNull();
+	}
+
+	@Test
+	public void should_init_mutation_batching_policy() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.MUTATION_BATCHING_PARAM, true);
+		configMap.put(ArgumentExtractorForThriftEMF.MUTATION_BATCH_MAX_COLUMNS_PARAM, 100);
+
+		MutationBatchingPolicy policy = extractor.initMutationBatchingPolicy(configMap);
+
+		assertThat(policy.getMaxColumns()).isEqualTo(100);
+		assertThat(policy.getMaxBytes()).isEqualTo(
+				(long) ArgumentExtractorForThriftEMF.DEFAULT_MUTATION_BATCH_MAX_BYTES);
+		assertThat(policy.getParallelism()).isEqualTo(
+				ArgumentExtractorForThriftEMF.DEFAULT_MUTATION_BATCH_PARALLELISM);
+	}
+
+	@Test
+	public void should_exception_when_mutation_batch_parallelism_not_positive() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.MUTATION_BATCHING_PARAM, true);
+		configMap.put(ArgumentExtractorForThriftEMF.MUTATION_BATCH_PARALLELISM_PARAM, 0);
+
+		exception.expect(AchillesException.class);
+		exception
+				.expectMessage("'achilles.mutation.batch.parallelism' property should be strictly positive");
+		extractor.initMutationBatchingPolicy(configMap);
+	}
+
+	@Test
+	public void should_init_default_multiget_policy() throws Exception
+	{
+		MultigetPolicy policy = extractor.initMultigetPolicy(configMap);
+
+		assertThat(policy.getChunkSize()).isEqualTo(
+				ArgumentExtractorForThriftEMF.DEFAULT_MULTIGET_CHUNK_SIZE);
+		assertThat(policy.getParallelism()).isEqualTo(
+				ArgumentExtractorForThriftEMF.DEFAULT_MULTIGET_PARALLELISM);
+	}
+
+	@Test
+	public void should_init_multiget_policy() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.MULTIGET_CHUNK_SIZE_PARAM, 50);
+		configMap.put(ArgumentExtractorForThriftEMF.MULTIGET_PARALLELISM_PARAM, 2);
+
+		MultigetPolicy policy = extractor.initMultigetPolicy(configMap);
+
+		assertThat(policy.getChunkSize()).isEqualTo(50);
+		assertThat(policy.getParallelism()).isEqualTo(2);
+	}
+
+	@Test
+	public void should_not_init_persistence_context_by_default() throws Exception
+	{
+		assertThat(extractor.initPersistenceContext(configMap)).isFalse();
+	}
+
+	@Test
+	public void should_init_persistence_context() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.PERSISTENCE_CONTEXT_PARAM, true);
+
+		assertThat(extractor.initPersistenceContext(configMap)).isTrue();
+	}
+
+	@Test
+	public void should_init_entity_cache() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.CACHE_MAX_SIZE_PARAM, 500);
+
+		EntityCache entityCache = extractor.initEntityCache(configMap);
+
+		assertThat(entityCache.getMaxSize()).isEqualTo(500);
+		assertThat(entityCache.getTimeToLive()).isEqualTo(
+				(long) ArgumentExtractorForThriftEMF.DEFAULT_CACHE_TTL);
+	}
+
+	@Test
+	public void should_not_init_value_compressor_by_default() throws Exception
+	{
+		assertThat(extractor.initValueCompressor(configMap)).isNull();
+	}
+
+	@Test
+	public void should_init_value_compressor() throws Exception
+	{
+		configMap.put(ArgumentExtractorForThriftEMF.COMPRESSION_THRESHOLD_PARAM, 2048);
+
+		ValueCompressor compressor = extractor.initValueCompressor(configMap);
+
+		assertThat(compressor.getThreshold()).isEqualTo(2048);
+	}
 }
@@ -0,0 +1,57 @@
+package info.archinnov.achilles.entity.manager;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import mapping.entity.CompleteBean;
+import mapping.entity.UserBean;
+
+import org.junit.Test;
+
+/**
+ * PersistenceContextTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class PersistenceContextTest
+{
+	private PersistenceContext persistenceContext = new PersistenceContext();
+
+	@Test
+	public void should_get_entity_by_class_and_primary_key() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		UserBean user = new UserBean();
+		persistenceContext.put(CompleteBean.class, 1L, bean);
+		persistenceContext.put(UserBean.class, 1L, user);
+
+		assertThat(persistenceContext.get(CompleteBean.class, 1L)).isSameAs(bean);
+		assertThat(persistenceContext.get(UserBean.class, 1L)).isSameAs(user);
+		assertThat(persistenceContext.get(CompleteBean.class, 2L)).isNull();
+		assertThat(persistenceContext.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void should_contain_only_same_instance() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		persistenceContext.put(CompleteBean.class, 1L, bean);
+
+		assertThat(persistenceContext.contains(CompleteBean.class, 1L, bean)).isTrue();
+		assertThat(persistenceContext.contains(CompleteBean.class, 1L, new CompleteBean()))
+				.isFalse();
+	}
+
+	@Test
+	public void should_remove_and_clear() throws Exception
+	{
+		persistenceContext.put(CompleteBean.class, 1L, new CompleteBean());
+		persistenceContext.put(CompleteBean.class, 2L, new CompleteBean());
+
+		persistenceContext.remove(CompleteBean.class, 1L);
+		assertThat(persistenceContext.get(CompleteBean.class, 1L)).isNull();
+		assertThat(persistenceContext.size()).isEqualTo(1);
+
+		persistenceContext.clear();
+		assertThat(persistenceContext.size()).isEqualTo(0);
+	}
+}
@@ -7,10 +7,12 @@ import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import info.archinnov.achilles.columnFamily.ColumnFamilyCreator;
 import info.archinnov.achilles.dao.CounterDao;
+import info.archinnov.achilles.dao.CounterDeltaAggregator;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.parser.EntityExplorer;
@@ -21,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import javax.persistence.EntityManager;
 
@@ -39,6 +42,7 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
+import org.powermock.reflect.Whitebox;
 
 import parser.entity.BeanWithSimpleCounter;
 
@@ -101,6 +105,12 @@ public class ThriftEntityManagerFactoryImplTest
 	@Mock
 	private CounterDao counterDao;
 
+	@Mock
+	private CounterDeltaAggregator counterDeltaAggregator;
+
+	@Mock
+	private ExecutorService asyncExecutor;
+
 	@Before
 	public void setUp()
 	{
@@ -207,16 +217,37 @@ public class ThriftEntityManagerFactoryImplTest
 		assertThat(em).isNotNull();
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
+	@Test
 	public void should_return_true_when_open_called() throws Exception
 	{
-		factory.isOpen();
+		assertThat(factory.isOpen()).isTrue();
+	}
+
+	@Test
+	public void should_flush_counter_deltas_and_shutdown_executor_when_close_called()
+			throws Exception
+	{
+		Whitebox.setInternalState(factory, "counterDeltaAggregator", counterDeltaAggregator);
+		Whitebox.setInternalState(factory, "asyncExecutor", asyncExecutor);
+		Whitebox.setInternalState(factory, "ownsAsyncExecutor", true);
+
+		factory.close();
+		factory.close();
+
+		assertThat(factory.isOpen()).isFalse();
+		verify(counterDeltaAggregator, times(1)).close();
+		verify(asyncExecutor, times(1)).shutdown();
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
-	public void should_do_nothing_when_close_called() throws Exception
+	@Test
+	public void should_not_shutdown_provided_executor_when_close_called() throws Exception
 	{
+		Whitebox.setInternalState(factory, "asyncExecutor", asyncExecutor);
+
 		factory.close();
+
+		assertThat(factory.isOpen()).isFalse();
+		verify(asyncExecutor, never()).shutdown();
 	}
 
 }
@@ -1,37 +1,53 @@
 package info.archinnov.achilles.entity.manager;
 
+import static info.archinnov.achilles.entity.metadata.PropertyType.COUNTER;
 import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_SIMPLE;
 import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_WIDE_MAP;
 import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_LIST;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SIMPLE;
 import static info.archinnov.achilles.entity.metadata.PropertyType.WIDE_MAP;
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import info.archinnov.achilles.annotations.Lazy;
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.operations.BatchMutators;
+import info.archinnov.achilles.entity.operations.EntityGraphLoader;
+import info.archinnov.achilles.entity.operations.EntityInitializer;
 import info.archinnov.achilles.entity.operations.EntityLoader;
 import info.archinnov.achilles.entity.operations.EntityMerger;
 import info.archinnov.achilles.entity.operations.EntityPersister;
 import info.archinnov.achilles.entity.operations.EntityValidator;
+import info.archinnov.achilles.entity.operations.UnitOfWork;
 import info.archinnov.achilles.entity.type.WideMap;
+import info.archinnov.achilles.exception.AchillesException;
 import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
 
+import java.io.StringReader;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 import javax.persistence.Column;
 import javax.persistence.FlushModeType;
@@ -39,6 +55,7 @@ import javax.persistence.JoinColumn;
 
 import mapping.entity.CompleteBean;
 import mapping.entity.UserBean;
+import me.prettyprint.hector.api.beans.Composite;
 import me.prettyprint.hector.api.mutation.Mutator;
 import net.sf.cglib.proxy.Factory;
 
@@ -49,6 +66,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -57,6 +75,8 @@ import org.powermock.reflect.Whitebox;
 import parser.entity.Bean;
 import testBuilders.PropertyMetaTestBuilder;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 /**
  * ThriftEntityManagerTest
  * 
@@ -95,6 +115,15 @@ public class ThriftEntityManagerTest
 	@Mock
 	private EntityValidator entityValidator;
 
+	@Mock
+	private EntityInitializer initializer;
+
+	@Mock
+	private EntityGraphLoader graphLoader;
+
+	@Mock
+	private UnitOfWork unitOfWork;
+
 	@Mock
 	private EntityMeta entityMeta;
 
@@ -122,6 +151,9 @@ public class ThriftEntityManagerTest
 		Whitebox.setInternalState(em, "merger", merger);
 		Whitebox.setInternalState(em, "helper", helper);
 		Whitebox.setInternalState(em, "entityValidator", entityValidator);
+		Whitebox.setInternalState(em, "initializer", initializer);
+		Whitebox.setInternalState(em, "graphLoader", graphLoader);
+		Whitebox.setInternalState(em, "unitOfWork", unitOfWork);
 
 		propertyMetas = mock(Map.class);
 
@@ -147,6 +179,23 @@ public class ThriftEntityManagerTest
 
 	}
 
+	@Test
+	public void should_evict_persisted_entity_from_persistence_context() throws Exception
+	{
+		CompleteBean found = CompleteBeanTestBuilder.builder().id(1L).buid();
+		PersistenceContext persistenceContext = new PersistenceContext();
+		persistenceContext.put(CompleteBean.class, 1L, found);
+		Whitebox.setInternalState(em, "persistenceContext", persistenceContext);
+		when(entityMetaMap.get(CompleteBean.class)).thenReturn((entityMeta));
+		when(helper.isProxy(entity)).thenReturn(false);
+		when(helper.determinePrimaryKey(entity, entityMeta)).thenReturn(1L);
+
+		em.persist(entity);
+
+		verify(persister).persist(entity, entityMeta);
+		assertThat(persistenceContext.get(CompleteBean.class, 1L)).isNull();
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void should_exception_trying_to_persist_a_managed_entity() throws Exception
 	{
@@ -194,25 +243,306 @@ public class ThriftEntityManagerTest
 	{
 		when(entityMetaMap.get(CompleteBean.class)).thenReturn(entityMeta);
 		when(loader.load(CompleteBean.class, 1L, entityMeta)).thenReturn(entity);
-		when(helper.buildProxy(entity, entityMeta)).thenReturn(entity);
+		when(helper.buildLoadedProxy(entity, entityMeta)).thenReturn(entity);
 
 		CompleteBean bean = em.find(CompleteBean.class, 1L);
 
 		assertThat(bean).isSameAs(entity);
 	}
 
+	@Test
+	public void should_find_from_persistence_context() throws Exception
+	{
+		PersistenceContext persistenceContext = new PersistenceContext();
+		Whitebox.setInternalState(em, "persistenceContext", persistenceContext);
+		when(loader.load(CompleteBean.class, 1L, entityMeta)).thenReturn(entity);
+		when(helper.buildLoadedProxy(entity, entityMeta)).thenReturn(entity);
+
+		CompleteBean bean = em.find(CompleteBean.class, 1L);
+		CompleteBean sameBean = em.find(CompleteBean.class, 1L);
+
+		assertThat(sameBean).isSameAs(bean);
+		assertThat(persistenceContext.get(CompleteBean.class, 1L)).isSameAs(entity);
+		verify(loader, times(1)).load(CompleteBean.class, 1L, entityMeta);
+	}
+
+	@Test
+	public void should_find_all_missing_entities_of_persistence_context() throws Exception
+	{
+		CompleteBean entity2 = CompleteBeanTestBuilder.builder().id(2L).buid();
+		PersistenceContext persistenceContext = new PersistenceContext();
+		persistenceContext.put(CompleteBean.class, 1L, entity);
+		Whitebox.setInternalState(em, "persistenceContext", persistenceContext);
+		Map<Object, CompleteBean> entitiesByKey = new HashMap<Object, CompleteBean>();
+		entitiesByKey.put(2L, entity2);
+		when(loader.loadAll(CompleteBean.class, Arrays.<Object> asList(2L), entityMeta))
+				.thenReturn(entitiesByKey);
+		when(helper.buildLoadedProxy(entity2, entityMeta)).thenReturn(entity2);
+
+		List<CompleteBean> beans = em.findAll(CompleteBean.class, Arrays.asList(1L, 2L));
+
+		assertThat(beans).containsExactly(entity, entity2);
+		assertThat(persistenceContext.get(CompleteBean.class, 2L)).isSameAs(entity2);
+		verify(graphLoader).loadJoins(Arrays.asList(entity2), entityMeta, 0);
+	}
+
+	@Test
+	public void should_evict_removed_entity_from_persistence_context() throws Exception
+	{
+		PersistenceContext persistenceContext = new PersistenceContext();
+		persistenceContext.put(CompleteBean.class, 1L, entity);
+		Whitebox.setInternalState(em, "persistenceContext", persistenceContext);
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) CompleteBean.class);
+		when(helper.determinePrimaryKey(entity, entityMeta)).thenReturn(1L);
+
+		em.remove(entity);
+
+		assertThat(persistenceContext.get(CompleteBean.class, 1L)).isNull();
+	}
+
+	@Test
+	public void should_remove_entities_with_one_batch() throws Exception
+	{
+		CompleteBean entity2 = CompleteBeanTestBuilder.builder().id(2L).buid();
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) CompleteBean.class);
+		when(helper.deriveBaseClass(entity2)).thenReturn((Class) CompleteBean.class);
+		ArgumentCaptor<BatchMutators> batchCaptor = ArgumentCaptor.forClass(BatchMutators.class);
+
+		em.remove(Arrays.asList(entity, entity2));
+
+		verify(helper).ensureProxy(entity);
+		verify(helper).ensureProxy(entity2);
+		verify(persister).batchRemove(eq(entity), eq(entityMeta), batchCaptor.capture());
+		verify(persister).batchRemove(eq(entity2), eq(entityMeta), batchCaptor.capture());
+		assertThat(batchCaptor.getAllValues().get(0)).isSameAs(batchCaptor.getAllValues().get(1));
+		verify(persister, never()).remove(entity, entityMeta);
+	}
+
+	@Test
+	public void should_record_removal_of_entities_in_commit_flush_mode() throws Exception
+	{
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) CompleteBean.class);
+
+		em.setFlushMode(FlushModeType.COMMIT);
+		em.remove(Arrays.asList(entity));
+
+		verify(unitOfWork).remove(entity, entityMeta);
+		verifyZeroInteractions(persister);
+	}
+
+	@Test
+	public void should_remove_by_ids_and_evict_from_persistence_context() throws Exception
+	{
+		PersistenceContext persistenceContext = new PersistenceContext();
+		persistenceContext.put(CompleteBean.class, 1L, entity);
+		Whitebox.setInternalState(em, "persistenceContext", persistenceContext);
+
+		em.removeByIds(CompleteBean.class, Arrays.asList(1L, 2L, 1L));
+
+		verify(persister).removeByIds(new LinkedHashSet<Object>(Arrays.asList(1L, 2L)),
+				entityMeta);
+		assertThat(persistenceContext.get(CompleteBean.class, 1L)).isNull();
+		verifyZeroInteractions(unitOfWork);
+	}
+
+	@Test
+	public void should_flush_unit_of_work_before_removing_by_ids_in_commit_flush_mode()
+			throws Exception
+	{
+		em.setFlushMode(FlushModeType.COMMIT);
+		em.removeByIds(CompleteBean.class, Arrays.asList(1L));
+
+		InOrder inOrder = inOrder(unitOfWork, persister);
+		inOrder.verify(unitOfWork).flush();
+		inOrder.verify(persister).removeByIds(new LinkedHashSet<Object>(Arrays.asList(1L)),
+				entityMeta);
+	}
+
+	@Test
+	public void should_exception_when_removing_by_ids_of_unmanaged_class() throws Exception
+	{
+		exception.expect(AchillesException.class);
+		exception.expectMessage("The entity class '" + UserBean.class.getCanonicalName()
+				+ "' is not managed");
+
+		em.removeByIds(UserBean.class, Arrays.asList(1L));
+	}
+
+	@Test
+	public void should_exception_when_removing_null_id() throws Exception
+	{
+		exception.expect(AchillesException.class);
+		exception.expectMessage("Entity primaryKeys should not contain null");
+
+		em.removeByIds(CompleteBean.class, Arrays.asList(1L, null));
+	}
+
+	@Test
+	public void should_contain_only_instance_of_persistence_context() throws Exception
+	{
+		CompleteBean otherInstance = CompleteBeanTestBuilder.builder().id(1L).buid();
+		PersistenceContext persistenceContext = new PersistenceContext();
+		persistenceContext.put(CompleteBean.class, 1L, entity);
+		Whitebox.setInternalState(em, "persistenceContext", persistenceContext);
+		when(helper.isProxy(entity)).thenReturn(true);
+		when(helper.isProxy(otherInstance)).thenReturn(true);
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) CompleteBean.class);
+		when(helper.deriveBaseClass(otherInstance)).thenReturn((Class) CompleteBean.class);
+		when(helper.determinePrimaryKey(entity, entityMeta)).thenReturn(1L);
+		when(helper.determinePrimaryKey(otherInstance, entityMeta)).thenReturn(1L);
+
+		assertThat(em.contains(entity)).isTrue();
+		assertThat(em.contains(otherInstance)).isFalse();
+
+		em.clear();
+
+		assertThat(em.contains(entity)).isFalse();
+	}
+
+	@Test
+	public void should_contain_proxy_without_persistence_context() throws Exception
+	{
+		when(helper.isProxy(entity)).thenReturn(true);
+
+		assertThat(em.contains(entity)).isTrue();
+		assertThat(em.contains("not an entity")).isFalse();
+	}
+
+	@Test
+	public void should_check_entity_exists() throws Exception
+	{
+		when(entityMetaMap.get(CompleteBean.class)).thenReturn(entityMeta);
+		when(loader.exists(1L, entityMeta)).thenReturn(true);
+
+		assertThat(em.exists(CompleteBean.class, 1L)).isTrue();
+	}
+
+	@Test
+	public void should_exception_when_checking_existence_of_unmanaged_entity() throws Exception
+	{
+		exception.expect(AchillesException.class);
+		exception.expectMessage("The entity class '" + String.class.getCanonicalName()
+				+ "' is not managed");
+
+		em.exists(String.class, 1L);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_find_all_in_key_order() throws Exception
+	{
+		CompleteBean entity2 = CompleteBeanTestBuilder.builder().id(2L).buid();
+		Map<Object, CompleteBean> entitiesByKey = new HashMap<Object, CompleteBean>();
+		entitiesByKey.put(1L, entity);
+		entitiesByKey.put(2L, entity2);
+		when(entityMetaMap.get(CompleteBean.class)).thenReturn(entityMeta);
+		when(loader.loadAll(CompleteBean.class, Arrays.<Object> asList(2L, 3L, 1L), entityMeta))
+				.thenReturn(entitiesByKey);
+		when(helper.buildLoadedProxy(entity, entityMeta)).thenReturn(entity);
+		when(helper.buildLoadedProxy(entity2, entityMeta)).thenReturn(entity2);
+
+		List<CompleteBean> beans = em.findAll(CompleteBean.class, Arrays.asList(2L, 3L, 1L, 2L));
+
+		assertThat(beans).containsExactly(entity2, entity);
+		verify(graphLoader).loadJoins(Arrays.asList(entity2, entity), entityMeta, 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_find_all_with_join_entities() throws Exception
+	{
+		Map<Object, CompleteBean> entitiesByKey = new HashMap<Object, CompleteBean>();
+		entitiesByKey.put(1L, entity);
+		when(entityMetaMap.get(CompleteBean.class)).thenReturn(entityMeta);
+		when(loader.loadAll(CompleteBean.class, Arrays.<Object> asList(1L), entityMeta))
+				.thenReturn(entitiesByKey);
+		when(helper.buildLoadedProxy(entity, entityMeta)).thenReturn(entity);
+
+		List<CompleteBean> beans = em.findAll(CompleteBean.class, Arrays.asList(1L), 2);
+
+		assertThat(beans).containsExactly(entity);
+		verify(graphLoader).loadJoins(Arrays.asList(entity), entityMeta, 2);
+	}
+
+	@Test
+	public void should_exception_when_find_all_with_null_key() throws Exception
+	{
+		exception.expect(AchillesException.class);
+		exception.expectMessage("Entity primaryKeys should not contain null");
+
+		em.findAll(CompleteBean.class, Arrays.asList(1L, null));
+	}
+
 	@Test
 	public void should_get_reference() throws Exception
 	{
 		when(entityMetaMap.get(CompleteBean.class)).thenReturn(entityMeta);
 		when(loader.load(CompleteBean.class, 1L, entityMeta)).thenReturn(entity);
-		when(helper.buildProxy(entity, entityMeta)).thenReturn(entity);
+		when(helper.buildLoadedProxy(entity, entityMeta)).thenReturn(entity);
 
 		CompleteBean bean = em.find(CompleteBean.class, 1L);
 
 		assertThat(bean).isSameAs(entity);
 	}
 
+	@Test
+	public void should_persist_async() throws Exception
+	{
+		Whitebox.setInternalState(em, "executor", MoreExecutors.sameThreadExecutor());
+		when(helper.isProxy(entity)).thenReturn(false);
+
+		Future<Void> future = em.persistAsync(entity);
+
+		assertThat(future.get()).isNull();
+		verify(persister).persist(entity, entityMeta);
+	}
+
+	@Test
+	public void should_merge_async() throws Exception
+	{
+		Whitebox.setInternalState(em, "executor", MoreExecutors.sameThreadExecutor());
+		when((Class<CompleteBean>) helper.deriveBaseClass(entity)).thenReturn(CompleteBean.class);
+		when(merger.mergeEntity(entity, entityMeta)).thenReturn(entity);
+
+		Future<CompleteBean> future = em.mergeAsync(entity);
+
+		assertThat(future.get()).isSameAs(entity);
+	}
+
+	@Test
+	public void should_remove_async() throws Exception
+	{
+		Whitebox.setInternalState(em, "executor", MoreExecutors.sameThreadExecutor());
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) CompleteBean.class);
+
+		em.removeAsync(entity).get();
+
+		verify(persister).remove(entity, entityMeta);
+	}
+
+	@Test
+	public void should_find_async() throws Exception
+	{
+		Whitebox.setInternalState(em, "executor", MoreExecutors.sameThreadExecutor());
+		when(loader.load(CompleteBean.class, 1L, entityMeta)).thenReturn(entity);
+		when(helper.buildLoadedProxy(entity, entityMeta)).thenReturn(entity);
+
+		Future<CompleteBean> future = em.findAsync(CompleteBean.class, 1L);
+
+		assertThat(future.get()).isSameAs(entity);
+	}
+
+	@Test
+	public void should_exception_when_no_executor_for_async_operation() throws Exception
+	{
+		Whitebox.setInternalState(em, "executor", (Object) null);
+
+		exception.expect(AchillesException.class);
+		exception.expectMessage("No executor has been configured for asynchronous operations");
+
+		em.findAsync(CompleteBean.class, 1L);
+	}
+
 	@Test
 	public void should_get_flush_mode() throws Exception
 	{
@@ -231,10 +561,60 @@ public class ThriftEntityManagerTest
 
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
-	public void should_exception_when_set_flush_mode() throws Exception
+	@Test
+	public void should_record_operations_in_commit_flush_mode() throws Exception
+	{
+		CompleteBean proxy = CompleteBeanTestBuilder.builder().id(2L).buid();
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) CompleteBean.class);
+		when(helper.deriveBaseClass(proxy)).thenReturn((Class) CompleteBean.class);
+		when(helper.isProxy(proxy)).thenReturn(true);
+
+		em.setFlushMode(FlushModeType.COMMIT);
+		em.persist(entity);
+		CompleteBean mergedProxy = em.merge(proxy);
+		em.remove(proxy);
+
+		assertThat(em.getFlushMode()).isEqualTo(FlushModeType.COMMIT);
+		assertThat(mergedProxy).isSameAs(proxy);
+		verify(unitOfWork).persist(entity, entityMeta);
+		verify(unitOfWork).merge(proxy, entityMeta);
+		verify(unitOfWork).remove(proxy, entityMeta);
+		verifyZeroInteractions(persister);
+		verify(merger, never()).mergeEntity(proxy, entityMeta);
+	}
+
+	@Test
+	public void should_return_new_proxy_when_merging_transient_entity_in_commit_flush_mode()
+			throws Exception
 	{
+		CompleteBean proxy = CompleteBeanTestBuilder.builder().id(1L).buid();
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) CompleteBean.class);
+		when(helper.buildTransientProxy(entity, entityMeta)).thenReturn(proxy);
+
 		em.setFlushMode(FlushModeType.COMMIT);
+
+		assertThat(em.merge(entity)).isSameAs(proxy);
+		verify(unitOfWork).merge(entity, entityMeta);
+	}
+
+	@Test
+	public void should_flush_unit_of_work() throws Exception
+	{
+		em.flush();
+
+		verify(unitOfWork).flush();
+	}
+
+	@Test
+	public void should_flush_pending_operations_when_back_to_auto_flush_mode() throws Exception
+	{
+		em.setFlushMode(FlushModeType.COMMIT);
+		verifyZeroInteractions(unitOfWork);
+
+		em.setFlushMode(FlushModeType.AUTO);
+
+		verify(unitOfWork).flush();
+		assertThat(em.getFlushMode()).isEqualTo(FlushModeType.AUTO);
 	}
 
 	@Test
@@ -338,6 +718,179 @@ public class ThriftEntityManagerTest
 		verify(interceptor).setMutatorMap(null);
 	}
 
+	@Test
+	public void should_end_batch_with_counter_mutator() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		JpaEntityInterceptor<Object, CompleteBean> interceptor = mock(JpaEntityInterceptor.class);
+
+		when(helper.deriveBaseClass(bean)).thenReturn((Class) CompleteBean.class);
+		when(helper.getInterceptor(bean)).thenReturn(interceptor);
+		when(interceptor.getMutator()).thenReturn((Mutator) mutator);
+		when(entityMeta.getEntityDao()).thenReturn(entityDao);
+
+		Map<String, Mutator<?>> mutatorMap = new HashMap<String, Mutator<?>>();
+		Mutator<Composite> counterMutator = mock(Mutator.class);
+		mutatorMap.put("count", counterMutator);
+		when(interceptor.getMutatorMap()).thenReturn(mutatorMap);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+
+		CounterDao counterDao = mock(CounterDao.class);
+		PropertyMeta<Void, Long> counterMeta = PropertyMetaTestBuilder
+				.noClass(Void.class, Long.class) //
+				.type(COUNTER) //
+				.counterDao(counterDao) //
+				.build();
+		when((PropertyMeta<Void, Long>) propertyMetas.get("count")).thenReturn(counterMeta);
+
+		em.endBatch(bean);
+
+		verify(entityDao).executeMutator(mutator);
+		verify(counterDao).executeMutator(counterMutator);
+		verify(interceptor).setMutatorMap(null);
+	}
+
+	@Test
+	public void should_increment_counter_property() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		JpaEntityInterceptor<Object, CompleteBean> interceptor = mock(JpaEntityInterceptor.class);
+		PropertyMeta<Void, Long> counterMeta = PropertyMetaTestBuilder
+				.completeBean(Void.class, Long.class) //
+				.field("age") //
+				.accesors() //
+				.type(COUNTER) //
+				.build();
+
+		when(helper.deriveBaseClass(bean)).thenReturn((Class) CompleteBean.class);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when((PropertyMeta<Void, Long>) propertyMetas.get("age")).thenReturn(counterMeta);
+		when(helper.getInterceptor(bean)).thenReturn(interceptor);
+		when(interceptor.isBatchMode()).thenReturn(false);
+		when(interceptor.getKey()).thenReturn(10L);
+		when(helper.getRealObject(bean)).thenReturn(bean);
+		when(helper.getValueFromField(bean, counterMeta.getGetter())).thenReturn(5L);
+
+		em.increment(bean, "age", 3L);
+
+		verify(helper).ensureProxy(bean);
+		verify(persister).incrementCounter(10L, counterMeta, 3L, null);
+		verify(helper).setValueToField(bean, counterMeta.getSetter(), 8L);
+	}
+
+	@Test
+	public void should_decrement_counter_property_in_batch() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		JpaEntityInterceptor<Object, CompleteBean> interceptor = mock(JpaEntityInterceptor.class);
+		Mutator<Composite> counterMutator = mock(Mutator.class);
+		PropertyMeta<Void, Long> counterMeta = PropertyMetaTestBuilder
+				.completeBean(Void.class, Long.class) //
+				.field("age") //
+				.accesors() //
+				.type(COUNTER) //
+				.build();
+
+		when(helper.deriveBaseClass(bean)).thenReturn((Class) CompleteBean.class);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when((PropertyMeta<Void, Long>) propertyMetas.get("age")).thenReturn(counterMeta);
+		when(helper.getInterceptor(bean)).thenReturn(interceptor);
+		when(interceptor.isBatchMode()).thenReturn(true);
+		when((Mutator) interceptor.getMutatorForProperty("age")).thenReturn(counterMutator);
+		when(interceptor.getKey()).thenReturn(10L);
+		when(helper.getRealObject(bean)).thenReturn(bean);
+
+		em.decrement(bean, "age", 2L);
+
+		verify(persister).incrementCounter(10L, counterMeta, -2L, counterMutator);
+	}
+
+	@Test
+	public void should_exception_when_incrementing_non_counter_property() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		PropertyMeta<Void, String> nameMeta = PropertyMetaTestBuilder
+				.completeBean(Void.class, String.class) //
+				.field("name") //
+				.type(SIMPLE) //
+				.build();
+
+		when(helper.deriveBaseClass(bean)).thenReturn((Class) CompleteBean.class);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when((PropertyMeta<Void, String>) propertyMetas.get("name")).thenReturn(nameMeta);
+
+		exception.expect(AchillesException.class);
+		exception.expectMessage("The property 'name' is not a simple counter property");
+
+		em.increment(bean, "name", 1L);
+	}
+
+	@SuppressWarnings(
+	{
+			"unchecked",
+			"rawtypes"
+	})
+	@Test
+	public void should_write_chunked_property_from_stream() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		JpaEntityInterceptor<Object, CompleteBean> interceptor = mock(JpaEntityInterceptor.class);
+		PropertyMeta<Void, String> nameMeta = PropertyMetaTestBuilder
+				.completeBean(Void.class, String.class) //
+				.field("name") //
+				.accesors() //
+				.type(SIMPLE) //
+				.build();
+		nameMeta.setValueChunker(new ValueChunker(10));
+		Map<Method, PropertyMeta<?, ?>> dirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		dirtyMap.put(nameMeta.getGetter(), nameMeta);
+		Set<Method> lazyAlreadyLoaded = new HashSet<Method>();
+		lazyAlreadyLoaded.add(nameMeta.getGetter());
+		StringReader reader = new StringReader("name");
+
+		when(helper.deriveBaseClass(bean)).thenReturn((Class) CompleteBean.class);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when((PropertyMeta<Void, String>) propertyMetas.get("name")).thenReturn(nameMeta);
+		when(entityMeta.getEntityDao()).thenReturn(entityDao);
+		when(helper.getInterceptor(bean)).thenReturn(interceptor);
+		when(interceptor.getKey()).thenReturn(10L);
+		when(interceptor.getDirtyMap()).thenReturn(dirtyMap);
+		when(interceptor.getLazyAlreadyLoaded()).thenReturn(lazyAlreadyLoaded);
+
+		em.writeChunked(bean, "name", reader);
+
+		verify(helper).ensureProxy(bean);
+		verify(persister).persistChunkedValue(10L, entityDao, nameMeta, reader);
+		verify(persister).invalidateCachedEntity(10L, entityMeta);
+		assertThat(dirtyMap).isEmpty();
+		assertThat(lazyAlreadyLoaded).isEmpty();
+	}
+
+	@SuppressWarnings(
+	{
+			"unchecked",
+			"rawtypes"
+	})
+	@Test
+	public void should_exception_when_streaming_non_chunked_property() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		PropertyMeta<Void, String> nameMeta = PropertyMetaTestBuilder
+				.completeBean(Void.class, String.class) //
+				.field("name") //
+				.type(SIMPLE) //
+				.build();
+
+		when(helper.deriveBaseClass(bean)).thenReturn((Class) CompleteBean.class);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when((PropertyMeta<Void, String>) propertyMetas.get("name")).thenReturn(nameMeta);
+
+		exception.expect(AchillesException.class);
+		exception.expectMessage("The property 'name' is not a chunked property");
+
+		em.openChunkedReader(bean, "name");
+	}
+
 	@Test
 	public void should_exception_when_trying_to_end_batch_with_null_entity() throws Exception
 	{
@@ -480,6 +1033,29 @@ public class ThriftEntityManagerTest
 		assertThat(getTweetsCalled).isEmpty();
 	}
 
+	@Test
+	public void should_initialize_lazy_fields_of_collection_by_entity_class() throws Exception
+	{
+		CompleteBean entity1 = CompleteBeanTestBuilder.builder().id(1L).buid();
+		CompleteBean entity2 = CompleteBeanTestBuilder.builder().id(2L).buid();
+		Bean bean = new Bean();
+		EntityMeta beanMeta = mock(EntityMeta.class);
+
+		when(helper.getRealObject(entity1)).thenReturn(entity1);
+		when(helper.getRealObject(entity2)).thenReturn(entity2);
+		when(helper.getRealObject(bean)).thenReturn(bean);
+		when(entityMetaMap.get(Bean.class)).thenReturn(beanMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(new HashMap<String, PropertyMeta<?, ?>>());
+		when(beanMeta.getPropertyMetas()).thenReturn(new HashMap<String, PropertyMeta<?, ?>>());
+
+		em.initialize(Arrays.<Object> asList(entity1, bean, entity2));
+
+		verify(initializer).loadLazyProperties(Arrays.<Object> asList(entity1, entity2),
+				entityMeta);
+		verify(initializer).loadLazyProperties(Arrays.<Object> asList(bean), beanMeta);
+		verify(helper, times(2)).ensureProxy(entity1);
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void should_exception_when_entity_is_not_managed() throws Exception
 	{
@@ -2,6 +2,8 @@ package info.archinnov.achilles.entity.metadata;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import info.archinnov.achilles.codec.NativeValueCodec;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.entity.type.KeyValue;
 
@@ -16,6 +18,7 @@ import java.util.UUID;
 import mapping.entity.UserBean;
 import me.prettyprint.cassandra.utils.TimeUUIDUtils;
 
+import org.apache.commons.lang.StringUtils;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Test;
 
@@ -75,6 +78,54 @@ public class PropertyMetaTest
 		assertThat(casted).isInstanceOf(Long.class);
 	}
 
+	@Test
+	public void should_read_and_write_values_with_codec() throws Exception
+	{
+		UUID uuid = new UUID(10L, 11L);
+		PropertyMeta<Void, UUID> meta = new PropertyMeta<Void, UUID>();
+		meta.setType(PropertyType.SIMPLE);
+		meta.setValueClass(UUID.class);
+		meta.setObjectMapper(objectMapper);
+		meta.setValueCodec(new NativeValueCodec(objectMapper));
+
+		assertThat(meta.writeValueToString(uuid)).isEqualTo(uuid.toString());
+		assertThat(meta.getValueFromString(uuid.toString())).isEqualTo(uuid);
+		assertThat(meta.getValueFromString(objectMapper.writeValueAsString(uuid))).isEqualTo(
+				uuid);
+	}
+
+	@Test
+	public void should_compress_and_decompress_values() throws Exception
+	{
+		PropertyMeta<Void, String> meta = new PropertyMeta<Void, String>();
+		meta.setType(PropertyType.SIMPLE);
+		meta.setValueClass(String.class);
+		meta.setObjectMapper(objectMapper);
+		meta.setValueCompressor(new ValueCompressor(10));
+		String text = StringUtils.repeat("text", 50);
+
+		String stored = meta.writeValueToString(text);
+
+		assertThat(ValueCompressor.isCompressed(stored)).isTrue();
+		assertThat(meta.getValueFromString(stored)).isEqualTo(text);
+
+		meta.setValueCompressor(null);
+		assertThat(meta.writeValueToString(text)).isEqualTo(text);
+		assertThat(meta.getValueFromString(stored)).isEqualTo(stored);
+	}
+
+	@Test
+	public void should_not_decompress_values_without_compressor() throws Exception
+	{
+		PropertyMeta<Void, String> meta = new PropertyMeta<Void, String>();
+		meta.setType(PropertyType.SIMPLE);
+		meta.setValueClass(String.class);
+		meta.setObjectMapper(objectMapper);
+		String text = "\u0000not compressed";
+
+		assertThat(meta.getValueFromString(meta.writeValueToString(text))).isEqualTo(text);
+	}
+
 	@Test
 	public void should_get_value_from_string() throws Exception
 	{
@@ -37,6 +37,24 @@ public class PropertyTypeTest
 		assertThat(PropertyType.MAP.isLazy()).isFalse();
 	}
 
+	@Test
+	public void should_test_is_multi_value() throws Exception
+	{
+		assertThat(PropertyType.LIST.isMultiValue()).isTrue();
+		assertThat(PropertyType.LAZY_LIST.isMultiValue()).isTrue();
+		assertThat(PropertyType.SET.isMultiValue()).isTrue();
+		assertThat(PropertyType.LAZY_SET.isMultiValue()).isTrue();
+		assertThat(PropertyType.MAP.isMultiValue()).isTrue();
+		assertThat(PropertyType.LAZY_MAP.isMultiValue()).isTrue();
+
+		assertThat(PropertyType.SIMPLE.isMultiValue()).isFalse();
+		assertThat(PropertyType.LAZY_SIMPLE.isMultiValue()).isFalse();
+		assertThat(PropertyType.JOIN_LIST.isMultiValue()).isFalse();
+		assertThat(PropertyType.JOIN_SET.isMultiValue()).isFalse();
+		assertThat(PropertyType.JOIN_MAP.isMultiValue()).isFalse();
+		assertThat(PropertyType.WIDE_MAP.isMultiValue()).isFalse();
+	}
+
 	@Test
 	public void should_test_is_join_column() throws Exception
 	{
@@ -1,5 +1,6 @@
 package info.archinnov.achilles.entity.metadata.builder;
 
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_SIMPLE;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SIMPLE;
 import static info.archinnov.achilles.entity.metadata.builder.EntityMetaBuilder.entityMetaBuilder;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
@@ -98,6 +99,32 @@ public class EntityMetaBuilderTest
 	}
 
 	@SuppressWarnings("unchecked")
+	@Test
+	public void should_build_meta_with_fetch_groups() throws Exception
+	{
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		PropertyMeta<Void, String> nameMeta = new PropertyMeta<Void, String>();
+		nameMeta.setType(LAZY_SIMPLE);
+		nameMeta.setFetchGroup("details");
+		PropertyMeta<Void, String> labelMeta = new PropertyMeta<Void, String>();
+		labelMeta.setType(LAZY_SIMPLE);
+		labelMeta.setFetchGroup("details");
+		PropertyMeta<Void, String> ageMeta = new PropertyMeta<Void, String>();
+		ageMeta.setType(LAZY_SIMPLE);
+
+		propertyMetas.put("name", nameMeta);
+		propertyMetas.put("label", labelMeta);
+		propertyMetas.put("age", ageMeta);
+
+		when(idMeta.getValueClass()).thenReturn(Long.class);
+
+		EntityMeta<Long> meta = entityMetaBuilder(idMeta).className("Bean").serialVersionUID(1L)
+				.propertyMetas(propertyMetas).columnFamilyName("toto").keyspace(keyspace).build();
+
+		assertThat(meta.getFetchGroups()).hasSize(1);
+		assertThat(meta.getFetchGroups().get("details")).containsOnly(nameMeta, labelMeta);
+	}
+
 	@Test
 	public void should_build_meta_with_column_family_name() throws Exception
 	{
@@ -0,0 +1,139 @@
+package info.archinnov.achilles.entity.operations;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import me.prettyprint.hector.api.mutation.Mutator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * BatchMutatorsTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BatchMutatorsTest
+{
+	private BatchMutators batchMutators = new BatchMutators();
+
+	@Mock
+	private GenericDynamicCompositeDao<Long> dao;
+
+	@Mock
+	private GenericDynamicCompositeDao<Long> userDao;
+
+	@Mock
+	private Mutator<Long> mutator;
+
+	@Mock
+	private Mutator<Long> userMutator;
+
+	@Before
+	public void setUp()
+	{
+		when(dao.buildMutator()).thenReturn(mutator);
+		when(userDao.buildMutator()).thenReturn(userMutator);
+	}
+
+	@Test
+	public void should_build_one_mutator_per_column_family() throws Exception
+	{
+		assertThat(batchMutators.getMutator(dao)).isSameAs(mutator);
+		assertThat(batchMutators.getMutator(dao)).isSameAs(mutator);
+		assertThat(batchMutators.getMutator(userDao)).isSameAs(userMutator);
+
+		assertThat(batchMutators.size()).isEqualTo(2);
+		verify(dao, times(1)).buildMutator();
+	}
+
+	@Test
+	public void should_execute_single_mutator_directly() throws Exception
+	{
+		batchMutators.getMutator(dao);
+
+		batchMutators.execute();
+
+		verify(dao).executeMutator(mutator);
+		verify(dao, never()).executeMutatorAsync(mutator);
+		assertThat(batchMutators.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_execute_mutators_in_parallel() throws Exception
+	{
+		when(dao.executeMutatorAsync(mutator)).thenReturn(Futures.<Void> immediateFuture(null));
+		when(userDao.executeMutatorAsync(userMutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
+		batchMutators.getMutator(dao);
+		batchMutators.getMutator(userDao);
+
+		batchMutators.execute();
+
+		verify(dao).executeMutatorAsync(mutator);
+		verify(userDao).executeMutatorAsync(userMutator);
+		assertThat(batchMutators.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_run_completions_after_execution() throws Exception
+	{
+		Runnable completion = mock(Runnable.class);
+		batchMutators.getMutator(dao);
+		batchMutators.addCompletion(completion);
+
+		verify(completion, never()).run();
+
+		batchMutators.execute();
+
+		verify(dao).executeMutator(mutator);
+		verify(completion).run();
+	}
+
+	@Test
+	public void should_not_run_completions_when_execution_fails() throws Exception
+	{
+		Runnable completion = mock(Runnable.class);
+		doThrow(new IllegalStateException("test")).when(dao).executeMutator(mutator);
+		batchMutators.getMutator(dao);
+		batchMutators.addCompletion(completion);
+
+		try
+		{
+			batchMutators.execute();
+			fail("The execution should fail");
+		}
+		catch (IllegalStateException e)
+		{
+			assertThat(e.getMessage()).isEqualTo("test");
+		}
+
+		verify(completion, never()).run();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_throw_failure_once_all_mutators_executed() throws Exception
+	{
+		when(dao.executeMutatorAsync(mutator)).thenReturn(
+				Futures.<Void> immediateFailedFuture(new IllegalStateException("test")));
+		when(userDao.executeMutatorAsync(userMutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
+		batchMutators.getMutator(dao);
+		batchMutators.getMutator(userDao);
+
+		batchMutators.execute();
+	}
+}
@@ -0,0 +1,265 @@
+package info.archinnov.achilles.entity.operations;
+
+import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_LIST;
+import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_MAP;
+import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_SIMPLE;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.data.MapEntry.entry;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.JoinEntityHelper;
+import info.archinnov.achilles.entity.metadata.EntityMeta;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
+import info.archinnov.achilles.entity.type.KeyValue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mapping.entity.CompleteBean;
+import mapping.entity.UserBean;
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * EntityGraphLoaderTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+@SuppressWarnings(
+{
+		"rawtypes",
+		"unchecked"
+})
+public class EntityGraphLoaderTest
+{
+
+	@InjectMocks
+	private EntityGraphLoader graphLoader;
+
+	@Mock
+	private EntityHelper helper;
+
+	@Mock
+	private EntityLoader loader;
+
+	@Mock
+	private JoinEntityHelper joinHelper;
+
+	@Mock
+	private EntityMeta<Long> entityMeta;
+
+	@Mock
+	private EntityMeta<Long> userEntityMeta;
+
+	@Mock
+	private PropertyMeta<Void, Long> idMeta;
+
+	@Mock
+	private PropertyMeta joinIdMeta;
+
+	@Mock
+	private PropertyMeta userMeta;
+
+	@Mock
+	private PropertyMeta nameMeta;
+
+	private CompleteBean parent1 = new CompleteBean();
+
+	private CompleteBean parent2 = new CompleteBean();
+
+	private UserBean user10 = new UserBean();
+
+	private UserBean user11 = new UserBean();
+
+	private Method userSetter;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		userSetter = CompleteBean.class.getDeclaredMethod("setUser", UserBean.class);
+
+		when(entityMeta.getIdMeta()).thenReturn(idMeta);
+		when(helper.getKey(parent1, idMeta)).thenReturn(1L);
+		when(helper.getKey(parent2, idMeta)).thenReturn(2L);
+		when(joinIdMeta.getValueFromString("10")).thenReturn(10L);
+		when(joinIdMeta.getValueFromString("11")).thenReturn(11L);
+
+		buildJoinMeta(userMeta, JOIN_SIMPLE, "user", userEntityMeta);
+		when(userMeta.getSetter()).thenReturn(userSetter);
+		when(nameMeta.isJoin()).thenReturn(false);
+	}
+
+	@Test
+	public void should_load_join_entity_shared_by_parents_once() throws Exception
+	{
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("name", nameMeta);
+		propertyMetas.put("user", userMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+
+		Map<Long, List<Pair<DynamicComposite, String>>> columnsByKey = new HashMap<Long, List<Pair<DynamicComposite, String>>>();
+		columnsByKey.put(1L, Arrays.asList(buildColumn("user", "10")));
+		columnsByKey.put(2L, Arrays.asList(buildColumn("user", "10")));
+		when(loader.loadLazyColumns(Arrays.asList(1L, 2L), entityMeta,
+				Arrays.<PropertyMeta<?, ?>> asList(userMeta))).thenReturn(columnsByKey);
+		when(joinHelper.loadJoinEntities(UserBean.class, Arrays.asList(10L), userEntityMeta))
+				.thenReturn(ImmutableMap.of(10L, user10));
+
+		graphLoader.loadJoins(Arrays.asList(parent1, parent2), entityMeta, 1);
+
+		verify(helper).setValueToField(parent1, userSetter, user10);
+		verify(helper).setValueToField(parent2, userSetter, user10);
+		verify(joinHelper, times(1)).loadJoinEntities(any(Class.class), anyList(),
+				any(EntityMeta.class));
+		verify(userEntityMeta, times(0)).getPropertyMetas();
+	}
+
+	@Test
+	public void should_load_join_collections_with_single_multiget_per_entity_type()
+			throws Exception
+	{
+		Method friendsSetter = CompleteBean.class.getDeclaredMethod("setFriends", List.class);
+		Method preferencesSetter = CompleteBean.class.getDeclaredMethod("setPreferences",
+				Map.class);
+		PropertyMeta usersMeta = mockJoinMeta(JOIN_LIST, "users", friendsSetter, userEntityMeta);
+		PropertyMeta usersByRankMeta = mockJoinMeta(JOIN_MAP, "usersByRank", preferencesSetter,
+				userEntityMeta);
+		when(usersByRankMeta.newMapInstance()).thenReturn(new HashMap<Integer, UserBean>());
+		when(usersByRankMeta.getKeyClass()).thenReturn(Integer.class);
+		when(usersByRankMeta.getKeyValueFromString("1:11")).thenReturn(
+				new KeyValue<Integer, String>(1, "11"));
+
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("users", usersMeta);
+		propertyMetas.put("usersByRank", usersByRankMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+
+		Map<Long, List<Pair<DynamicComposite, String>>> columnsByKey = new HashMap<Long, List<Pair<DynamicComposite, String>>>();
+		columnsByKey.put(1L, Arrays.asList(buildColumn("users", "10"),
+				buildColumn("users", "11"), buildColumn("usersByRank", "1:11")));
+		when(loader.loadLazyColumns(eq(Arrays.asList(1L)), eq(entityMeta), anyList()))
+				.thenReturn(columnsByKey);
+		when(joinHelper.loadJoinEntities(UserBean.class, Arrays.asList(10L, 11L), userEntityMeta))
+				.thenReturn(ImmutableMap.of(10L, user10, 11L, user11));
+
+		graphLoader.loadJoins(Arrays.asList(parent1), entityMeta, 1);
+
+		ArgumentCaptor<List> listCaptor = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<Map> mapCaptor = ArgumentCaptor.forClass(Map.class);
+		verify(helper).setValueToField(eq(parent1), eq(friendsSetter), listCaptor.capture());
+		verify(helper).setValueToField(eq(parent1), eq(preferencesSetter), mapCaptor.capture());
+
+		assertThat(listCaptor.getValue()).containsExactly(user10, user11);
+		assertThat(mapCaptor.getValue()).hasSize(1).contains(entry(1, user11));
+		verify(joinHelper, times(1)).loadJoinEntities(any(Class.class), anyList(),
+				any(EntityMeta.class));
+	}
+
+	@Test
+	public void should_load_join_entities_down_to_depth() throws Exception
+	{
+		CompleteBean child = new CompleteBean();
+		CompleteBean grandChild = new CompleteBean();
+		PropertyMeta parentMeta = mockJoinMeta(JOIN_SIMPLE, "parent", userSetter, entityMeta);
+		when(parentMeta.getValueClass()).thenReturn(CompleteBean.class);
+		when(helper.getKey(child, idMeta)).thenReturn(10L);
+
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("parent", parentMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+
+		Map<Long, List<Pair<DynamicComposite, String>>> level1Columns = new HashMap<Long, List<Pair<DynamicComposite, String>>>();
+		level1Columns.put(1L, Arrays.asList(buildColumn("parent", "10")));
+		Map<Long, List<Pair<DynamicComposite, String>>> level2Columns = new HashMap<Long, List<Pair<DynamicComposite, String>>>();
+		level2Columns.put(10L, Arrays.asList(buildColumn("parent", "11")));
+		when(loader.loadLazyColumns(eq(Arrays.asList(1L)), eq(entityMeta), anyList()))
+				.thenReturn(level1Columns);
+		when(loader.loadLazyColumns(eq(Arrays.asList(10L)), eq(entityMeta), anyList()))
+				.thenReturn(level2Columns);
+		when(joinHelper.loadJoinEntities(CompleteBean.class, Arrays.asList(10L), entityMeta))
+				.thenReturn(ImmutableMap.of(10L, child));
+		when(joinHelper.loadJoinEntities(CompleteBean.class, Arrays.asList(11L), entityMeta))
+				.thenReturn(ImmutableMap.of(11L, grandChild));
+
+		graphLoader.loadJoins(Arrays.asList(parent1), entityMeta, 2);
+
+		verify(helper).setValueToField(parent1, userSetter, child);
+		verify(helper).setValueToField(child, userSetter, grandChild);
+		verify(helper, times(0)).getKey(grandChild, idMeta);
+	}
+
+	@Test
+	public void should_not_load_anything_with_zero_depth() throws Exception
+	{
+		graphLoader.loadJoins(Arrays.asList(parent1), entityMeta, 0);
+
+		verifyZeroInteractions(loader, joinHelper, helper);
+	}
+
+	@Test
+	public void should_set_null_join_simple_when_no_join_column() throws Exception
+	{
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("user", userMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when(loader.loadLazyColumns(eq(Arrays.asList(1L)), eq(entityMeta), anyList())).thenReturn(
+				new HashMap<Long, List<Pair<DynamicComposite, String>>>());
+
+		graphLoader.loadJoins(Arrays.asList(parent1), entityMeta, 3);
+
+		verify(helper).setValueToField(parent1, userSetter, (Object) null);
+		verifyZeroInteractions(joinHelper);
+	}
+
+	private PropertyMeta mockJoinMeta(PropertyType type, String name, Method setter,
+			EntityMeta<?> joinMeta)
+	{
+		PropertyMeta propertyMeta = mock(PropertyMeta.class);
+		buildJoinMeta(propertyMeta, type, name, joinMeta);
+		when(propertyMeta.getSetter()).thenReturn(setter);
+		return propertyMeta;
+	}
+
+	private void buildJoinMeta(PropertyMeta propertyMeta, PropertyType type, String name,
+			EntityMeta<?> joinMeta)
+	{
+		when(propertyMeta.type()).thenReturn(type);
+		when(propertyMeta.isJoin()).thenReturn(true);
+		when(propertyMeta.getPropertyName()).thenReturn(name);
+		when(propertyMeta.joinMeta()).thenReturn(joinMeta);
+		when(propertyMeta.joinIdMeta()).thenReturn(joinIdMeta);
+		when(propertyMeta.getValueClass()).thenReturn(UserBean.class);
+	}
+
+	private Pair<DynamicComposite, String> buildColumn(String propertyName, String value)
+	{
+		DynamicComposite comp = new DynamicComposite();
+		comp.add(0, JOIN_SIMPLE.flag());
+		comp.add(1, propertyName);
+		comp.add(2, value);
+		return new Pair<DynamicComposite, String>(comp, value);
+	}
+}
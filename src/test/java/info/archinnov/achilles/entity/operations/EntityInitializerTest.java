@@ -0,0 +1,177 @@
+package info.archinnov.achilles.entity.operations;
+
+import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_SIMPLE;
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_LIST;
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_SIMPLE;
+import static info.archinnov.achilles.entity.metadata.PropertyType.SIMPLE;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.EntityMapper;
+import info.archinnov.achilles.entity.metadata.EntityMeta;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mapping.entity.CompleteBean;
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * EntityInitializerTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+@SuppressWarnings(
+{
+		"rawtypes",
+		"unchecked"
+})
+public class EntityInitializerTest
+{
+
+	@InjectMocks
+	private EntityInitializer initializer;
+
+	@Mock
+	private EntityHelper helper;
+
+	@Mock
+	private EntityLoader loader;
+
+	@Mock
+	private EntityMapper mapper;
+
+	@Mock
+	private EntityMeta<Long> entityMeta;
+
+	@Mock
+	private PropertyMeta nameMeta;
+
+	@Mock
+	private PropertyMeta labelMeta;
+
+	@Mock
+	private PropertyMeta friendsMeta;
+
+	@Mock
+	private PropertyMeta userMeta;
+
+	@Mock
+	private JpaEntityInterceptor<Long, CompleteBean> interceptor1;
+
+	@Mock
+	private JpaEntityInterceptor<Long, CompleteBean> interceptor2;
+
+	private CompleteBean proxy1 = new CompleteBean();
+
+	private CompleteBean proxy2 = new CompleteBean();
+
+	private CompleteBean target1 = new CompleteBean();
+
+	private CompleteBean target2 = new CompleteBean();
+
+	private Set<Method> lazyLoaded1 = new HashSet<Method>();
+
+	private Set<Method> lazyLoaded2 = new HashSet<Method>();
+
+	private Method labelGetter;
+
+	private Method friendsGetter;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		labelGetter = CompleteBean.class.getDeclaredMethod("getLabel");
+		friendsGetter = CompleteBean.class.getDeclaredMethod("getFriends");
+
+		when(nameMeta.type()).thenReturn(SIMPLE);
+		when(labelMeta.type()).thenReturn(LAZY_SIMPLE);
+		when(labelMeta.getGetter()).thenReturn(labelGetter);
+		when(friendsMeta.type()).thenReturn(LAZY_LIST);
+		when(friendsMeta.getGetter()).thenReturn(friendsGetter);
+		when(userMeta.type()).thenReturn(JOIN_SIMPLE);
+
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new LinkedHashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("name", nameMeta);
+		propertyMetas.put("label", labelMeta);
+		propertyMetas.put("friends", friendsMeta);
+		propertyMetas.put("user", userMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+
+		when(helper.getInterceptor(proxy1)).thenReturn((JpaEntityInterceptor) interceptor1);
+		when(helper.getInterceptor(proxy2)).thenReturn((JpaEntityInterceptor) interceptor2);
+		when(interceptor1.getKey()).thenReturn(1L);
+		when(interceptor2.getKey()).thenReturn(2L);
+		when(interceptor1.getTarget()).thenReturn(target1);
+		when(interceptor2.getTarget()).thenReturn(target2);
+		when(interceptor1.getLazyAlreadyLoaded()).thenReturn(lazyLoaded1);
+		when(interceptor2.getLazyAlreadyLoaded()).thenReturn(lazyLoaded2);
+	}
+
+	@Test
+	public void should_load_lazy_properties_of_all_entities_at_once() throws Exception
+	{
+		lazyLoaded2.add(labelGetter);
+
+		List<Pair<DynamicComposite, String>> columns1 = new ArrayList<Pair<DynamicComposite, String>>();
+		Map<Long, List<Pair<DynamicComposite, String>>> columnsByKey = new HashMap<Long, List<Pair<DynamicComposite, String>>>();
+		columnsByKey.put(1L, columns1);
+
+		when(loader.loadLazyColumns(any(List.class), any(EntityMeta.class), any(List.class)))
+				.thenReturn(columnsByKey);
+
+		initializer.loadLazyProperties(Arrays.asList(proxy1, proxy2), entityMeta);
+
+		verify(loader).loadLazyColumns(Arrays.asList(1L, 2L), entityMeta,
+				Arrays.<PropertyMeta<?, ?>> asList(labelMeta, friendsMeta));
+		verify(mapper).setLazyPropertiesToEntity(columns1,
+				Arrays.<PropertyMeta<?, ?>> asList(labelMeta, friendsMeta), target1);
+		verify(mapper).setLazyPropertiesToEntity(new ArrayList<Pair<DynamicComposite, String>>(),
+				Arrays.<PropertyMeta<?, ?>> asList(friendsMeta), target2);
+
+		assertThat(lazyLoaded1).containsOnly(labelGetter, friendsGetter);
+		assertThat(lazyLoaded2).containsOnly(labelGetter, friendsGetter);
+	}
+
+	@Test
+	public void should_not_load_when_all_lazy_properties_already_loaded() throws Exception
+	{
+		lazyLoaded1.addAll(Arrays.asList(labelGetter, friendsGetter));
+
+		initializer.loadLazyProperties(Arrays.asList(proxy1), entityMeta);
+
+		verifyZeroInteractions(loader, mapper);
+	}
+
+	@Test
+	public void should_not_load_entities_mapped_to_column_family() throws Exception
+	{
+		when(entityMeta.isColumnFamilyDirectMapping()).thenReturn(true);
+
+		initializer.loadLazyProperties(Arrays.asList(proxy1), entityMeta);
+
+		verifyZeroInteractions(helper, loader, mapper);
+	}
+}
@@ -8,33 +8,41 @@ import static info.archinnov.achilles.entity.metadata.PropertyType.LIST;
 import static info.archinnov.achilles.entity.metadata.PropertyType.MAP;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SET;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SIMPLE;
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.EQUAL;
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.GREATER_THAN_EQUAL;
+import static info.archinnov.achilles.entity.type.ConsistencyLevel.EACH_QUORUM;
+import static info.archinnov.achilles.entity.type.ConsistencyLevel.ONE;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import info.archinnov.achilles.composite.factory.CompositeKeyFactory;
 import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.ConsistencyContext;
 import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.EntityMapper;
+import info.archinnov.achilles.entity.JoinEntityHelper;
 import info.archinnov.achilles.entity.manager.CompleteBeanTestBuilder;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
+import info.archinnov.achilles.entity.type.ConsistencyLevel;
 import info.archinnov.achilles.entity.type.KeyValue;
+import info.archinnov.achilles.iterator.AchillesSliceIterator;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -115,6 +123,9 @@ public class EntityLoaderTest {
     @Mock
     private JoinEntityLoader joinLoader;
 
+    @Mock
+    private JoinEntityHelper joinHelper;
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
     @Captor
@@ -126,9 +137,46 @@ public class EntityLoaderTest {
     private CompleteBean bean;
 
     @Before
+    @SuppressWarnings("unchecked")
     public void setUp() {
         bean = CompleteBeanTestBuilder.builder().buid();
         Whitebox.setInternalState(loader, "helper", helper);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(any(PropertyMeta.class))).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(null, null));
+    }
+
+    @Test
+    public void should_check_entity_exists_by_serialVersionUID() throws Exception {
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+        when(dao.getValue(eq(1L), any(DynamicComposite.class))).thenReturn("123");
+
+        assertThat(loader.exists(1L, entityMeta)).isTrue();
+    }
+
+    @Test
+    public void should_check_entity_does_not_exist() throws Exception {
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+        when(dao.getValue(eq(1L), any(DynamicComposite.class))).thenReturn(null);
+
+        assertThat(loader.exists(1L, entityMeta)).isFalse();
+    }
+
+    @Test
+    public void should_load_all_entities() throws Exception {
+        List<Long> keys = Arrays.asList(1L, 2L);
+        Map<Long, CompleteBean> entities = new HashMap<Long, CompleteBean>();
+        entities.put(1L, bean);
+        when(joinHelper.loadJoinEntities(CompleteBean.class, keys, entityMeta)).thenReturn(entities);
+
+        assertThat(loader.loadAll(CompleteBean.class, keys, entityMeta)).isSameAs(entities);
+    }
+
+    @Test
+    public void should_not_load_entities_when_no_key() throws Exception {
+        List<Long> keys = new ArrayList<Long>();
+
+        assertThat(loader.loadAll(CompleteBean.class, keys, entityMeta)).isEmpty();
+        verifyZeroInteractions(joinHelper);
     }
 
     @SuppressWarnings("unchecked")
@@ -153,6 +201,60 @@ public class EntityLoaderTest {
         assertThat(idCaptor.getValue()).isEqualTo(1L);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void should_load_entity_from_cache() throws Exception {
+        List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+        columns.add(new Pair<DynamicComposite, String>(new DynamicComposite(), ""));
+        EntityCache entityCache = new EntityCache(10, 60000);
+        entityCache.put("cf", 1L, columns);
+        PropertyMeta<Void, Long> idMeta = mock(PropertyMeta.class);
+
+        when(entityMeta.getEntityCache()).thenReturn(entityCache);
+        when(entityMeta.getColumnFamilyName()).thenReturn("cf");
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+        when(entityMeta.getIdMeta()).thenReturn(idMeta);
+
+        loader.load(CompleteBean.class, 1L, entityMeta);
+
+        verify(mapper).setEagerPropertiesToEntity(eq(1L), eq(columns), eq(entityMeta), any(CompleteBean.class));
+        verifyZeroInteractions(dao);
+        assertThat(entityCache.getHitCount()).isEqualTo(1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void should_cache_eager_columns_when_not_in_cache() throws Exception {
+        List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+        columns.add(new Pair<DynamicComposite, String>(new DynamicComposite(), ""));
+        EntityCache entityCache = new EntityCache(10, 60000);
+        PropertyMeta<Void, Long> idMeta = mock(PropertyMeta.class);
+
+        when(entityMeta.getEntityCache()).thenReturn(entityCache);
+        when(entityMeta.getColumnFamilyName()).thenReturn("cf");
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+        when(entityMeta.getIdMeta()).thenReturn(idMeta);
+        when(dao.eagerFetchEntity(1L)).thenReturn(columns);
+
+        loader.load(CompleteBean.class, 1L, entityMeta);
+
+        assertThat(entityCache.get("cf", 1L)).isEqualTo(columns);
+        assertThat(entityCache.getMissCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void should_not_cache_entity_not_found() throws Exception {
+        EntityCache entityCache = new EntityCache(10, 60000);
+
+        when(entityMeta.getEntityCache()).thenReturn(entityCache);
+        when(entityMeta.getColumnFamilyName()).thenReturn("cf");
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+        when(dao.eagerFetchEntity(1L)).thenReturn(new ArrayList<Pair<DynamicComposite, String>>());
+
+        assertThat(loader.load(CompleteBean.class, 1L, entityMeta)).isNull();
+        assertThat(entityCache.size()).isEqualTo(0);
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void should_load_column_family() throws Exception {
@@ -212,13 +314,52 @@ public class EntityLoaderTest {
         composite.addComponent(0, 0, ComponentEquality.EQUAL);
         composite.addComponent(1, 0, ComponentEquality.EQUAL);
 
-        when(dynamicCompositeKeyFactory.createBaseForQuery(propertyMeta, EQUAL)).thenReturn(composite);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(composite, null));
         when(dao.getValue(1L, composite)).thenReturn("name");
 
         String value = loader.loadSimpleProperty(1L, dao, propertyMeta);
         assertThat(value).isEqualTo("name");
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void should_load_chunked_simple_property_by_pages() throws Exception {
+        when(propertyMeta.isChunked()).thenReturn(true);
+        when(propertyMeta.getValueFromString("abcd")).thenReturn("abcd");
+        DynamicComposite start = new DynamicComposite();
+        DynamicComposite end = new DynamicComposite();
+        AchillesSliceIterator<Long, DynamicComposite, String> columnsIterator = mock(AchillesSliceIterator.class);
+
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(start, end));
+        when(dao.getColumnsIterator(1L, start, end, false, 10)).thenReturn(columnsIterator);
+        when(mapper.joinChunks(any(Iterator.class), eq(propertyMeta))).thenReturn("abcd");
+
+        String value = loader.loadSimpleProperty(1L, dao, propertyMeta);
+        assertThat(value).isEqualTo("abcd");
+        verify(dao, never()).buildMutator();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void should_load_entity_by_pages_when_eager_chunked() throws Exception {
+        List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+        columns.add(new Pair<DynamicComposite, String>(new DynamicComposite(), ""));
+        PropertyMeta<Void, Long> idMeta = mock(PropertyMeta.class);
+
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+        when(entityMeta.getIdMeta()).thenReturn(idMeta);
+        when(entityMeta.isEagerChunked()).thenReturn(true);
+        when(dao.eagerFetchEntity(1L, 10)).thenReturn(columns);
+
+        loader.load(CompleteBean.class, 1L, entityMeta);
+
+        verify(mapper).setEagerPropertiesToEntity(eq(1L), eq(columns), eq(entityMeta), any(CompleteBean.class));
+        verify(dao, never()).eagerFetchEntity(1L);
+        verify(dao, never()).buildMutator();
+    }
+
     @Test
     public void should_load_list_property() throws Exception {
         when(listMeta.getPropertyName()).thenReturn("friends");
@@ -231,8 +372,8 @@ public class EntityLoaderTest {
         friends.add(new Pair<DynamicComposite, String>(start, "foo"));
         friends.add(new Pair<DynamicComposite, String>(end, "bar"));
 
-        when(dynamicCompositeKeyFactory.createBaseForQuery(listMeta, EQUAL)).thenReturn(start);
-        when(dynamicCompositeKeyFactory.createBaseForQuery(listMeta, GREATER_THAN_EQUAL)).thenReturn(end);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(listMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(start, end));
         when(dao.findColumnsRange(1L, start, end, false, Integer.MAX_VALUE)).thenReturn(friends);
 
         when(listMeta.newListInstance()).thenReturn(new ArrayList<String>());
@@ -257,8 +398,8 @@ public class EntityLoaderTest {
         followers.add(new Pair<DynamicComposite, String>(start, "George"));
         followers.add(new Pair<DynamicComposite, String>(end, "Paul"));
 
-        when(dynamicCompositeKeyFactory.createBaseForQuery(setMeta, EQUAL)).thenReturn(start);
-        when(dynamicCompositeKeyFactory.createBaseForQuery(setMeta, GREATER_THAN_EQUAL)).thenReturn(end);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(setMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(start, end));
         when(dao.findColumnsRange(1L, start, end, false, Integer.MAX_VALUE)).thenReturn(followers);
 
         when(setMeta.newSetInstance()).thenReturn(new HashSet<String>());
@@ -294,8 +435,8 @@ public class EntityLoaderTest {
         preferences.add(new Pair<DynamicComposite, String>(middle, stringKeyValue2));
         preferences.add(new Pair<DynamicComposite, String>(end, stringKeyValue3));
 
-        when(dynamicCompositeKeyFactory.createBaseForQuery(mapMeta, EQUAL)).thenReturn(start);
-        when(dynamicCompositeKeyFactory.createBaseForQuery(mapMeta, GREATER_THAN_EQUAL)).thenReturn(end);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(mapMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(start, end));
         when(dao.findColumnsRange(1L, start, end, false, Integer.MAX_VALUE)).thenReturn(preferences);
 
         when(mapMeta.getKeyClass()).thenReturn(Integer.class);
@@ -327,7 +468,8 @@ public class EntityLoaderTest {
         composite.addComponent(0, 0, ComponentEquality.EQUAL);
         composite.addComponent(1, 0, ComponentEquality.EQUAL);
 
-        when(dynamicCompositeKeyFactory.createBaseForQuery(propertyMeta, EQUAL)).thenReturn(composite);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(composite, null));
 
         EntityLoader spy = spy(loader);
         spy.loadPropertyIntoObject(bean, 1L, dao, propertyMeta);
@@ -344,7 +486,8 @@ public class EntityLoaderTest {
         composite.addComponent(0, 0, ComponentEquality.EQUAL);
         composite.addComponent(1, 0, ComponentEquality.EQUAL);
 
-        when(dynamicCompositeKeyFactory.createBaseForQuery(propertyMeta, EQUAL)).thenReturn(composite);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(composite, null));
 
         EntityLoader spy = spy(loader);
         spy.loadPropertyIntoObject(bean, 1L, dao, propertyMeta);
@@ -369,20 +512,158 @@ public class EntityLoaderTest {
                 .fqcn("fqcn") //
                 .counterDao(counterDao) //
                 .counterIdMeta(counterIdMeta) //
+                .consistencyLevels(new Pair<ConsistencyLevel, ConsistencyLevel>(EACH_QUORUM, ONE)) //
                 .build();
 
         Composite keyComp = new Composite();
         DynamicComposite comp = new DynamicComposite();
 
         when(compositeKeyFactory.createKeyForCounter("fqcn", 11L, counterIdMeta)).thenReturn(keyComp);
-        when(dynamicCompositeKeyFactory.createBaseForQuery(counterMeta, EQUAL)).thenReturn(comp);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(counterMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(comp, null));
 
-        when(counterDao.getCounterValue(keyComp, comp)).thenReturn(150L);
+        ArgumentCaptor<ConsistencyContext> contextCaptor = ArgumentCaptor.forClass(ConsistencyContext.class);
+        when(counterDao.getCounterValue(eq(keyComp), eq(comp), contextCaptor.capture())).thenReturn(150L);
 
         loader.loadPropertyIntoObject(bean, 11L, dao, counterMeta);
 
         verify(helper).setValueToField(bean, setter, 150L);
+        assertThat(contextCaptor.getValue().getReadLevel()).isEqualTo(EACH_QUORUM);
+        assertThat(contextCaptor.getValue().getWriteLevel()).isNull();
+
+    }
+
+    @Test
+    public void should_load_fetch_group_into_object_with_single_slice() throws Exception {
+        when(listMeta.getPropertyName()).thenReturn("friends");
+        when(listMeta.isLazy()).thenReturn(true);
+        when(setMeta.getPropertyName()).thenReturn("followers");
+        when(propertyMeta.getPropertyName()).thenReturn("name");
+        when(propertyMeta.isLazy()).thenReturn(true);
+
+        Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+        propertyMetas.put("friends", listMeta);
+        propertyMetas.put("followers", setMeta);
+        propertyMetas.put("name", propertyMeta);
+        when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+
+        DynamicComposite friendsStart = new DynamicComposite();
+        DynamicComposite nameEnd = new DynamicComposite();
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(listMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(friendsStart, null));
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(null, nameEnd));
+
+        List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+        columns.add(new Pair<DynamicComposite, String>(new DynamicComposite(), "foo"));
+        when(dao.findColumnsRange(1L, friendsStart, nameEnd, false, Integer.MAX_VALUE)).thenReturn(
+                columns);
+
+        List<PropertyMeta<?, ?>> groupMetas = new ArrayList<PropertyMeta<?, ?>>();
+        groupMetas.add(propertyMeta);
+        groupMetas.add(listMeta);
+
+        loader.loadFetchGroupIntoObject(bean, 1L, entityMeta, groupMetas);
+
+        verify(mapper).setLazyPropertiesToEntity(columns, groupMetas, bean);
+    }
+
+    @Test
+    public void should_load_fetch_group_into_object_without_reading_wide_maps() throws Exception {
+        when(listMeta.getPropertyName()).thenReturn("friends");
+        when(listMeta.isLazy()).thenReturn(true);
+        when(mapMeta.getPropertyName()).thenReturn("geoPositions");
+        when(mapMeta.isLazy()).thenReturn(true);
+        when(propertyMeta.getPropertyName()).thenReturn("name");
+        when(propertyMeta.isLazy()).thenReturn(true);
+
+        Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+        propertyMetas.put("friends", listMeta);
+        propertyMetas.put("geoPositions", mapMeta);
+        propertyMetas.put("name", propertyMeta);
+        when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+        when(entityMeta.getEntityDao()).thenReturn(dao);
+
+        DynamicComposite friendsStart = new DynamicComposite("friends", 0);
+        DynamicComposite friendsEnd = new DynamicComposite("friends", 1);
+        DynamicComposite nameStart = new DynamicComposite("name", 0);
+        DynamicComposite nameEnd = new DynamicComposite("name", 1);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(listMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(friendsStart, friendsEnd));
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(nameStart, nameEnd));
+
+        Pair<DynamicComposite, String> friendColumn = new Pair<DynamicComposite, String>(
+                new DynamicComposite(), "foo");
+        Pair<DynamicComposite, String> nameColumn = new Pair<DynamicComposite, String>(
+                new DynamicComposite(), "John");
+        when(dao.findColumnsRange(1L, friendsStart, friendsEnd, false, Integer.MAX_VALUE))
+                .thenReturn(Arrays.asList(friendColumn));
+        when(dao.findColumnsRange(1L, nameStart, nameEnd, false, Integer.MAX_VALUE)).thenReturn(
+                Arrays.asList(nameColumn));
+
+        List<PropertyMeta<?, ?>> groupMetas = new ArrayList<PropertyMeta<?, ?>>();
+        groupMetas.add(propertyMeta);
+        groupMetas.add(listMeta);
+
+        loader.loadFetchGroupIntoObject(bean, 1L, entityMeta, groupMetas);
+
+        List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
+        columns.add(friendColumn);
+        columns.add(nameColumn);
+        verify(mapper).setLazyPropertiesToEntity(columns, groupMetas, bean);
+        verify(dynamicCompositeKeyFactory, never()).createBoundsForQuery(mapMeta);
+    }
+
+    @Test
+    public void should_load_lazy_columns_without_reading_wide_maps() throws Exception {
+        when(listMeta.getPropertyName()).thenReturn("friends");
+        when(listMeta.isLazy()).thenReturn(true);
+        when(mapMeta.getPropertyName()).thenReturn("geoPositions");
+        when(mapMeta.isLazy()).thenReturn(true);
+        when(propertyMeta.getPropertyName()).thenReturn("name");
+        when(propertyMeta.isLazy()).thenReturn(true);
+
+        Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+        propertyMetas.put("friends", listMeta);
+        propertyMetas.put("geoPositions", mapMeta);
+        propertyMetas.put("name", propertyMeta);
+        when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+        when(entityMeta.getEntityDao()).thenReturn(dao);
 
+        DynamicComposite friendsStart = new DynamicComposite("friends", 0);
+        DynamicComposite friendsEnd = new DynamicComposite("friends", 1);
+        DynamicComposite nameStart = new DynamicComposite("name", 0);
+        DynamicComposite nameEnd = new DynamicComposite("name", 1);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(listMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(friendsStart, friendsEnd));
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(nameStart, nameEnd));
+
+        Pair<DynamicComposite, String> friendColumn = new Pair<DynamicComposite, String>(
+                new DynamicComposite(), "foo");
+        Pair<DynamicComposite, String> nameColumn = new Pair<DynamicComposite, String>(
+                new DynamicComposite(), "John");
+        Map<Long, List<Pair<DynamicComposite, String>>> friendsColumns = new HashMap<Long, List<Pair<DynamicComposite, String>>>();
+        friendsColumns.put(1L, new ArrayList<Pair<DynamicComposite, String>>());
+        friendsColumns.get(1L).add(friendColumn);
+        Map<Long, List<Pair<DynamicComposite, String>>> nameColumns = new HashMap<Long, List<Pair<DynamicComposite, String>>>();
+        nameColumns.put(1L, new ArrayList<Pair<DynamicComposite, String>>());
+        nameColumns.get(1L).add(nameColumn);
+
+        List<Long> keys = Arrays.asList(1L);
+        when(dao.multiGetColumnsRange(keys, friendsStart, friendsEnd)).thenReturn(friendsColumns);
+        when(dao.multiGetColumnsRange(keys, nameStart, nameEnd)).thenReturn(nameColumns);
+
+        List<PropertyMeta<?, ?>> lazyMetas = new ArrayList<PropertyMeta<?, ?>>();
+        lazyMetas.add(propertyMeta);
+        lazyMetas.add(listMeta);
+
+        Map<Long, List<Pair<DynamicComposite, String>>> columnsByKey = loader.loadLazyColumns(keys,
+                entityMeta, lazyMetas);
+
+        assertThat(columnsByKey.get(1L)).containsExactly(friendColumn, nameColumn);
     }
 
     @Test
@@ -461,7 +742,8 @@ public class EntityLoaderTest {
         when((PropertyMeta<Void, Long>) propertyMeta.joinIdMeta()).thenReturn(joinIdMeta);
 
         DynamicComposite comp = new DynamicComposite();
-        when(dynamicCompositeKeyFactory.createBaseForQuery(propertyMeta, EQUAL)).thenReturn(comp);
+        when(dynamicCompositeKeyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+                new Pair<DynamicComposite, DynamicComposite>(comp, null));
 
         when(dao.getValue(key, comp)).thenReturn("120");
         when(joinIdMeta.getValueFromString("120")).thenReturn(120L);
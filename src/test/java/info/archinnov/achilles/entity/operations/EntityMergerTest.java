@@ -2,7 +2,12 @@ package info.archinnov.achilles.entity.operations;
 
 import static javax.persistence.CascadeType.MERGE;
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -14,10 +19,14 @@ import info.archinnov.achilles.entity.metadata.JoinProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
 import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
+import info.archinnov.achilles.wrapper.PropertyDelta;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import mapping.entity.CompleteBean;
 import mapping.entity.UserBean;
@@ -33,6 +42,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.common.collect.Sets;
+
 /**
  * EntityMergerTest
  * 
@@ -81,7 +92,7 @@ public class EntityMergerTest
 	{
 		CompleteBean entity = CompleteBeanTestBuilder.builder().id(1L).name("name").buid();
 
-		when(helper.buildProxy(entity, entityMeta)).thenReturn(entity);
+		when(helper.buildProxy(entity, entityMeta, false)).thenReturn(entity);
 
 		CompleteBean mergedEntity = merger.mergeEntity(entity, entityMeta);
 
@@ -120,6 +131,7 @@ public class EntityMergerTest
 		assertThat(mutatorCaptor.getValue()).isSameAs(mutator);
 
 		verify(dao).executeMutator(mutator);
+		verify(persister).invalidateCachedEntity(1L, entityMeta, mutator);
 		verify(dirtyMap).clear();
 	}
 
@@ -161,6 +173,66 @@ public class EntityMergerTest
 		verify(dirtyMap).clear();
 	}
 
+	@Test
+	public void should_merge_only_delta_of_multi_value_property() throws Exception
+	{
+		Method followersSetter = prepareMultiValueDirty();
+		PropertyDelta delta = new PropertyDelta();
+		delta.insert("d".hashCode(), "d");
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		deltaMap.put(followersSetter, delta);
+		when(interceptor.getDeltaMap()).thenReturn(deltaMap);
+		when(helper.getValueFromField(entity, propertyMeta.getGetter())).thenReturn(
+				Sets.newHashSet("a", "b", "c", "d"));
+
+		merger.mergeEntity(entity, entityMeta);
+
+		verify(persister).batchPersistPropertyDelta(1L, dao, propertyMeta, delta, mutator);
+		verify(persister, never()).removePropertyBatch(1L, dao, propertyMeta, mutator);
+		verify(persister, never()).persistProperty(entity, 1L, dao, propertyMeta, mutator);
+		verify(dao).executeMutator(mutator);
+	}
+
+	@Test
+	public void should_rewrite_multi_value_property_when_delta_larger_than_collection()
+			throws Exception
+	{
+		Method followersSetter = prepareMultiValueDirty();
+		PropertyDelta delta = new PropertyDelta();
+		delta.delete("a".hashCode());
+		delta.delete("b".hashCode());
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		deltaMap.put(followersSetter, delta);
+		when(interceptor.getDeltaMap()).thenReturn(deltaMap);
+		when(helper.getValueFromField(entity, propertyMeta.getGetter())).thenReturn(
+				Sets.newHashSet("c"));
+
+		merger.mergeEntity(entity, entityMeta);
+
+		verify(persister).removePropertyBatch(1L, dao, propertyMeta, mutator);
+		verify(persister).persistProperty(entity, 1L, dao, propertyMeta, mutator);
+		verify(persister, never()).batchPersistPropertyDelta(1L, dao, propertyMeta, delta,
+				mutator);
+	}
+
+	@Test
+	public void should_delete_known_columns_of_rewritten_multi_value_property()
+			throws Exception
+	{
+		Method followersSetter = prepareMultiValueDirty();
+		Set<Integer> columns = Sets.newHashSet("a".hashCode(), "b".hashCode());
+		Map<Method, Set<Integer>> storedColumns = new HashMap<Method, Set<Integer>>();
+		storedColumns.put(followersSetter, columns);
+		when(interceptor.getStoredColumns()).thenReturn(storedColumns);
+
+		merger.mergeEntity(entity, entityMeta);
+
+		verify(persister).removePropertyColumnsBatch(1L, dao, propertyMeta, columns, mutator);
+		verify(persister).persistProperty(entity, 1L, dao, propertyMeta, mutator);
+		verify(persister, never()).removePropertyBatch(1L, dao, propertyMeta, mutator);
+		verify(interceptor).recordStoredColumns(propertyMeta);
+	}
+
 	@Test
 	public void should_merge_proxy_with_no_dirty() throws Exception
 	{
@@ -185,6 +257,143 @@ public class EntityMergerTest
 		verify(dirtyMap).clear();
 	}
 
+	@Test
+	public void should_batch_merge_dirty_properties_with_given_mutator() throws Exception
+	{
+		when(helper.isProxy(entity)).thenReturn(true);
+		when(helper.getRealObject(entity)).thenReturn(entity);
+		when(helper.getInterceptor(entity)).thenReturn(interceptor);
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+
+		Method ageSetter = CompleteBean.class.getDeclaredMethod("setAge", Long.class);
+		Map<Method, PropertyMeta<?, ?>> dirty = new HashMap<Method, PropertyMeta<?, ?>>();
+		dirty.put(ageSetter, propertyMeta);
+
+		when(interceptor.getDirtyMap()).thenReturn(dirtyMap);
+		when(dirtyMap.size()).thenReturn(1);
+		when(dirtyMap.entrySet()).thenReturn(dirty.entrySet());
+		when(interceptor.getKey()).thenReturn(1L);
+		when(propertyMeta.type()).thenReturn(PropertyType.SIMPLE);
+		when(dao.buildMutator()).thenReturn(mutator);
+		BatchMutators batchMutators = new BatchMutators();
+
+		merger.batchMerge(entity, entityMeta, batchMutators);
+
+		verify(persister).persistProperty(entity, 1L, dao, propertyMeta, mutator);
+		verify(persister).invalidateCachedEntity(1L, entityMeta, mutator);
+		verify(dirtyMap, never()).clear();
+		verify(dao, never()).executeMutator(mutator);
+		assertThat(batchMutators.size()).isEqualTo(1);
+
+		batchMutators.execute();
+
+		verify(dao).executeMutator(mutator);
+		verify(dirtyMap).clear();
+	}
+
+	@Test
+	public void should_keep_dirty_properties_when_batch_execution_fails() throws Exception
+	{
+		when(helper.isProxy(entity)).thenReturn(true);
+		when(helper.getRealObject(entity)).thenReturn(entity);
+		when(helper.getInterceptor(entity)).thenReturn(interceptor);
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+
+		Method ageSetter = CompleteBean.class.getDeclaredMethod("setAge", Long.class);
+		Map<Method, PropertyMeta<?, ?>> dirty = new HashMap<Method, PropertyMeta<?, ?>>();
+		dirty.put(ageSetter, propertyMeta);
+
+		when(interceptor.getDirtyMap()).thenReturn(dirty);
+		when(interceptor.getKey()).thenReturn(1L);
+		when(propertyMeta.type()).thenReturn(PropertyType.SIMPLE);
+		when(dao.buildMutator()).thenReturn(mutator);
+		doThrow(new IllegalStateException("test")).doNothing().when(dao).executeMutator(mutator);
+
+		try
+		{
+			merger.mergeEntity(entity, entityMeta);
+			fail("The batch execution should fail");
+		}
+		catch (IllegalStateException e)
+		{
+			assertThat(e.getMessage()).isEqualTo("test");
+		}
+		assertThat(dirty).containsKey(ageSetter);
+		verify(interceptor, never()).setTarget(entity);
+
+		merger.mergeEntity(entity, entityMeta);
+
+		verify(persister, times(2)).persistProperty(entity, 1L, dao, propertyMeta, mutator);
+		verify(dao, times(2)).executeMutator(mutator);
+		assertThat(dirty).isEmpty();
+		verify(interceptor).setTarget(entity);
+	}
+
+	@Test
+	public void should_batch_persist_if_not_proxy() throws Exception
+	{
+		CompleteBean entity = CompleteBeanTestBuilder.builder().id(1L).name("name").buid();
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+		when(dao.buildMutator()).thenReturn(mutator);
+
+		merger.batchMerge(entity, entityMeta, new BatchMutators());
+
+		verify(persister).persist(entity, entityMeta, mutator);
+		verifyZeroInteractions(mutator);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_merge_join_entities_with_one_mutator_per_column_family() throws Exception
+	{
+		when(helper.isProxy(entity)).thenReturn(true);
+		when(helper.getRealObject(entity)).thenReturn(entity);
+		when(helper.getInterceptor(entity)).thenReturn(interceptor);
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+		when(dao.buildMutator()).thenReturn(mutator);
+		when(interceptor.getDirtyMap()).thenReturn(dirtyMap);
+		when(dirtyMap.entrySet()).thenReturn(
+				new HashMap<Method, PropertyMeta<?, ?>>().entrySet());
+
+		EntityMeta<Long> userMeta = mock(EntityMeta.class);
+		GenericDynamicCompositeDao<Long> userDao = mock(GenericDynamicCompositeDao.class);
+		Mutator<Long> userMutator = mock(Mutator.class);
+		when(userMeta.getEntityDao()).thenReturn(userDao);
+		when(userDao.buildMutator()).thenReturn(userMutator);
+
+		PropertyMeta<Void, String> userNameMeta = mock(PropertyMeta.class);
+		when(userNameMeta.type()).thenReturn(PropertyType.SIMPLE);
+		UserBean user1 = new UserBean();
+		UserBean user2 = new UserBean();
+		mockDirtyProxy(user1, 10L, userNameMeta);
+		mockDirtyProxy(user2, 11L, userNameMeta);
+
+		JoinProperties joinProperties = new JoinProperties();
+		joinProperties.setEntityMeta(userMeta);
+		joinProperties.addCascadeType(MERGE);
+		Method friendsGetter = CompleteBean.class.getDeclaredMethod("getFriends");
+		Method friendsSetter = CompleteBean.class.getDeclaredMethod("setFriends", List.class);
+		PropertyMeta<Void, UserBean> joinListMeta = new PropertyMeta<Void, UserBean>();
+		joinListMeta.setType(PropertyType.JOIN_LIST);
+		joinListMeta.setJoinProperties(joinProperties);
+		joinListMeta.setGetter(friendsGetter);
+		joinListMeta.setSetter(friendsSetter);
+		Map<String, PropertyMeta<?, ?>> propertyMetaMap = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetaMap.put("users", joinListMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetaMap);
+		when(helper.getValueFromField(entity, friendsGetter)).thenReturn(
+				Arrays.asList(user1, user2, user1));
+
+		merger.mergeEntity(entity, entityMeta);
+
+		verify(persister).persistProperty(user1, 10L, userDao, userNameMeta, userMutator);
+		verify(persister).persistProperty(user2, 11L, userDao, userNameMeta, userMutator);
+		verify(userDao, times(1)).buildMutator();
+		verify(userDao).executeMutator(userMutator);
+		verify(dao, never()).buildMutator();
+		verify(helper).setValueToField(entity, friendsSetter, Arrays.asList(user1, user2, user1));
+	}
+
 	@Test
 	public void should_merge_proxy_with_join_entity() throws Exception
 	{
@@ -222,7 +431,7 @@ public class EntityMergerTest
 		UserBean userBean = new UserBean();
 
 		when(helper.getValueFromField(entity, userGetter)).thenReturn(userBean);
-		when(helper.buildProxy(userBean, joinEntityMeta)).thenReturn(userBean);
+		when(helper.buildProxy(userBean, joinEntityMeta, false)).thenReturn(userBean);
 
 		merger.mergeEntity(entity, entityMeta);
 
@@ -275,4 +484,40 @@ public class EntityMergerTest
 		}
 
 	}
+
+	@SuppressWarnings("unchecked")
+	private void mockDirtyProxy(UserBean user, Long key, PropertyMeta<?, ?> dirtyMeta)
+			throws Exception
+	{
+		JpaEntityInterceptor<Object, UserBean> userInterceptor = mock(JpaEntityInterceptor.class);
+		Map<Method, PropertyMeta<?, ?>> dirty = new HashMap<Method, PropertyMeta<?, ?>>();
+		dirty.put(UserBean.class.getDeclaredMethod("setName", String.class), dirtyMeta);
+		when(helper.isProxy(user)).thenReturn(true);
+		when(helper.getRealObject(user)).thenReturn(user);
+		when(helper.getInterceptor(user)).thenReturn(userInterceptor);
+		when(userInterceptor.getDirtyMap()).thenReturn(dirty);
+		when(userInterceptor.getKey()).thenReturn(key);
+	}
+
+	private Method prepareMultiValueDirty() throws Exception
+	{
+		when(helper.isProxy(entity)).thenReturn(true);
+		when(helper.getRealObject(entity)).thenReturn(entity);
+		when(helper.getInterceptor(entity)).thenReturn(interceptor);
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+		when(dao.buildMutator()).thenReturn(mutator);
+
+		Method followersSetter = CompleteBean.class.getDeclaredMethod("setFollowers", Set.class);
+		Map<Method, PropertyMeta<?, ?>> dirty = new HashMap<Method, PropertyMeta<?, ?>>();
+		dirty.put(followersSetter, propertyMeta);
+
+		when(interceptor.getDirtyMap()).thenReturn(dirtyMap);
+		when(dirtyMap.entrySet()).thenReturn(dirty.entrySet());
+		when(dirtyMap.size()).thenReturn(1);
+		when(interceptor.getKey()).thenReturn(1L);
+		when(propertyMeta.type()).thenReturn(PropertyType.SET);
+		when(propertyMeta.getGetter()).thenReturn(
+				CompleteBean.class.getDeclaredMethod("getFollowers"));
+		return followersSetter;
+	}
 }
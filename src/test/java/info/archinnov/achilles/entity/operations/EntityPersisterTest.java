@@ -4,6 +4,7 @@ import static info.archinnov.achilles.entity.metadata.PropertyType.EXTERNAL_WIDE
 import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_SIMPLE;
 import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_LIST;
 import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_MAP;
+import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_SIMPLE;
 import static info.archinnov.achilles.entity.metadata.PropertyType.MAP;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SET;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SIMPLE;
@@ -17,17 +18,22 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import info.archinnov.achilles.codec.ValueChunker;
 import info.archinnov.achilles.composite.factory.CompositeKeyFactory;
 import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.ConsistencyContext;
 import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.dao.GenericCompositeDao;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.entity.EntityCache;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.manager.CompleteBeanTestBuilder;
 import info.archinnov.achilles.entity.metadata.CounterProperties;
@@ -41,8 +47,11 @@ import info.archinnov.achilles.entity.type.KeyValue;
 import info.archinnov.achilles.exception.AchillesException;
 import info.archinnov.achilles.exception.BeanMappingException;
 import info.archinnov.achilles.serializer.SerializerUtils;
+import info.archinnov.achilles.wrapper.PropertyDelta;
 
+import java.io.StringReader;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -63,6 +72,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -72,6 +82,7 @@ import parser.entity.ColumnFamilyBean;
 import testBuilders.PropertyMetaTestBuilder;
 
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
 
 /**
  * EntityPersisterTest
@@ -147,6 +158,11 @@ public class EntityPersisterTest
 
 	private Long id = 7856L;
 
+	private static final long GENERATION = 1362045600000000L;
+
+	private Pair<DynamicComposite, DynamicComposite> olderChunks = new Pair<DynamicComposite, DynamicComposite>(
+			new DynamicComposite(), new DynamicComposite());
+
 	private Long joinId = 32548L;
 
 	@Before
@@ -238,6 +254,91 @@ public class EntityPersisterTest
 		verify(entityDao).executeMutator(mutator);
 	}
 
+	@Test
+	public void should_batch_chunked_simple_property() throws Exception
+	{
+		DynamicComposite name = chunkName(-1);
+		prepareChunkedMeta(name);
+		when(propertyMeta.type()).thenReturn(SIMPLE);
+		when(propertyMeta.getGetter()).thenReturn(anyMethod);
+		when(helper.getValueFromField(entity, anyMethod)).thenReturn("abcdefghij");
+		when(propertyMeta.writeValueToString("abcdefghij")).thenReturn("abcdefghij");
+
+		persister.persist(entity, entityMeta);
+
+		verify(entityDao).insertColumnBatch(id, chunkName(0), "abcd", mutator);
+		verify(entityDao).insertColumnBatch(id, chunkName(1), "efgh", mutator);
+		verify(entityDao).insertColumnBatch(id, chunkName(2), "ij", mutator);
+		verify(entityDao).insertColumnBatch(id, name, ValueChunker.chunkHead(GENERATION, 3),
+				GENERATION, mutator);
+		verify(entityDao).removeColumnRangeBatch(id, olderChunks.left, olderChunks.right,
+				mutator);
+		verify(entityDao, never()).getValue(id, name);
+		verify(entityDao, never()).removeColumnBatch(any(Long.class),
+				any(DynamicComposite.class), eq(mutator));
+	}
+
+	@Test
+	public void should_batch_short_chunked_simple_property_whole() throws Exception
+	{
+		DynamicComposite name = chunkName(-1);
+		prepareChunkedMeta(name);
+		when(propertyMeta.type()).thenReturn(LAZY_SIMPLE);
+		when(propertyMeta.getGetter()).thenReturn(anyMethod);
+		when(helper.getValueFromField(entity, anyMethod)).thenReturn("abc");
+		when(propertyMeta.writeValueToString("abc")).thenReturn("abc");
+
+		persister.persist(entity, entityMeta);
+
+		verify(entityDao).insertColumnBatch(id, name, ValueChunker.wholeHead(GENERATION, "abc"),
+				GENERATION, mutator);
+		verify(entityDao).removeColumnRangeBatch(id, olderChunks.left, olderChunks.right,
+				mutator);
+		verify(entityDao, never()).getValue(id, name);
+	}
+
+	@Test
+	public void should_persist_chunked_value_from_stream() throws Exception
+	{
+		DynamicComposite name = chunkName(-1);
+		prepareChunkedMeta(name);
+
+		persister.persistChunkedValue(id, entityDao, propertyMeta, new StringReader("abcdefghij"));
+
+		InOrder inOrder = inOrder(entityDao);
+		inOrder.verify(entityDao).insertColumnBatch(id, chunkName(0), "abcd", mutator);
+		inOrder.verify(entityDao).insertColumnBatch(id, chunkName(1), "efgh", mutator);
+		inOrder.verify(entityDao).insertColumnBatch(id, chunkName(2), "ij", mutator);
+		inOrder.verify(entityDao).removeColumnRangeBatch(id, olderChunks.left,
+				olderChunks.right, mutator);
+		inOrder.verify(entityDao).insertColumnBatch(id, name,
+				ValueChunker.chunkHead(GENERATION, 3), GENERATION, mutator);
+		verify(entityDao, times(4)).executeMutator(mutator);
+	}
+
+	private void prepareChunkedMeta(DynamicComposite name)
+	{
+		when(propertyMeta.isChunked()).thenReturn(true);
+		when(propertyMeta.getValueChunker()).thenReturn(new ValueChunker(4));
+		when(entityDao.createClock()).thenReturn(GENERATION);
+		when(dynamicCompositeKeyFactory.createForBatchInsertSingleValue(propertyMeta)).thenReturn(
+				name);
+		when(dynamicCompositeKeyFactory.createBoundsForOlderChunks(propertyMeta, GENERATION))
+				.thenReturn(olderChunks);
+		for (int i = 0; i < 4; i++)
+		{
+			when(dynamicCompositeKeyFactory.createForChunk(propertyMeta, GENERATION, i))
+					.thenReturn(chunkName(i));
+		}
+	}
+
+	private DynamicComposite chunkName(int index)
+	{
+		DynamicComposite name = new DynamicComposite();
+		name.addComponent(index, SerializerUtils.INT_SRZ);
+		return name;
+	}
+
 	@Test
 	public void should_batch_list_property() throws Exception
 	{
@@ -382,7 +483,63 @@ public class EntityPersisterTest
 		persister.persist(bean, entityMeta, mutator);
 
 		verify(helper).getValueFromField(bean, getter);
-		verify(counterDao).insertCounter(keyComp, comp, 150L);
+		ArgumentCaptor<ConsistencyContext> contextCaptor = ArgumentCaptor
+				.forClass(ConsistencyContext.class);
+		verify(counterDao).insertCounter(eq(keyComp), eq(comp), eq(150L), contextCaptor.capture());
+		assertThat(contextCaptor.getValue().getWriteLevel()).isEqualTo(ALL);
+		assertThat(contextCaptor.getValue().getReadLevel()).isNull();
+	}
+
+	@Test
+	public void should_increment_simple_counter() throws Exception
+	{
+		PropertyMeta<Void, Long> idMeta = PropertyMetaTestBuilder.valueClass(Long.class).build();
+		PropertyMeta<Void, Long> counterMeta = PropertyMetaTestBuilder//
+				.of(BeanWithSimpleCounter.class, Void.class, Long.class) //
+				.field("counter") //
+				.counterDao(counterDao) //
+				.fqcn("fqcn") //
+				.counterIdMeta(idMeta)//
+				.type(PropertyType.COUNTER) //
+				.build();
+
+		Composite keyComp = new Composite();
+		DynamicComposite comp = new DynamicComposite();
+		when(compositeKeyFactory.createKeyForCounter("fqcn", 11L, idMeta)).thenReturn(keyComp);
+		when(dynamicCompositeKeyFactory.createForBatchInsertSingleValue(counterMeta)).thenReturn(
+				comp);
+
+		persister.incrementCounter(11L, counterMeta, 3L, null);
+
+		verify(counterDao).incrementCounter(keyComp, comp, 3L, ConsistencyContext.DEFAULT);
+		verify(counterDao, never()).getCounterValue(keyComp, comp);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_increment_simple_counter_in_batch() throws Exception
+	{
+		PropertyMeta<Void, Long> idMeta = PropertyMetaTestBuilder.valueClass(Long.class).build();
+		PropertyMeta<Void, Long> counterMeta = PropertyMetaTestBuilder//
+				.of(BeanWithSimpleCounter.class, Void.class, Long.class) //
+				.field("counter") //
+				.counterDao(counterDao) //
+				.fqcn("fqcn") //
+				.counterIdMeta(idMeta)//
+				.type(PropertyType.COUNTER) //
+				.build();
+
+		Composite keyComp = new Composite();
+		DynamicComposite comp = new DynamicComposite();
+		Mutator<Composite> counterMutator = mock(Mutator.class);
+		when(compositeKeyFactory.createKeyForCounter("fqcn", 11L, idMeta)).thenReturn(keyComp);
+		when(dynamicCompositeKeyFactory.createForBatchInsertSingleValue(counterMeta)).thenReturn(
+				comp);
+
+		persister.incrementCounter(11L, counterMeta, -2L, counterMutator);
+
+		verify(counterDao).incrementCounterBatch(keyComp, comp, -2L, counterMutator);
+		verify(counterDao, never()).incrementCounter(keyComp, comp, -2L);
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -538,6 +695,49 @@ public class EntityPersisterTest
 
 	}
 
+	@Test
+	public void should_check_for_join_entities_with_single_multiget() throws Exception
+	{
+		JoinProperties joinProperties = prepareJoinProperties();
+		joinProperties.getCascadeTypes().clear();
+		UserBean userBean2 = new UserBean();
+
+		when((Long) helper.getKey(userBean, joinProperties.getEntityMeta().getIdMeta()))
+				.thenReturn(joinId);
+		when((Long) helper.getKey(userBean2, joinProperties.getEntityMeta().getIdMeta()))
+				.thenReturn(12L);
+		when(entityDao.findExistingKeys(Arrays.asList(joinId, 12L))).thenReturn(
+				Sets.newHashSet(joinId, 12L));
+
+		persister.cascadePersistOrEnsureExistAll(Arrays.asList(userBean, userBean2, userBean),
+				joinProperties, joinMutator);
+
+		verify(entityDao).findExistingKeys(Arrays.asList(joinId, 12L));
+		verify(loader, never()).loadVersionSerialUID(any(), any(GenericDynamicCompositeDao.class));
+	}
+
+	@Test
+	public void should_exception_when_one_of_join_entities_not_found() throws Exception
+	{
+		JoinProperties joinProperties = prepareJoinProperties();
+		joinProperties.getCascadeTypes().clear();
+		UserBean userBean2 = new UserBean();
+
+		when((Long) helper.getKey(userBean, joinProperties.getEntityMeta().getIdMeta()))
+				.thenReturn(joinId);
+		when((Long) helper.getKey(userBean2, joinProperties.getEntityMeta().getIdMeta()))
+				.thenReturn(12L);
+		when(entityDao.findExistingKeys(Arrays.asList(joinId, 12L))).thenReturn(
+				Sets.newHashSet(joinId));
+
+		exception.expect(AchillesException.class);
+		exception.expectMessage("The entity '" + UserBean.class.getCanonicalName()
+				+ "' with id '12' cannot be found");
+
+		persister.cascadePersistOrEnsureExistAll(Arrays.asList(userBean, userBean2), joinProperties,
+				joinMutator);
+	}
+
 	@Test
 	public void should_remove_property() throws Exception
 	{
@@ -586,7 +786,8 @@ public class EntityPersisterTest
 
 		persister.remove(bean, entityMeta);
 
-		verify(entityDao).removeRow(idValue);
+		verify(entityDao).removeRowBatch(idValue, mutator);
+		verify(entityDao).executeMutator(mutator);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -601,6 +802,12 @@ public class EntityPersisterTest
 		propertyMeta.setType(EXTERNAL_WIDE_MAP);
 		ExternalWideMapProperties<Long> externalWideMapProperties = new ExternalWideMapProperties<Long>();
 		GenericCompositeDao<Long, String> externalWideMapDao = mock(GenericCompositeDao.class);
+		Mutator<Long> externalWideMapMutator = mock(Mutator.class);
+		when(externalWideMapDao.buildMutator()).thenReturn(externalWideMapMutator);
+		when(entityDao.executeMutatorAsync(mutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
+		when(externalWideMapDao.executeMutatorAsync(externalWideMapMutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
 
 		externalWideMapProperties.setExternalWideMapDao(externalWideMapDao);
 		propertyMeta.setExternalWideMapProperties(externalWideMapProperties);
@@ -610,8 +817,10 @@ public class EntityPersisterTest
 
 		persister.removeById(idValue, entityMeta);
 
-		verify(entityDao).removeRow(idValue);
-		verify(externalWideMapDao).removeRow(idValue);
+		verify(entityDao).removeRowBatch(idValue, mutator);
+		verify(externalWideMapDao).removeRowBatch(idValue, externalWideMapMutator);
+		verify(entityDao).executeMutatorAsync(mutator);
+		verify(externalWideMapDao).executeMutatorAsync(externalWideMapMutator);
 	}
 
 	@Test
@@ -624,9 +833,112 @@ public class EntityPersisterTest
 
 		persister.removeById(idValue, entityMeta);
 
-		verify(entityDao).removeRow(idValue);
+		verify(entityDao).removeRowBatch(idValue, mutator);
+		verify(entityDao).executeMutator(mutator);
 	}
 
+	@Test
+	public void should_remove_entities_by_ids_with_one_batch() throws Exception
+	{
+		EntityMeta<Long> entityMeta = new EntityMeta<Long>();
+		entityMeta.setEntityDao(entityDao);
+		entityMeta.setPropertyMetas(new HashMap<String, PropertyMeta<?, ?>>());
+
+		persister.removeByIds(Arrays.asList(10L, 11L), entityMeta);
+
+		verify(entityDao, times(1)).buildMutator();
+		verify(entityDao).removeRowBatch(10L, mutator);
+		verify(entityDao).removeRowBatch(11L, mutator);
+		verify(entityDao, times(1)).executeMutator(mutator);
+		verify(entityDao, never()).removeRow(any(Long.class));
+	}
+
+	@Test
+	public void should_batch_remove_entity_row() throws Exception
+	{
+		PropertyMeta<Void, Long> idMeta = new PropertyMeta<Void, Long>();
+		EntityMeta<Long> entityMeta = new EntityMeta<Long>();
+		entityMeta.setIdMeta(idMeta);
+		entityMeta.setEntityDao(entityDao);
+		entityMeta.setPropertyMetas(new HashMap<String, PropertyMeta<?, ?>>());
+		CompleteBean bean = CompleteBeanTestBuilder.builder().buid();
+		when(helper.getKey(bean, idMeta)).thenReturn(7856L);
+
+		BatchMutators batchMutators = new BatchMutators();
+
+		persister.batchRemove(bean, entityMeta, batchMutators);
+
+		verify(entityDao).removeRowBatch(7856L, mutator);
+		verify(entityDao, never()).removeRow(7856L);
+		verify(entityDao, never()).executeMutator(mutator);
+		assertThat(batchMutators.getMutator(entityDao)).isSameAs(mutator);
+	}
+
+	@Test
+	public void should_batch_persist_property_delta() throws Exception
+	{
+		PropertyDelta delta = new PropertyDelta();
+		delta.insert(3, "d");
+		delta.delete(1);
+		DynamicComposite insertedName = new DynamicComposite();
+		insertedName.add(0, 3);
+		DynamicComposite deletedName = new DynamicComposite();
+		deletedName.add(0, 1);
+		when(dynamicCompositeKeyFactory.createForBatchInsertMultiValue(setMeta, 3)).thenReturn(
+				insertedName);
+		when(dynamicCompositeKeyFactory.createForBatchInsertMultiValue(setMeta, 1)).thenReturn(
+				deletedName);
+		when(setMeta.writeValueToString("d")).thenReturn("d");
+
+		persister.batchPersistPropertyDelta(1L, entityDao, setMeta, delta, mutator);
+
+		verify(entityDao).removeColumnBatch(1L, deletedName, mutator);
+		verify(entityDao).insertColumnBatch(1L, insertedName, "d", mutator);
+		verify(entityDao, never()).removeColumnRangeBatch(any(Long.class),
+				any(DynamicComposite.class), any(DynamicComposite.class), eq(mutator));
+	}
+
+	@Test
+	public void should_remove_property_columns_without_reading_them() throws Exception
+	{
+		DynamicComposite name1 = new DynamicComposite();
+		name1.add(0, 11);
+		DynamicComposite name2 = new DynamicComposite();
+		name2.add(0, 12);
+		when(dynamicCompositeKeyFactory.createForBatchInsertMultiValue(setMeta, 11)).thenReturn(
+				name1);
+		when(dynamicCompositeKeyFactory.createForBatchInsertMultiValue(setMeta, 12)).thenReturn(
+				name2);
+
+		persister.removePropertyColumnsBatch(1L, entityDao, setMeta, Arrays.asList(11, 12),
+				mutator);
+
+		verify(entityDao).removeColumnBatch(1L, name1, mutator);
+		verify(entityDao).removeColumnBatch(1L, name2, mutator);
+		verify(entityDao, never()).removeColumnRangeBatch(any(Long.class),
+				any(DynamicComposite.class), any(DynamicComposite.class), eq(mutator));
+	}
+
+	@Test
+	public void should_invalidate_cached_entity_when_removed() throws Exception
+	{
+		EntityCache entityCache = new EntityCache(10, 60000);
+		entityCache.put("cf", 7856L, new ArrayList<Pair<DynamicComposite, String>>());
+		EntityMeta<Long> entityMeta = new EntityMeta<Long>();
+		entityMeta.setColumnFamilyName("cf");
+		entityMeta.setEntityDao(entityDao);
+		entityMeta.setEntityCache(entityCache);
+		entityMeta.setPropertyMetas(new HashMap<String, PropertyMeta<?, ?>>());
+
+		long readSequence = entityCache.getWriteSequence();
+		persister.removeById(7856L, entityMeta);
+
+		assertThat(entityCache.get("cf", 7856L)).isNull();
+		assertThat(entityCache.put("cf", 7856L, new ArrayList<Pair<DynamicComposite, String>>(),
+				readSequence)).isFalse();
+	}
+
+	@SuppressWarnings("unchecked")
 	@Test
 	public void should_remove_entity_and_simple_counter() throws Exception
 	{
@@ -639,6 +951,12 @@ public class EntityPersisterTest
 		CounterProperties counterProperties = new CounterProperties("fqcn", counterDao, idMeta);
 		propertyMeta.setCounterProperties(counterProperties);
 		propertyMeta.setType(PropertyType.COUNTER);
+		Mutator<Composite> counterMutator = mock(Mutator.class);
+		when(counterDao.buildMutator()).thenReturn(counterMutator);
+		when(entityDao.executeMutatorAsync(mutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
+		when(counterDao.executeMutatorAsync(counterMutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
 
 		propertyMetas.put("counter", propertyMeta);
 		entityMeta.setPropertyMetas(propertyMetas);
@@ -652,9 +970,11 @@ public class EntityPersisterTest
 
 		persister.removeById(idValue, entityMeta);
 
-		verify(counterDao).removeCounter(keyComp, comp);
+		verify(counterDao).removeCounterBatch(keyComp, comp, counterMutator);
+		verify(counterDao, never()).removeCounter(keyComp, comp);
 	}
 
+	@SuppressWarnings("unchecked")
 	@Test
 	public void should_remove_entity_and_widemap_counter() throws Exception
 	{
@@ -667,6 +987,12 @@ public class EntityPersisterTest
 		CounterProperties counterProperties = new CounterProperties("fqcn", counterDao, idMeta);
 		propertyMeta.setCounterProperties(counterProperties);
 		propertyMeta.setType(PropertyType.WIDE_MAP_COUNTER);
+		Mutator<Composite> counterMutator = mock(Mutator.class);
+		when(counterDao.buildMutator()).thenReturn(counterMutator);
+		when(entityDao.executeMutatorAsync(mutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
+		when(counterDao.executeMutatorAsync(counterMutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
 
 		propertyMetas.put("counter", propertyMeta);
 		entityMeta.setPropertyMetas(propertyMetas);
@@ -676,9 +1002,45 @@ public class EntityPersisterTest
 
 		persister.removeById(idValue, entityMeta);
 
-		verify(counterDao).removeCounterRow(keyComp);
+		verify(counterDao).removeCounterRowBatch(keyComp, counterMutator);
+		verify(counterDao, never()).removeCounterRow(keyComp);
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_reset_shared_counter_row_once() throws Exception
+	{
+		Long idValue = 7856L;
+		EntityMeta<Long> entityMeta = new EntityMeta<Long>();
+		entityMeta.setEntityDao(entityDao);
+		PropertyMeta<Void, Long> idMeta = PropertyMetaTestBuilder.valueClass(Long.class).build();
+		CounterProperties counterProperties = new CounterProperties("fqcn", counterDao, idMeta);
+		PropertyMeta<Void, Long> counterMeta = new PropertyMeta<Void, Long>();
+		counterMeta.setCounterProperties(counterProperties);
+		counterMeta.setType(PropertyType.COUNTER);
+		PropertyMeta<Integer, Long> wideMapCounterMeta = new PropertyMeta<Integer, Long>();
+		wideMapCounterMeta.setCounterProperties(counterProperties);
+		wideMapCounterMeta.setType(PropertyType.WIDE_MAP_COUNTER);
+
+		HashMap<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("counter", counterMeta);
+		propertyMetas.put("counterWideMap", wideMapCounterMeta);
+		entityMeta.setPropertyMetas(propertyMetas);
+
+		Composite keyComp = new Composite();
+		when(compositeKeyFactory.createKeyForCounter("fqcn", idValue, idMeta)).thenReturn(keyComp);
+		Mutator<Composite> counterMutator = mock(Mutator.class);
+		when(counterDao.buildMutator()).thenReturn(counterMutator);
+		BatchMutators batchMutators = new BatchMutators();
+
+		persister.batchRemoveById(idValue, entityMeta, batchMutators);
+
+		verify(counterDao, times(1)).removeCounterRowBatch(keyComp, counterMutator);
+		verify(counterDao, never()).removeCounterBatch(any(Composite.class),
+				any(DynamicComposite.class), any(Mutator.class));
+	}
+
+	@SuppressWarnings("unchecked")
 	@Test
 	public void should_remove_row_from_direct_cf_mapping() throws Exception
 	{
@@ -687,9 +1049,12 @@ public class EntityPersisterTest
 		entityMeta.setColumnFamilyDao(columnFamilyDao);
 		entityMeta.setPropertyMetas(new HashMap<String, PropertyMeta<?, ?>>());
 
+		Mutator<Long> columnFamilyMutator = mock(Mutator.class);
+		when(columnFamilyDao.buildMutator()).thenReturn(columnFamilyMutator);
+
 		persister.removeById(id, entityMeta);
 
-		verify(columnFamilyDao).removeRow(id);
+		verify(columnFamilyDao).removeRowBatch(id, columnFamilyMutator);
 	}
 
 	private JoinProperties prepareJoinProperties() throws Exception
@@ -97,6 +97,7 @@ public class EntityRefresherTest
 		verify(dirtyMap).clear();
 		verify(lazyLoaded).clear();
 		verify(jpaEntityInterceptor).setTarget(bean);
+		verify(jpaEntityInterceptor).recordLoadedColumns();
 	}
 
 	@Test(expected = IllegalArgumentException.class)
@@ -1,7 +1,5 @@
 package info.archinnov.achilles.entity.operations;
 
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.EQUAL;
-import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.GREATER_THAN_EQUAL;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
@@ -128,8 +126,8 @@ public class JoinEntityLoaderTest
 		DynamicComposite start = new DynamicComposite();
 		DynamicComposite end = new DynamicComposite();
 
-		when(keyFactory.createBaseForQuery(propertyMeta, EQUAL)).thenReturn(start);
-		when(keyFactory.createBaseForQuery(propertyMeta, GREATER_THAN_EQUAL)).thenReturn(end);
+		when(keyFactory.createBoundsForQuery(propertyMeta)).thenReturn(
+				new Pair<DynamicComposite, DynamicComposite>(start, end));
 
 		List<Pair<DynamicComposite, String>> columns = new ArrayList<Pair<DynamicComposite, String>>();
 		columns.add(new Pair<DynamicComposite, String>(start, "11"));
@@ -0,0 +1,221 @@
+package info.archinnov.achilles.entity.operations;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.manager.CompleteBeanTestBuilder;
+import info.archinnov.achilles.entity.metadata.EntityMeta;
+import mapping.entity.CompleteBean;
+import mapping.entity.UserBean;
+import me.prettyprint.hector.api.mutation.Mutator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * UnitOfWorkTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+@SuppressWarnings(
+{
+		"rawtypes",
+		"unchecked"
+})
+public class UnitOfWorkTest
+{
+	@InjectMocks
+	private UnitOfWork unitOfWork;
+
+	@Mock
+	private EntityPersister persister;
+
+	@Mock
+	private EntityMerger merger;
+
+	@Mock
+	private EntityHelper helper;
+
+	@Mock
+	private EntityMeta<Long> entityMeta;
+
+	@Mock
+	private EntityMeta<Long> userMeta;
+
+	@Mock
+	private GenericDynamicCompositeDao<Long> dao;
+
+	@Mock
+	private GenericDynamicCompositeDao<Long> userDao;
+
+	@Mock
+	private Mutator<Long> mutator;
+
+	@Mock
+	private Mutator<Long> userMutator;
+
+	private CompleteBean bean1 = CompleteBeanTestBuilder.builder().id(1L).buid();
+
+	private CompleteBean bean2 = CompleteBeanTestBuilder.builder().id(2L).buid();
+
+	private CompleteBean proxy1 = CompleteBeanTestBuilder.builder().id(1L).buid();
+
+	private UserBean user = new UserBean();
+
+	@Before
+	public void setUp()
+	{
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+		when(userMeta.getEntityDao()).thenReturn(userDao);
+		when(dao.buildMutator()).thenReturn(mutator);
+		when(userDao.buildMutator()).thenReturn(userMutator);
+
+		mockEntity(bean1, 1L, entityMeta);
+		mockEntity(bean2, 2L, entityMeta);
+		mockEntity(proxy1, 1L, entityMeta);
+		mockEntity(user, 10L, userMeta);
+		when(helper.isProxy(proxy1)).thenReturn(true);
+		when(helper.getRealObject(proxy1)).thenReturn(bean1);
+
+		// A removal adds the deletion of the row to the mutator of its column family
+		doAnswer(new Answer<Void>()
+		{
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable
+			{
+				EntityMeta<?> meta = (EntityMeta<?>) invocation.getArguments()[1];
+				((BatchMutators) invocation.getArguments()[2]).getMutator(meta.getEntityDao());
+				return null;
+			}
+		}).when(persister).batchRemove(any(), any(EntityMeta.class), any(BatchMutators.class));
+	}
+
+	@Test
+	public void should_write_entities_of_same_column_family_with_single_mutator()
+			throws Exception
+	{
+		unitOfWork.persist(bean1, entityMeta);
+		unitOfWork.persist(bean2, entityMeta);
+
+		unitOfWork.flush();
+
+		verify(dao, times(1)).buildMutator();
+		verify(persister).persist(bean1, entityMeta, mutator);
+		verify(persister).persist(bean2, entityMeta, mutator);
+		verify(dao).executeMutator(mutator);
+		assertThat(unitOfWork.getPendingOperationCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_execute_mutators_of_column_families_in_parallel() throws Exception
+	{
+		when(dao.executeMutatorAsync(mutator)).thenReturn(Futures.<Void> immediateFuture(null));
+		when(userDao.executeMutatorAsync(userMutator)).thenReturn(
+				Futures.<Void> immediateFuture(null));
+
+		unitOfWork.persist(bean1, entityMeta);
+		unitOfWork.remove(user, userMeta);
+
+		unitOfWork.flush();
+
+		verify(persister).persist(bean1, entityMeta, mutator);
+		verify(persister).batchRemove(eq(user), eq(userMeta), any(BatchMutators.class));
+		verify(dao).executeMutatorAsync(mutator);
+		verify(userDao).executeMutatorAsync(userMutator);
+	}
+
+	@Test
+	public void should_coalesce_merge_of_persisted_entity() throws Exception
+	{
+		unitOfWork.persist(bean1, entityMeta);
+		unitOfWork.merge(proxy1, entityMeta);
+
+		assertThat(unitOfWork.getPendingOperationCount()).isEqualTo(1);
+
+		unitOfWork.flush();
+
+		verify(persister).persist(bean1, entityMeta, mutator);
+		verifyZeroInteractions(merger);
+	}
+
+	@Test
+	public void should_merge_proxy_once() throws Exception
+	{
+		unitOfWork.merge(proxy1, entityMeta);
+		unitOfWork.merge(proxy1, entityMeta);
+
+		unitOfWork.flush();
+
+		verify(merger, times(1)).batchMerge(eq(proxy1), eq(entityMeta),
+				any(BatchMutators.class));
+	}
+
+	@Test
+	public void should_record_merge_of_transient_entity_as_persist() throws Exception
+	{
+		unitOfWork.merge(bean2, entityMeta);
+
+		unitOfWork.flush();
+
+		verify(persister).persist(bean2, entityMeta, mutator);
+		verifyZeroInteractions(merger);
+	}
+
+	@Test
+	public void should_discard_pending_writes_of_removed_entity() throws Exception
+	{
+		unitOfWork.persist(bean1, entityMeta);
+		unitOfWork.remove(proxy1, entityMeta);
+
+		unitOfWork.flush();
+
+		verify(persister).batchRemove(eq(proxy1), eq(entityMeta), any(BatchMutators.class));
+		verify(persister, never()).persist(any(), any(EntityMeta.class), any(Mutator.class));
+	}
+
+	@Test
+	public void should_flush_removal_before_persisting_same_entity() throws Exception
+	{
+		unitOfWork.remove(proxy1, entityMeta);
+		unitOfWork.persist(bean1, entityMeta);
+
+		verify(persister).batchRemove(eq(proxy1), eq(entityMeta), any(BatchMutators.class));
+		verify(dao).executeMutator(mutator);
+		assertThat(unitOfWork.getPendingOperationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_discard_pending_operations_when_cleared() throws Exception
+	{
+		unitOfWork.persist(bean1, entityMeta);
+
+		unitOfWork.clear();
+		unitOfWork.flush();
+
+		verifyZeroInteractions(persister, merger, dao);
+	}
+
+	private void mockEntity(Object entity, Long key, EntityMeta<Long> meta)
+	{
+		when(helper.determinePrimaryKey(entity, meta)).thenReturn(key);
+		when(helper.deriveBaseClass(entity)).thenReturn((Class) entity.getClass());
+	}
+}
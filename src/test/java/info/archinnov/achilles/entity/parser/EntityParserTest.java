@@ -15,6 +15,8 @@ import static javax.persistence.CascadeType.MERGE;
 import static javax.persistence.CascadeType.PERSIST;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import info.archinnov.achilles.codec.JsonValueCodec;
+import info.archinnov.achilles.codec.NativeValueCodec;
 import info.archinnov.achilles.columnFamily.ColumnFamilyCreator;
 import info.archinnov.achilles.columnFamily.ColumnFamilyHelper;
 import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
@@ -65,6 +67,8 @@ import parser.entity.BeanWithNoId;
 import parser.entity.BeanWithNotSerializableId;
 import parser.entity.BeanWithSimpleCounter;
 import parser.entity.BeanWithWideMapCounter;
+import parser.entity.BeanWithCodec;
+import parser.entity.CachedBean;
 import parser.entity.ChildBean;
 import parser.entity.ColumnFamilyBean;
 import parser.entity.ColumnFamilyBeanWithJoinEntity;
@@ -254,6 +258,28 @@ public class EntityParserTest
 		assertThat(meta.getColumnFamilyName()).isEqualTo("myOwnCF");
 	}
 
+	@Test
+	public void should_parse_cached_entity() throws Exception
+	{
+		assertThat(parser.parseEntity(keyspace, CachedBean.class).isCached()).isTrue();
+		assertThat(parser.parseEntity(keyspace, BeanWithColumnFamilyName.class).isCached())
+				.isFalse();
+	}
+
+	@Test
+	public void should_parse_value_codecs() throws Exception
+	{
+		EntityMeta<?> meta = parser.parseEntity(keyspace, BeanWithCodec.class);
+
+		assertThat(meta.getIdMeta().getValueCodec()).isInstanceOf(NativeValueCodec.class);
+		assertThat(meta.getPropertyMetas().get("token").getValueCodec()).isInstanceOf(
+				NativeValueCodec.class);
+		assertThat(meta.getPropertyMetas().get("jsonToken").getValueCodec()).isInstanceOf(
+				JsonValueCodec.class);
+		assertThat(parser.parseEntity(keyspace, CachedBean.class).getIdMeta().getValueCodec())
+				.isInstanceOf(JsonValueCodec.class);
+	}
+
 	@Test
 	public void should_parse_inherited_bean() throws Exception
 	{
@@ -12,9 +12,11 @@ import static info.archinnov.achilles.serializer.SerializerUtils.UUID_SRZ;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import info.archinnov.achilles.annotations.Chunked;
 import info.archinnov.achilles.annotations.Consistency;
 import info.archinnov.achilles.annotations.Counter;
 import info.archinnov.achilles.annotations.Lazy;
+import info.archinnov.achilles.codec.ValueCompressor;
 import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
 import info.archinnov.achilles.dao.CounterDao;
 import info.archinnov.achilles.entity.manager.ThriftEntityManagerFactoryImpl;
@@ -22,6 +24,7 @@ import info.archinnov.achilles.entity.metadata.ExternalWideMapProperties;
 import info.archinnov.achilles.entity.metadata.MultiKeyProperties;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
+import info.archinnov.achilles.entity.type.CounterWideMap;
 import info.archinnov.achilles.entity.type.WideMap;
 import info.archinnov.achilles.exception.BeanMappingException;
 import info.archinnov.achilles.serializer.SerializerUtils;
@@ -268,6 +271,71 @@ public class PropertyParserTest
 		assertThat(meta.getWriteConsistencyLevel()).isEqualTo(ALL);
 	}
 
+	@Test
+	public void should_parse_chunked_simple_property() throws Exception
+	{
+		class Test
+		{
+			@Lazy
+			@Column
+			@Chunked(size = 512)
+			private String document;
+
+			public String getDocument()
+			{
+				return document;
+			}
+
+			public void setDocument(String document)
+			{
+				this.document = document;
+			}
+		}
+		EntityParser.entityClassTL.set(Test.class);
+		EntityParser.valueCompressorTL.set(new ValueCompressor(10));
+		try
+		{
+			PropertyMeta<?, ?> meta = parser.parse(Test.class.getDeclaredField("document"), false);
+
+			assertThat(meta.type()).isEqualTo(PropertyType.LAZY_SIMPLE);
+			assertThat(meta.isChunked()).isTrue();
+			assertThat(meta.getValueChunker().getChunkSize()).isEqualTo(512);
+			assertThat(meta.getValueCompressor()).isNull();
+		}
+		finally
+		{
+			EntityParser.valueCompressorTL.remove();
+		}
+	}
+
+	@Test
+	public void should_exception_when_chunked_list_property() throws Exception
+	{
+		class Test
+		{
+			@Column
+			@Chunked
+			private List<String> documents;
+
+			public List<String> getDocuments()
+			{
+				return documents;
+			}
+
+			public void setDocuments(List<String> documents)
+			{
+				this.documents = documents;
+			}
+		}
+
+		expectedEx.expect(BeanMappingException.class);
+		expectedEx.expectMessage("The property 'documents' of entity '"
+				+ Test.class.getCanonicalName()
+				+ "' cannot be chunked, only simple properties can");
+		EntityParser.entityClassTL.set(Test.class);
+		parser.parse(Test.class.getDeclaredField("documents"), false);
+	}
+
 	@Test
 	public void should_exception_when_counter_type_is_not_long() throws Exception
 	{
@@ -424,6 +492,50 @@ public class PropertyParserTest
 		assertThat(meta.type().isLazy()).isTrue();
 	}
 
+	@Test
+	public void should_parse_lazy_with_fetch_group() throws Exception
+	{
+		class Test
+		{
+			@Column
+			@Lazy(group = "details")
+			private List<String> friends;
+
+			@Column
+			@Lazy
+			private String name;
+
+			public List<String> getFriends()
+			{
+				return friends;
+			}
+
+			public void setFriends(List<String> friends)
+			{
+				this.friends = friends;
+			}
+
+			public String getName()
+			{
+				return name;
+			}
+
+			public void setName(String name)
+			{
+				this.name = name;
+			}
+		}
+		EntityParser.entityClassTL.set(Test.class);
+		PropertyMeta<?, ?> friendsMeta = parser.parse(Test.class.getDeclaredField("friends"),
+				false);
+		PropertyMeta<?, ?> nameMeta = parser.parse(Test.class.getDeclaredField("name"), false);
+
+		assertThat(friendsMeta.type()).isEqualTo(PropertyType.LAZY_LIST);
+		assertThat(friendsMeta.getFetchGroup()).isEqualTo("details");
+		assertThat(nameMeta.type()).isEqualTo(PropertyType.LAZY_SIMPLE);
+		assertThat(nameMeta.getFetchGroup()).isNull();
+	}
+
 	@Test
 	public void should_parse_eager() throws Exception
 	{
@@ -615,6 +727,61 @@ public class PropertyParserTest
 		assertThat((PropertyMeta<UUID, Long>) counterMetas.get(0)).isSameAs(meta);
 	}
 
+	@SuppressWarnings(
+	{
+			"unchecked",
+			"rawtypes"
+	})
+	@Test
+	public void should_parse_counter_widemap_interface() throws Exception
+	{
+		class Test
+		{
+			@Counter
+			@Column
+			private CounterWideMap<UUID> counters;
+
+			public CounterWideMap<UUID> getCounters()
+			{
+				return counters;
+			}
+		}
+		EntityParser.entityClassTL.set(Test.class);
+		PropertyMeta<UUID, Long> meta = (PropertyMeta<UUID, Long>) parser.parse(
+				Test.class.getDeclaredField("counters"), false);
+
+		assertThat(meta.type()).isEqualTo(WIDE_MAP_COUNTER);
+		assertThat((Class) meta.getValueClass()).isEqualTo(Long.class);
+		assertThat((Serializer) meta.getValueSerializer()).isEqualTo(LONG_SRZ);
+		assertThat((Class) meta.getKeyClass()).isEqualTo(UUID.class);
+		assertThat(meta.getSetter()).isNull();
+		assertThat(meta.getCounterProperties().getDao()).isSameAs(counterDao);
+
+		assertThat(counterMetas).hasSize(1);
+	}
+
+	@Test
+	public void should_exception_when_counter_widemap_without_counter_annotation()
+			throws Exception
+	{
+		class Test
+		{
+			@Column
+			private CounterWideMap<UUID> counters;
+
+			public CounterWideMap<UUID> getCounters()
+			{
+				return counters;
+			}
+		}
+		EntityParser.entityClassTL.set(Test.class);
+
+		expectedEx.expect(BeanMappingException.class);
+		expectedEx.expectMessage("should be annotated with @Counter");
+
+		parser.parse(Test.class.getDeclaredField("counters"), false);
+	}
+
 	@Test
 	public void should_fill_external_widemap_hashmap() throws Exception
 	{
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
+import me.prettyprint.hector.api.beans.DynamicComposite;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -314,4 +315,37 @@ public class CompositeHelperTest
 		assertThat(equality[0]).isEqualTo(LESS_THAN_EQUAL);
 		assertThat(equality[1]).isEqualTo(EQUAL);
 	}
+
+	@Test
+	public void should_have_same_components_regardless_of_equality() throws Exception
+	{
+		DynamicComposite composite1 = new DynamicComposite();
+		composite1.addComponent(0, "name", EQUAL);
+		composite1.addComponent(1, 10L, LESS_THAN_EQUAL);
+
+		DynamicComposite composite2 = new DynamicComposite();
+		composite2.addComponent(0, "name", EQUAL);
+		composite2.addComponent(1, 10L, GREATER_THAN_EQUAL);
+
+		assertThat(helper.hasSameComponents(composite1, composite2)).isTrue();
+	}
+
+	@Test
+	public void should_not_have_same_components() throws Exception
+	{
+		DynamicComposite composite1 = new DynamicComposite();
+		composite1.addComponent(0, "name", EQUAL);
+		composite1.addComponent(1, 10L, EQUAL);
+
+		DynamicComposite composite2 = new DynamicComposite();
+		composite2.addComponent(0, "name", EQUAL);
+		composite2.addComponent(1, 11L, EQUAL);
+
+		DynamicComposite composite3 = new DynamicComposite();
+		composite3.addComponent(0, "name", EQUAL);
+
+		assertThat(helper.hasSameComponents(composite1, composite2)).isFalse();
+		assertThat(helper.hasSameComponents(composite1, composite3)).isFalse();
+		assertThat(helper.hasSameComponents(composite1, null)).isFalse();
+	}
 }
@@ -7,9 +7,9 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -27,6 +27,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 /**
  * AchillesCounterSliceIteratorTest
  * 
@@ -57,11 +59,6 @@ public class AchillesCounterSliceIteratorTest
 
 	private AchillesCounterSliceIterator<Long, DynamicComposite> iterator;
 
-	@Mock
-	private AchillesConfigurableConsistencyLevelPolicy policy;
-
-	private String columnFamily = "cf";
-
 	@SuppressWarnings(
 	{
 			"unchecked",
@@ -105,8 +102,8 @@ public class AchillesCounterSliceIteratorTest
 		when(counterColumnsIterator.hasNext()).thenReturn(true, true, true, true, true, false);
 		when(counterColumnsIterator.next()).thenReturn(hCol1, hCol2, hCol3);
 
-		iterator = new AchillesCounterSliceIterator<Long, DynamicComposite>(policy, columnFamily,
-				query, start, end, false, 10);
+		iterator = new AchillesCounterSliceIterator<Long, DynamicComposite>(query, start, end,
+				false, 10);
 
 		assertThat(iterator.hasNext()).isEqualTo(true);
 		HCounterColumn<DynamicComposite> h1 = iterator.next();
@@ -128,8 +125,7 @@ public class AchillesCounterSliceIteratorTest
 
 		assertThat(iterator.hasNext()).isEqualTo(false);
 
-		verify(policy).loadConsistencyLevelForRead(columnFamily);
-		verify(policy).reinitDefaultConsistencyLevel();
+		verify(query).execute();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -160,8 +156,8 @@ public class AchillesCounterSliceIteratorTest
 				false);
 		when(counterColumnsIterator.next()).thenReturn(hCol1, hCol2, hCol3);
 
-		iterator = new AchillesCounterSliceIterator<Long, DynamicComposite>(policy, columnFamily,
-				query, start, end, false, count);
+		iterator = new AchillesCounterSliceIterator<Long, DynamicComposite>(query, start, end,
+				false, count);
 
 		assertThat(iterator.hasNext()).isEqualTo(true);
 		HCounterColumn<DynamicComposite> h1 = iterator.next();
@@ -184,17 +180,56 @@ public class AchillesCounterSliceIteratorTest
 		assertThat(iterator.hasNext()).isEqualTo(false);
 
 		verify(query).setRange(name2, end, false, count);
-		verify(policy, times(2)).loadConsistencyLevelForRead(columnFamily);
-		verify(policy, times(2)).reinitDefaultConsistencyLevel();
+		verify(query, times(2)).execute();
 	}
 
 	@Test(expected = UnsupportedOperationException.class)
 	public void should_exception_when_remove() throws Exception
 	{
 		DynamicComposite start = new DynamicComposite(), end = new DynamicComposite();
-		iterator = new AchillesCounterSliceIterator<Long, DynamicComposite>(policy, columnFamily,
-				query, start, end, false, 10);
+		iterator = new AchillesCounterSliceIterator<Long, DynamicComposite>(query, start, end,
+				false, 10);
 
 		iterator.remove();
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_prefetch_pages_with_executor() throws Exception
+	{
+		DynamicComposite start = new DynamicComposite(), //
+		end = new DynamicComposite(), //
+		name1 = new DynamicComposite(), //
+		name2 = new DynamicComposite(), //
+		name3 = new DynamicComposite();
+		int count = 2;
+
+		name1.addComponent("name1", STRING_SRZ);
+		name2.addComponent("name2", STRING_SRZ);
+		name3.addComponent("name3", STRING_SRZ);
+
+		HCounterColumn<DynamicComposite> hCol1 = HFactory.createCounterColumn(name1, 11L,
+				DYNA_COMP_SRZ);
+		HCounterColumn<DynamicComposite> hCol2 = HFactory.createCounterColumn(name2, 12L,
+				DYNA_COMP_SRZ);
+		HCounterColumn<DynamicComposite> hCol3 = HFactory.createCounterColumn(name3, 13L,
+				DYNA_COMP_SRZ);
+
+		when(counterSlice.getColumns()).thenReturn(Arrays.asList(hCol1, hCol2),
+				Arrays.asList(hCol3));
+
+		iterator = new AchillesCounterSliceIterator<Long, DynamicComposite>(query, start, end,
+				false, count, MoreExecutors.sameThreadExecutor(), 1, null);
+
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol1);
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol2);
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol3);
+		assertThat(iterator.hasNext()).isFalse();
+
+		verify(query).setRange(name2, end, false, count);
+		verify(query, times(2)).execute();
+	}
 }
@@ -5,7 +5,6 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
 import info.archinnov.achilles.entity.JoinEntityHelper;
 import info.archinnov.achilles.entity.metadata.EntityMeta;
 import info.archinnov.achilles.entity.metadata.JoinProperties;
@@ -78,11 +77,6 @@ public class AchillesJoinSliceIteratorTest
 
 	private AchillesJoinSliceIterator<Long, DynamicComposite, String, Integer, UserBean> iterator;
 
-	@Mock
-	private AchillesConfigurableConsistencyLevelPolicy policy;
-
-	private String columnFamily = "cf";
-
 	@SuppressWarnings(
 	{
 			"rawtypes",
@@ -152,7 +146,7 @@ public class AchillesJoinSliceIteratorTest
 						Arrays.asList(joinId1, joinId2, joinId3), joinEntityMeta)).thenReturn(
 				entitiesMap);
 		iterator = new AchillesJoinSliceIterator<Long, DynamicComposite, String, Integer, UserBean>(
-				policy, columnFamily, propertyMeta, query, start, end, false, 10);
+				propertyMeta, query, start, end, false, 10);
 
 		Whitebox.setInternalState(iterator, "joinHelper", joinHelper);
 		when(columnsIterator.next()).thenReturn(hCol1, hCol2, hCol3);
@@ -179,8 +173,7 @@ public class AchillesJoinSliceIteratorTest
 
 		assertThat(iterator.hasNext()).isEqualTo(false);
 
-		verify(policy).loadConsistencyLevelForRead(columnFamily);
-		verify(policy).reinitDefaultConsistencyLevel();
+		verify(query).execute();
 
 	}
 
@@ -227,7 +220,7 @@ public class AchillesJoinSliceIteratorTest
 				.thenReturn(entitiesMap);
 
 		iterator = new AchillesJoinSliceIterator<Long, DynamicComposite, String, Integer, UserBean>(
-				policy, columnFamily, propertyMeta, query, start, end, false, count);
+				propertyMeta, query, start, end, false, count);
 
 		Whitebox.setInternalState(iterator, "joinHelper", joinHelper);
 
@@ -252,7 +245,6 @@ public class AchillesJoinSliceIteratorTest
 		assertThat(iterator.hasNext()).isEqualTo(false);
 
 		verify(query).setRange(name2, end, false, count);
-		verify(policy, times(2)).loadConsistencyLevelForRead(columnFamily);
-		verify(policy, times(2)).reinitDefaultConsistencyLevel();
+		verify(query, times(2)).execute();
 	}
 }
@@ -4,12 +4,15 @@ import static info.archinnov.achilles.serializer.SerializerUtils.DYNA_COMP_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.OBJECT_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import info.archinnov.achilles.dao.AchillesConfigurableConsistencyLevelPolicy;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -28,6 +31,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 /**
  * AchillesSliceIteratorTest
  * 
@@ -60,9 +65,7 @@ public class AchillesSliceIteratorTest
 	private AchillesSliceIterator<Long, DynamicComposite, String> iterator;
 
 	@Mock
-	private AchillesConfigurableConsistencyLevelPolicy policy;
-
-	private String columnFamily = "cf";
+	private AdaptivePagingPolicy pagingPolicy;
 
 	@SuppressWarnings(
 	{
@@ -108,8 +111,8 @@ public class AchillesSliceIteratorTest
 		when(columnsIterator.hasNext()).thenReturn(true, true, true, true, true, false);
 		when(columnsIterator.next()).thenReturn(hCol1, hCol2, hCol3);
 
-		iterator = new AchillesSliceIterator<Long, DynamicComposite, String>(policy, columnFamily,
-				query, start, end, false, 10);
+		iterator = new AchillesSliceIterator<Long, DynamicComposite, String>(query, start, end,
+				false, 10);
 
 		assertThat(iterator.hasNext()).isEqualTo(true);
 		HColumn<DynamicComposite, String> h1 = iterator.next();
@@ -131,8 +134,7 @@ public class AchillesSliceIteratorTest
 
 		assertThat(iterator.hasNext()).isEqualTo(false);
 
-		verify(policy).loadConsistencyLevelForRead(columnFamily);
-		verify(policy).reinitDefaultConsistencyLevel();
+		verify(query).execute();
 
 	}
 
@@ -164,8 +166,8 @@ public class AchillesSliceIteratorTest
 		when(columnsIterator.hasNext()).thenReturn(true, true, true, false, true, false, false);
 		when(columnsIterator.next()).thenReturn(hCol1, hCol2, hCol3);
 
-		iterator = new AchillesSliceIterator<Long, DynamicComposite, String>(policy, columnFamily,
-				query, start, end, false, count);
+		iterator = new AchillesSliceIterator<Long, DynamicComposite, String>(query, start, end,
+				false, count);
 
 		assertThat(iterator.hasNext()).isEqualTo(true);
 		HColumn<DynamicComposite, String> h1 = iterator.next();
@@ -189,8 +191,95 @@ public class AchillesSliceIteratorTest
 
 		verify(query).setRange(name2, end, false, count);
 
-		verify(policy, times(2)).loadConsistencyLevelForRead(columnFamily);
-		verify(policy, times(2)).reinitDefaultConsistencyLevel();
+		verify(query, times(2)).execute();
+
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_prefetch_pages_with_executor() throws Exception
+	{
+		DynamicComposite start = new DynamicComposite(), //
+		end = new DynamicComposite(), //
+		name1 = new DynamicComposite(), //
+		name2 = new DynamicComposite(), //
+		name3 = new DynamicComposite();
+		int count = 2;
+
+		name1.addComponent("name1", STRING_SRZ);
+		name2.addComponent("name2", STRING_SRZ);
+		name3.addComponent("name3", STRING_SRZ);
+
+		long ttl = 10L;
+
+		HColumn<DynamicComposite, String> hCol1 = HFactory.createColumn(name1, "val1", ttl,
+				DYNA_COMP_SRZ, STRING_SRZ);
+		HColumn<DynamicComposite, String> hCol2 = HFactory.createColumn(name2, "val2", ttl,
+				DYNA_COMP_SRZ, STRING_SRZ);
+		HColumn<DynamicComposite, String> hCol3 = HFactory.createColumn(name3, "val3", ttl,
+				DYNA_COMP_SRZ, STRING_SRZ);
+
+		when(columnSlice.getColumns()).thenReturn(Arrays.asList(hCol1, hCol2),
+				Arrays.asList(hCol3));
+
+		iterator = new AchillesSliceIterator<Long, DynamicComposite, String>(query, start, end,
+				false, count, MoreExecutors.sameThreadExecutor(), 2, null);
 
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol1);
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol2);
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol3);
+		assertThat(iterator.hasNext()).isFalse();
+
+		verify(query).setRange(name2, end, false, count);
+		verify(query, times(2)).execute();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_adapt_page_size_with_paging_policy() throws Exception
+	{
+		DynamicComposite start = new DynamicComposite(), //
+		end = new DynamicComposite(), //
+		name1 = new DynamicComposite(), //
+		name2 = new DynamicComposite(), //
+		name3 = new DynamicComposite();
+
+		name1.addComponent("name1", STRING_SRZ);
+		name2.addComponent("name2", STRING_SRZ);
+		name3.addComponent("name3", STRING_SRZ);
+
+		long ttl = 10L;
+
+		HColumn<DynamicComposite, String> hCol1 = HFactory.createColumn(name1, "val1", ttl,
+				DYNA_COMP_SRZ, STRING_SRZ);
+		HColumn<DynamicComposite, String> hCol2 = HFactory.createColumn(name2, "val2", ttl,
+				DYNA_COMP_SRZ, STRING_SRZ);
+		HColumn<DynamicComposite, String> hCol3 = HFactory.createColumn(name3, "val3", ttl,
+				DYNA_COMP_SRZ, STRING_SRZ);
+
+		when(columnsIterator.hasNext()).thenReturn(true, true, true, false, true, false, false);
+		when(columnsIterator.next()).thenReturn(hCol1, hCol2, hCol3);
+		when(hColumns.size()).thenReturn(2);
+		when(hColumns.get(anyInt())).thenReturn(hCol1);
+		when(pagingPolicy.initialCount(5)).thenReturn(2);
+		when(pagingPolicy.nextCount(eq(2), eq(2),
+				anyLong(), anyLong())).thenReturn(4);
+
+		iterator = new AchillesSliceIterator<Long, DynamicComposite, String>(query, start, end,
+				false, 5, null, 0, pagingPolicy);
+
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol1);
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol2);
+		assertThat(iterator.hasNext()).isTrue();
+		assertThat(iterator.next()).isSameAs(hCol3);
+		assertThat(iterator.hasNext()).isFalse();
+
+		verify(query).setRange(start, end, false, 2);
+		verify(query).setRange(name2, end, false, 4);
 	}
 }
@@ -0,0 +1,95 @@
+package info.archinnov.achilles.iterator;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.exception.AchillesException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * AdaptivePagingPolicyTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class AdaptivePagingPolicyTest
+{
+	@Rule
+	public ExpectedException expectedEx = ExpectedException.none();
+
+	private AdaptivePagingPolicy policy = new AdaptivePagingPolicy(10, 1000, 10000, 100);
+
+	@Test
+	public void should_bound_initial_count() throws Exception
+	{
+		assertThat(policy.initialCount(5)).isEqualTo(10);
+		assertThat(policy.initialCount(50)).isEqualTo(50);
+		assertThat(policy.initialCount(5000)).isEqualTo(1000);
+	}
+
+	@Test
+	public void should_grow_for_small_and_fast_columns() throws Exception
+	{
+		// 10 bytes per column -> 1000 columns fit in 10000 bytes, growth limited to x2
+		int count = policy.nextCount(100, 100, 1000, TimeUnit.MILLISECONDS.toNanos(1));
+
+		assertThat(count).isEqualTo(200);
+		assertThat(policy.getGrowCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_shrink_for_big_columns() throws Exception
+	{
+		// 500 bytes per column -> 20 columns fit in 10000 bytes, shrink limited to /2
+		int count = policy.nextCount(100, 100, 50000, TimeUnit.MILLISECONDS.toNanos(1));
+
+		assertThat(count).isEqualTo(50);
+		assertThat(policy.getShrinkCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_shrink_for_slow_pages() throws Exception
+	{
+		// 100 columns in 400 ms -> 25 columns in 100 ms
+		int count = policy.nextCount(40, 100, 1000, TimeUnit.MILLISECONDS.toNanos(400));
+
+		assertThat(count).isEqualTo(25);
+	}
+
+	@Test
+	public void should_keep_count_within_bounds() throws Exception
+	{
+		assertThat(policy.nextCount(800, 800, 800, 1)).isEqualTo(1000);
+		assertThat(policy.nextCount(12, 12, 120000, 1)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_keep_count_when_no_column_fetched() throws Exception
+	{
+		assertThat(policy.nextCount(100, 0, 0, 1000)).isEqualTo(100);
+	}
+
+	@Test
+	public void should_record_chosen_page_sizes() throws Exception
+	{
+		policy.initialCount(100);
+		policy.nextCount(100, 100, 1000, 1);
+
+		assertThat(policy.getPageCount()).isEqualTo(2);
+		assertThat(policy.getLastPageSize()).isEqualTo(200);
+		assertThat(policy.getAveragePageSize()).isEqualTo(150.0);
+	}
+
+	@Test
+	public void should_exception_when_max_lower_than_min() throws Exception
+	{
+		expectedEx.expect(AchillesException.class);
+		expectedEx
+				.expectMessage("Adaptive paging maximum count should be greater or equal to the minimum count");
+
+		new AdaptivePagingPolicy(100, 10, 10000, 100);
+	}
+}
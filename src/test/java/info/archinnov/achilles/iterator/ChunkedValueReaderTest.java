@@ -0,0 +1,127 @@
+package info.archinnov.achilles.iterator;
+
+import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+
+import java.io.IOException;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * ChunkedValueReaderTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ChunkedValueReaderTest
+{
+	@Mock
+	private GenericDynamicCompositeDao<Long> dao;
+
+	@Mock
+	private PropertyMeta<Void, String> propertyMeta;
+
+	@Mock
+	private DynamicCompositeKeyFactory keyFactory;
+
+	private ChunkedValueReader<Long> reader;
+
+	private Long key = 11L;
+
+	private DynamicComposite name = composite("document");
+
+	private DynamicComposite chunk0 = composite("chunk0");
+
+	private DynamicComposite chunk1 = composite("chunk1");
+
+	@Before
+	public void setUp()
+	{
+		reader = new ChunkedValueReader<Long>(dao, key, propertyMeta);
+		Whitebox.setInternalState(reader, "keyFactory", keyFactory);
+
+		when(keyFactory.createForBatchInsertSingleValue(propertyMeta)).thenReturn(name);
+		when(keyFactory.createForChunk(propertyMeta, 20L, 0)).thenReturn(chunk0);
+		when(keyFactory.createForChunk(propertyMeta, 20L, 1)).thenReturn(chunk1);
+		when(propertyMeta.getPropertyName()).thenReturn("document");
+	}
+
+	@Test
+	public void should_read_chunks() throws Exception
+	{
+		when(dao.getValue(key, name)).thenReturn(ValueChunker.chunkHead(20L, 2));
+		when(dao.getValue(key, chunk0)).thenReturn("abcd");
+		when(dao.getValue(key, chunk1)).thenReturn("ef");
+
+		char[] buffer = new char[3];
+
+		assertThat(reader.read(buffer, 0, 3)).isEqualTo(3);
+		assertThat(new String(buffer)).isEqualTo("abc");
+		assertThat(IOUtils.toString(reader)).isEqualTo("def");
+		assertThat(reader.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void should_read_value_stored_whole() throws Exception
+	{
+		when(dao.getValue(key, name)).thenReturn(ValueChunker.wholeHead(20L, "abcd"));
+
+		assertThat(IOUtils.toString(reader)).isEqualTo("abcd");
+		verify(dao, never()).getValue(key, chunk0);
+	}
+
+	@Test
+	public void should_read_value_stored_whole_without_generation() throws Exception
+	{
+		when(dao.getValue(key, name)).thenReturn("abcd");
+
+		assertThat(IOUtils.toString(reader)).isEqualTo("abcd");
+	}
+
+	@Test
+	public void should_read_nothing_without_value() throws Exception
+	{
+		assertThat(reader.read()).isEqualTo(-1);
+		assertThat(reader.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void should_read_nothing_after_close() throws Exception
+	{
+		reader.close();
+
+		assertThat(reader.read()).isEqualTo(-1);
+	}
+
+	@Test(expected = IOException.class)
+	public void should_exception_when_chunk_missing() throws Exception
+	{
+		when(dao.getValue(key, name)).thenReturn(ValueChunker.chunkHead(20L, 2));
+		when(dao.getValue(key, chunk0)).thenReturn("abcd");
+
+		IOUtils.toString(reader);
+	}
+
+	private DynamicComposite composite(String component)
+	{
+		DynamicComposite composite = new DynamicComposite();
+		composite.addComponent(component, STRING_SRZ);
+		return composite;
+	}
+}
@@ -0,0 +1,64 @@
+package info.archinnov.achilles.iterator;
+
+import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+
+import me.prettyprint.hector.api.beans.HColumn;
+import me.prettyprint.hector.api.beans.HCounterColumn;
+import me.prettyprint.hector.api.factory.HFactory;
+
+import org.junit.Test;
+
+/**
+ * PageBytesEstimatorTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class PageBytesEstimatorTest
+{
+
+	@Test
+	public void should_estimate_page_from_first_and_last_columns() throws Exception
+	{
+		HColumn<String, String> first = HFactory.createColumn("ab", "cdef", STRING_SRZ,
+				STRING_SRZ);
+		HColumn<String, String> last = HFactory.createColumn("gh", "ij", STRING_SRZ, STRING_SRZ);
+
+		@SuppressWarnings("unchecked")
+		HColumn<String, String> middle = mock(HColumn.class);
+
+		List<HColumn<String, String>> page = Arrays.asList(first, middle, last);
+
+		// (6 + 4) / 2 bytes per column
+		assertThat(PageBytesEstimator.estimateBytes(page)).isEqualTo(15L);
+		verify(middle, never()).getValueBytes();
+	}
+
+	@Test
+	public void should_estimate_counter_page_with_long_values() throws Exception
+	{
+		HCounterColumn<String> first = HFactory.createCounterColumn("ab", 10L, STRING_SRZ);
+		HCounterColumn<String> last = HFactory.createCounterColumn("cdef", 11L, STRING_SRZ);
+
+		List<HCounterColumn<String>> page = Arrays.asList(first, last);
+
+		assertThat(PageBytesEstimator.estimateCounterBytes(page)).isEqualTo(22L);
+	}
+
+	@Test
+	public void should_estimate_empty_page_to_zero() throws Exception
+	{
+		assertThat(PageBytesEstimator.estimateBytes(Arrays.<HColumn<Long, Long>> asList()))
+				.isEqualTo(0L);
+		assertThat(
+				PageBytesEstimator.estimateCounterBytes(Arrays.<HCounterColumn<Long>> asList()))
+				.isEqualTo(0L);
+	}
+}
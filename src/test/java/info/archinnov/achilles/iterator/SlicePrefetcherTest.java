@@ -0,0 +1,192 @@
+package info.archinnov.achilles.iterator;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.dao.AsyncTaskCallable;
+import info.archinnov.achilles.iterator.SlicePrefetcher.PageLoader;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * SlicePrefetcherTest
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SlicePrefetcherTest
+{
+
+	@Mock
+	private PageLoader<Integer, Integer> pageLoader;
+
+	@Mock
+	private ExecutorService mockedExecutor;
+
+	@Before
+	public void setUp()
+	{
+		when(pageLoader.nextPageSize()).thenReturn(2);
+	}
+
+	@Test
+	public void should_return_pages_then_empty_list() throws Exception
+	{
+		when(pageLoader.loadPage(0, true, 2)).thenReturn(Arrays.asList(1, 2));
+		when(pageLoader.loadPage(2, false, 2)).thenReturn(Arrays.asList(3, 4));
+		when(pageLoader.loadPage(4, false, 2)).thenReturn(Arrays.asList(5));
+		when(pageLoader.nameOf(2)).thenReturn(2);
+		when(pageLoader.nameOf(4)).thenReturn(4);
+
+		SlicePrefetcher<Integer, Integer> prefetcher = new SlicePrefetcher<Integer, Integer>(
+				MoreExecutors.sameThreadExecutor(), pageLoader, 0, 1);
+
+		assertThat(prefetcher.nextPage()).containsExactly(1, 2);
+		assertThat(prefetcher.nextPage()).containsExactly(3, 4);
+		assertThat(prefetcher.nextPage()).containsExactly(5);
+		assertThat(prefetcher.nextPage()).isEmpty();
+	}
+
+	@Test
+	public void should_not_fetch_more_than_depth_ahead() throws Exception
+	{
+		when(pageLoader.loadPage(0, true, 2)).thenReturn(Arrays.asList(1, 2));
+		when(pageLoader.loadPage(2, false, 2)).thenReturn(Arrays.asList(3, 4));
+		when(pageLoader.nameOf(2)).thenReturn(2);
+		when(pageLoader.nameOf(4)).thenReturn(4);
+
+		SlicePrefetcher<Integer, Integer> prefetcher = new SlicePrefetcher<Integer, Integer>(
+				MoreExecutors.sameThreadExecutor(), pageLoader, 0, 1);
+
+		assertThat(prefetcher.nextPage()).containsExactly(1, 2);
+
+		verify(pageLoader, never()).loadPage(4, false, 2);
+	}
+
+	@Test
+	public void should_use_page_size_of_loader() throws Exception
+	{
+		when(pageLoader.nextPageSize()).thenReturn(2, 3);
+		when(pageLoader.loadPage(0, true, 2)).thenReturn(Arrays.asList(1, 2));
+		when(pageLoader.loadPage(2, false, 3)).thenReturn(Arrays.asList(3, 4));
+		when(pageLoader.nameOf(2)).thenReturn(2);
+
+		SlicePrefetcher<Integer, Integer> prefetcher = new SlicePrefetcher<Integer, Integer>(
+				MoreExecutors.sameThreadExecutor(), pageLoader, 0, 1);
+
+		assertThat(prefetcher.nextPage()).containsExactly(1, 2);
+		assertThat(prefetcher.nextPage()).containsExactly(3, 4);
+		assertThat(prefetcher.nextPage()).isEmpty();
+	}
+
+	@Test
+	public void should_fetch_pages_in_background() throws Exception
+	{
+		when(pageLoader.loadPage(0, true, 2)).thenReturn(Arrays.asList(1, 2));
+		when(pageLoader.loadPage(2, false, 2)).thenReturn(Arrays.<Integer> asList());
+		when(pageLoader.nameOf(2)).thenReturn(2);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			SlicePrefetcher<Integer, Integer> prefetcher = new SlicePrefetcher<Integer, Integer>(
+					executor, pageLoader, 0, 3);
+
+			assertThat(prefetcher.nextPage()).containsExactly(1, 2);
+			assertThat(prefetcher.nextPage()).isEmpty();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void should_rethrow_loading_exception() throws Exception
+	{
+		when(pageLoader.loadPage(0, true, 2)).thenThrow(new IllegalStateException("test"));
+
+		SlicePrefetcher<Integer, Integer> prefetcher = new SlicePrefetcher<Integer, Integer>(
+				MoreExecutors.sameThreadExecutor(), pageLoader, 0, 1);
+
+		RuntimeException exception = null;
+		try
+		{
+			prefetcher.nextPage();
+		}
+		catch (RuntimeException e)
+		{
+			exception = e;
+		}
+
+		assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+		assertThat(exception.getCause().getMessage()).isEqualTo("test");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_rethrow_rejected_submission() throws Exception
+	{
+		when(mockedExecutor.submit(any(Callable.class))).thenThrow(
+				new RejectedExecutionException("full"));
+
+		SlicePrefetcher<Integer, Integer> prefetcher = new SlicePrefetcher<Integer, Integer>(
+				mockedExecutor, pageLoader, 0, 1);
+
+		RuntimeException exception = null;
+		try
+		{
+			prefetcher.nextPage();
+		}
+		catch (RuntimeException e)
+		{
+			exception = e;
+		}
+
+		assertThat(exception.getCause()).isInstanceOf(RejectedExecutionException.class);
+	}
+
+	@Test
+	public void should_load_pages_on_calling_thread_when_running_async_task() throws Exception
+	{
+		when(pageLoader.loadPage(0, true, 2)).thenReturn(Arrays.asList(1, 2));
+		when(pageLoader.loadPage(2, false, 2)).thenReturn(Arrays.asList(3));
+		when(pageLoader.nameOf(2)).thenReturn(2);
+
+		final SlicePrefetcher<Integer, Integer> prefetcher = new SlicePrefetcher<Integer, Integer>(
+				mockedExecutor, pageLoader, 0, 3);
+
+		List<List<Integer>> pages = new AsyncTaskCallable<List<List<Integer>>>(
+				new Callable<List<List<Integer>>>()
+				{
+					@Override
+					public List<List<Integer>> call()
+					{
+						return Arrays.asList(prefetcher.nextPage(), prefetcher.nextPage(),
+								prefetcher.nextPage());
+					}
+				}).call();
+
+		assertThat(pages.get(0)).containsExactly(1, 2);
+		assertThat(pages.get(1)).containsExactly(3);
+		assertThat(pages.get(2)).isEmpty();
+		verifyZeroInteractions(mockedExecutor);
+	}
+}
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import mapping.entity.TweetMultiKey;
 import mapping.entity.UserBean;
@@ -167,6 +168,37 @@ public class KeyValueFactoryTest
 		assertThat(builtList).containsExactly("test1", "test2");
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_transform_each_column_only_once() throws Exception
+	{
+		DynamicComposite dynComp1 = CompositeTestBuilder.builder().buildDynamic();
+		DynamicComposite dynComp2 = CompositeTestBuilder.builder().buildDynamic();
+		HColumn<DynamicComposite, String> hCol1 = HColumnTestBuilder.dynamic(dynComp1, "test1");
+		HColumn<DynamicComposite, String> hCol2 = HColumnTestBuilder.dynamic(dynComp2, "test2");
+		final AtomicInteger transformCount = new AtomicInteger();
+
+		Function<HColumn<DynamicComposite, String>, String> function = new Function<HColumn<DynamicComposite, String>, String>()
+		{
+			@Override
+			public String apply(HColumn<DynamicComposite, String> hCol)
+			{
+				transformCount.incrementAndGet();
+				return hCol.getValue();
+			}
+		};
+
+		when(dynamicCompositeTransformer.buildValueTransformer(wideMapMeta)).thenReturn(function);
+
+		List<String> builtList = factory.createValueListForDynamicComposite(wideMapMeta,
+				Arrays.asList(hCol1, hCol2));
+
+		assertThat(builtList.get(0)).isEqualTo("test1");
+		assertThat(builtList.get(0)).isEqualTo("test1");
+		assertThat(builtList).containsExactly("test1", "test2");
+		assertThat(transformCount.get()).isEqualTo(2);
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void should_create_join_value_list_for_dynamic_composite() throws Exception
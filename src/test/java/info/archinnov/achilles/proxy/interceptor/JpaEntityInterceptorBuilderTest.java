@@ -18,6 +18,7 @@ import java.util.Set;
 
 import mapping.entity.ColumnFamilyBean;
 import mapping.entity.CompleteBean;
+import mapping.entity.UserBean;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -95,6 +96,76 @@ public class JpaEntityInterceptorBuilderTest
 		assertThat(entityLoader).isInstanceOf(EntityLoader.class);
 	}
 
+	@Test
+	public void should_mark_join_properties_set_in_target_as_loaded() throws Exception
+	{
+		CompleteBean entity = CompleteBeanTestBuilder.builder().id(1L).buid();
+		entity.setUser(new UserBean());
+
+		PropertyMeta<Void, UserBean> userMeta = new PropertyMeta<Void, UserBean>();
+		userMeta.setType(PropertyType.JOIN_SIMPLE);
+		userMeta.setGetter(CompleteBean.class.getDeclaredMethod("getUser"));
+		PropertyMeta<Void, String> labelMeta = new PropertyMeta<Void, String>();
+		labelMeta.setType(PropertyType.LAZY_SIMPLE);
+		labelMeta.setGetter(CompleteBean.class.getDeclaredMethod("getLabel"));
+
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("user", userMeta);
+		propertyMetas.put("label", labelMeta);
+
+		when(entityMeta.getGetterMetas()).thenReturn(getterMetas);
+		when(entityMeta.getSetterMetas()).thenReturn(setterMetas);
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+		when(entityMeta.getIdMeta()).thenReturn(idMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when(idMeta.getGetter()).thenReturn(CompleteBean.class.getDeclaredMethod("getId"));
+
+		JpaEntityInterceptor<Long, CompleteBean> interceptor = JpaEntityInterceptorBuilder.builder(
+				entityMeta, entity).build();
+
+		assertThat(interceptor.getLazyAlreadyLoaded()).containsOnly(userMeta.getGetter());
+
+		interceptor = JpaEntityInterceptorBuilder.builder(entityMeta, entity).loadedJoins(false)
+				.build();
+
+		assertThat(interceptor.getLazyAlreadyLoaded()).isEmpty();
+	}
+
+	@Test
+	public void should_mark_lazy_and_join_properties_as_loaded_for_transient_target()
+			throws Exception
+	{
+		CompleteBean entity = CompleteBeanTestBuilder.builder().id(1L).buid();
+
+		PropertyMeta<Void, UserBean> userMeta = new PropertyMeta<Void, UserBean>();
+		userMeta.setType(PropertyType.JOIN_SIMPLE);
+		userMeta.setGetter(CompleteBean.class.getDeclaredMethod("getUser"));
+		PropertyMeta<Void, String> labelMeta = new PropertyMeta<Void, String>();
+		labelMeta.setType(PropertyType.LAZY_SIMPLE);
+		labelMeta.setGetter(CompleteBean.class.getDeclaredMethod("getLabel"));
+		PropertyMeta<Void, String> nameMeta = new PropertyMeta<Void, String>();
+		nameMeta.setType(PropertyType.SIMPLE);
+		nameMeta.setGetter(CompleteBean.class.getDeclaredMethod("getName"));
+
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("user", userMeta);
+		propertyMetas.put("label", labelMeta);
+		propertyMetas.put("name", nameMeta);
+
+		when(entityMeta.getGetterMetas()).thenReturn(getterMetas);
+		when(entityMeta.getSetterMetas()).thenReturn(setterMetas);
+		when(entityMeta.getEntityDao()).thenReturn(dao);
+		when(entityMeta.getIdMeta()).thenReturn(idMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+		when(idMeta.getGetter()).thenReturn(CompleteBean.class.getDeclaredMethod("getId"));
+
+		JpaEntityInterceptor<Long, CompleteBean> interceptor = JpaEntityInterceptorBuilder.builder(
+				entityMeta, entity).loadedProperties(true).build();
+
+		assertThat(interceptor.getLazyAlreadyLoaded()).containsOnly(userMeta.getGetter(),
+				labelMeta.getGetter());
+	}
+
 	@SuppressWarnings(
 	{
 			"rawtypes",
@@ -33,6 +33,7 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -194,6 +195,43 @@ public class JpaEntityInterceptorTest
 		verify(lazyLoaded).add(nameGetter);
 	}
 
+	@Test
+	public void should_load_fetch_group_of_lazy_property() throws Throwable
+	{
+		Method labelGetter = CompleteBean.class.getDeclaredMethod("getLabel");
+		Method ageGetter = CompleteBean.class.getDeclaredMethod("getAge");
+		PropertyMeta labelMeta = mock(PropertyMeta.class);
+		PropertyMeta ageMeta = mock(PropertyMeta.class);
+
+		when(getterMetas.containsKey(nameGetter)).thenReturn(true);
+		when(getterMetas.get(nameGetter)).thenReturn(propertyMeta);
+		when(propertyMeta.type()).thenReturn(PropertyType.LAZY_SIMPLE);
+		when(propertyMeta.getFetchGroup()).thenReturn("details");
+		when(propertyMeta.getGetter()).thenReturn(nameGetter);
+		when(labelMeta.getGetter()).thenReturn(labelGetter);
+		when(ageMeta.getGetter()).thenReturn(ageGetter);
+		when(lazyLoaded.contains(nameGetter)).thenReturn(false);
+		when(lazyLoaded.contains(labelGetter)).thenReturn(true);
+		when(lazyLoaded.contains(ageGetter)).thenReturn(false);
+		when(proxy.invoke(entity, (Object[]) null)).thenReturn("name");
+
+		Map<String, List<PropertyMeta<?, ?>>> fetchGroups = new HashMap<String, List<PropertyMeta<?, ?>>>();
+		fetchGroups.put("details",
+				Arrays.<PropertyMeta<?, ?>> asList(propertyMeta, labelMeta, ageMeta));
+		when(entityMeta.getFetchGroups()).thenReturn(fetchGroups);
+
+		Object name = this.interceptor.intercept(entity, nameGetter, (Object[]) null, proxy);
+
+		assertThat(name).isEqualTo("name");
+
+		verify(loader).loadFetchGroupIntoObject(entity, key, entityMeta,
+				Arrays.<PropertyMeta<?, ?>> asList(propertyMeta, ageMeta));
+		verify(loader, never()).loadPropertyIntoObject(entity, key, dao, propertyMeta);
+		verify(lazyLoaded).add(nameGetter);
+		verify(lazyLoaded).add(ageGetter);
+		verify(lazyLoaded, never()).add(labelGetter);
+	}
+
 	@Test
 	public void should_return_already_loaded_lazy_property() throws Throwable
 	{
@@ -450,6 +488,79 @@ public class JpaEntityInterceptorTest
 		assertThat(((JoinExternalWideMapWrapper) name).getInterceptor()).isSameAs(interceptor);
 	}
 
+	@Test
+	public void should_record_columns_of_loaded_multi_value_properties() throws Exception
+	{
+		CompleteBean bean = CompleteBeanTestBuilder.builder().id(1L).addFriends("foo", "bar")
+				.addFollowers("George").addPreference(1, "FR").buid();
+		PropertyMeta friendsMeta = mockMultiValueMeta(PropertyType.LIST, "Friends", List.class);
+		PropertyMeta followersMeta = mockMultiValueMeta(PropertyType.SET, "Followers", Set.class);
+		PropertyMeta preferencesMeta = mockMultiValueMeta(PropertyType.LAZY_MAP, "Preferences",
+				Map.class);
+		Map<String, PropertyMeta<?, ?>> propertyMetas = new HashMap<String, PropertyMeta<?, ?>>();
+		propertyMetas.put("friends", friendsMeta);
+		propertyMetas.put("followers", followersMeta);
+		propertyMetas.put("preferences", preferencesMeta);
+		when(entityMeta.getPropertyMetas()).thenReturn(propertyMetas);
+
+		JpaEntityInterceptor<Long, CompleteBean> loadedInterceptor = JpaEntityInterceptorBuilder
+				.builder(entityMeta, bean).loadedColumns(true).build();
+
+		Map<Method, Set<Integer>> storedColumns = loadedInterceptor.getStoredColumns();
+		assertThat(storedColumns).hasSize(2);
+		assertThat(storedColumns.get(friendsMeta.getSetter())).containsOnly(0, 1);
+		assertThat(storedColumns.get(followersMeta.getSetter())).containsOnly("George".hashCode());
+	}
+
+	@Test
+	public void should_not_record_columns_of_identity_hash_code_elements() throws Exception
+	{
+		CompleteBean bean = new CompleteBean();
+		bean.setFollowers(new HashSet(Arrays.asList(new Object())));
+		PropertyMeta followersMeta = mockMultiValueMeta(PropertyType.SET, "Followers", Set.class);
+
+		JpaEntityInterceptor<Long, CompleteBean> loadedInterceptor = JpaEntityInterceptorBuilder
+				.builder(entityMeta, bean).build();
+		loadedInterceptor.getStoredColumns().put(followersMeta.getSetter(), new HashSet<Integer>());
+
+		loadedInterceptor.recordStoredColumns(followersMeta);
+
+		assertThat(loadedInterceptor.getStoredColumns()).isEmpty();
+	}
+
+	@Test
+	public void should_record_columns_of_lazy_loaded_map() throws Throwable
+	{
+		Method preferencesGetter = CompleteBean.class.getDeclaredMethod("getPreferences");
+		PropertyMeta preferencesMeta = mockMultiValueMeta(PropertyType.LAZY_MAP, "Preferences",
+				Map.class);
+		Map<Integer, String> preferences = new HashMap<Integer, String>();
+		preferences.put(2, "Paris");
+
+		when(getterMetas.containsKey(preferencesGetter)).thenReturn(true);
+		when(proxy.invoke(entity, (Object[]) null)).thenReturn(preferences);
+		when(getterMetas.get(preferencesGetter)).thenReturn(preferencesMeta);
+		when(lazyLoaded.contains(preferencesGetter)).thenReturn(false);
+
+		this.interceptor.intercept(entity, preferencesGetter, (Object[]) null, proxy);
+
+		verify(loader).loadPropertyIntoObject(entity, key, dao, preferencesMeta);
+		assertThat(interceptor.getStoredColumns().get(preferencesMeta.getSetter())).containsOnly(
+				Integer.valueOf(2).hashCode());
+	}
+
+	private PropertyMeta mockMultiValueMeta(PropertyType type, String property, Class<?> valueType)
+			throws Exception
+	{
+		PropertyMeta multiValueMeta = mock(PropertyMeta.class);
+		when(multiValueMeta.type()).thenReturn(type);
+		when(multiValueMeta.getGetter()).thenReturn(
+				CompleteBean.class.getDeclaredMethod("get" + property));
+		when(multiValueMeta.getSetter()).thenReturn(
+				CompleteBean.class.getDeclaredMethod("set" + property, valueType));
+		return multiValueMeta;
+	}
+
 	@Test(expected = UnsupportedOperationException.class)
 	public void should_exception_when_call_setter_on_wide_map() throws Throwable
 	{
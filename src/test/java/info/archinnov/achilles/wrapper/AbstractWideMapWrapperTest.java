@@ -86,7 +86,7 @@ public class AbstractWideMapWrapperTest
 
 			@Override
 			public KeyValueIterator<Long, String> iterator(Long start, Long end, int count, 
-					BoundingMode bounds, OrderingMode ordering)
+					BoundingMode bounds, OrderingMode ordering, int prefetchDepth)
 			{
 				VariableCapture capture = new VariableCapture();
 				capture.start = start;
@@ -5,6 +5,7 @@ import static info.archinnov.achilles.entity.type.WideMap.OrderingMode.DESCENDIN
 import static me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality.EQUAL;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import info.archinnov.achilles.composite.factory.CompositeKeyFactory;
@@ -130,12 +131,65 @@ public class CounterWideMapWrapperTest
 	{
 		when(dynamicCompositeKeyFactory.createForInsert(propertyMeta, key)).thenReturn(comp);
 		when(interceptor.isBatchMode()).thenReturn(true);
-		when((Mutator<Composite>) interceptor.getMutator()).thenReturn(counterMutator);
+		when(propertyMeta.getPropertyName()).thenReturn("counters");
+		when((Mutator<Composite>) interceptor.getMutatorForProperty("counters")).thenReturn(
+				counterMutator);
 		wrapper.insert(key, 150L);
 
 		verify(counterDao).insertCounter(keyComp, comp, 150L, counterMutator);
 	}
 
+	@Test
+	public void should_increment() throws Exception
+	{
+		when(dynamicCompositeKeyFactory.createForInsert(propertyMeta, key)).thenReturn(comp);
+		when(interceptor.isBatchMode()).thenReturn(false);
+
+		wrapper.increment(key, 5L);
+
+		verify(counterDao).incrementCounter(keyComp, comp, 5L);
+		verify(counterDao, never()).getCounterValue(keyComp, comp);
+	}
+
+	@Test
+	public void should_increment_by_one() throws Exception
+	{
+		when(dynamicCompositeKeyFactory.createForInsert(propertyMeta, key)).thenReturn(comp);
+		when(interceptor.isBatchMode()).thenReturn(false);
+
+		wrapper.increment(key);
+
+		verify(counterDao).incrementCounter(keyComp, comp, 1L);
+	}
+
+	@Test
+	public void should_decrement() throws Exception
+	{
+		when(dynamicCompositeKeyFactory.createForInsert(propertyMeta, key)).thenReturn(comp);
+		when(interceptor.isBatchMode()).thenReturn(false);
+
+		wrapper.decrement(key, 3L);
+		wrapper.decrement(key);
+
+		verify(counterDao).incrementCounter(keyComp, comp, -3L);
+		verify(counterDao).incrementCounter(keyComp, comp, -1L);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void should_increment_batch() throws Exception
+	{
+		when(dynamicCompositeKeyFactory.createForInsert(propertyMeta, key)).thenReturn(comp);
+		when(interceptor.isBatchMode()).thenReturn(true);
+		when(propertyMeta.getPropertyName()).thenReturn("counters");
+		when((Mutator<Composite>) interceptor.getMutatorForProperty("counters")).thenReturn(
+				counterMutator);
+
+		wrapper.increment(key, 7L);
+
+		verify(counterDao).incrementCounterBatch(keyComp, comp, 7L, counterMutator);
+	}
+
 	@Test
 	public void should_exception_when_insert_with_ttl() throws Exception
 	{
@@ -241,7 +295,7 @@ public class CounterWideMapWrapperTest
 				end
 		});
 
-		when(counterDao.getCounterColumnsIterator(keyComp, start, end, DESCENDING.isReverse(), 100))
+		when(counterDao.getCounterColumnsIterator(keyComp, start, end, DESCENDING.isReverse(), 100, 0))
 				.thenReturn(achillesCounterSliceIterator);
 		CounterKeyValueIterator<Integer> expected = mock(CounterKeyValueIterator.class);
 
@@ -247,7 +247,7 @@ public class ExternalWideMapWrapperTest
 						startComp,
 						endComp
 				});
-		when(dao.getColumnsIterator(id, startComp, endComp, false, 10)).thenReturn(iterator);
+		when(dao.getColumnsIterator(id, startComp, endComp, false, 10, 0)).thenReturn(iterator);
 		when(iteratorFactory.createKeyValueIteratorForComposite(iterator, wideMapMeta)).thenReturn(
 				keyValues);
 		KeyValueIterator<Integer, String> expected = wrapper.iterator(12, 15, 10, BoundingMode.INCLUSIVE_START_BOUND_ONLY, OrderingMode.ASCENDING);
@@ -369,7 +369,7 @@ public class JoinExternalWideMapWrapperTest
 		});
 
 		AchillesJoinSliceIterator<Long, Composite, Long, Integer, UserBean> iterator = mock(AchillesJoinSliceIterator.class);
-		when(dao.getJoinColumnsIterator(propertyMeta, id, startComp, endComp, OrderingMode.DESCENDING.isReverse(), count))
+		when(dao.getJoinColumnsIterator(propertyMeta, id, startComp, endComp, OrderingMode.DESCENDING.isReverse(), count, 0))
 				.thenReturn(iterator);
 
 		KeyValueIterator<Integer, UserBean> keyValueIterator = mock(KeyValueIterator.class);
@@ -1,14 +1,17 @@
 package info.archinnov.achilles.wrapper;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.data.MapEntry.entry;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -154,6 +157,81 @@ public class ListWrapperTest
 		assertThat(listWrapper.getTarget()).isSameAs(target);
 	}
 
+	@Test
+	public void should_record_appended_and_set_elements_in_delta() throws Exception
+	{
+		Map<Method, PropertyMeta<?, ?>> realDirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		ListWrapper<String> listWrapper = prepareTrackedListWrapper(realDirtyMap, deltaMap);
+
+		listWrapper.add("c");
+		listWrapper.addAll(Arrays.asList("d", "e"));
+		listWrapper.set(0, "z");
+		listWrapper.remove(4);
+
+		assertThat(realDirtyMap).containsKey(setter);
+		PropertyDelta delta = deltaMap.get(setter);
+		assertThat(delta.getInsertions()).hasSize(3).contains(entry(2, "c"), entry(3, "d"),
+				entry(0, "z"));
+		assertThat(delta.getDeletions()).containsExactly(4);
+	}
+
+	@Test
+	public void should_rewrite_list_when_inserting_before_last_element() throws Exception
+	{
+		Map<Method, PropertyMeta<?, ?>> realDirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		ListWrapper<String> listWrapper = prepareTrackedListWrapper(realDirtyMap, deltaMap);
+
+		listWrapper.add("c");
+		listWrapper.add(0, "x");
+		listWrapper.add("d");
+
+		assertThat(realDirtyMap).containsKey(setter);
+		assertThat(deltaMap).isEmpty();
+	}
+
+	@Test
+	public void should_rewrite_list_when_changed_through_sub_list() throws Exception
+	{
+		Map<Method, PropertyMeta<?, ?>> realDirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		ListWrapper<String> listWrapper = prepareTrackedListWrapper(realDirtyMap, deltaMap);
+
+		listWrapper.set(0, "z");
+		listWrapper.subList(1, 2).set(0, "y");
+
+		assertThat(realDirtyMap).containsKey(setter);
+		assertThat(deltaMap).isEmpty();
+	}
+
+	@Test
+	public void should_record_element_set_through_list_iterator() throws Exception
+	{
+		Map<Method, PropertyMeta<?, ?>> realDirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		ListWrapper<String> listWrapper = prepareTrackedListWrapper(realDirtyMap, deltaMap);
+
+		ListIterator<String> iterator = listWrapper.listIterator();
+		iterator.next();
+		iterator.next();
+		iterator.set("y");
+
+		assertThat(deltaMap.get(setter).getInsertions()).hasSize(1).contains(entry(1, "y"));
+	}
+
+	private ListWrapper<String> prepareTrackedListWrapper(
+			Map<Method, PropertyMeta<?, ?>> realDirtyMap, Map<Method, PropertyDelta> deltaMap)
+	{
+		when(propertyMeta.type()).thenReturn(PropertyType.LIST);
+		ListWrapper<String> listWrapper = prepareListWrapper(new ArrayList<String>(Arrays
+				.asList("a", "b")));
+		listWrapper.setDirtyMap(realDirtyMap);
+		listWrapper.setDeltaMap(deltaMap);
+		listWrapper.setHelper(new EntityHelper());
+		return listWrapper;
+	}
+
 	private ListWrapper<String> prepareListWrapper(List<String> target)
 	{
 		ListWrapper<String> listWrapper = new ListWrapper<String>(target);
@@ -8,6 +8,7 @@ import static org.mockito.Mockito.when;
 import info.archinnov.achilles.entity.EntityHelper;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
+import info.archinnov.achilles.entity.type.KeyValue;
 
 import java.lang.reflect.Method;
 import java.util.AbstractMap;
@@ -232,6 +233,52 @@ public class MapWrapperTest
 		verify(dirtyMap, never()).put(setter, propertyMeta);
 	}
 
+	@Test
+	public void should_record_put_and_removed_entries_in_delta() throws Exception
+	{
+		Map<Method, PropertyMeta<?, ?>> realDirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		MapWrapper<Integer, String> wrapper = prepareMapWrapper(prepareMap());
+		wrapper.setDirtyMap(realDirtyMap);
+		wrapper.setDeltaMap(deltaMap);
+		wrapper.setHelper(new EntityHelper());
+
+		wrapper.put(4, "new");
+		wrapper.remove(1);
+		wrapper.keySet().remove(2);
+		for (Entry<Integer, String> entry : wrapper.entrySet())
+		{
+			if (entry.getKey() == 3)
+			{
+				entry.setValue("75015");
+			}
+		}
+
+		assertThat(realDirtyMap).containsKey(setter);
+		PropertyDelta delta = deltaMap.get(setter);
+		assertThat(delta.getInsertions()).hasSize(2);
+		assertThat(((KeyValue<?, ?>) delta.getInsertions().get(4)).getValue()).isEqualTo("new");
+		assertThat(((KeyValue<?, ?>) delta.getInsertions().get(3)).getValue()).isEqualTo("75015");
+		assertThat(delta.getDeletions()).containsOnly(1, 2);
+	}
+
+	@Test
+	public void should_rewrite_map_when_changed_through_values() throws Exception
+	{
+		Map<Method, PropertyMeta<?, ?>> realDirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+		MapWrapper<Integer, String> wrapper = prepareMapWrapper(prepareMap());
+		wrapper.setDirtyMap(realDirtyMap);
+		wrapper.setDeltaMap(deltaMap);
+		wrapper.setHelper(new EntityHelper());
+
+		wrapper.put(4, "new");
+		wrapper.values().remove("FR");
+
+		assertThat(realDirtyMap).containsKey(setter);
+		assertThat(deltaMap).isEmpty();
+	}
+
 	private Map<Integer, String> prepareMap()
 	{
 		Map<Integer, String> map = new HashMap<Integer, String>();
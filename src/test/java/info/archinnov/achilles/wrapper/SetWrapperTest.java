@@ -1,12 +1,23 @@
 package info.archinnov.achilles.wrapper;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.data.MapEntry.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import info.archinnov.achilles.entity.EntityHelper;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
 
-import info.archinnov.achilles.wrapper.SetWrapper;
-
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
+import mapping.entity.CompleteBean;
+
 import org.junit.Test;
 
 
@@ -28,4 +39,88 @@ public class SetWrapperTest
 		assertThat(setWrapper.getTarget()).isSameAs(target);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_record_added_and_removed_elements_in_delta() throws Exception
+	{
+		Method setter = CompleteBean.class.getDeclaredMethod("setFollowers", Set.class);
+		PropertyMeta<Void, String> propertyMeta = mock(PropertyMeta.class);
+		when(propertyMeta.type()).thenReturn(PropertyType.SET);
+		Map<Method, PropertyMeta<?, ?>> dirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+
+		SetWrapper<String> setWrapper = new SetWrapper<String>(new HashSet<String>(
+				Arrays.asList("a", "b", "c")));
+		setWrapper.setDirtyMap(dirtyMap);
+		setWrapper.setDeltaMap(deltaMap);
+		setWrapper.setSetter(setter);
+		setWrapper.setPropertyMeta(propertyMeta);
+		setWrapper.setHelper(new EntityHelper());
+
+		setWrapper.add("d");
+		setWrapper.addAll(Arrays.asList("e"));
+		setWrapper.remove("a");
+		Iterator<String> iterator = setWrapper.iterator();
+		while (iterator.hasNext())
+		{
+			if ("b".equals(iterator.next()))
+			{
+				iterator.remove();
+			}
+		}
+
+		assertThat(dirtyMap).containsKey(setter);
+		PropertyDelta delta = deltaMap.get(setter);
+		assertThat(delta.getInsertions()).hasSize(2).contains(entry("d".hashCode(), "d"),
+				entry("e".hashCode(), "e"));
+		assertThat(delta.getDeletions()).containsOnly("a".hashCode(), "b".hashCode());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_rewrite_set_when_cleared() throws Exception
+	{
+		Method setter = CompleteBean.class.getDeclaredMethod("setFollowers", Set.class);
+		PropertyMeta<Void, String> propertyMeta = mock(PropertyMeta.class);
+		when(propertyMeta.type()).thenReturn(PropertyType.SET);
+		Map<Method, PropertyMeta<?, ?>> dirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+
+		SetWrapper<String> setWrapper = new SetWrapper<String>(new HashSet<String>(
+				Arrays.asList("a")));
+		setWrapper.setDirtyMap(dirtyMap);
+		setWrapper.setDeltaMap(deltaMap);
+		setWrapper.setSetter(setter);
+		setWrapper.setPropertyMeta(propertyMeta);
+		setWrapper.setHelper(new EntityHelper());
+
+		setWrapper.add("b");
+		setWrapper.clear();
+
+		assertThat(dirtyMap).containsKey(setter);
+		assertThat(deltaMap).isEmpty();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_rewrite_set_of_elements_with_identity_hash_code() throws Exception
+	{
+		Method setter = CompleteBean.class.getDeclaredMethod("setFollowers", Set.class);
+		PropertyMeta<Void, Object> propertyMeta = mock(PropertyMeta.class);
+		when(propertyMeta.type()).thenReturn(PropertyType.SET);
+		Map<Method, PropertyMeta<?, ?>> dirtyMap = new HashMap<Method, PropertyMeta<?, ?>>();
+		Map<Method, PropertyDelta> deltaMap = new HashMap<Method, PropertyDelta>();
+
+		SetWrapper<Object> setWrapper = new SetWrapper<Object>(new HashSet<Object>());
+		setWrapper.setDirtyMap(dirtyMap);
+		setWrapper.setDeltaMap(deltaMap);
+		setWrapper.setSetter(setter);
+		setWrapper.setPropertyMeta(propertyMeta);
+		setWrapper.setHelper(new EntityHelper());
+
+		setWrapper.add(new Object());
+
+		assertThat(dirtyMap).containsKey(setter);
+		assertThat(deltaMap).isEmpty();
+	}
 }
@@ -341,7 +341,7 @@ public class WideMapWrapperTest
 				});
 
 		when(propertyMeta.type()).thenReturn(WIDE_MAP);
-		when(dao.getColumnsIterator(id, start, end, false, 10)).thenReturn(achillesSliceIterator);
+		when(dao.getColumnsIterator(id, start, end, false, 10, 0)).thenReturn(achillesSliceIterator);
 
 		KeyValueIteratorForDynamicComposite<Integer, String> iterator = mock(KeyValueIteratorForDynamicComposite.class);
 
@@ -372,7 +372,7 @@ public class WideMapWrapperTest
 				});
 
 		when(propertyMeta.isJoin()).thenReturn(true);
-		when(dao.getJoinColumnsIterator(propertyMeta, id, start, end, false, 10)).thenReturn(
+		when(dao.getJoinColumnsIterator(propertyMeta, id, start, end, false, 10, 0)).thenReturn(
 				achillesJoinSliceIterator);
 
 		KeyValueIteratorForDynamicComposite<Integer, String> iterator = mock(KeyValueIteratorForDynamicComposite.class);
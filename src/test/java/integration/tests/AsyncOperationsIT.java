@@ -0,0 +1,83 @@
+package integration.tests;
+
+import static info.archinnov.achilles.columnFamily.ColumnFamilyHelper.normalizerAndValidateColumnFamilyName;
+import static info.archinnov.achilles.common.CassandraDaoTest.getDynamicCompositeDao;
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.common.CassandraDaoTest;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.entity.manager.ThriftEntityManager;
+import integration.tests.entity.CompleteBean;
+import integration.tests.entity.CompleteBeanTestBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * AsyncOperationsIT
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class AsyncOperationsIT {
+    private GenericDynamicCompositeDao<Long> dao = getDynamicCompositeDao(LONG_SRZ,
+            normalizerAndValidateColumnFamilyName(CompleteBean.class.getName()));
+
+    private ThriftEntityManager em = CassandraDaoTest.getEm();
+
+    @Test
+    public void should_persist_and_find_async() throws Exception {
+        List<CompleteBean> beans = new ArrayList<CompleteBean>();
+        List<Future<Void>> persistFutures = new ArrayList<Future<Void>>();
+        for (int i = 0; i < 10; i++) {
+            CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("name" + i)
+                    .age((long) i).buid();
+            beans.add(bean);
+            persistFutures.add(em.persistAsync(bean));
+        }
+        for (Future<Void> future : persistFutures) {
+            future.get();
+        }
+
+        List<Future<CompleteBean>> findFutures = new ArrayList<Future<CompleteBean>>();
+        for (CompleteBean bean : beans) {
+            findFutures.add(em.findAsync(CompleteBean.class, bean.getId()));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            CompleteBean found = findFutures.get(i).get();
+            assertThat(found.getId()).isEqualTo(beans.get(i).getId());
+            assertThat(found.getName()).isEqualTo("name" + i);
+            assertThat(found.getAge()).isEqualTo((long) i);
+        }
+    }
+
+    @Test
+    public void should_merge_async() throws Exception {
+        CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("DuyHai").buid();
+        bean = em.merge(bean);
+
+        bean.setName("another name");
+        em.mergeAsync(bean).get();
+
+        CompleteBean found = em.find(CompleteBean.class, bean.getId());
+        assertThat(found.getName()).isEqualTo("another name");
+    }
+
+    @Test
+    public void should_remove_async() throws Exception {
+        CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("DuyHai").buid();
+        bean = em.merge(bean);
+
+        em.removeAsync(bean).get();
+
+        assertThat(em.find(CompleteBean.class, bean.getId())).isNull();
+    }
+
+    @After
+    public void tearDown() {
+        dao.truncate();
+    }
+}
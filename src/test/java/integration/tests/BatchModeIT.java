@@ -6,6 +6,7 @@ import static info.archinnov.achilles.entity.metadata.PropertyType.JOIN_WIDE_MAP
 import static org.fest.assertions.api.Assertions.assertThat;
 import info.archinnov.achilles.common.CassandraDaoTest;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.dao.MutationBatchingPolicy;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.manager.ThriftEntityManager;
 import info.archinnov.achilles.serializer.SerializerUtils;
@@ -16,9 +17,12 @@ import integration.tests.entity.UserTestBuilder;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
 import me.prettyprint.hector.api.beans.DynamicComposite;
+import me.prettyprint.hector.api.mutation.Mutator;
 
 import org.apache.commons.lang.math.RandomUtils;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -124,6 +128,40 @@ public class BatchModeIT
 		return this.objectMapper.readValue(value, UUID.class);
 	}
 
+	@Test
+	public void should_split_large_batch_into_parallel_chunks() throws Exception
+	{
+		MutationBatchingPolicy policy = new MutationBatchingPolicy(10, 1000000, 3);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		userDao.setBatchingPolicy(policy);
+		userDao.setExecutor(executor);
+		try
+		{
+			Mutator<Long> mutator = userDao.buildMutator();
+			for (int i = 0; i < 50; i++)
+			{
+				DynamicComposite name = new DynamicComposite();
+				name.addComponent(0, "column", ComponentEquality.EQUAL);
+				name.addComponent(1, i, ComponentEquality.EQUAL);
+				userDao.insertColumnBatch(userId, name, "value" + i, mutator);
+			}
+			userDao.executeMutator(mutator);
+
+			List<Pair<DynamicComposite, String>> columns = userDao.findColumnsRange(userId, null,
+					null, false, 100);
+			assertThat(columns).hasSize(50);
+			assertThat(policy.getSplitBatchCount()).isEqualTo(1L);
+			assertThat(policy.getChunkCount()).isEqualTo(5L);
+		}
+		finally
+		{
+			userDao.setBatchingPolicy(null);
+			userDao.setExecutor(null);
+			executor.shutdown();
+			userDao.removeRow(userId);
+		}
+	}
+
 	@After
 	public void tearDown()
 	{
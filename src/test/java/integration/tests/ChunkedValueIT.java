@@ -0,0 +1,198 @@
+package integration.tests;
+
+import static info.archinnov.achilles.columnFamily.ColumnFamilyHelper.normalizerAndValidateColumnFamilyName;
+import static info.archinnov.achilles.common.CassandraDaoTest.getDynamicCompositeDao;
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.codec.ValueChunker;
+import info.archinnov.achilles.common.CassandraDaoTest;
+import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.entity.manager.ThriftEntityManager;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
+import integration.tests.entity.BeanWithChunkedValue;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.RandomUtils;
+import org.junit.Test;
+
+/**
+ * ChunkedValueIT
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ChunkedValueIT
+{
+	private GenericDynamicCompositeDao<Long> dao = getDynamicCompositeDao(LONG_SRZ,
+			normalizerAndValidateColumnFamilyName(BeanWithChunkedValue.class.getName()));
+
+	private ThriftEntityManager em = CassandraDaoTest.getEm();
+
+	private DynamicCompositeKeyFactory keyFactory = new DynamicCompositeKeyFactory();
+
+	private Long id = RandomUtils.nextLong();
+
+	private String text = StringUtils.repeat("0123456789", 25);
+
+	@Test
+	public void should_store_long_values_in_chunks() throws Exception
+	{
+		BeanWithChunkedValue bean = new BeanWithChunkedValue();
+		bean.setId(id);
+		bean.setDescription(text);
+		bean.setDocument(text);
+		bean.setName("name");
+
+		em.persist(bean);
+
+		String head = dao.getValue(id, name("description", PropertyType.SIMPLE));
+		assertThat(ValueChunker.parseChunkCount(head)).isEqualTo(3);
+		assertThat(dao.getValue(id, chunk("description", PropertyType.SIMPLE, head, 2)))
+				.isEqualTo(text.substring(200));
+		assertThat(
+				dao.getValue(id,
+						chunk("document", PropertyType.LAZY_SIMPLE, generation("document"), 0)))
+				.isEqualTo(text.substring(0, 100));
+
+		BeanWithChunkedValue found = em.find(BeanWithChunkedValue.class, id);
+
+		assertThat(found.getDescription()).isEqualTo(text);
+		assertThat(found.getDocument()).isEqualTo(text);
+		assertThat(found.getName()).isEqualTo("name");
+	}
+
+	@Test
+	public void should_store_short_values_whole() throws Exception
+	{
+		BeanWithChunkedValue bean = new BeanWithChunkedValue();
+		bean.setId(id);
+		bean.setDocument("short");
+
+		em.persist(bean);
+
+		String head = dao.getValue(id, name("document", PropertyType.LAZY_SIMPLE));
+		assertThat(ValueChunker.parseChunkCount(head)).isEqualTo(0);
+		assertThat(ValueChunker.parseWholeText(head)).isEqualTo("short");
+		assertThat(em.find(BeanWithChunkedValue.class, id).getDocument()).isEqualTo("short");
+	}
+
+	@Test
+	public void should_remove_previous_chunks_when_merging_value() throws Exception
+	{
+		BeanWithChunkedValue bean = new BeanWithChunkedValue();
+		bean.setId(id);
+		bean.setDescription(text);
+		bean.setDocument(text);
+		bean = em.merge(bean);
+		long previousDescription = generation("description");
+		long previousDocument = generation("document");
+
+		bean.setDescription("short");
+		bean.setDocument(text.substring(0, 150));
+		em.merge(bean);
+
+		assertThat(generation("document")).isGreaterThan(previousDocument);
+		assertThat(
+				dao.getValue(id, chunk("description", PropertyType.SIMPLE, previousDescription, 0)))
+				.isNull();
+		assertThat(
+				dao.getValue(id, chunk("document", PropertyType.LAZY_SIMPLE, previousDocument, 2)))
+				.isNull();
+		assertThat(
+				dao.getValue(id,
+						chunk("document", PropertyType.LAZY_SIMPLE, generation("document"), 1)))
+				.isEqualTo(text.substring(100, 150));
+
+		BeanWithChunkedValue found = em.find(BeanWithChunkedValue.class, id);
+		assertThat(found.getDescription()).isEqualTo("short");
+		assertThat(found.getDocument()).isEqualTo(text.substring(0, 150));
+	}
+
+	@Test
+	public void should_keep_previous_value_when_chunks_written_without_head() throws Exception
+	{
+		BeanWithChunkedValue bean = new BeanWithChunkedValue();
+		bean.setId(id);
+		bean.setDocument(text);
+		bean = em.merge(bean);
+
+		// Chunks of an interrupted write, whose head column was never written
+		DynamicComposite pendingChunk = chunk("document", PropertyType.LAZY_SIMPLE,
+				generation("document") + 1, 0);
+		dao.setValue(id, pendingChunk, "interrupted");
+
+		assertThat(em.find(BeanWithChunkedValue.class, id).getDocument()).isEqualTo(text);
+		assertThat(IOUtils.toString(em.openChunkedReader(bean, "document"))).isEqualTo(text);
+		assertThat(dao.getValue(id, pendingChunk)).isEqualTo("interrupted");
+	}
+
+	@Test
+	public void should_stream_chunked_value() throws Exception
+	{
+		BeanWithChunkedValue bean = new BeanWithChunkedValue();
+		bean.setId(id);
+		bean.setName("name");
+		bean = em.merge(bean);
+
+		em.writeChunked(bean, "document", new StringReader(text));
+
+		Reader reader = em.openChunkedReader(bean, "document");
+		assertThat(IOUtils.toString(reader)).isEqualTo(text);
+		reader.close();
+
+		assertThat(bean.getDocument()).isEqualTo(text);
+		assertThat(em.find(BeanWithChunkedValue.class, id).getDocument()).isEqualTo(text);
+	}
+
+	@Test
+	public void should_stream_value_stored_whole() throws Exception
+	{
+		BeanWithChunkedValue bean = new BeanWithChunkedValue();
+		bean.setId(id);
+		bean.setDescription("short");
+		bean = em.merge(bean);
+
+		assertThat(IOUtils.toString(em.openChunkedReader(bean, "description"))).isEqualTo(
+				"short");
+		assertThat(IOUtils.toString(em.openChunkedReader(bean, "document"))).isEmpty();
+	}
+
+	private DynamicComposite name(String propertyName, PropertyType type)
+	{
+		return keyFactory.createForBatchInsertSingleValue(meta(propertyName, type));
+	}
+
+	private DynamicComposite chunk(String propertyName, PropertyType type, String head, int index)
+	{
+		return chunk(propertyName, type, ValueChunker.parseGeneration(head), index);
+	}
+
+	private DynamicComposite chunk(String propertyName, PropertyType type, long generation,
+			int index)
+	{
+		return keyFactory.createForChunk(meta(propertyName, type), generation, index);
+	}
+
+	private long generation(String propertyName)
+	{
+		PropertyType type = propertyName.equals("document") ? PropertyType.LAZY_SIMPLE
+				: PropertyType.SIMPLE;
+		return ValueChunker.parseGeneration(dao.getValue(id, name(propertyName, type)));
+	}
+
+	private PropertyMeta<Void, String> meta(String propertyName, PropertyType type)
+	{
+		PropertyMeta<Void, String> propertyMeta = new PropertyMeta<Void, String>();
+		propertyMeta.setType(type);
+		propertyMeta.setPropertyName(propertyName);
+		return propertyMeta;
+	}
+}
@@ -0,0 +1,87 @@
+package integration.tests;
+
+import static info.archinnov.achilles.columnFamily.ColumnFamilyHelper.normalizerAndValidateColumnFamilyName;
+import static info.archinnov.achilles.common.CassandraDaoTest.getDynamicCompositeDao;
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.codec.ValueCompressor;
+import info.archinnov.achilles.common.CassandraDaoTest;
+import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.entity.manager.ThriftEntityManager;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
+import integration.tests.entity.BeanWithCompression;
+
+import java.util.Arrays;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.RandomUtils;
+import org.junit.Test;
+
+/**
+ * CompressionIT
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class CompressionIT
+{
+	private GenericDynamicCompositeDao<Long> dao = getDynamicCompositeDao(LONG_SRZ,
+			normalizerAndValidateColumnFamilyName(BeanWithCompression.class.getName()));
+
+	private ThriftEntityManager em = CassandraDaoTest.getEm();
+
+	private DynamicCompositeKeyFactory keyFactory = new DynamicCompositeKeyFactory();
+
+	private Long id = RandomUtils.nextLong();
+
+	private String description = StringUtils.repeat("Achilles description ", 50);
+
+	@Test
+	public void should_compress_large_values() throws Exception
+	{
+		BeanWithCompression bean = new BeanWithCompression();
+		bean.setId(id);
+		bean.setDescription(description);
+		bean.setComments(Arrays.asList(description, "short comment"));
+		bean.setLabel(description);
+
+		em.persist(bean);
+
+		String storedDescription = dao.getValue(id, name("description"));
+		assertThat(ValueCompressor.isCompressed(storedDescription)).isTrue();
+		assertThat(storedDescription.length()).isLessThan(description.length());
+		assertThat(dao.getValue(id, name("label"))).isEqualTo(description);
+
+		BeanWithCompression found = em.find(BeanWithCompression.class, id);
+
+		assertThat(found.getDescription()).isEqualTo(description);
+		assertThat(found.getComments()).containsExactly(description, "short comment");
+		assertThat(found.getLabel()).isEqualTo(description);
+	}
+
+	@Test
+	public void should_read_uncompressed_values() throws Exception
+	{
+		BeanWithCompression bean = new BeanWithCompression();
+		bean.setId(id);
+		em.persist(bean);
+
+		dao.setValue(id, name("description"), description);
+
+		BeanWithCompression found = em.find(BeanWithCompression.class, id);
+
+		assertThat(found.getDescription()).isEqualTo(description);
+	}
+
+	private DynamicComposite name(String propertyName)
+	{
+		PropertyMeta<Void, String> propertyMeta = new PropertyMeta<Void, String>();
+		propertyMeta.setType(PropertyType.SIMPLE);
+		propertyMeta.setPropertyName(propertyName);
+		return keyFactory.createForBatchInsertSingleValue(propertyMeta);
+	}
+}
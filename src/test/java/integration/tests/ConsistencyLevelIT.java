@@ -1,6 +1,5 @@
 package integration.tests;
 
-import static info.archinnov.achilles.common.CassandraDaoTest.getConsistencyPolicy;
 import static org.fest.assertions.api.Assertions.assertThat;
 import info.archinnov.achilles.common.CassandraDaoTest;
 import info.archinnov.achilles.entity.manager.ThriftEntityManager;
@@ -18,8 +17,6 @@ import integration.tests.entity.BeanWithWriteOneAndReadLocalQuorumConsistency;
 import java.util.List;
 
 import org.apache.commons.lang.math.RandomUtils;
-import org.junit.After;
-import org.junit.AfterClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -150,20 +147,4 @@ public class ConsistencyLevelIT
 
 		wideMap.findValues(1, 5, 10);
 	}
-
-	@After
-	public void cleanThreadLocals()
-	{
-		ThriftEntityManager.currentReadConsistencyLevel.remove();
-		ThriftEntityManager.currentWriteConsistencyLevel.remove();
-		getConsistencyPolicy().reinitDefaultConsistencyLevel();
-	}
-
-	@AfterClass
-	public static void cleanUp()
-	{
-		ThriftEntityManager.currentReadConsistencyLevel.remove();
-		ThriftEntityManager.currentWriteConsistencyLevel.remove();
-		getConsistencyPolicy().reinitDefaultConsistencyLevel();
-	}
 }
@@ -8,9 +8,13 @@ import static info.archinnov.achilles.entity.type.WideMap.OrderingMode.ASCENDING
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
 import static org.fest.assertions.api.Assertions.assertThat;
 import info.archinnov.achilles.common.CassandraDaoTest;
+import info.archinnov.achilles.dao.ConsistencyContext;
 import info.archinnov.achilles.dao.CounterDao;
+import info.archinnov.achilles.dao.CounterDeltaAggregator;
 import info.archinnov.achilles.entity.manager.ThriftEntityManager;
 import info.archinnov.achilles.entity.metadata.PropertyType;
+import info.archinnov.achilles.entity.type.ConsistencyLevel;
+import info.archinnov.achilles.entity.type.CounterWideMap;
 import info.archinnov.achilles.entity.type.KeyValue;
 import info.archinnov.achilles.entity.type.WideMap;
 import info.archinnov.achilles.entity.type.WideMap.BoundingMode;
@@ -18,6 +22,7 @@ import integration.tests.entity.CompleteBean;
 import integration.tests.entity.CompleteBeanTestBuilder;
 import integration.tests.entity.Tweet;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
@@ -112,6 +117,49 @@ public class CounterIT
 		assertThat(actual).isEqualTo(0);
 	}
 
+	@Test
+	public void should_remove_entities_and_counters_by_ids() throws Exception
+	{
+		CompleteBean bean1 = em.merge(CompleteBeanTestBuilder.builder().randomId().name("test1")
+				.version(10L).buid());
+		CompleteBean bean2 = em.merge(CompleteBeanTestBuilder.builder().randomId().name("test2")
+				.version(20L).buid());
+		bean2.getPopularTopics().insert("cassandra", 12L);
+
+		em.removeByIds(CompleteBean.class, Arrays.asList(bean1.getId(), bean2.getId()));
+
+		assertThat(em.find(CompleteBean.class, bean1.getId())).isNull();
+		assertThat(em.find(CompleteBean.class, bean2.getId())).isNull();
+
+		DynamicComposite comp = createCounterName(COUNTER, "version");
+		assertThat(counterDao.getCounterValue(
+				createCounterKey(CompleteBean.class, bean1.getId()), comp)).isEqualTo(0L);
+		assertThat(counterDao.getCounterValue(
+				createCounterKey(CompleteBean.class, bean2.getId()), comp)).isEqualTo(0L);
+
+		comp = createCounterName(WIDE_MAP_COUNTER, "popularTopics", "cassandra");
+		assertThat(counterDao.getCounterValue(
+				createCounterKey(CompleteBean.class, bean2.getId()), comp)).isEqualTo(0L);
+	}
+
+	@Test
+	public void should_remove_collection_of_entities_and_counters() throws Exception
+	{
+		CompleteBean bean1 = em.merge(CompleteBeanTestBuilder.builder().randomId().name("test1")
+				.version(10L).buid());
+		CompleteBean bean2 = em.merge(CompleteBeanTestBuilder.builder().randomId().name("test2")
+				.version(20L).buid());
+
+		em.remove(Arrays.asList(bean1, bean2));
+
+		assertThat(em.find(CompleteBean.class, bean1.getId())).isNull();
+		assertThat(em.find(CompleteBean.class, bean2.getId())).isNull();
+
+		DynamicComposite comp = createCounterName(COUNTER, "version");
+		assertThat(counterDao.getCounterValue(
+				createCounterKey(CompleteBean.class, bean2.getId()), comp)).isEqualTo(0L);
+	}
+
 	@Test
 	public void should_refresh_counter() throws Exception
 	{
@@ -371,6 +419,194 @@ public class CounterIT
 
 	}
 
+	@Test
+	public void should_increment_counter_property() throws Exception
+	{
+		bean = CompleteBeanTestBuilder.builder().randomId().name("test").buid();
+		bean.setVersion(10L);
+		bean = em.merge(bean);
+
+		em.increment(bean, "version", 5L);
+		em.decrement(bean, "version", 2L);
+
+		Composite keyComp = createCounterKey(CompleteBean.class, bean.getId());
+		DynamicComposite comp = createCounterName(COUNTER, "version");
+		assertThat(counterDao.getCounterValue(keyComp, comp)).isEqualTo(13L);
+		assertThat(bean.getVersion()).isEqualTo(13L);
+	}
+
+	@Test
+	public void should_increment_counter_widemap() throws Exception
+	{
+		bean = CompleteBeanTestBuilder.builder().randomId().name("test").buid();
+		bean = em.merge(bean);
+
+		CounterWideMap<String> popularTopics = (CounterWideMap<String>) bean.getPopularTopics();
+		popularTopics.increment("java");
+		popularTopics.increment("java", 10L);
+		popularTopics.decrement("java", 3L);
+
+		Composite keyComp = createCounterKey(CompleteBean.class, bean.getId());
+		DynamicComposite comp = createCounterName(WIDE_MAP_COUNTER, "popularTopics", "java");
+		assertThat(counterDao.getCounterValue(keyComp, comp)).isEqualTo(8L);
+	}
+
+	@Test
+	public void should_increment_counters_in_batch() throws Exception
+	{
+		bean = CompleteBeanTestBuilder.builder().randomId().name("test").buid();
+		bean = em.merge(bean);
+
+		Composite keyComp = createCounterKey(CompleteBean.class, bean.getId());
+		DynamicComposite versionComp = createCounterName(COUNTER, "version");
+		DynamicComposite javaComp = createCounterName(WIDE_MAP_COUNTER, "popularTopics", "java");
+
+		em.startBatch(bean);
+		em.increment(bean, "version", 4L);
+		((CounterWideMap<String>) bean.getPopularTopics()).increment("java", 7L);
+		bean.getPopularTopics().insert("scala", 3L);
+
+		assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(0L);
+		assertThat(counterDao.getCounterValue(keyComp, javaComp)).isEqualTo(0L);
+
+		em.endBatch(bean);
+
+		assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(4L);
+		assertThat(counterDao.getCounterValue(keyComp, javaComp)).isEqualTo(7L);
+		assertThat(
+				counterDao.getCounterValue(keyComp,
+						createCounterName(WIDE_MAP_COUNTER, "popularTopics", "scala")))
+				.isEqualTo(3L);
+	}
+
+	@Test
+	public void should_aggregate_counter_deltas_until_flush() throws Exception
+	{
+		bean = CompleteBeanTestBuilder.builder().randomId().name("test").buid();
+		bean = em.merge(bean);
+
+		Composite keyComp = createCounterKey(CompleteBean.class, bean.getId());
+		DynamicComposite versionComp = createCounterName(COUNTER, "version");
+		DynamicComposite javaComp = createCounterName(WIDE_MAP_COUNTER, "popularTopics", "java");
+
+		CounterDeltaAggregator aggregator = new CounterDeltaAggregator(counterDao, 1000, 60000);
+		counterDao.setDeltaAggregator(aggregator);
+		try
+		{
+			for (int i = 0; i < 100; i++)
+			{
+				counterDao.incrementCounter(keyComp, versionComp, 1L);
+				counterDao.incrementCounter(keyComp, javaComp, 2L);
+			}
+
+			assertThat(aggregator.getPendingDeltaCount()).isEqualTo(2);
+			assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(0L);
+			assertThat(counterDao.getCounterValue(keyComp, javaComp)).isEqualTo(0L);
+
+			aggregator.close();
+		}
+		finally
+		{
+			counterDao.setDeltaAggregator(null);
+		}
+
+		assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(100L);
+		assertThat(counterDao.getCounterValue(keyComp, javaComp)).isEqualTo(200L);
+		assertThat(aggregator.getFlushedDeltaCount()).isEqualTo(2L);
+	}
+
+	@Test
+	public void should_set_counter_with_pending_deltas() throws Exception
+	{
+		bean = CompleteBeanTestBuilder.builder().randomId().name("test").buid();
+		bean = em.merge(bean);
+
+		Composite keyComp = createCounterKey(CompleteBean.class, bean.getId());
+		DynamicComposite versionComp = createCounterName(COUNTER, "version");
+		counterDao.insertCounter(keyComp, versionComp, 10L);
+
+		CounterDeltaAggregator aggregator = new CounterDeltaAggregator(counterDao, 1000, 60000);
+		counterDao.setDeltaAggregator(aggregator);
+		try
+		{
+			counterDao.incrementCounter(keyComp, versionComp, 5L);
+			counterDao.insertCounter(keyComp, versionComp, 100L);
+
+			assertThat(aggregator.getPendingDeltaCount()).isEqualTo(0);
+
+			aggregator.close();
+		}
+		finally
+		{
+			counterDao.setDeltaAggregator(null);
+		}
+
+		assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(100L);
+	}
+
+	@Test
+	public void should_reset_counters_with_pending_deltas() throws Exception
+	{
+		bean = CompleteBeanTestBuilder.builder().randomId().name("test").buid();
+		bean = em.merge(bean);
+
+		Composite keyComp = createCounterKey(CompleteBean.class, bean.getId());
+		DynamicComposite versionComp = createCounterName(COUNTER, "version");
+		DynamicComposite javaComp = createCounterName(WIDE_MAP_COUNTER, "popularTopics", "java");
+		counterDao.insertCounter(keyComp, versionComp, 10L);
+		counterDao.insertCounter(keyComp, javaComp, 20L);
+
+		CounterDeltaAggregator aggregator = new CounterDeltaAggregator(counterDao, 1000, 60000);
+		counterDao.setDeltaAggregator(aggregator);
+		try
+		{
+			counterDao.incrementCounter(keyComp, versionComp, 5L);
+			counterDao.incrementCounter(keyComp, javaComp, 3L);
+			counterDao.removeCounter(keyComp, versionComp);
+			counterDao.removeCounterRow(keyComp);
+
+			aggregator.close();
+		}
+		finally
+		{
+			counterDao.setDeltaAggregator(null);
+		}
+
+		assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(0L);
+		assertThat(counterDao.getCounterValue(keyComp, javaComp)).isEqualTo(0L);
+	}
+
+	@Test
+	public void should_buffer_increment_with_write_level_of_counter_column_family()
+			throws Exception
+	{
+		bean = CompleteBeanTestBuilder.builder().randomId().name("test").buid();
+		bean = em.merge(bean);
+
+		Composite keyComp = createCounterKey(CompleteBean.class, bean.getId());
+		DynamicComposite versionComp = createCounterName(COUNTER, "version");
+
+		CounterDeltaAggregator aggregator = new CounterDeltaAggregator(counterDao, 1000, 60000);
+		counterDao.setDeltaAggregator(aggregator);
+		try
+		{
+			counterDao.incrementCounter(keyComp, versionComp, 2L,
+					ConsistencyContext.forWrite(ConsistencyLevel.ALL));
+
+			// The requested level does not force a write, the delta waits for the flush
+			assertThat(aggregator.getPendingDeltaCount()).isEqualTo(1);
+			assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(0L);
+
+			aggregator.close();
+		}
+		finally
+		{
+			counterDao.setDeltaAggregator(null);
+		}
+
+		assertThat(counterDao.getCounterValue(keyComp, versionComp)).isEqualTo(2L);
+	}
+
 	private Tweet createTweet()
 	{
 		Tweet tweet = new Tweet();
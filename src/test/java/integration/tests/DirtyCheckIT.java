@@ -675,6 +675,51 @@ public class DirtyCheckIT
 
 	}
 
+	@Test
+	public void should_dirty_check_several_changes_of_map_and_set() throws Exception
+	{
+		bean.getPreferences().put(4, "test");
+		bean.getPreferences().remove(1);
+		bean.getFollowers().add("Ringo");
+		bean.getFollowers().remove("George");
+
+		em.merge(bean);
+
+		CompleteBean found = em.find(CompleteBean.class, bean.getId());
+
+		assertThat(found.getPreferences()).hasSize(3);
+		assertThat(found.getPreferences().get(2)).isEqualTo("Paris");
+		assertThat(found.getPreferences().get(3)).isEqualTo("75014");
+		assertThat(found.getPreferences().get(4)).isEqualTo("test");
+		assertThat(found.getFollowers()).containsOnly("Paul", "Ringo");
+	}
+
+	@Test
+	public void should_rewrite_loaded_list_and_set_several_times() throws Exception
+	{
+		CompleteBean found = em.find(CompleteBean.class, bean.getId());
+		found.getFriends().add(0, "qux");
+		found.getFollowers().clear();
+
+		em.merge(found);
+
+		found.getFriends().remove(0);
+		found.getFollowers().add("Ringo");
+
+		em.merge(found);
+
+		List<Pair<DynamicComposite, String>> columns = dao.findColumnsRange(bean.getId(),
+				startCompForList(), endComptForList(), false, 20);
+
+		assertThat(columns).hasSize(2);
+		assertThat(columns.get(0).right).isEqualTo("foo");
+		assertThat(columns.get(1).right).isEqualTo("bar");
+
+		CompleteBean reloaded = em.find(CompleteBean.class, bean.getId());
+		assertThat(reloaded.getFriends()).containsExactly("foo", "bar");
+		assertThat(reloaded.getFollowers()).containsOnly("Ringo");
+	}
+
 	private DynamicComposite endComptForList()
 	{
 		DynamicComposite endComp = new DynamicComposite();
@@ -0,0 +1,82 @@
+package integration.tests;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.common.CassandraDaoTest;
+import info.archinnov.achilles.entity.EntityCache;
+import info.archinnov.achilles.entity.manager.ThriftEntityManager;
+import integration.tests.entity.CachedBean;
+
+import org.apache.commons.lang.math.RandomUtils;
+import org.junit.Test;
+
+/**
+ * EntityCacheIT
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class EntityCacheIT
+{
+	private ThriftEntityManager em = CassandraDaoTest.getEm();
+
+	private EntityCache entityCache = CassandraDaoTest.getEntityManagerFactory().getEntityCache();
+
+	private Long id = RandomUtils.nextLong();
+
+	@Test
+	public void should_find_cached_entity_without_reading_cassandra() throws Exception
+	{
+		em.persist(buildBean("name"));
+
+		long hitCount = entityCache.getHitCount();
+		long missCount = entityCache.getMissCount();
+
+		assertThat(em.find(CachedBean.class, id).getName()).isEqualTo("name");
+		assertThat(em.find(CachedBean.class, id).getName()).isEqualTo("name");
+
+		assertThat(entityCache.getMissCount()).isEqualTo(missCount + 1);
+		assertThat(entityCache.getHitCount()).isEqualTo(hitCount + 1);
+	}
+
+	@Test
+	public void should_invalidate_cached_entity_when_merged() throws Exception
+	{
+		em.persist(buildBean("name"));
+		CachedBean bean = em.find(CachedBean.class, id);
+
+		bean.setName("new_name");
+		em.merge(bean);
+
+		assertThat(em.find(CachedBean.class, id).getName()).isEqualTo("new_name");
+	}
+
+	@Test
+	public void should_invalidate_cached_entity_when_persisted_again() throws Exception
+	{
+		em.persist(buildBean("name"));
+		em.find(CachedBean.class, id);
+
+		em.persist(buildBean("other_name"));
+
+		assertThat(em.find(CachedBean.class, id).getName()).isEqualTo("other_name");
+	}
+
+	@Test
+	public void should_invalidate_cached_entity_when_removed() throws Exception
+	{
+		em.persist(buildBean("name"));
+		CachedBean bean = em.find(CachedBean.class, id);
+
+		em.remove(bean);
+
+		assertThat(em.find(CachedBean.class, id)).isNull();
+	}
+
+	private CachedBean buildBean(String name)
+	{
+		CachedBean bean = new CachedBean();
+		bean.setId(id);
+		bean.setName(name);
+		return bean;
+	}
+}
@@ -6,6 +6,7 @@ import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
 import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
 import static org.fest.assertions.api.Assertions.assertThat;
 import info.archinnov.achilles.common.CassandraDaoTest;
+import info.archinnov.achilles.dao.AbstractDao;
 import info.archinnov.achilles.dao.GenericCompositeDao;
 import info.archinnov.achilles.dao.Pair;
 import info.archinnov.achilles.entity.manager.ThriftEntityManager;
@@ -376,6 +377,50 @@ public class ExternalWideMapIT
 		assertThat(foundStrings).containsExactly("value1", "value5");
 	}
 
+	@Test
+	public void should_remove_values_range_by_batches() throws Exception
+	{
+		insert5Values();
+
+		int batchSize = AbstractDao.REMOVE_BATCH_SIZE;
+		AbstractDao.REMOVE_BATCH_SIZE = 2;
+		try
+		{
+			externalWideMap.remove(2, 5);
+		}
+		finally
+		{
+			AbstractDao.REMOVE_BATCH_SIZE = batchSize;
+		}
+
+		List<String> foundStrings = externalWideMapDao.findValuesRange(bean.getId(), null, null,
+				false, 5);
+
+		assertThat(foundStrings).containsExactly("value1");
+	}
+
+	@Test
+	public void should_remove_first_values_by_batches() throws Exception
+	{
+		insert5Values();
+
+		int batchSize = AbstractDao.REMOVE_BATCH_SIZE;
+		AbstractDao.REMOVE_BATCH_SIZE = 2;
+		try
+		{
+			externalWideMap.removeFirst(3);
+		}
+		finally
+		{
+			AbstractDao.REMOVE_BATCH_SIZE = batchSize;
+		}
+
+		List<String> foundStrings = externalWideMapDao.findValuesRange(bean.getId(), null, null,
+				false, 5);
+
+		assertThat(foundStrings).containsExactly("value4", "value5");
+	}
+
 	@Test
 	public void should_remove_values_range_exclusive_bounds() throws Exception
 	{
@@ -2,6 +2,7 @@ package integration.tests;
 
 import static info.archinnov.achilles.columnFamily.ColumnFamilyHelper.normalizerAndValidateColumnFamilyName;
 import static info.archinnov.achilles.common.CassandraDaoTest.getDynamicCompositeDao;
+import static info.archinnov.achilles.entity.manager.ArgumentExtractorForThriftEMF.PERSISTENCE_CONTEXT_PARAM;
 import static info.archinnov.achilles.entity.metadata.PropertyType.END_EAGER;
 import static info.archinnov.achilles.entity.metadata.PropertyType.LAZY_LIST;
 import static info.archinnov.achilles.entity.metadata.PropertyType.SERIAL_VERSION_UID;
@@ -11,8 +12,10 @@ import static info.archinnov.achilles.serializer.SerializerUtils.STRING_SRZ;
 import static org.fest.assertions.api.Assertions.assertThat;
 import info.archinnov.achilles.common.CassandraDaoTest;
 import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.AbstractDao;
 import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
 import info.archinnov.achilles.dao.Pair;
+import info.archinnov.achilles.dao.TokenRangeScanner.ScanProgressListener;
 import info.archinnov.achilles.entity.manager.ThriftEntityManager;
 import info.archinnov.achilles.entity.metadata.PropertyMeta;
 import info.archinnov.achilles.entity.metadata.PropertyType;
@@ -23,16 +26,22 @@ import integration.tests.entity.CompleteBeanTestBuilder;
 import integration.tests.entity.Tweet;
 import integration.tests.entity.TweetTestBuilder;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import me.prettyprint.hector.api.beans.AbstractComposite.ComponentEquality;
 import me.prettyprint.hector.api.beans.DynamicComposite;
 import net.sf.cglib.proxy.Factory;
+import org.apache.commons.lang.math.RandomUtils;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.After;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * JPAOperationsIT
  * 
@@ -171,6 +180,36 @@ public class JPAOperationsIT {
         assertThat(found).isInstanceOf(Factory.class);
     }
 
+    @Test
+    public void should_find_all() throws Exception {
+        CompleteBean bean1 = CompleteBeanTestBuilder.builder().randomId().name("John").buid();
+        CompleteBean bean2 = CompleteBeanTestBuilder.builder().randomId().name("Helen").buid();
+        CompleteBean bean3 = CompleteBeanTestBuilder.builder().randomId().name("Paul").buid();
+
+        em.persist(bean1);
+        em.persist(bean2);
+        em.persist(bean3);
+
+        List<CompleteBean> found = em.findAll(CompleteBean.class,
+                Arrays.asList(bean3.getId(), bean1.getId(), RandomUtils.nextLong(), bean2.getId()));
+
+        assertThat(found).hasSize(3);
+        assertThat(found.get(0)).isInstanceOf(Factory.class);
+        assertThat(found.get(0).getName()).isEqualTo("Paul");
+        assertThat(found.get(1).getName()).isEqualTo("John");
+        assertThat(found.get(2).getName()).isEqualTo("Helen");
+    }
+
+    @Test
+    public void should_check_entity_exists() throws Exception {
+        CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("John").buid();
+
+        em.persist(bean);
+
+        assertThat(em.exists(CompleteBean.class, bean.getId())).isTrue();
+        assertThat(em.exists(CompleteBean.class, RandomUtils.nextLong())).isFalse();
+    }
+
     @Test(expected = RuntimeException.class)
     public void should_exception_when_serialVersionUID_changes() throws Exception {
         CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("Jonathan").buid();
@@ -386,9 +425,70 @@ public class JPAOperationsIT {
 
     }
 
-    @Test(expected = UnsupportedOperationException.class)
-    public void should_exception_on_set_flush_mode() throws Exception {
-        em.setFlushMode(FlushModeType.COMMIT);
+    @Test
+    public void should_write_operations_on_flush_in_commit_flush_mode() throws Exception {
+        ThriftEntityManager commitEm = (ThriftEntityManager) CassandraDaoTest
+                .getEntityManagerFactory().createEntityManager();
+        commitEm.setFlushMode(FlushModeType.COMMIT);
+
+        CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("name").buid();
+        Tweet tweet = TweetTestBuilder.tweet().randomId().content("content").buid();
+        Tweet removedTweet = TweetTestBuilder.tweet().randomId().content("removed").buid();
+        em.persist(removedTweet);
+
+        commitEm.persist(bean);
+        CompleteBean proxy = commitEm.merge(bean);
+        proxy.setAge(35L);
+        commitEm.merge(proxy);
+        commitEm.persist(tweet);
+        commitEm.remove(em.find(Tweet.class, removedTweet.getId()));
+
+        assertThat(em.find(CompleteBean.class, bean.getId())).isNull();
+        assertThat(em.find(Tweet.class, tweet.getId())).isNull();
+        assertThat(em.find(Tweet.class, removedTweet.getId())).isNotNull();
+
+        commitEm.flush();
+
+        CompleteBean foundBean = em.find(CompleteBean.class, bean.getId());
+        assertThat(foundBean.getName()).isEqualTo("name");
+        assertThat(foundBean.getAge()).isEqualTo(35L);
+        assertThat(em.find(Tweet.class, tweet.getId()).getContent()).isEqualTo("content");
+        assertThat(em.find(Tweet.class, removedTweet.getId())).isNull();
+    }
+
+    @Test
+    public void should_keep_lazy_values_of_transient_entity_merged_in_commit_flush_mode()
+            throws Exception {
+        ThriftEntityManager commitEm = (ThriftEntityManager) CassandraDaoTest
+                .getEntityManagerFactory().createEntityManager();
+        commitEm.setFlushMode(FlushModeType.COMMIT);
+
+        CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("name")
+                .label("label").addFriends("foo", "bar").buid();
+
+        CompleteBean proxy = commitEm.merge(bean);
+
+        assertThat(proxy.getLabel()).isEqualTo("label");
+        assertThat(proxy.getFriends()).containsExactly("foo", "bar");
+
+        commitEm.flush();
+
+        CompleteBean foundBean = em.find(CompleteBean.class, bean.getId());
+        assertThat(foundBean.getLabel()).isEqualTo("label");
+        assertThat(foundBean.getFriends()).containsExactly("foo", "bar");
+    }
+
+    @Test
+    public void should_flush_pending_operations_when_back_to_auto_flush_mode() throws Exception {
+        ThriftEntityManager commitEm = (ThriftEntityManager) CassandraDaoTest
+                .getEntityManagerFactory().createEntityManager();
+        commitEm.setFlushMode(FlushModeType.COMMIT);
+        CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("name").buid();
+        commitEm.persist(bean);
+
+        commitEm.setFlushMode(FlushModeType.AUTO);
+
+        assertThat(em.find(CompleteBean.class, bean.getId())).isNotNull();
     }
 
     @Test
@@ -475,9 +575,68 @@ public class JPAOperationsIT {
         assertThat(bean.getAge()).isNull();
     }
 
-    @Test(expected = UnsupportedOperationException.class)
-    public void should_exception_when_contains() throws Exception {
-        em.contains("sdf");
+    @Test
+    public void should_contain_only_managed_entity() throws Exception {
+        CompleteBean entity = CompleteBeanTestBuilder.builder().randomId().name("name").buid();
+
+        assertThat(em.contains(entity)).isFalse();
+
+        entity = em.merge(entity);
+
+        assertThat(em.contains(entity)).isTrue();
+    }
+
+    @Test
+    public void should_find_same_instance_from_persistence_context() throws Exception {
+        ThriftEntityManager contextEm = (ThriftEntityManager) CassandraDaoTest
+                .getEntityManagerFactory().createEntityManager(
+                        ImmutableMap.of(PERSISTENCE_CONTEXT_PARAM, true));
+        CompleteBean entity = CompleteBeanTestBuilder.builder().randomId().name("name").buid();
+        em.persist(entity);
+
+        CompleteBean found = contextEm.find(CompleteBean.class, entity.getId());
+
+        assertThat(contextEm.find(CompleteBean.class, entity.getId())).isSameAs(found);
+        assertThat(contextEm.contains(found)).isTrue();
+        assertThat(em.find(CompleteBean.class, entity.getId())).isNotSameAs(found);
+
+        contextEm.clear();
+
+        assertThat(contextEm.contains(found)).isFalse();
+        assertThat(contextEm.find(CompleteBean.class, entity.getId())).isNotSameAs(found);
+
+        contextEm.remove(contextEm.find(CompleteBean.class, entity.getId()));
+
+        assertThat(contextEm.find(CompleteBean.class, entity.getId())).isNull();
+    }
+
+    @Test
+    public void should_load_lazy_properties_of_persisted_entity_with_persistence_context()
+            throws Exception {
+        ThriftEntityManager contextEm = (ThriftEntityManager) CassandraDaoTest
+                .getEntityManagerFactory().createEntityManager(
+                        ImmutableMap.of(PERSISTENCE_CONTEXT_PARAM, true));
+        contextEm.setFlushMode(FlushModeType.COMMIT);
+        CompleteBean entity = CompleteBeanTestBuilder.builder().randomId().name("name")
+                .label("label").buid();
+        contextEm.persist(entity);
+
+        // The transient entity is not managed, find() only sees it once written
+        assertThat(contextEm.find(CompleteBean.class, entity.getId())).isNull();
+
+        contextEm.flush();
+
+        CompleteBean found = contextEm.find(CompleteBean.class, entity.getId());
+
+        assertThat(found).isNotSameAs(entity);
+        assertThat(found.getLabel()).isEqualTo("label");
+
+        found.setLabel("new_label");
+        contextEm.merge(found);
+        contextEm.flush();
+
+        assertThat(contextEm.find(CompleteBean.class, entity.getId())).isSameAs(found);
+        assertThat(em.find(CompleteBean.class, entity.getId()).getLabel()).isEqualTo("new_label");
     }
 
     @Test(expected = UnsupportedOperationException.class)
@@ -526,6 +685,39 @@ public class JPAOperationsIT {
         return this.objectMapper.readValue(value, KeyValue.class);
     }
 
+    @Test
+    public void should_truncate_by_token_ranges() throws Exception {
+        List<CompleteBean> beans = new ArrayList<CompleteBean>();
+        for (int i = 0; i < 30; i++) {
+            CompleteBean bean = CompleteBeanTestBuilder.builder().randomId().name("name" + i)
+                    .buid();
+            em.persist(bean);
+            beans.add(bean);
+        }
+
+        final AtomicInteger completedRanges = new AtomicInteger();
+        int batchSize = AbstractDao.REMOVE_BATCH_SIZE;
+        AbstractDao.REMOVE_BATCH_SIZE = 4;
+        long removed;
+        try {
+            removed = dao.truncate(3, new ScanProgressListener() {
+                @Override
+                public void onProgress(int completed, int totalRanges, long scannedKeys) {
+                    assertThat(completed).isLessThanOrEqualTo(totalRanges);
+                    completedRanges.set(Math.max(completedRanges.get(), completed));
+                }
+            });
+        } finally {
+            AbstractDao.REMOVE_BATCH_SIZE = batchSize;
+        }
+
+        assertThat(removed).isGreaterThanOrEqualTo(30L);
+        assertThat(completedRanges.get()).isGreaterThanOrEqualTo(3);
+        for (CompleteBean bean : beans) {
+            assertThat(em.find(CompleteBean.class, bean.getId())).isNull();
+        }
+    }
+
     @After
     public void tearDown() {
         dao.truncate();
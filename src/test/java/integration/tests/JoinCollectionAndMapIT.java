@@ -185,6 +185,25 @@ public class JoinCollectionAndMapIT
 		em.persist(bean);
 	}
 
+	@Test
+	public void should_exception_when_one_of_join_users_does_not_exist() throws Exception
+	{
+		em.persist(friend1);
+
+		Set<User> friends = new HashSet<User>();
+		friends.add(friend1);
+		friends.add(friend2);
+
+		bean.setFriends(friends);
+
+		expectedEx.expect(AchillesException.class);
+		expectedEx
+				.expectMessage("The entity '"
+						+ User.class.getCanonicalName()
+						+ "' with id '2' cannot be found. Maybe you should persist it first or enable CascadeType.PERSIST/CascadeType.ALL");
+		em.persist(bean);
+	}
+
 	@Test
 	public void should_merge_join_collection_and_map() throws Exception
 	{
@@ -247,6 +266,36 @@ public class JoinCollectionAndMapIT
 		assertThat(em.find(Tweet.class, tweet1.getId()).getContent()).isEqualTo("updated_content");
 	}
 
+	@Test
+	public void should_cascade_merge_several_join_entities_at_once() throws Exception
+	{
+		em.persist(tweet3);
+		em.persist(tweet4);
+		Tweet managedTweet3 = em.find(Tweet.class, tweet3.getId());
+		Tweet managedTweet4 = em.find(Tweet.class, tweet4.getId());
+		managedTweet3.setContent("updated_tweet3");
+		managedTweet4.setContent("updated_tweet4");
+
+		bean = em.merge(bean);
+
+		Map<Integer, Tweet> timeline = new HashMap<Integer, Tweet>();
+		timeline.put(3, managedTweet3);
+		timeline.put(4, managedTweet4);
+		timeline.put(5, tweet5);
+		bean.setTimeline(timeline);
+
+		em.merge(bean);
+
+		assertThat(em.find(Tweet.class, tweet3.getId()).getContent()).isEqualTo("updated_tweet3");
+		assertThat(em.find(Tweet.class, tweet4.getId()).getContent()).isEqualTo("updated_tweet4");
+		assertThat(em.find(Tweet.class, tweet5.getId()).getContent()).isEqualTo("tweet5");
+
+		Map<Integer, Tweet> foundTimeline = em.find(BeanWithJoinCollectionAndMap.class, beanId)
+				.getTimeline();
+		assertThat(foundTimeline).hasSize(3);
+		assertThat(foundTimeline.get(3).getContent()).isEqualTo("updated_tweet3");
+	}
+
 	@Test
 	public void should_find_bean_after_persist() throws Exception
 	{
@@ -308,6 +357,38 @@ public class JoinCollectionAndMapIT
 		assertThat(foundTimeline.get(5).getContent()).isEqualTo(tweet5.getContent());
 	}
 
+	@Test
+	public void should_find_all_with_join_entities_down_to_depth() throws Exception
+	{
+		em.persist(friend1);
+		tweet1.setCreator(friend1);
+		tweet2.setCreator(friend1);
+
+		bean.setTweets(Arrays.asList(tweet1, tweet2));
+		em.persist(bean);
+
+		BeanWithJoinCollectionAndMap otherBean = new BeanWithJoinCollectionAndMap();
+		otherBean.setId(RandomUtils.nextLong());
+		otherBean.setTweets(Arrays.asList(tweet2));
+		em.persist(otherBean);
+
+		List<BeanWithJoinCollectionAndMap> beans = em.findAll(BeanWithJoinCollectionAndMap.class,
+				Arrays.asList(beanId, otherBean.getId()), 2);
+
+		BeanWithJoinCollectionAndMap target = em.unproxy(beans.get(0));
+		BeanWithJoinCollectionAndMap otherTarget = em.unproxy(beans.get(1));
+
+		assertThat(target.getTweets()).hasSize(2);
+		assertThat(target.getTweets().get(0).getCreator().getFirstname()).isEqualTo("friend1");
+		assertThat(target.getTweets().get(1)).isSameAs(otherTarget.getTweets().get(0));
+		assertThat(target.getTweets().get(1).getCreator()).isSameAs(
+				target.getTweets().get(0).getCreator());
+
+		Tweet foundTweet = beans.get(0).getTweets().get(0);
+		assertThat(foundTweet).isInstanceOf(Factory.class);
+		assertThat(foundTweet.getCreator().getFirstname()).isEqualTo("friend1");
+	}
+
 	@Test
 	public void should_refresh_join_entity() throws Exception
 	{
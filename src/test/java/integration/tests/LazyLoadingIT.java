@@ -4,13 +4,21 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import info.archinnov.achilles.common.CassandraDaoTest;
 import info.archinnov.achilles.entity.manager.ThriftEntityManager;
 import info.archinnov.achilles.proxy.interceptor.AchillesInterceptor;
+import info.archinnov.achilles.proxy.interceptor.JpaEntityInterceptor;
+import integration.tests.entity.BeanWithFetchGroup;
 import integration.tests.entity.CompleteBean;
 import integration.tests.entity.CompleteBeanTestBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
 import net.sf.cglib.proxy.Factory;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * LazyLoadingIT
  * 
@@ -52,6 +60,81 @@ public class LazyLoadingIT
 		assertThat(trueBean.getFriends()).containsExactly("foo", "bar");
 	}
 
+	@Test
+	public void should_load_whole_fetch_group_at_first_access() throws Exception
+	{
+		BeanWithFetchGroup groupBean = new BeanWithFetchGroup();
+		groupBean.setId(bean.getId());
+		groupBean.setName("name");
+		groupBean.setDescription("description");
+		groupBean.setLabel("label");
+		groupBean.setTags(Arrays.asList("foo", "bar"));
+		groupBean.setNotes(ImmutableMap.of(1, "one", 2, "two"));
+
+		em.persist(groupBean);
+
+		groupBean = em.find(BeanWithFetchGroup.class, bean.getId());
+
+		Factory proxy = (Factory) groupBean;
+		JpaEntityInterceptor<?, ?> interceptor = (JpaEntityInterceptor<?, ?>) proxy
+				.getCallback(0);
+		BeanWithFetchGroup trueBean = (BeanWithFetchGroup) interceptor.getTarget();
+
+		assertThat(trueBean.getDescription()).isNull();
+		assertThat(trueBean.getTags()).isNull();
+		assertThat(trueBean.getNotes()).isNull();
+
+		// Trigger loading of the whole group
+		assertThat(groupBean.getTags()).containsExactly("foo", "bar");
+
+		assertThat(trueBean.getDescription()).isEqualTo("description");
+		assertThat(trueBean.getNotes()).containsKey(1).containsKey(2);
+		assertThat(trueBean.getLabel()).isNull();
+		assertThat(interceptor.getLazyAlreadyLoaded()).hasSize(3);
+
+		assertThat(groupBean.getLabel()).isEqualTo("label");
+	}
+
+	@Test
+	public void should_not_overwrite_set_field_when_loading_fetch_group() throws Exception
+	{
+		BeanWithFetchGroup groupBean = new BeanWithFetchGroup();
+		groupBean.setId(bean.getId());
+		groupBean.setDescription("description");
+		groupBean.setTags(Arrays.asList("foo", "bar"));
+
+		em.persist(groupBean);
+
+		groupBean = em.find(BeanWithFetchGroup.class, bean.getId());
+		groupBean.setDescription("newDescription");
+
+		assertThat(groupBean.getTags()).containsExactly("foo", "bar");
+		assertThat(groupBean.getDescription()).isEqualTo("newDescription");
+	}
+
+	@Test
+	public void should_initialize_lazy_fields_of_several_entities() throws Exception
+	{
+		CompleteBean otherBean = CompleteBeanTestBuilder.builder().randomId().name("John")
+				.addFriends("qux").label("otherLabel").buid();
+		em.persist(otherBean);
+
+		List<CompleteBean> beans = Arrays.asList(em.find(CompleteBean.class, bean.getId()),
+				em.find(CompleteBean.class, otherBean.getId()));
+
+		em.initialize(beans);
+
+		CompleteBean trueBean = (CompleteBean) ((AchillesInterceptor) ((Factory) beans.get(0))
+				.getCallback(0)).getTarget();
+		CompleteBean otherTrueBean = (CompleteBean) ((AchillesInterceptor) ((Factory) beans
+				.get(1)).getCallback(0)).getTarget();
+
+		assertThat(trueBean.getLabel()).isEqualTo("label");
+		assertThat(trueBean.getFriends()).containsExactly("foo", "bar");
+		assertThat(otherTrueBean.getLabel()).isEqualTo("otherLabel");
+		assertThat(otherTrueBean.getFriends()).containsExactly("qux");
+	}
+
 	@Test
 	public void should_set_lazy_field() throws Exception
 	{
@@ -0,0 +1,92 @@
+package integration.tests;
+
+import static info.archinnov.achilles.columnFamily.ColumnFamilyHelper.normalizerAndValidateColumnFamilyName;
+import static info.archinnov.achilles.common.CassandraDaoTest.getDynamicCompositeDao;
+import static info.archinnov.achilles.serializer.SerializerUtils.LONG_SRZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+import info.archinnov.achilles.common.CassandraDaoTest;
+import info.archinnov.achilles.composite.factory.DynamicCompositeKeyFactory;
+import info.archinnov.achilles.dao.GenericDynamicCompositeDao;
+import info.archinnov.achilles.entity.manager.ThriftEntityManager;
+import info.archinnov.achilles.entity.metadata.PropertyMeta;
+import info.archinnov.achilles.entity.metadata.PropertyType;
+import integration.tests.entity.BeanWithCodec;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+import me.prettyprint.hector.api.beans.DynamicComposite;
+
+import org.apache.commons.lang.math.RandomUtils;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+/**
+ * ValueCodecIT
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+public class ValueCodecIT
+{
+	private GenericDynamicCompositeDao<Long> dao = getDynamicCompositeDao(LONG_SRZ,
+			normalizerAndValidateColumnFamilyName(BeanWithCodec.class.getName()));
+
+	private ThriftEntityManager em = CassandraDaoTest.getEm();
+
+	private DynamicCompositeKeyFactory keyFactory = new DynamicCompositeKeyFactory();
+
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	private Long id = RandomUtils.nextLong();
+
+	private UUID token = new UUID(10L, 11L);
+
+	@Test
+	public void should_store_values_with_codecs() throws Exception
+	{
+		BeanWithCodec bean = new BeanWithCodec();
+		bean.setId(id);
+		bean.setToken(token);
+		bean.setDate(new Date(1000L));
+		bean.setJsonToken(token);
+
+		em.persist(bean);
+
+		assertThat(dao.getValue(id, name("token"))).isEqualTo(token.toString());
+		assertThat(dao.getValue(id, name("date"))).isEqualTo("1000");
+		assertThat(dao.getValue(id, name("jsonToken"))).isEqualTo(
+				objectMapper.writeValueAsString(token));
+
+		BeanWithCodec found = em.find(BeanWithCodec.class, id);
+
+		assertThat(found.getToken()).isEqualTo(token);
+		assertThat(found.getDate()).isEqualTo(new Date(1000L));
+		assertThat(found.getJsonToken()).isEqualTo(token);
+	}
+
+	@Test
+	public void should_read_values_stored_as_json() throws Exception
+	{
+		BeanWithCodec bean = new BeanWithCodec();
+		bean.setId(id);
+		bean.setTokens(Arrays.asList(token));
+		em.persist(bean);
+
+		dao.setValue(id, name("token"), objectMapper.writeValueAsString(token));
+
+		BeanWithCodec found = em.find(BeanWithCodec.class, id);
+
+		assertThat(found.getToken()).isEqualTo(token);
+		assertThat(found.getTokens()).containsExactly(token);
+	}
+
+	private DynamicComposite name(String propertyName)
+	{
+		PropertyMeta<Void, UUID> propertyMeta = new PropertyMeta<Void, UUID>();
+		propertyMeta.setType(PropertyType.SIMPLE);
+		propertyMeta.setPropertyName(propertyName);
+		return keyFactory.createForBatchInsertSingleValue(propertyMeta);
+	}
+}
@@ -13,6 +13,8 @@ import info.archinnov.achilles.entity.type.KeyValue;
 import info.archinnov.achilles.entity.type.WideMap;
 import info.archinnov.achilles.entity.type.WideMap.BoundingMode;
 import info.archinnov.achilles.entity.type.WideMap.OrderingMode;
+import info.archinnov.achilles.iterator.AchillesSliceIterator;
+import info.archinnov.achilles.iterator.AdaptivePagingPolicy;
 import integration.tests.entity.CompleteBean;
 import integration.tests.entity.CompleteBeanTestBuilder;
 
@@ -343,6 +345,61 @@ public class WideMapIT
 		assertThat(iter.hasNext()).isFalse();
 	}
 
+	@Test
+	public void should_get_iterator_with_prefetch() throws Exception
+	{
+		insert5Tweets();
+
+		Iterator<KeyValue<UUID, String>> iter = tweets.iterator(null, null, 2,
+				BoundingMode.INCLUSIVE_BOUNDS, OrderingMode.ASCENDING, 2);
+
+		assertThat(iter.next().getValue()).isEqualTo("tweet1");
+		assertThat(iter.next().getValue()).isEqualTo("tweet2");
+		assertThat(iter.next().getValue()).isEqualTo("tweet3");
+		assertThat(iter.next().getValue()).isEqualTo("tweet4");
+		assertThat(iter.next().getValue()).isEqualTo("tweet5");
+		assertThat(iter.hasNext()).isFalse();
+	}
+
+	@Test
+	public void should_get_reverse_iterator_with_prefetch() throws Exception
+	{
+		insert5Tweets();
+
+		Iterator<KeyValue<UUID, String>> iter = tweets.iterator(uuid4, uuid1, 2,
+				BoundingMode.INCLUSIVE_BOUNDS, OrderingMode.DESCENDING, 1);
+
+		assertThat(iter.next().getValue()).isEqualTo("tweet4");
+		assertThat(iter.next().getValue()).isEqualTo("tweet3");
+		assertThat(iter.next().getValue()).isEqualTo("tweet2");
+		assertThat(iter.next().getValue()).isEqualTo("tweet1");
+		assertThat(iter.hasNext()).isFalse();
+	}
+
+	@Test
+	public void should_iterate_with_adaptive_paging() throws Exception
+	{
+		insert5Tweets();
+		List<Pair<DynamicComposite, String>> allColumns = dao.findColumnsRange(bean.getId(),
+				null, null, false, 100);
+
+		AdaptivePagingPolicy pagingPolicy = new AdaptivePagingPolicy(1, 4, 1, 1000);
+		dao.setPagingPolicy(pagingPolicy);
+		AchillesSliceIterator<Long, DynamicComposite, String> iterator = dao.getColumnsIterator(
+				bean.getId(), null, null, false, 3);
+
+		int index = 0;
+		while (iterator.hasNext())
+		{
+			assertThat(iterator.next().getValue()).isEqualTo(allColumns.get(index).right);
+			index++;
+		}
+
+		assertThat(index).isEqualTo(allColumns.size());
+		assertThat(pagingPolicy.getShrinkCount()).isGreaterThan(0);
+		assertThat(pagingPolicy.getLastPageSize()).isEqualTo(1);
+	}
+
 	@Test
 	public void should_remove_value() throws Exception
 	{
@@ -0,0 +1,77 @@
+package integration.tests.entity;
+
+import info.archinnov.achilles.annotations.Chunked;
+import info.archinnov.achilles.annotations.Lazy;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * BeanWithChunkedValue
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Entity
+public class BeanWithChunkedValue implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private Long id;
+
+	@Column
+	@Chunked(size = 100)
+	private String description;
+
+	@Lazy
+	@Column
+	@Chunked(size = 100)
+	private String document;
+
+	@Column
+	private String name;
+
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public String getDescription()
+	{
+		return description;
+	}
+
+	public void setDescription(String description)
+	{
+		this.description = description;
+	}
+
+	public String getDocument()
+	{
+		return document;
+	}
+
+	public void setDocument(String document)
+	{
+		this.document = document;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+}
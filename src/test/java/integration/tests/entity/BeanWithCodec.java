@@ -0,0 +1,93 @@
+package integration.tests.entity;
+
+import info.archinnov.achilles.annotations.Codec;
+import info.archinnov.achilles.codec.JsonValueCodec;
+import info.archinnov.achilles.codec.NativeValueCodec;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * BeanWithCodec
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Entity
+@Codec(NativeValueCodec.class)
+public class BeanWithCodec implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private Long id;
+
+	@Column
+	private UUID token;
+
+	@Column
+	private Date date;
+
+	@Column
+	private List<UUID> tokens;
+
+	@Column
+	@Codec(JsonValueCodec.class)
+	private UUID jsonToken;
+
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public UUID getToken()
+	{
+		return token;
+	}
+
+	public void setToken(UUID token)
+	{
+		this.token = token;
+	}
+
+	public Date getDate()
+	{
+		return date;
+	}
+
+	public void setDate(Date date)
+	{
+		this.date = date;
+	}
+
+	public List<UUID> getTokens()
+	{
+		return tokens;
+	}
+
+	public void setTokens(List<UUID> tokens)
+	{
+		this.tokens = tokens;
+	}
+
+	public UUID getJsonToken()
+	{
+		return jsonToken;
+	}
+
+	public void setJsonToken(UUID jsonToken)
+	{
+		this.jsonToken = jsonToken;
+	}
+}
@@ -0,0 +1,76 @@
+package integration.tests.entity;
+
+import info.archinnov.achilles.annotations.Compressed;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * BeanWithCompression
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Entity
+public class BeanWithCompression implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private Long id;
+
+	@Column
+	@Compressed(threshold = 100)
+	private String description;
+
+	@Column
+	@Compressed(threshold = 100)
+	private List<String> comments;
+
+	@Column
+	private String label;
+
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public String getDescription()
+	{
+		return description;
+	}
+
+	public void setDescription(String description)
+	{
+		this.description = description;
+	}
+
+	public List<String> getComments()
+	{
+		return comments;
+	}
+
+	public void setComments(List<String> comments)
+	{
+		this.comments = comments;
+	}
+
+	public String getLabel()
+	{
+		return label;
+	}
+
+	public void setLabel(String label)
+	{
+		this.label = label;
+	}
+}
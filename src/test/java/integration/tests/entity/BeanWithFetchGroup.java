@@ -0,0 +1,105 @@
+package integration.tests.entity;
+
+import info.archinnov.achilles.annotations.Lazy;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * BeanWithFetchGroup
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Entity
+public class BeanWithFetchGroup implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private Long id;
+
+	@Column
+	private String name;
+
+	@Lazy(group = "details")
+	@Column
+	private String description;
+
+	@Lazy
+	@Column
+	private String label;
+
+	@Lazy(group = "details")
+	@Column
+	private List<String> tags;
+
+	@Lazy(group = "details")
+	@Column
+	private Map<Integer, String> notes;
+
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+
+	public String getDescription()
+	{
+		return description;
+	}
+
+	public void setDescription(String description)
+	{
+		this.description = description;
+	}
+
+	public String getLabel()
+	{
+		return label;
+	}
+
+	public void setLabel(String label)
+	{
+		this.label = label;
+	}
+
+	public List<String> getTags()
+	{
+		return tags;
+	}
+
+	public void setTags(List<String> tags)
+	{
+		this.tags = tags;
+	}
+
+	public Map<Integer, String> getNotes()
+	{
+		return notes;
+	}
+
+	public void setNotes(Map<Integer, String> notes)
+	{
+		this.notes = notes;
+	}
+}
@@ -0,0 +1,48 @@
+package integration.tests.entity;
+
+import info.archinnov.achilles.annotations.Cached;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * CachedBean
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Entity
+@Cached
+public class CachedBean implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private Long id;
+
+	@Column
+	private String name;
+
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+}
@@ -0,0 +1,65 @@
+package parser.entity;
+
+import info.archinnov.achilles.annotations.Codec;
+import info.archinnov.achilles.codec.JsonValueCodec;
+import info.archinnov.achilles.codec.NativeValueCodec;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * BeanWithCodec
+ * 
+ * @author DuyHai DOAN
+ * 
+ */
+@Entity
+@Codec(NativeValueCodec.class)
+public class BeanWithCodec implements Serializable
+{
+	public static final long serialVersionUID = 1L;
+
+	@Id
+	private Long id;
+
+	@Column
+	private UUID token;
+
+	@Column
+	@Codec(JsonValueCodec.class)
+	private UUID jsonToken;
+
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public UUID getToken()
+	{
+		return token;
+	}
+
+	public void setToken(UUID token)
+	{
+		this.token = token;
+	}
+
+	public UUID getJsonToken()
+	{
+		return jsonToken;
+	}
+
+	public void setJsonToken(UUID jsonToken)
+	{
+		this.jsonToken = jsonToken;
+	}
+}